@@ -0,0 +1,34 @@
+package com.authenticity.taranium_certs.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Data sintetis untuk benchmark; selalu dibuat dari seed tetap agar run dapat dibandingkan.
+ */
+final class BenchmarkData {
+
+	private BenchmarkData() {
+	}
+
+	static byte[] randomBytes(int size, Random random) {
+		byte[] data = new byte[size];
+		random.nextBytes(data);
+		return data;
+	}
+
+	static void deleteTree(Path root) throws IOException {
+		if (root == null || !Files.exists(root)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+}
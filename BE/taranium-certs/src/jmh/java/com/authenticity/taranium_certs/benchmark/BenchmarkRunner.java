@@ -0,0 +1,181 @@
+package com.authenticity.taranium_certs.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Menjalankan semua benchmark dengan pengaturan tetap lalu menulis dua file ke {@code benchmark.output}:
+ * hasil mentah JMH ({@code jmh-<waktu>.json}) dan laporan Markdown ({@code report-<waktu>.md}).
+ * Jika {@code benchmark.baseline} berisi path hasil JSON run sebelumnya, laporan memuat kolom perbandingan.
+ * Dijalankan lewat profil Maven {@code benchmark}.
+ */
+public final class BenchmarkRunner {
+
+	// Pengaturan sengaja tetap (tidak dari argumen) agar run yang berbeda dapat dibandingkan
+	private static final int FORKS = 1;
+	private static final int WARMUP_ITERATIONS = 3;
+	private static final int MEASUREMENT_ITERATIONS = 5;
+	private static final TimeValue ITERATION_TIME = TimeValue.seconds(2);
+	private static final String[] JVM_ARGS = {"-Xms1g", "-Xmx1g"};
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		String include = System.getProperty("benchmark.include", ".*");
+		String baseline = System.getProperty("benchmark.baseline", "");
+		Path outputDir = Paths.get(System.getProperty("benchmark.output", "target/benchmarks"));
+		Files.createDirectories(outputDir);
+
+		String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+		Path resultFile = outputDir.resolve("jmh-" + runId + ".json");
+		Options options = new OptionsBuilder()
+				.include(BenchmarkRunner.class.getPackageName() + ".*" + include)
+				.forks(FORKS)
+				.warmupIterations(WARMUP_ITERATIONS)
+				.warmupTime(ITERATION_TIME)
+				.measurementIterations(MEASUREMENT_ITERATIONS)
+				.measurementTime(ITERATION_TIME)
+				.jvmArgs(JVM_ARGS)
+				.resultFormat(ResultFormatType.JSON)
+				.result(resultFile.toString())
+				.build();
+		new Runner(options).run();
+
+		Map<String, JsonNode> current = readResults(resultFile);
+		Map<String, JsonNode> previous = baseline.isBlank() ? Map.of() : readResults(Paths.get(baseline));
+		Path reportFile = outputDir.resolve("report-" + runId + ".md");
+		Files.writeString(reportFile, renderReport(runId, resultFile, baseline, current, previous));
+		System.out.println("Laporan benchmark: " + reportFile.toAbsolutePath());
+	}
+
+	/**
+	 * Membaca hasil JSON JMH, dikunci dengan nama benchmark dan parameternya (urut nama parameter).
+	 */
+	static Map<String, JsonNode> readResults(Path file) throws IOException {
+		Map<String, JsonNode> results = new TreeMap<>();
+		for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+			results.put(key(result), result);
+		}
+		return results;
+	}
+
+	static String renderReport(String runId, Path resultFile, String baseline,
+							   Map<String, JsonNode> current, Map<String, JsonNode> previous) {
+		StringBuilder report = new StringBuilder();
+		report.append("# Laporan benchmark ").append(runId).append("\n\n");
+		report.append("- JDK: ").append(System.getProperty("java.vm.name")).append(' ')
+				.append(System.getProperty("java.version")).append('\n');
+		report.append("- OS: ").append(System.getProperty("os.name")).append(' ')
+				.append(System.getProperty("os.version")).append(" (").append(System.getProperty("os.arch")).append(")\n");
+		report.append("- CPU: ").append(Runtime.getRuntime().availableProcessors()).append(" core\n");
+		report.append("- JMH: ").append(FORKS).append(" fork, ").append(WARMUP_ITERATIONS).append(" x ")
+				.append(ITERATION_TIME).append(" warmup, ").append(MEASUREMENT_ITERATIONS).append(" x ")
+				.append(ITERATION_TIME).append(" pengukuran, JVM ").append(String.join(" ", JVM_ARGS)).append('\n');
+		report.append("- Hasil mentah: ").append(resultFile.getFileName()).append('\n');
+		if (!baseline.isBlank()) {
+			report.append("- Baseline: ").append(baseline).append('\n');
+		}
+		report.append('\n');
+
+		boolean compare = !previous.isEmpty();
+		report.append("| Benchmark | Parameter | Skor | Error (99.9%) | Satuan | MB/s |");
+		report.append(compare ? " Baseline | Perubahan |\n" : "\n");
+		report.append("|---|---|---:|---:|---|---:|");
+		report.append(compare ? "---:|---:|\n" : "\n");
+
+		for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+			JsonNode result = entry.getValue();
+			JsonNode metric = result.get("primaryMetric");
+			double score = metric.get("score").asDouble();
+			String unit = metric.get("scoreUnit").asText();
+			report.append("| ").append(shortName(result.get("benchmark").asText()))
+					.append(" | ").append(formatParams(result))
+					.append(" | ").append(format(score))
+					.append(" | ").append(format(metric.get("scoreError").asDouble()))
+					.append(" | ").append(unit)
+					.append(" | ").append(throughput(result, score, unit))
+					.append(" |");
+			if (compare) {
+				JsonNode old = previous.get(entry.getKey());
+				if (old == null) {
+					report.append(" - | baru |");
+				} else {
+					double oldScore = old.get("primaryMetric").get("score").asDouble();
+					report.append(' ').append(format(oldScore)).append(" | ")
+							.append(String.format(Locale.ROOT, "%+.1f%%", (score - oldScore) / oldScore * 100)).append(" |");
+				}
+			}
+			report.append('\n');
+		}
+		if (compare) {
+			report.append("\nPerubahan positif pada satuan waktu/op berarti lebih lambat dari baseline.\n");
+		}
+		return report.toString();
+	}
+
+	private static String key(JsonNode result) {
+		return result.get("benchmark").asText() + formatParams(result);
+	}
+
+	private static String formatParams(JsonNode result) {
+		JsonNode params = result.get("params");
+		if (params == null) {
+			return "";
+		}
+		Map<String, String> sorted = new TreeMap<>();
+		for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+			Map.Entry<String, JsonNode> param = it.next();
+			sorted.put(param.getKey(), param.getValue().asText());
+		}
+		StringBuilder text = new StringBuilder();
+		sorted.forEach((name, value) -> text.append(text.isEmpty() ? "" : ", ").append(name).append('=').append(value));
+		return text.toString();
+	}
+
+	/**
+	 * Throughput MB/s untuk benchmark yang memiliki parameter fileSize dan skor dalam waktu per operasi.
+	 */
+	private static String throughput(JsonNode result, double score, String unit) {
+		JsonNode params = result.get("params");
+		if (params == null || params.get("fileSize") == null || score <= 0) {
+			return "-";
+		}
+		double secondsPerOp = switch (unit) {
+			case "ns/op" -> score / 1e9;
+			case "us/op" -> score / 1e6;
+			case "ms/op" -> score / 1e3;
+			case "s/op" -> score;
+			default -> -1;
+		};
+		if (secondsPerOp <= 0) {
+			return "-";
+		}
+		return format(params.get("fileSize").asLong() / secondsPerOp / (1024 * 1024));
+	}
+
+	private static String shortName(String benchmark) {
+		String prefix = BenchmarkRunner.class.getPackageName() + ".";
+		return benchmark.startsWith(prefix) ? benchmark.substring(prefix.length()) : benchmark;
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+}
@@ -0,0 +1,54 @@
+package com.authenticity.taranium_certs.benchmark;
+
+import com.authenticity.taranium_certs.config.StorageProperties;
+import com.authenticity.taranium_certs.service.FileStorageService;
+import com.authenticity.taranium_certs.service.HashService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Penyimpanan file (mode path). Daftar folder dilayani dari katalog di database dan diukur lewat
+ * {@link FolderCatalogBenchmark}; mode content-addressed membutuhkan repository JPA sehingga diukur lewat {@link RegistrationBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileStorageBenchmark {
+
+	private static final String USER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+
+	@State(Scope.Benchmark)
+	public static class StoreState {
+
+		@Param({"4096", "1048576"})
+		public int fileSize;
+
+		Path uploadDir;
+		FileStorageService fileStorageService;
+		MockMultipartFile upload;
+
+		@Setup(Level.Trial)
+		public void setUp() throws IOException {
+			uploadDir = Files.createTempDirectory("storage-bench");
+			fileStorageService = new FileStorageService(uploadDir.toString(), new HashService(), new StorageProperties(), null);
+			upload = new MockMultipartFile("file", "ijazah.pdf", "application/pdf",
+					BenchmarkData.randomBytes(fileSize, new Random(42)));
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			BenchmarkData.deleteTree(uploadDir);
+		}
+	}
+
+	@Benchmark
+	public String storeFile(StoreState state) {
+		// Nama file tetap: setiap iterasi menggantikan file sebelumnya secara atomik
+		return state.fileStorageService.storeFile(state.upload, USER, "Benchmark");
+	}
+}
@@ -0,0 +1,63 @@
+package com.authenticity.taranium_certs.benchmark;
+
+import com.authenticity.taranium_certs.TaraniumCertsApplication;
+import com.authenticity.taranium_certs.service.FolderCatalogService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daftar folder institusi dari katalog folder di database (jalur yang dilayani {@code GET /api/folders}),
+ * pada konteks aplikasi lengkap dengan H2 in-memory. Katalog diisi lewat {@link FolderCatalogService#recordUploads}
+ * seperti saat pendaftaran, folderCount folder masing-masing berisi 10 sertifikat.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FolderCatalogBenchmark {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+
+	@Param({"100", "1000"})
+	public int folderCount;
+
+	private Path uploadDir;
+	private ConfigurableApplicationContext context;
+	private FolderCatalogService folderCatalogService;
+
+	@Setup(Level.Trial)
+	public void startApplication() throws IOException {
+		uploadDir = Files.createTempDirectory("catalog-bench");
+		context = new SpringApplicationBuilder(TaraniumCertsApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:catalogbench",
+				"--spring.jpa.show-sql=false",
+				"--logging.level.root=WARN",
+				"--app.upload-dir=" + uploadDir,
+				"--app.reconcile.enabled=false",
+				"--app.scrub.enabled=false");
+		folderCatalogService = context.getBean(FolderCatalogService.class);
+		LocalDateTime uploadedAt = LocalDateTime.now();
+		for (int i = 0; i < folderCount; i++) {
+			folderCatalogService.recordUploads(ISSUER, String.format("Angkatan-%04d", i), 10, 10 * 256, uploadedAt);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() throws IOException {
+		context.close();
+		BenchmarkData.deleteTree(uploadDir);
+	}
+
+	@Benchmark
+	public List<String> getFolderNames() {
+		return folderCatalogService.getFolderNames(ISSUER);
+	}
+}
@@ -0,0 +1,49 @@
+package com.authenticity.taranium_certs.benchmark;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.service.HashService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing SHA-256 file di disk (page cache hangat) untuk beberapa ukuran file dan ukuran buffer baca.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class HashServiceBenchmark {
+
+	@Param({"4096", "1048576", "16777216"})
+	public int fileSize;
+
+	@Param({"8192", "65536", "1048576"})
+	public int bufferSize;
+
+	private final HashService hashService = new HashService();
+	private Path file;
+
+	@Setup(Level.Trial)
+	public void createFile() throws IOException {
+		file = Files.createTempFile("hash-bench", ".bin");
+		Files.write(file, BenchmarkData.randomBytes(fileSize, new Random(42)));
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteFile() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public DocumentHash hashStream() throws IOException, NoSuchAlgorithmException {
+		try (InputStream inputStream = Files.newInputStream(file)) {
+			return hashService.calculateSha256Hash(inputStream, bufferSize);
+		}
+	}
+}
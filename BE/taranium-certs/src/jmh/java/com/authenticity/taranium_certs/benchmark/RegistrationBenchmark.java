@@ -0,0 +1,99 @@
+package com.authenticity.taranium_certs.benchmark;
+
+import com.authenticity.taranium_certs.TaraniumCertsApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+
+/**
+ * End-to-end {@code POST /api/register} dan {@code POST /api/verify} melalui MockMvc pada konteks aplikasi lengkap
+ * (H2 in-memory, direktori upload sementara). Setiap pendaftaran memakai isi file yang berbeda agar hash-nya unik.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RegistrationBenchmark {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+
+	@Param({"65536", "1048576"})
+	public int fileSize;
+
+	@Param({"path", "content-addressed"})
+	public String storageMode;
+
+	private Path uploadDir;
+	private ConfigurableApplicationContext context;
+	private MockMvc mockMvc;
+	private byte[] content;
+	private long sequence;
+	private MockMultipartFile registeredFile;
+
+	@Setup(Level.Trial)
+	public void startApplication() throws Exception {
+		uploadDir = Files.createTempDirectory("registration-bench");
+		// Argumen command line agar menimpa application.yml (properties() hanya nilai default)
+		context = new SpringApplicationBuilder(TaraniumCertsApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:registrationbench",
+				"--spring.jpa.show-sql=false",
+				"--logging.level.root=WARN",
+				"--app.upload-dir=" + uploadDir,
+				"--app.storage.mode=" + storageMode,
+				"--app.reconcile.enabled=false",
+				"--app.scrub.enabled=false");
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+		content = BenchmarkData.randomBytes(fileSize, new Random(42));
+
+		registeredFile = new MockMultipartFile("file", "terdaftar.pdf", "application/pdf", content);
+		expectStatus(mockMvc.perform(multipart("/api/register").file(registeredFile)
+				.param("folderName", "Verifikasi").param("issuerAddress", ISSUER)).andReturn(), 201);
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() throws IOException {
+		context.close();
+		BenchmarkData.deleteTree(uploadDir);
+	}
+
+	@Benchmark
+	public MvcResult registerCertificate() throws Exception {
+		MockMultipartFile file = new MockMultipartFile("file", "ijazah.pdf", "application/pdf", uniqueContent());
+		return expectStatus(mockMvc.perform(multipart("/api/register").file(file)
+				.param("folderName", "Wisuda").param("issuerAddress", ISSUER)).andReturn(), 201);
+	}
+
+	@Benchmark
+	public MvcResult verifyCertificate() throws Exception {
+		return expectStatus(mockMvc.perform(multipart("/api/verify").file(registeredFile)).andReturn(), 200);
+	}
+
+	private byte[] uniqueContent() {
+		// 8 byte terakhir diganti nomor urut: isi dan hash berbeda tanpa membuat ulang seluruh array
+		byte[] unique = content.clone();
+		ByteBuffer.wrap(unique, unique.length - Long.BYTES, Long.BYTES).putLong(++sequence);
+		return unique;
+	}
+
+	private static MvcResult expectStatus(MvcResult result, int status) throws Exception {
+		if (result.getResponse().getStatus() != status) {
+			throw new IllegalStateException("Status " + result.getResponse().getStatus() + ": "
+					+ result.getResponse().getContentAsString());
+		}
+		return result;
+	}
+}
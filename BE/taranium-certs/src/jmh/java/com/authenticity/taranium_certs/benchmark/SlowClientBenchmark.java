@@ -0,0 +1,229 @@
+package com.authenticity.taranium_certs.benchmark;
+
+import com.authenticity.taranium_certs.TaraniumCertsApplication;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uji beban klien lambat: {@code clients} upload dikirim bersamaan lewat HTTP sungguhan, masing-masing meneteskan
+ * body {@code fileSize} byte per {@value #CHUNK_SIZE} byte setiap {@value #CHUNK_INTERVAL_MS} ms (seperti koneksi seluler).
+ * Membandingkan endpoint multipart ({@code /api/register}, {@code /api/verify}), yang memegang satu thread Tomcat per
+ * upload selama body diterima, dengan endpoint non-blocking {@code /api/stream/*}. Skor adalah waktu sampai semua
+ * upload selesai; counter {@code peakBusyThreads} adalah jumlah thread Tomcat tersibuk yang teramati selama itu
+ * (dijumlahkan per iterasi oleh JMH, bagi dengan jumlah iterasi).
+ * Jeda antar potongan sengaja panjang agar yang diukur adalah thread yang tertahan menunggu data, bukan CPU:
+ * pada mesin dengan sedikit core, klien dan server di JVM yang sama sudah cukup untuk menghabiskan CPU.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SlowClientBenchmark {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final String BOUNDARY = "slow-client-benchmark";
+	private static final int CHUNK_SIZE = 65536;
+	private static final long CHUNK_INTERVAL_MS = 250;
+
+	@Param({"multipart", "stream"})
+	public String api;
+
+	@Param({"register", "verify"})
+	public String operation;
+
+	@Param({"400"})
+	public int clients;
+
+	@Param({"1048576"})
+	public int fileSize;
+
+	private Path uploadDir;
+	private ConfigurableApplicationContext context;
+	private ThreadPoolExecutor tomcatExecutor;
+	private int port;
+	private HttpClient httpClient;
+	private ScheduledExecutorService ticker;
+	private byte[] content;
+	private final AtomicLong sequence = new AtomicLong();
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class ServerThreads {
+		public long peakBusyThreads;
+	}
+
+	@Setup(Level.Trial)
+	public void startApplication() throws Exception {
+		uploadDir = Files.createTempDirectory("slow-client-bench");
+		context = new SpringApplicationBuilder(TaraniumCertsApplication.class).run(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:slowclientbench",
+				"--spring.jpa.show-sql=false",
+				"--logging.level.root=WARN",
+				"--app.upload-dir=" + uploadDir,
+				"--app.admission.enabled=false",
+				"--app.reconcile.enabled=false",
+				"--app.scrub.enabled=false");
+		TomcatWebServer webServer = (TomcatWebServer) ((ServletWebServerApplicationContext) context).getWebServer();
+		tomcatExecutor = (ThreadPoolExecutor) webServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+		port = webServer.getPort();
+		httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		ticker = Executors.newSingleThreadScheduledExecutor();
+		content = BenchmarkData.randomBytes(fileSize, new Random(42));
+	}
+
+	@TearDown(Level.Trial)
+	public void stopApplication() throws IOException {
+		ticker.shutdownNow();
+		httpClient.close();
+		context.close();
+		BenchmarkData.deleteTree(uploadDir);
+	}
+
+	@Benchmark
+	public int slowClients(ServerThreads serverThreads) throws Exception {
+		AtomicInteger peak = new AtomicInteger();
+		ScheduledFuture<?> sampler = ticker.scheduleAtFixedRate(
+				() -> peak.accumulateAndGet(tomcatExecutor.getActiveCount(), Math::max), 0, 5, TimeUnit.MILLISECONDS);
+		try {
+			List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(clients);
+			for (int i = 0; i < clients; i++) {
+				responses.add(httpClient.sendAsync(newRequest(), HttpResponse.BodyHandlers.ofString()));
+			}
+			int expected = operation.equals("register") ? 201 : 200;
+			for (CompletableFuture<HttpResponse<String>> response : responses) {
+				HttpResponse<String> result = response.join();
+				if (result.statusCode() != expected) {
+					throw new IllegalStateException("Status " + result.statusCode() + ": " + result.body());
+				}
+			}
+		} finally {
+			sampler.cancel(false);
+		}
+		serverThreads.peakBusyThreads = peak.get();
+		return clients;
+	}
+
+	private HttpRequest newRequest() {
+		String query = operation.equals("register")
+				? "?originalFileName=ijazah.pdf&folderName=Wisuda&issuerAddress=" + ISSUER : "";
+		String path = (api.equals("stream") ? "/api/stream/" : "/api/") + operation;
+		// Pendaftaran memakai isi berbeda setiap kali agar tidak dijawab sebagai duplikat
+		byte[] file = operation.equals("register") ? uniqueContent() : content;
+		byte[] body = api.equals("stream") ? file : multipartBody(file);
+		String contentType = api.equals("stream") ? "application/octet-stream" : "multipart/form-data; boundary=" + BOUNDARY;
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path + query))
+				.header("Content-Type", contentType)
+				.POST(new DripPublisher(body))
+				.build();
+	}
+
+	private byte[] uniqueContent() {
+		byte[] unique = content.clone();
+		ByteBuffer.wrap(unique, unique.length - Long.BYTES, Long.BYTES).putLong(sequence.incrementAndGet());
+		return unique;
+	}
+
+	private static byte[] multipartBody(byte[] file) {
+		ByteArrayOutputStream body = new ByteArrayOutputStream(file.length + 256);
+		body.writeBytes(("--" + BOUNDARY + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"ijazah.pdf\"\r\n"
+				+ "Content-Type: application/pdf\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+		body.writeBytes(file);
+		body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+		return body.toByteArray();
+	}
+
+	/**
+	 * Body yang dikirim per potongan dengan jeda dari satu thread penjadwal, sehingga ribuan klien lambat
+	 * tidak membutuhkan ribuan thread di sisi klien.
+	 */
+	private final class DripPublisher implements HttpRequest.BodyPublisher {
+
+		private final byte[] body;
+
+		DripPublisher(byte[] body) {
+			this.body = body;
+		}
+
+		@Override
+		public long contentLength() {
+			return body.length;
+		}
+
+		@Override
+		public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				private int offset;
+				private long demand;
+				private boolean scheduled;
+				private boolean cancelled;
+
+				@Override
+				public synchronized void request(long n) {
+					demand += n;
+					scheduleNext();
+				}
+
+				@Override
+				public synchronized void cancel() {
+					cancelled = true;
+				}
+
+				private synchronized void scheduleNext() {
+					if (!scheduled && !cancelled && demand > 0 && offset < body.length) {
+						scheduled = true;
+						ticker.schedule(this::emit, CHUNK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+					}
+				}
+
+				private void emit() {
+					ByteBuffer chunk;
+					boolean last;
+					synchronized (this) {
+						scheduled = false;
+						if (cancelled) {
+							return;
+						}
+						int length = Math.min(CHUNK_SIZE, body.length - offset);
+						chunk = ByteBuffer.wrap(body, offset, length).slice();
+						offset += length;
+						demand--;
+						last = offset == body.length;
+					}
+					subscriber.onNext(chunk);
+					if (last) {
+						subscriber.onComplete();
+					} else {
+						scheduleNext();
+					}
+				}
+			});
+		}
+	}
+}
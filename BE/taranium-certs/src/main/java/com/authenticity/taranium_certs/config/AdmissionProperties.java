@@ -0,0 +1,39 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Properti pembatasan upload dan verifikasi (prefix {@code app.admission}): token bucket per issuerAddress
+ * untuk jumlah request dan byte per detik, serta batas global request register/verify yang berjalan bersamaan.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Request per detik per issuer; 0 = tanpa batas. */
+    private double requestsPerSecond = 10;
+
+    /** Jumlah request yang boleh datang sekaligus sebelum dibatasi ke requestsPerSecond. */
+    private int requestBurst = 50;
+
+    /** Byte upload per detik per issuer; 0 = tanpa batas. */
+    private DataSize bytesPerSecond = DataSize.ofMegabytes(50);
+
+    /** Byte yang boleh diunggah sekaligus sebelum dibatasi ke bytesPerSecond. */
+    private DataSize bytesBurst = DataSize.ofMegabytes(500);
+
+    /** Jumlah maksimum request register/verify yang diproses bersamaan oleh semua issuer; 0 = tanpa batas. */
+    private int maxConcurrent = 16;
+
+    /** Nilai header Retry-After saat batas global penuh. */
+    private Duration concurrencyRetryAfter = Duration.ofSeconds(1);
+
+    /** Interval pembersihan state issuer yang bucket-nya sudah penuh kembali (tidak aktif). */
+    private Duration sweepInterval = Duration.ofMinutes(1);
+}
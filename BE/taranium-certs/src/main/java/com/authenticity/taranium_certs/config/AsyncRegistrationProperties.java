@@ -0,0 +1,29 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properti pendaftaran sertifikat asinkron (prefix {@code app.async-register}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.async-register")
+public class AsyncRegistrationProperties {
+
+    /** Jumlah thread yang melakukan hashing, penyimpanan file, dan penyimpanan metadata. */
+    private int workers = 4;
+
+    /** Jumlah job yang boleh menunggu di antrean; jika penuh, upload baru ditolak dengan 503. */
+    private int queueCapacity = 100;
+
+    /** Lama job yang sudah selesai tetap dapat dilihat statusnya. */
+    private Duration jobRetention = Duration.ofHours(1);
+
+    /** Batas waktu koneksi Server-Sent Events untuk memantau satu job. */
+    private Duration sseTimeout = Duration.ofMinutes(5);
+
+    /** Nilai header Retry-After saat antrean penuh. */
+    private Duration retryAfter = Duration.ofSeconds(5);
+}
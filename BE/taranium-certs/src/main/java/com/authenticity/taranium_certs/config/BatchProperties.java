@@ -0,0 +1,24 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properti pendaftaran sertifikat secara batch (prefix {@code app.batch}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.batch")
+public class BatchProperties {
+
+    /** Jumlah thread untuk hashing dan penyimpanan file secara paralel. */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Jumlah maksimum file yang menunggu di antrean executor sebelum pemanggil ikut mengerjakan. */
+    private int queueCapacity = 256;
+
+    /** Jumlah maksimum file dalam satu permintaan batch. */
+    private int maxFiles = 1000;
+
+    /** Jumlah baris metadata per transaksi/JDBC batch; sebaiknya sama dengan hibernate.jdbc.batch_size. */
+    private int persistChunkSize = 50;
+}
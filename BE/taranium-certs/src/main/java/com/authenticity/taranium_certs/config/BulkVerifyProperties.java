@@ -0,0 +1,25 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Properti verifikasi massal dari arsip ZIP (prefix {@code app.bulk-verify}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.bulk-verify")
+public class BulkVerifyProperties {
+
+    /** Jumlah thread yang meng-hash entri ZIP secara bersamaan. */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Jumlah maksimum entri yang sedang diproses (dibaca ke memori tetapi belum ditulis hasilnya). */
+    private int maxInFlight = 16;
+
+    /**
+     * Entri yang lebih besar dari batas ini di-hash langsung sambil dibaca dari arsip (tanpa dibuffer),
+     * sehingga memori maksimum kira-kira maxInFlight x inMemoryThreshold.
+     */
+    private DataSize inMemoryThreshold = DataSize.ofMegabytes(4);
+}
@@ -0,0 +1,93 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Properti koneksi ke node blockchain dan kontrak CertificateRegistry (prefix {@code app.chain}).
+ * Fitur on-chain di backend nonaktif selama rpc-url atau registry-address kosong.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.chain")
+public class ChainProperties {
+
+    /** URL endpoint JSON-RPC node (misalnya http://localhost:8545). */
+    private String rpcUrl;
+
+    /** Alamat kontrak CertificateRegistry. */
+    private String registryAddress;
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    private Indexer indexer = new Indexer();
+
+    private Lookup lookup = new Lookup();
+
+    /**
+     * Properti indexer event CertificateRegistered.
+     */
+    @Data
+    public static class Indexer {
+
+        private boolean enabled = false;
+
+        /** Blok awal pengindeksan (biasanya blok deploy kontrak). */
+        private long startBlock = 0;
+
+        /** Jumlah blok per panggilan eth_getLogs; dikecilkan otomatis jika node menolak rentang terlalu besar. */
+        private long blockBatchSize = 2000;
+
+        /** Blok terbaru yang belum cukup konfirmasi tidak diindeks. */
+        private long confirmations = 2;
+
+        /** Jumlah blok yang diulang dari belakang jika terdeteksi reorg. */
+        private long reorgDepth = 12;
+    }
+
+    /**
+     * Properti lookup langsung ke kontrak (getCertificateInfo) yang digabung per batch dan di-cache.
+     */
+    @Data
+    public static class Lookup {
+
+        private boolean enabled = true;
+
+        /** Lama menunggu lookup lain sebelum satu batch JSON-RPC dikirim. */
+        private Duration batchWindow = Duration.ofMillis(5);
+
+        /** Jumlah eth_call maksimum per batch; batch dikirim segera jika sudah penuh. */
+        private int maxBatchSize = 100;
+
+        /** Batas waktu menunggu hasil lookup di sisi pemanggil. */
+        private Duration timeout = Duration.ofSeconds(3);
+
+        /** Jumlah entri maksimum di cache (hasil positif dan negatif). */
+        private int cacheSize = 100_000;
+
+        /** Hasil "terdaftar" tidak berubah lagi, sehingga boleh di-cache lama. */
+        private Duration positiveTtl = Duration.ofHours(24);
+
+        /** Hasil "belum terdaftar" hanya di-cache sebentar karena bisa berubah kapan saja. */
+        private Duration negativeTtl = Duration.ofSeconds(10);
+
+        /** Batch yang lebih lambat dari ini dihitung sebagai kegagalan oleh circuit breaker. */
+        private Duration slowCallThreshold = Duration.ofSeconds(2);
+
+        /** Jumlah kegagalan berturut-turut sebelum circuit breaker terbuka. */
+        private int failureThreshold = 5;
+
+        /** Lama circuit breaker terbuka sebelum satu batch percobaan diizinkan. */
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    /**
+     * @return true jika rpc-url dan registry-address sudah diisi.
+     */
+    public boolean isConfigured() {
+        return rpcUrl != null && !rpcUrl.isBlank() && registryAddress != null && !registryAddress.isBlank();
+    }
+}
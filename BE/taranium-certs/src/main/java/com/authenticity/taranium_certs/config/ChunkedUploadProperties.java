@@ -0,0 +1,27 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Properti upload bertahap yang dapat dilanjutkan (prefix {@code app.chunked-upload}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.chunked-upload")
+public class ChunkedUploadProperties {
+
+    /** Ukuran maksimum satu potongan (satu request PUT). */
+    private DataSize maxChunkSize = DataSize.ofMegabytes(16);
+
+    /** Ukuran maksimum file hasil gabungan semua potongan. */
+    private DataSize maxFileSize = DataSize.ofGigabytes(2);
+
+    /** Sesi yang tidak menerima potongan selama ini dianggap ditinggalkan dan dihapus. */
+    private Duration sessionTimeout = Duration.ofHours(1);
+
+    /** Interval pemeriksaan sesi kedaluwarsa. */
+    private Duration sweepInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,87 @@
+package com.authenticity.taranium_certs.config;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Mengubah kolom hash dokumen di database lama (VARCHAR 64 karakter hex) menjadi BINARY(32)
+ * sebelum Hibernate dijalankan. ddl-auto: update tidak mengubah tipe kolom yang sudah ada, sehingga tanpa
+ * migrasi ini database berbasis file (profil 'durable') dari versi sebelumnya tidak cocok dengan entitas.
+ * Nilai hex diubah ke byte lewat fungsi Java sementara (H2 sendiri hanya menyalin byte UTF-8 teksnya);
+ * constraint unique dan primary key pada kolom tersebut tetap dipertahankan.
+ */
+@Configuration
+public class DocumentHashColumnMigration implements InitializingBean {
+
+    private static final String CONVERT_FUNCTION = "TARANIUM_HEX_TO_HASH";
+
+    private static final List<String[]> HASH_COLUMNS = List.of(
+            new String[]{"CERTIFICATES", "DOCUMENT_HASH"},
+            new String[]{"CERTIFICATE_PROOFS", "DOCUMENT_HASH"},
+            new String[]{"CHAIN_REGISTRATIONS", "DOCUMENT_HASH"},
+            new String[]{"INTEGRITY_ISSUES", "DOCUMENT_HASH"},
+            new String[]{"INTEGRITY_ISSUES", "ACTUAL_HASH"});
+
+    private final DataSource dataSource;
+
+    public DocumentHashColumnMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Memastikan EntityManagerFactory baru dibuat setelah migrasi selesai.
+     */
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor documentHashColumnMigrationDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor(DocumentHashColumnMigration.class);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement query = connection.prepareStatement(
+                     "select DATA_TYPE from INFORMATION_SCHEMA.COLUMNS " +
+                             "where TABLE_SCHEMA = SCHEMA() and TABLE_NAME = ? and COLUMN_NAME = ?")) {
+            for (String[] column : HASH_COLUMNS) {
+                query.setString(1, column[0]);
+                query.setString(2, column[1]);
+                try (ResultSet result = query.executeQuery()) {
+                    // Tabel belum ada (database baru) atau kolom sudah biner
+                    if (!result.next() || !"CHARACTER VARYING".equals(result.getString(1))) {
+                        continue;
+                    }
+                }
+                try (Statement alter = connection.createStatement()) {
+                    alter.execute("CREATE ALIAS IF NOT EXISTS " + CONVERT_FUNCTION + " FOR \""
+                            + DocumentHashColumnMigration.class.getName() + ".hexToBytes\"");
+                    alter.execute("ALTER TABLE " + column[0] + " ALTER COLUMN " + column[1]
+                            + " SET DATA TYPE BINARY(32) USING " + CONVERT_FUNCTION + "(" + column[1] + ")");
+                }
+                System.out.println("Kolom " + column[0] + "." + column[1] + " dimigrasi ke BINARY(32).");
+            }
+            try (Statement drop = connection.createStatement()) {
+                drop.execute("DROP ALIAS IF EXISTS " + CONVERT_FUNCTION);
+            }
+        }
+    }
+
+    /**
+     * Dipanggil oleh H2 untuk setiap baris saat kolom dimigrasi.
+     * @param hex Hash dalam bentuk heksadesimal.
+     * @return 32 byte hash, atau null jika nilai kolom null.
+     */
+    public static byte[] hexToBytes(String hex) {
+        return hex == null ? null : DocumentHash.fromHex(hex).toBytes();
+    }
+}
@@ -0,0 +1,18 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properti ekspor registry sertifikat per institusi (prefix {@code app.export}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    /** Jumlah baris yang diambil driver JDBC per round trip saat ekspor di-stream. */
+    private int fetchSize = 500;
+
+    /** Persistence context dikosongkan dan output di-flush setiap sekian baris agar memori tetap. */
+    private int clearInterval = 1000;
+}
@@ -0,0 +1,27 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properti indeks keanggotaan hash dokumen di luar heap (prefix {@code app.hash-index}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.hash-index")
+public class HashIndexProperties {
+
+    /** Menjawab lookup hash yang tidak terdaftar tanpa query database; nonaktif = semua lookup ke database. */
+    private boolean enabled = true;
+
+    /** Direktori file indeks (memory-mapped); kosong = root-upload-dir/.hash-index. */
+    private String directory = "";
+
+    /** Jumlah slot awal tabel; dinaikkan otomatis sesuai jumlah sertifikat saat startup. */
+    private long initialCapacity = 1L << 20;
+
+    /** Porsi slot terisi sebelum tabel diperbesar dua kali lipat. */
+    private double maxLoadFactor = 0.75;
+
+    /** Jumlah baris certificates per query saat indeks dibangun. */
+    private int loadBatchSize = 10000;
+}
@@ -0,0 +1,61 @@
+package com.authenticity.taranium_certs.config;
+
+import com.authenticity.taranium_certs.entity.IntegrityIssue;
+import com.authenticity.taranium_certs.repository.IntegrityIssueRepository;
+import com.authenticity.taranium_certs.service.AsyncRegistrationService;
+import com.authenticity.taranium_certs.service.IntegrityScrubber;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Konfigurasi metrik tambahan di luar {@link com.authenticity.taranium_certs.service.PipelineMetrics}:
+ * batas jumlah nilai tag dan metrik dari komponen latar belakang (pemeriksa integritas, antrean pendaftaran asinkron).
+ * Latensi per method repository diambil dari metrik bawaan Spring Data (spring.data.repository.invocations).
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final int MAX_ERROR_TYPES = 50;
+
+    /**
+     * Pengaman kardinalitas: jenis error yang baru muncul setelah batas ini tidak lagi membuat time series baru.
+     */
+    @Bean
+    public MeterFilter pipelineErrorTypeLimit() {
+        return MeterFilter.maximumAllowableTags("certs.pipeline.errors", "type", MAX_ERROR_TYPES, MeterFilter.deny());
+    }
+
+    @Bean
+    public MeterBinder integrityScrubberMetrics(IntegrityScrubber integrityScrubber,
+                                                IntegrityIssueRepository integrityIssueRepository) {
+        return registry -> {
+            FunctionCounter.builder("certs.scrub.files", integrityScrubber, IntegrityScrubber::getFilesChecked)
+                    .description("File yang sudah diperiksa ulang oleh pemeriksa integritas")
+                    .register(registry);
+            FunctionCounter.builder("certs.scrub.bytes", integrityScrubber, IntegrityScrubber::getBytesHashed)
+                    .description("Byte yang sudah di-hash ulang oleh pemeriksa integritas")
+                    .baseUnit("bytes")
+                    .register(registry);
+            // Satu query count per jenis setiap kali metrik di-scrape
+            for (IntegrityIssue.Type type : IntegrityIssue.Type.values()) {
+                Gauge.builder("certs.scrub.issues.open", integrityIssueRepository,
+                                repository -> repository.countByResolvedAtIsNullAndType(type))
+                        .description("Masalah integritas yang belum diselesaikan")
+                        .tag("type", type.name())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder asyncRegistrationMetrics(AsyncRegistrationService asyncRegistrationService) {
+        return registry -> Gauge.builder("certs.register.async.queued", asyncRegistrationService,
+                        AsyncRegistrationService::getQueuedCount)
+                .description("Job pendaftaran asinkron yang menunggu di antrean")
+                .register(registry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properti rekonsiliasi direktori upload dengan tabel certificates saat startup (prefix {@code app.reconcile}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reconcile")
+public class ReconcileProperties {
+
+    /** Jalankan rekonsiliasi di latar belakang setelah aplikasi siap menerima request. */
+    private boolean enabled = true;
+
+    /** Jumlah thread untuk lookup dan hashing file secara paralel. */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Jumlah potongan file yang menunggu di antrean sebelum thread pemindai ikut mengerjakan. */
+    private int queueCapacity = 16;
+
+    /** Jumlah file per potongan: satu query lookup dan satu JDBC batch insert per potongan. */
+    private int batchSize = 500;
+
+    /** Jumlah contoh path yang disimpan di laporan untuk setiap jenis drift. */
+    private int sampleSize = 20;
+
+    /** Periksa juga baris certificates yang file-nya sudah tidak ada (satu stat per baris). */
+    private boolean checkRows = true;
+}
@@ -0,0 +1,12 @@
+package com.authenticity.taranium_certs.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Mengaktifkan tugas terjadwal (misalnya sweep blob yatim).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,32 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Properti pemeriksa integritas file tersimpan di latar belakang (prefix {@code app.scrub}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.scrub")
+public class ScrubProperties {
+
+    private boolean enabled = true;
+
+    /** Jeda antar putaran pemeriksaan; putaran yang terputus dilanjutkan dari checkpoint. */
+    private Duration interval = Duration.ofHours(6);
+
+    /** Jumlah file yang di-hash bersamaan. */
+    private int parallelism = 2;
+
+    /** Batas total bandwidth baca semua thread per detik; 0 = tanpa batas. */
+    private DataSize bandwidthLimit = DataSize.ofMegabytes(50);
+
+    /** Jumlah baris certificates per halaman; checkpoint disimpan setiap halaman selesai. */
+    private int batchSize = 200;
+
+    /** Ukuran jendela memory-mapped per panggilan FileChannel.map untuk file besar. */
+    private DataSize mapWindowSize = DataSize.ofMegabytes(64);
+}
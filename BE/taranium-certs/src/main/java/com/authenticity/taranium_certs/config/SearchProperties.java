@@ -0,0 +1,21 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properti indeks pencarian sertifikat di memori (prefix {@code app.search}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+
+    /** Membangun indeks saat startup dan melayani /api/certificates/search; nonaktifkan untuk menghemat heap. */
+    private boolean enabled = true;
+
+    /** Jumlah baris certificates per query saat indeks dibangun. */
+    private int loadBatchSize = 5000;
+
+    /** Panjang maksimum kata kunci pencarian. */
+    private int maxQueryLength = 100;
+}
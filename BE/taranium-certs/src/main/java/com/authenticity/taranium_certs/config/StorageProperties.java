@@ -0,0 +1,50 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Properti penyimpanan file (prefix {@code app.storage}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.storage")
+public class StorageProperties {
+
+    /**
+     * Mode penyimpanan file yang diunggah.
+     */
+    public enum Mode {
+        /** File disimpan langsung di root-upload-dir/user_address/nama_folder/nama_file. */
+        PATH,
+        /** Isi file disimpan sekali per hash di direktori blob; pohon user/folder hanya berisi referensi (hard link). */
+        CONTENT_ADDRESSED,
+        /** File kecil ditambahkan ke file segmen append-only berukuran besar; file besar disimpan seperti mode path. */
+        SEGMENTED
+    }
+
+    private Mode mode = Mode.PATH;
+
+    /** Nama direktori blob di bawah root-upload-dir (mode content-addressed). */
+    private String blobDir = ".blobs";
+
+    /** Blob tanpa sertifikat baru dihapus setelah melewati masa tenggang ini. */
+    private Duration orphanGracePeriod = Duration.ofHours(1);
+
+    /** Nama direktori file segmen di bawah root-upload-dir (mode segmented). */
+    private String segmentDir = ".segments";
+
+    /** Segmen aktif ditutup dan segmen baru dibuat setelah ukurannya mencapai batas ini. */
+    private DataSize segmentSize = DataSize.ofGigabytes(1);
+
+    /** File yang lebih besar dari ini tidak dikemas ke segmen, tetapi disimpan sebagai file biasa. */
+    private DataSize segmentMaxFileSize = DataSize.ofMegabytes(4);
+
+    /** Segmen yang porsi data hidupnya di bawah rasio ini ditulis ulang oleh compaction. */
+    private double compactionThreshold = 0.5;
+
+    /** Segmen yang baru diubah dalam rentang ini dilewati compaction (transaksi penulisnya mungkin belum commit). */
+    private Duration compactionMinAge = Duration.ofMinutes(10);
+}
@@ -0,0 +1,27 @@
+package com.authenticity.taranium_certs.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Properti endpoint upload non-blocking {@code /api/stream} (prefix {@code app.streaming-upload}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.streaming-upload")
+public class StreamingUploadProperties {
+
+    /** Jumlah upload yang boleh diterima bersamaan; upload yang menunggu data tidak memegang thread. */
+    private int maxConcurrent = 10000;
+
+    /** Ukuran maksimum satu file. */
+    private DataSize maxFileSize = DataSize.ofMegabytes(100);
+
+    /** Ukuran buffer baca per thread container (bukan per upload). */
+    private DataSize bufferSize = DataSize.ofKilobytes(64);
+
+    /** Nilai header Retry-After saat semua slot upload terpakai. */
+    private Duration retryAfter = Duration.ofSeconds(5);
+}
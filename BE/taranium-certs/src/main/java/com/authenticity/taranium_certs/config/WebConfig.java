@@ -19,6 +19,7 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000", "http://127.0.0.1:3000","http://localhost:5173", "http://127.0.0.1:5173") // Izinkan frontend Anda
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") // Metode yang diizinkan
                 .allowedHeaders("*") // Header yang diizinkan
+                .exposedHeaders("X-Next-Cursor", "Location", "Retry-After") // Kursor halaman berikutnya, lokasi job asinkron, dan jeda retry
                 .allowCredentials(true); // Penting untuk mengirim cookie sesi
     }
 }
@@ -0,0 +1,132 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.config.AsyncRegistrationProperties;
+import com.authenticity.taranium_certs.dto.RegistrationJobResponse;
+import com.authenticity.taranium_certs.exception.PipelineOverloadedException;
+import com.authenticity.taranium_certs.exception.RateLimitedException;
+import com.authenticity.taranium_certs.exception.StorageException;
+import com.authenticity.taranium_certs.service.AdmissionService;
+import com.authenticity.taranium_certs.service.AsyncRegistrationService;
+import com.authenticity.taranium_certs.service.PipelineMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller untuk pendaftaran sertifikat secara asinkron.
+ * Upload langsung dijawab 202 dengan id job; hasilnya dipantau melalui polling atau Server-Sent Events.
+ */
+@RestController
+@RequestMapping("/api/register")
+public class AsyncRegistrationController {
+
+    private final AsyncRegistrationService asyncRegistrationService;
+    private final AsyncRegistrationProperties asyncRegistrationProperties;
+    private final PipelineMetrics pipelineMetrics;
+    private final AdmissionService admissionService;
+
+    public AsyncRegistrationController(AsyncRegistrationService asyncRegistrationService,
+                                       AsyncRegistrationProperties asyncRegistrationProperties,
+                                       PipelineMetrics pipelineMetrics, AdmissionService admissionService) {
+        this.asyncRegistrationService = asyncRegistrationService;
+        this.asyncRegistrationProperties = asyncRegistrationProperties;
+        this.pipelineMetrics = pipelineMetrics;
+        this.admissionService = admissionService;
+    }
+
+    /**
+     * Endpoint untuk mendaftarkan sertifikat di latar belakang. Parameter sama dengan /api/register.
+     * @param file File sertifikat yang diunggah.
+     * @param folderName Nama folder tempat file akan disimpan lokal.
+     * @param issuerAddress Alamat MetaMask institusi yang mengunggah.
+     * @return 202 dengan status job dan header Location, 429 dengan Retry-After jika kuota issuer habis,
+     *         atau 503 dengan Retry-After jika antrean penuh.
+     */
+    @PostMapping("/async")
+    public ResponseEntity<RegistrationJobResponse> registerCertificateAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("folderName") String folderName,
+            @RequestParam("issuerAddress") String issuerAddress) {
+
+        if (file.isEmpty()) {
+            return new ResponseEntity<>(
+                    RegistrationJobResponse.builder().message("File tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (folderName == null || folderName.trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    RegistrationJobResponse.builder().message("Nama folder tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (issuerAddress == null || issuerAddress.trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    RegistrationJobResponse.builder().message("Alamat institusi (MetaMask) tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        try {
+            // Antrean sudah membatasi beban total; di sini hanya kuota per issuer yang diperiksa
+            admissionService.checkIssuer(issuerAddress, file.getSize());
+            RegistrationJobResponse job = asyncRegistrationService.submit(file, folderName, issuerAddress);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/register/jobs/" + job.getJobId())
+                    .body(job);
+        } catch (RateLimitedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_ASYNC, e);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(RegistrationJobResponse.builder().message(e.getMessage()).build());
+        } catch (PipelineOverloadedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_ASYNC, e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(asyncRegistrationProperties.getRetryAfter().toSeconds()))
+                    .body(RegistrationJobResponse.builder().message(e.getMessage()).build());
+        } catch (StorageException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_ASYNC, e);
+            System.err.println("Error penyimpanan file: " + e.getMessage());
+            return new ResponseEntity<>(
+                    RegistrationJobResponse.builder().message("Error penyimpanan file: " + e.getMessage()).build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
+    /**
+     * Endpoint untuk melihat status job pendaftaran asinkron (polling).
+     * @param jobId Id job dari /api/register/async.
+     * @return Status job, atau 404 jika job tidak dikenal atau sudah kedaluwarsa.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<RegistrationJobResponse> getJob(@PathVariable String jobId) {
+        return asyncRegistrationService.getJob(jobId)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(
+                        RegistrationJobResponse.builder().jobId(jobId).message("Job tidak ditemukan.").build(),
+                        HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Endpoint Server-Sent Events untuk memantau job. Setiap perubahan status dikirim sebagai event "status";
+     * aliran ditutup setelah job COMPLETED, ALREADY_REGISTERED, atau FAILED.
+     * @param jobId Id job dari /api/register/async.
+     * @return Aliran event, atau 404 jika job tidak dikenal atau sudah kedaluwarsa.
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        return asyncRegistrationService.subscribe(jobId)
+                .map(emitter -> new ResponseEntity<>(emitter, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
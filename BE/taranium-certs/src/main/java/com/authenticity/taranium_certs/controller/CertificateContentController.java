@@ -0,0 +1,189 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.service.CertificateService;
+import com.authenticity.taranium_certs.service.FileStorageService;
+import com.authenticity.taranium_certs.service.StoredRegion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * REST Controller untuk mengunduh isi sertifikat yang tersimpan.
+ * Isi file tidak pernah berubah untuk hash yang sama, sehingga documentHash dipakai sebagai strong ETag
+ * dan response boleh di-cache selamanya (Cache-Control immutable). Range request didukung agar PDF besar
+ * bisa mulai ditampilkan sebelum unduhan selesai.
+ */
+@RestController
+@RequestMapping("/api/certificates")
+public class CertificateContentController {
+
+    private static final String CACHE_CONTROL_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    // Atribut request Tomcat untuk sendfile: isi file dikirim kernel langsung dari page cache ke socket
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CertificateService certificateService;
+    private final FileStorageService fileStorageService;
+
+    public CertificateContentController(CertificateService certificateService, FileStorageService fileStorageService) {
+        this.certificateService = certificateService;
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * Endpoint untuk mengunduh isi sertifikat berdasarkan hash dokumen.
+     * Mendukung If-None-Match (304), Range/If-Range (206 dengan satu rentang, 416 jika rentang tidak valid).
+     * Hash yang bukan 64 karakter hex dijawab 400.
+     * Pengiriman memakai sendfile dari Tomcat jika tersedia, selain itu FileChannel.transferTo.
+     *
+     * @param documentHash Hash SHA-256 dokumen.
+     * @param request Request HTTP.
+     * @param response Response HTTP.
+     */
+    @GetMapping("/{documentHash}/content")
+    public void getContent(@PathVariable String documentHash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (!DocumentHash.isValidHex(documentHash)) {
+            sendMessage(response, HttpStatus.BAD_REQUEST, "Format hash dokumen tidak valid.");
+            return;
+        }
+        DocumentHash hash = DocumentHash.fromHex(documentHash);
+        Optional<Certificate> certificate = certificateService.getCertificateByHash(hash);
+        if (certificate.isEmpty()) {
+            sendMessage(response, HttpStatus.NOT_FOUND, "Sertifikat dengan hash ini tidak ditemukan.");
+            return;
+        }
+
+        StoredRegion region;
+        try {
+            region = fileStorageService.locate(hash, certificate.get().getLocalFilePath());
+        } catch (NoSuchFileException e) {
+            System.err.println("File sertifikat hilang dari penyimpanan: " + certificate.get().getLocalFilePath());
+            sendMessage(response, HttpStatus.NOT_FOUND, "File sertifikat tidak ditemukan di penyimpanan.");
+            return;
+        }
+
+        String etag = "\"" + hash.toHex() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL_IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etagMatches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        String originalFileName = certificate.get().getOriginalFileName();
+        response.setContentType(MediaTypeFactory.getMediaType(originalFileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        // Nama non-ASCII dikirim lewat filename* (RFC 6266); nama ASCII cukup dengan filename biasa
+        ContentDisposition disposition = StandardCharsets.US_ASCII.newEncoder().canEncode(originalFileName)
+                ? ContentDisposition.inline().filename(originalFileName).build()
+                : ContentDisposition.inline().filename(originalFileName, StandardCharsets.UTF_8).build();
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+
+        long start = 0;
+        long length = region.length();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // Range diabaikan jika If-Range tidak cocok dengan ETag (klien memegang versi lain)
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Beberapa rentang sekaligus (multipart/byteranges) tidak didukung; dijawab dengan isi lengkap
+            if (ranges.size() == 1) {
+                long first;
+                long last;
+                try {
+                    first = ranges.get(0).getRangeStart(region.length());
+                    last = ranges.get(0).getRangeEnd(region.length());
+                } catch (IllegalArgumentException e) {
+                    first = region.length();
+                    last = -1;
+                }
+                if (first >= region.length() || first > last) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + region.length());
+                    sendMessage(response, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, "Rentang byte tidak valid.");
+                    return;
+                }
+                start = first;
+                length = last - first + 1;
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + region.length());
+            }
+        }
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        long position = region.offset() + start;
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, region.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(region.file(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long end = position + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            // Perbandingan lemah sesuai RFC 9110 untuk If-None-Match: awalan W/ diabaikan
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sendMessage(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+}
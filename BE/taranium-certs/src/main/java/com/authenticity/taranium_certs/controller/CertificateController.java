@@ -2,16 +2,30 @@ package com.authenticity.taranium_certs.controller;
 
 // src/main/java/com/taraniumcerts/controller/CertificateController.java
 
+import com.authenticity.taranium_certs.config.BatchProperties;
+import com.authenticity.taranium_certs.dto.BatchRegistrationResponse;
+import com.authenticity.taranium_certs.dto.CertificatePage;
 import com.authenticity.taranium_certs.dto.CertificateResponse;
+import com.authenticity.taranium_certs.dto.CertificateSearchPage;
+import com.authenticity.taranium_certs.dto.FolderSummaryResponse;
 import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.exception.RateLimitedException;
 import com.authenticity.taranium_certs.exception.StorageException;
 import com.authenticity.taranium_certs.service.*;
 import com.authenticity.taranium_certs.service.HashService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
@@ -28,14 +42,42 @@ import java.util.stream.Collectors;
 @RequestMapping("/api")
 public class CertificateController {
 
+    /** Header berisi kursor halaman berikutnya pada daftar isi folder. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /** Header berisi jumlah semua hasil pencarian. */
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final HashService hashService;
     private final FileStorageService fileStorageService;
     private final CertificateService certificateService;
+    private final BatchRegistrationService batchRegistrationService;
+    private final BatchProperties batchProperties;
+    private final BulkVerificationService bulkVerificationService;
+    private final ChainStatusService chainStatusService;
+    private final FolderCatalogService folderCatalogService;
+    private final PipelineMetrics pipelineMetrics;
+    private final AdmissionService admissionService;
+    private final CertificateExportService certificateExportService;
 
-    public CertificateController(HashService hashService, FileStorageService fileStorageService, CertificateService certificateService) {
+    public CertificateController(HashService hashService, FileStorageService fileStorageService, CertificateService certificateService,
+                                 BatchRegistrationService batchRegistrationService, BatchProperties batchProperties,
+                                 BulkVerificationService bulkVerificationService, ChainStatusService chainStatusService,
+                                 FolderCatalogService folderCatalogService,
+                                 PipelineMetrics pipelineMetrics, AdmissionService admissionService,
+                                 CertificateExportService certificateExportService) {
         this.hashService = hashService;
         this.fileStorageService = fileStorageService;
         this.certificateService = certificateService;
+        this.batchRegistrationService = batchRegistrationService;
+        this.batchProperties = batchProperties;
+        this.bulkVerificationService = bulkVerificationService;
+        this.chainStatusService = chainStatusService;
+        this.folderCatalogService = folderCatalogService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.admissionService = admissionService;
+        this.certificateExportService = certificateExportService;
     }
 
     /**
@@ -44,7 +86,8 @@ public class CertificateController {
      * @param file File sertifikat yang diunggah.
      * @param folderName Nama folder tempat file akan disimpan lokal.
      * @param issuerAddress Alamat MetaMask institusi yang mengunggah.
-     * @return ResponseEntity yang berisi hash, path file lokal, dan pesan.
+     * @return 201 dengan hash, path file lokal, dan pesan untuk pendaftaran baru; 200 dengan sertifikat yang sudah ada
+     *         (alreadyRegistered = true) jika hash file sudah terdaftar, sehingga upload ulang aman dilakukan.
      */
     @PostMapping("/register")
     public ResponseEntity<CertificateResponse> registerCertificate(
@@ -71,44 +114,52 @@ public class CertificateController {
             );
         }
 
-        try {
-            // 1. Hitung hash SHA-256 dari file yang diunggah
-            String documentHash = hashService.calculateSha256Hash(file.getInputStream());
-
-            // 2. Simpan file secara lokal
-            String localFilePath = fileStorageService.storeFile(file, issuerAddress, folderName);
+        try (AdmissionService.Permit permit = admissionService.admit(issuerAddress, file.getSize())) {
+            // 1. Hitung hash SHA-256 lebih dulu: upload duplikat berhenti di sini tanpa menulis apa pun ke disk
+            long start = System.nanoTime();
+            DocumentHash documentHash;
+            try (InputStream inputStream = file.getInputStream()) {
+                documentHash = hashService.calculateSha256Hash(inputStream);
+            }
+            pipelineMetrics.recordStage(PipelineMetrics.Endpoint.REGISTER, PipelineMetrics.Stage.HASH, System.nanoTime() - start, file.getSize());
 
-            // 3. Simpan metadata sertifikat ke database lokal
-            Certificate certificate = new Certificate(documentHash, file.getOriginalFilename(), localFilePath, folderName, issuerAddress);
-            certificateService.saveCertificateMetadata(certificate);
+            // 2. Simpan file dan metadata, kecuali hash sudah terdaftar (diserialisasi per hash)
+            CertificateService.Registration registration = certificateService.registerIfAbsent(documentHash,
+                    () -> fileStorageService.stageFile(file, documentHash, issuerAddress, folderName), folderName, issuerAddress);
 
             // Backend hanya mengembalikan hash dan path. Frontend akan melanjutkan interaksi ke blockchain.
+            if (!registration.isCreated()) {
+                pipelineMetrics.recordDuplicate(PipelineMetrics.Endpoint.REGISTER, file.getSize());
+                return new ResponseEntity<>(
+                        toResponse(registration.certificate(), true, "Sertifikat dengan hash ini sudah terdaftar."),
+                        HttpStatus.OK
+                );
+            }
+            pipelineMetrics.recordRegistration(PipelineMetrics.Endpoint.REGISTER, registration.stagedFile());
             return new ResponseEntity<>(
-                    CertificateResponse.builder()
-                            .documentHash(documentHash)
-                            .originalFileName(file.getOriginalFilename())
-                            .localFilePath(localFilePath)
-                            .folderName(folderName)
-                            .issuerAddress(issuerAddress)
-                            .uploadTimestamp(certificate.getUploadTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                            .message("File berhasil diunggah, di-hash, dan metadata disimpan.")
-                            .build(),
-                    HttpStatus.OK
+                    toResponse(registration.certificate(), false, "File berhasil diunggah, di-hash, dan metadata disimpan."),
+                    HttpStatus.CREATED
             );
 
+        } catch (RateLimitedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER, e);
+            return tooManyRequests(e, CertificateResponse.builder().message(e.getMessage()).build());
         } catch (StorageException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER, e);
             System.err.println("Error penyimpanan file: " + e.getMessage());
             return new ResponseEntity<>(
                     CertificateResponse.builder().message("Error penyimpanan file: " + e.getMessage()).build(),
                     HttpStatus.INTERNAL_SERVER_ERROR
             );
         } catch (NoSuchAlgorithmException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER, e);
             System.err.println("Algoritma hash tidak ditemukan: " + e.getMessage());
             return new ResponseEntity<>(
                     CertificateResponse.builder().message("Error server: Algoritma hash tidak tersedia.").build(),
                     HttpStatus.INTERNAL_SERVER_ERROR
             );
         } catch (Exception e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER, e);
             System.err.println("Error umum saat mendaftarkan sertifikat: " + e.getMessage());
             return new ResponseEntity<>(
                     CertificateResponse.builder().message("Terjadi kesalahan yang tidak terduga: " + e.getMessage()).build(),
@@ -117,11 +168,75 @@ public class CertificateController {
         }
     }
 
+    /**
+     * Endpoint untuk mendaftarkan banyak sertifikat sekaligus ke satu folder (misalnya satu angkatan wisuda).
+     * File di-hash dan disimpan secara paralel, metadata disimpan dalam JDBC batch.
+     * Kegagalan satu file dilaporkan pada hasil file tersebut tanpa membatalkan seluruh batch.
+     * @param files File-file sertifikat yang diunggah.
+     * @param folderName Nama folder tempat file akan disimpan lokal.
+     * @param issuerAddress Alamat MetaMask institusi yang mengunggah.
+     * @return ResponseEntity yang berisi hasil per file.
+     */
+    @PostMapping("/register/batch")
+    public ResponseEntity<BatchRegistrationResponse> registerCertificatesBatch(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam("folderName") String folderName,
+            @RequestParam("issuerAddress") String issuerAddress) {
+
+        if (files == null || files.isEmpty()) {
+            return new ResponseEntity<>(
+                    BatchRegistrationResponse.builder().message("Daftar file tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (files.size() > batchProperties.getMaxFiles()) {
+            return new ResponseEntity<>(
+                    BatchRegistrationResponse.builder()
+                            .message("Jumlah file melebihi batas " + batchProperties.getMaxFiles() + " per batch.")
+                            .build(),
+                    HttpStatus.PAYLOAD_TOO_LARGE
+            );
+        }
+        if (folderName == null || folderName.trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    BatchRegistrationResponse.builder().message("Nama folder tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (issuerAddress == null || issuerAddress.trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    BatchRegistrationResponse.builder().message("Alamat institusi (MetaMask) tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        long totalBytes = files.stream().mapToLong(MultipartFile::getSize).sum();
+        try (AdmissionService.Permit permit = admissionService.admit(issuerAddress, totalBytes)) {
+            BatchRegistrationResponse response = batchRegistrationService.registerAll(files, folderName, issuerAddress);
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        } catch (RateLimitedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_BATCH, e);
+            return tooManyRequests(e, BatchRegistrationResponse.builder().message(e.getMessage()).build());
+        } catch (Exception e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_BATCH, e);
+            System.err.println("Error umum saat mendaftarkan batch sertifikat: " + e.getMessage());
+            return new ResponseEntity<>(
+                    BatchRegistrationResponse.builder().message("Terjadi kesalahan yang tidak terduga: " + e.getMessage()).build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
     /**
      * Endpoint untuk memverifikasi hash sertifikat.
      * Bisa diakses oleh siapa saja (tidak memerlukan otentikasi).
-     * Backend hanya menghitung hash dan mengembalikannya ke frontend.
-     * Frontend yang akan mengecek hash di blockchain.
+     * Backend menghitung hash dan mengembalikannya ke frontend.
+     * Jika indexer blockchain aktif, status pendaftaran on-chain dari indeks lokal ikut dikembalikan
+     * (registeredOnChain, onChainIssuer, onChainTimestamp, onChainBlock, indexedThroughBlock).
+     * Jika indexer nonaktif tetapi node dikonfigurasi, status diambil langsung dari kontrak lewat lookup
+     * yang di-batch dan di-cache (registeredOnChain, onChainIssuer, onChainTimestamp, onChainMetadataURI);
+     * registeredOnChain bernilai "unknown" jika node tidak dapat ditanya.
+     * Jika keduanya nonaktif, frontend yang mengecek hash di blockchain.
      *
      * @param file File sertifikat yang akan diverifikasi.
      * @return ResponseEntity yang berisi hash dokumen.
@@ -134,22 +249,86 @@ public class CertificateController {
 
         try {
             // Hitung hash SHA-256 dari file yang diunggah
-            String documentHash = hashService.calculateSha256Hash(file.getInputStream());
+            long start = System.nanoTime();
+            DocumentHash documentHash;
+            try (AdmissionService.Permit permit = admissionService.admitGlobal();
+                 InputStream inputStream = file.getInputStream()) {
+                documentHash = hashService.calculateSha256Hash(inputStream);
+            }
+            pipelineMetrics.recordStage(PipelineMetrics.Endpoint.VERIFY, PipelineMetrics.Stage.HASH, System.nanoTime() - start, file.getSize());
+            pipelineMetrics.recordUploadSize(PipelineMetrics.Endpoint.VERIFY, file.getSize());
 
-            // Backend hanya mengembalikan hash. Frontend akan melanjutkan pengecekan di blockchain.
-            return new ResponseEntity<>(Collections.singletonMap("documentHash", documentHash), HttpStatus.OK);
+            Map<String, String> response = chainStatusService.describe(documentHash);
+            return new ResponseEntity<>(response, HttpStatus.OK);
 
+        } catch (RateLimitedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.VERIFY, e);
+            return tooManyRequests(e, Collections.singletonMap("message", e.getMessage()));
         } catch (NoSuchAlgorithmException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.VERIFY, e);
             System.err.println("Algoritma hash tidak ditemukan: " + e.getMessage());
             return new ResponseEntity<>(Collections.singletonMap("message", "Error server: Algoritma hash tidak tersedia."), HttpStatus.INTERNAL_SERVER_ERROR);
         } catch (Exception e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.VERIFY, e);
             System.err.println("Error umum saat memverifikasi sertifikat: " + e.getMessage());
             return new ResponseEntity<>(Collections.singletonMap("message", "Terjadi kesalahan yang tidak terduga."), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Endpoint verifikasi berdasarkan hash yang dihitung klien, tanpa upload file. Jawabannya sama dengan
+     * {@code POST /api/verify} untuk file dengan hash tersebut, sehingga verifikasi ulang tidak perlu mengirim isi file.
+     * @param documentHash Hash SHA-256 dokumen (64 karakter hex).
+     * @return ResponseEntity yang berisi hash dokumen dan status on-chain; 400 jika format hash tidak valid.
+     */
+    @GetMapping("/verify/{documentHash}")
+    public ResponseEntity<Map<String, String>> verifyCertificateHash(@PathVariable String documentHash) {
+        if (!DocumentHash.isValidHex(documentHash)) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Format hash dokumen tidak valid."), HttpStatus.BAD_REQUEST);
+        }
+        pipelineMetrics.recordSkippedUpload(PipelineMetrics.Endpoint.VERIFY);
+        return new ResponseEntity<>(chainStatusService.describe(DocumentHash.fromHex(documentHash)), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint untuk memverifikasi banyak sertifikat sekaligus dari satu arsip ZIP.
+     * Response berupa NDJSON (satu objek JSON per baris, satu baris per file di dalam arsip) yang dikirim
+     * segera setelah masing-masing file selesai di-hash, berisi nama entri, hash dokumen, dan apakah hash
+     * tersebut terdaftar di database lokal.
+     *
+     * @param archive Arsip ZIP berisi file-file sertifikat.
+     * @return ResponseEntity dengan body NDJSON yang di-stream.
+     */
+    @PostMapping(value = "/verify/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> verifyCertificatesBulk(@RequestParam("archive") MultipartFile archive) {
+        if (archive.isEmpty()) {
+            return new ResponseEntity<>(out -> out.write("{\"message\":\"Arsip tidak boleh kosong!\"}\n".getBytes(StandardCharsets.UTF_8)),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        AdmissionService.Permit permit;
+        try {
+            permit = admissionService.admitGlobal();
+        } catch (RateLimitedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.VERIFY, e);
+            String message = "{\"message\":\"" + e.getMessage() + "\"}\n";
+            return tooManyRequests(e, out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // Slot dilepas setelah seluruh arsip selesai diproses di thread async
+        StreamingResponseBody body = out -> {
+            try (permit; InputStream inputStream = archive.getInputStream()) {
+                bulkVerificationService.verifyArchive(inputStream, out);
+            } catch (NoSuchAlgorithmException e) {
+                System.err.println("Algoritma hash tidak ditemukan: " + e.getMessage());
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Endpoint untuk mendapatkan daftar folder milik institusi dengan alamat blockchain tertentu.
+     * Dilayani dari katalog folder di database, tanpa memindai direktori upload.
      * @param userAddress Alamat MetaMask user/institusi.
      * @return List of folder names.
      */
@@ -160,32 +339,78 @@ public class CertificateController {
         }
 
         try {
-            List<String> folders = fileStorageService.getFolders(userAddress);
+            List<String> folders = folderCatalogService.getFolderNames(userAddress);
             return new ResponseEntity<>(folders, HttpStatus.OK);
-        } catch (StorageException e) {
+        } catch (Exception e) {
             System.err.println("Error saat mengambil daftar folder: " + e.getMessage());
             return new ResponseEntity<>(Collections.emptyList(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Endpoint untuk mendapatkan ringkasan folder milik institusi: jumlah sertifikat, total ukuran,
+     * dan waktu upload terakhir per folder.
+     * @param userAddress Alamat MetaMask user/institusi.
+     * @return List ringkasan folder.
+     */
+    @GetMapping("/folders/summary")
+    public ResponseEntity<List<FolderSummaryResponse>> getFolderSummaries(@RequestParam("userAddress") String userAddress) {
+        if (userAddress == null || userAddress.trim().isEmpty()) {
+            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.BAD_REQUEST);
+        }
+        List<FolderSummaryResponse> summaries = folderCatalogService.getFolders(userAddress).stream()
+                .map(entry -> FolderSummaryResponse.builder()
+                        .folderName(entry.getFolderName())
+                        .certificateCount(entry.getCertificateCount())
+                        .totalBytes(entry.getTotalBytes())
+                        .lastUploadAt(entry.getLastUploadAt() == null ? null
+                                : entry.getLastUploadAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                        .build())
+                .collect(Collectors.toList());
+        return new ResponseEntity<>(summaries, HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint untuk membangun ulang katalog folder dari tabel certificates.
+     * @return Jumlah folder di katalog baru.
+     */
+    @PostMapping("/folders/catalog/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildFolderCatalog() {
+        try {
+            int folders = folderCatalogService.rebuild();
+            return new ResponseEntity<>(Map.of("message", "Katalog folder dibangun ulang.", "folderCount", String.valueOf(folders)),
+                    HttpStatus.OK);
+        } catch (Exception e) {
+            System.err.println("Error saat membangun ulang katalog folder: " + e.getMessage());
+            return new ResponseEntity<>(Collections.singletonMap("message", "Gagal membangun ulang katalog folder."),
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Endpoint untuk mendapatkan daftar file dan metadatanya di dalam folder tertentu milik institusi.
+     * Hasil dipaginasi dengan kursor (keyset) pada (uploadTimestamp, id): jika masih ada halaman berikutnya,
+     * kursornya dikirim di header X-Next-Cursor dan dipakai sebagai parameter cursor pada request berikutnya.
      * @param folderName Nama folder.
      * @param userAddress Alamat MetaMask user/institusi.
+     * @param cursor Kursor dari header X-Next-Cursor halaman sebelumnya (kosong untuk halaman pertama).
+     * @param limit Jumlah sertifikat per halaman (maksimum 1000).
      * @return List of CertificateResponse objects for files in the specified folder.
      */
     @GetMapping("/folders/{folderName}/certificates")
     public ResponseEntity<List<CertificateResponse>> getCertificatesByFolder(
             @PathVariable String folderName,
-            @RequestParam("userAddress") String userAddress) {
-        if (userAddress == null || userAddress.trim().isEmpty()) {
+            @RequestParam("userAddress") String userAddress,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (userAddress == null || userAddress.trim().isEmpty() || limit < 1 || limit > MAX_PAGE_SIZE) {
             return new ResponseEntity<>(Collections.emptyList(), HttpStatus.BAD_REQUEST);
         }
 
         try {
-            List<Certificate> certificates = certificateService.getCertificatesByIssuerAddressAndFolder(userAddress, folderName);
-            // Konversi entitas Certificate ke DTO CertificateResponse
-            List<CertificateResponse> responseList = certificates.stream()
+            CertificatePage page = certificateService.getCertificatePage(userAddress, folderName, cursor, limit);
+            // Konversi proyeksi CertificateSummary ke DTO CertificateResponse
+            List<CertificateResponse> responseList = page.getItems().stream()
                     .map(cert -> CertificateResponse.builder()
                             .documentHash(cert.getDocumentHash())
                             .originalFileName(cert.getOriginalFileName())
@@ -195,10 +420,146 @@ public class CertificateController {
                             .uploadTimestamp(cert.getUploadTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
                             .build())
                     .collect(Collectors.toList());
-            return new ResponseEntity<>(responseList, HttpStatus.OK);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(responseList);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             System.err.println("Error saat mengambil sertifikat di folder: " + e.getMessage());
             return new ResponseEntity<>(Collections.emptyList(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    /**
+     * Endpoint negosiasi sebelum upload: klien menghitung SHA-256 file sendiri lalu menanyakan apakah hash tersebut
+     * sudah terdaftar. Jika sudah, file tidak perlu diunggah: setiap hash hanya terdaftar sekali, dan verifikasi
+     * cukup lewat {@code GET /api/verify/{documentHash}}.
+     * HEAD menjawab status yang sama tanpa body. Hash yang pasti belum terdaftar menurut indeks keanggotaan
+     * dijawab tanpa query database.
+     * @param documentHash Hash SHA-256 dokumen (64 karakter hex).
+     * @return 200 dengan metadata sertifikat tanpa localFilePath; 404 jika hash belum terdaftar; 400 jika format hash tidak valid.
+     */
+    @GetMapping("/certificates/{documentHash}")
+    public ResponseEntity<CertificateResponse> getCertificate(@PathVariable String documentHash) {
+        if (!DocumentHash.isValidHex(documentHash)) {
+            return new ResponseEntity<>(
+                    CertificateResponse.builder().message("Format hash dokumen tidak valid.").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        return certificateService.getCertificateByHash(DocumentHash.fromHex(documentHash))
+                .map(certificate -> {
+                    CertificateResponse response = toResponse(certificate, true, null);
+                    // Endpoint ini terbuka untuk siapa pun yang mengetahui hash: path penyimpanan internal tidak dikirim
+                    response.setLocalFilePath(null);
+                    return new ResponseEntity<>(response, HttpStatus.OK);
+                })
+                .orElseGet(() -> new ResponseEntity<>(
+                        CertificateResponse.builder().message("Sertifikat dengan hash ini tidak ditemukan.").build(),
+                        HttpStatus.NOT_FOUND
+                ));
+    }
+
+    /**
+     * Endpoint untuk mencari sertifikat institusi berdasarkan nama file atau nama folder (awalan maupun
+     * potongan kata, tidak peka huruf besar/kecil). Beberapa kata dipisah spasi harus cocok semua.
+     * Hasil diurutkan dari yang paling relevan (nama file sama persis, berawalan kata kunci, lalu potongan kata,
+     * lalu nama folder) dan dipaginasi dengan offset; jumlah semua hasil dikirim di header X-Total-Count.
+     * @param userAddress Alamat MetaMask user/institusi.
+     * @param query Kata kunci pencarian.
+     * @param offset Jumlah hasil yang dilewati.
+     * @param limit Jumlah hasil per halaman (maksimum 1000).
+     * @return List of CertificateResponse, atau 503 selama indeks pencarian masih dibangun.
+     */
+    @GetMapping("/certificates/search")
+    public ResponseEntity<List<CertificateResponse>> searchCertificates(
+            @RequestParam("userAddress") String userAddress,
+            @RequestParam("q") String query,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        if (userAddress == null || userAddress.trim().isEmpty() || query == null || query.isBlank()
+                || offset < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            CertificateSearchPage page = certificateService.searchCertificates(userAddress, query, offset, limit);
+            List<CertificateResponse> responseList = page.getItems().stream()
+                    .map(cert -> toResponse(cert, false, null))
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotal()))
+                    .body(responseList);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Collections.emptyList());
+        } catch (Exception e) {
+            System.err.println("Error saat mencari sertifikat: " + e.getMessage());
+            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Endpoint untuk mengunduh seluruh sertifikat milik institusi sebagai CSV atau NDJSON (untuk audit).
+     * Baris di-stream langsung dari database ke response sehingga memori server tetap berapa pun jumlahnya.
+     * @param userAddress Alamat MetaMask user/institusi.
+     * @param format csv (default) atau ndjson.
+     * @param gzip true untuk mengunduh file terkompresi (.gz).
+     * @return File ekspor sebagai attachment.
+     */
+    @GetMapping("/certificates/export")
+    public ResponseEntity<StreamingResponseBody> exportCertificates(
+            @RequestParam("userAddress") String userAddress,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        CertificateExportService.Format exportFormat;
+        try {
+            exportFormat = CertificateExportService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)), HttpStatus.BAD_REQUEST);
+        }
+        if (userAddress == null || userAddress.trim().isEmpty()) {
+            return new ResponseEntity<>(out -> out.write("userAddress wajib diisi.".getBytes(StandardCharsets.UTF_8)),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        String fileName = "certificates-" + userAddress + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            try {
+                certificateExportService.export(userAddress, exportFormat, gzip, out);
+            } catch (IOException e) {
+                // Biasanya klien memutus koneksi di tengah unduhan; status response sudah terkirim
+                System.err.println("Ekspor untuk " + userAddress + " terhenti: " + e.getMessage());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    private CertificateResponse toResponse(Certificate certificate, boolean alreadyRegistered, String message) {
+        return CertificateResponse.builder()
+                .documentHash(certificate.getDocumentHash())
+                .originalFileName(certificate.getOriginalFileName())
+                .localFilePath(certificate.getLocalFilePath())
+                .folderName(certificate.getFolderName())
+                .issuerAddress(certificate.getIssuerAddress())
+                .uploadTimestamp(certificate.getUploadTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .alreadyRegistered(alreadyRegistered)
+                .message(message)
+                .build();
+    }
+
+    private <T> ResponseEntity<T> tooManyRequests(RateLimitedException e, T body) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
 }
@@ -0,0 +1,55 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.service.ChainEventIndexer;
+import com.authenticity.taranium_certs.service.ChainRegistryClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * REST Controller untuk status integrasi blockchain di backend (indexer event dan lookup kontrak).
+ */
+@RestController
+@RequestMapping("/api/chain")
+public class ChainController {
+
+    private final ChainEventIndexer chainEventIndexer;
+    private final ChainRegistryClient chainRegistryClient;
+
+    public ChainController(ChainEventIndexer chainEventIndexer, ChainRegistryClient chainRegistryClient) {
+        this.chainEventIndexer = chainEventIndexer;
+        this.chainRegistryClient = chainRegistryClient;
+    }
+
+    /**
+     * Endpoint untuk melihat progres indexer event CertificateRegistered.
+     * @return Status indexer dan blok terakhir yang sudah diindeks.
+     */
+    @GetMapping("/indexer")
+    public ResponseEntity<Map<String, String>> getIndexerStatus() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("enabled", String.valueOf(chainEventIndexer.isEnabled()));
+        chainEventIndexer.getCheckpoint().ifPresent(checkpoint -> {
+            status.put("lastBlock", String.valueOf(checkpoint.getLastBlock()));
+            status.put("lastBlockHash", checkpoint.getLastBlockHash());
+            status.put("updatedAt", checkpoint.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        });
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint untuk melihat statistik lookup langsung ke kontrak (cache, batch, circuit breaker).
+     * @return Statistik lookup.
+     */
+    @GetMapping("/lookup")
+    public ResponseEntity<Map<String, String>> getLookupStats() {
+        return new ResponseEntity<>(new TreeMap<>(chainRegistryClient.getStats()), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,257 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.dto.CertificateResponse;
+import com.authenticity.taranium_certs.dto.UploadSessionResponse;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.exception.RateLimitedException;
+import com.authenticity.taranium_certs.exception.StorageException;
+import com.authenticity.taranium_certs.exception.UploadSessionException;
+import com.authenticity.taranium_certs.service.AdmissionService;
+import com.authenticity.taranium_certs.service.CertificateService;
+import com.authenticity.taranium_certs.service.ChunkedUploadService;
+import com.authenticity.taranium_certs.service.PipelineMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * REST Controller untuk upload sertifikat bertahap yang dapat dilanjutkan setelah koneksi terputus.
+ * Alur: POST /api/uploads, PUT /api/uploads/{id}/chunks/{n} untuk n = 0, 1, ..., lalu POST /api/uploads/{id}/complete.
+ * Setelah terputus, GET /api/uploads/{id} memberi tahu potongan berikutnya yang harus dikirim.
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+    private final PipelineMetrics pipelineMetrics;
+    private final AdmissionService admissionService;
+
+    public ChunkedUploadController(ChunkedUploadService chunkedUploadService, PipelineMetrics pipelineMetrics,
+                                   AdmissionService admissionService) {
+        this.chunkedUploadService = chunkedUploadService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.admissionService = admissionService;
+    }
+
+    /**
+     * Endpoint untuk memulai sesi upload bertahap.
+     * @param originalFileName Nama asli file.
+     * @param folderName Nama folder tempat file akan disimpan lokal.
+     * @param issuerAddress Alamat MetaMask institusi yang mengunggah.
+     * @param totalSize Ukuran file dalam byte (opsional); jika diisi, penyelesaian memeriksa kelengkapan data.
+     * @return 201 dengan status sesi dan header Location.
+     */
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> initiate(
+            @RequestParam("originalFileName") String originalFileName,
+            @RequestParam("folderName") String folderName,
+            @RequestParam("issuerAddress") String issuerAddress,
+            @RequestParam(value = "totalSize", required = false) Long totalSize) {
+
+        if (originalFileName == null || originalFileName.trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    UploadSessionResponse.builder().message("Nama file tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (folderName == null || folderName.trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    UploadSessionResponse.builder().message("Nama folder tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        if (issuerAddress == null || issuerAddress.trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    UploadSessionResponse.builder().message("Alamat institusi (MetaMask) tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        try {
+            admissionService.checkIssuer(issuerAddress, 0);
+            UploadSessionResponse session = chunkedUploadService.initiate(originalFileName, folderName, issuerAddress, totalSize);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(HttpHeaders.LOCATION, "/api/uploads/" + session.getUploadId())
+                    .body(session);
+        } catch (UploadSessionException e) {
+            return new ResponseEntity<>(UploadSessionResponse.builder().message(e.getMessage()).build(), statusOf(e));
+        } catch (RateLimitedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            return tooManyRequests(e, UploadSessionResponse.builder().message(e.getMessage()).build());
+        } catch (NoSuchAlgorithmException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            System.err.println("Algoritma hash tidak ditemukan: " + e.getMessage());
+            return new ResponseEntity<>(
+                    UploadSessionResponse.builder().message("Error server: Algoritma hash tidak tersedia.").build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        } catch (StorageException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            System.err.println("Error penyimpanan file: " + e.getMessage());
+            return new ResponseEntity<>(
+                    UploadSessionResponse.builder().message("Error penyimpanan file: " + e.getMessage()).build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
+    /**
+     * Endpoint untuk melihat status sesi (byte yang sudah diterima dan potongan berikutnya).
+     * @param uploadId Id sesi.
+     * @return Status sesi, atau 404 jika sesi tidak ditemukan atau sudah kedaluwarsa.
+     */
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String uploadId) {
+        try {
+            return new ResponseEntity<>(chunkedUploadService.getSession(uploadId), HttpStatus.OK);
+        } catch (UploadSessionException e) {
+            return new ResponseEntity<>(UploadSessionResponse.builder().uploadId(uploadId).message(e.getMessage()).build(), statusOf(e));
+        }
+    }
+
+    /**
+     * Endpoint untuk mengirim satu potongan sebagai body mentah (misalnya application/octet-stream).
+     * @param uploadId Id sesi.
+     * @param index Nomor potongan, mulai dari 0.
+     * @param body Isi potongan.
+     * @param contentLength Ukuran potongan, dihitung ke kuota byte issuer; potongan tanpa Content-Length hanya dihitung sebagai request.
+     * @return Status sesi; 409 jika potongan tidak berurutan, 413 jika melebihi batas ukuran, 429 jika kuota issuer habis.
+     */
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<UploadSessionResponse> putChunk(@PathVariable String uploadId, @PathVariable int index,
+                                                          InputStream body,
+                                                          @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
+        if (index < 0) {
+            return new ResponseEntity<>(
+                    UploadSessionResponse.builder().uploadId(uploadId).message("Nomor potongan tidak valid.").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        try {
+            String issuerAddress = chunkedUploadService.getSession(uploadId).getIssuerAddress();
+            try (AdmissionService.Permit permit = admissionService.admit(issuerAddress, contentLength == null ? 0 : contentLength)) {
+                return new ResponseEntity<>(chunkedUploadService.appendChunk(uploadId, index, body), HttpStatus.OK);
+            }
+        } catch (UploadSessionException e) {
+            return new ResponseEntity<>(UploadSessionResponse.builder().uploadId(uploadId).message(e.getMessage()).build(), statusOf(e));
+        } catch (RateLimitedException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            return tooManyRequests(e, UploadSessionResponse.builder().uploadId(uploadId).message(e.getMessage()).build());
+        } catch (StorageException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            System.err.println("Error penyimpanan potongan: " + e.getMessage());
+            return new ResponseEntity<>(
+                    UploadSessionResponse.builder().uploadId(uploadId).message("Error penyimpanan file: " + e.getMessage()).build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
+    /**
+     * Endpoint untuk menyelesaikan sesi dan mendaftarkan sertifikat.
+     * @param uploadId Id sesi.
+     * @param expectedHash Hash SHA-256 yang dihitung klien (opsional) untuk memastikan isi file utuh.
+     * @return 201 dengan hash, path file lokal, dan pesan; 200 dengan sertifikat yang sudah ada jika hash sudah terdaftar;
+     *         400 jika expectedHash bukan hash yang valid.
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<CertificateResponse> complete(@PathVariable String uploadId,
+                                                        @RequestParam(value = "expectedHash", required = false) String expectedHash) {
+        DocumentHash expected = null;
+        if (expectedHash != null && !expectedHash.isBlank()) {
+            if (!DocumentHash.isValidHex(expectedHash)) {
+                return new ResponseEntity<>(
+                        CertificateResponse.builder().message("Format expectedHash tidak valid.").build(),
+                        HttpStatus.BAD_REQUEST
+                );
+            }
+            expected = DocumentHash.fromHex(expectedHash);
+        }
+        try {
+            CertificateService.Registration registration = chunkedUploadService.complete(uploadId, expected);
+            Certificate certificate = registration.certificate();
+            return new ResponseEntity<>(
+                    CertificateResponse.builder()
+                            .documentHash(certificate.getDocumentHash())
+                            .originalFileName(certificate.getOriginalFileName())
+                            .localFilePath(certificate.getLocalFilePath())
+                            .folderName(certificate.getFolderName())
+                            .issuerAddress(certificate.getIssuerAddress())
+                            .uploadTimestamp(certificate.getUploadTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                            .alreadyRegistered(!registration.isCreated())
+                            .message(registration.isCreated() ? "File berhasil diunggah, di-hash, dan metadata disimpan."
+                                    : "Sertifikat dengan hash ini sudah terdaftar.")
+                            .build(),
+                    registration.isCreated() ? HttpStatus.CREATED : HttpStatus.OK
+            );
+        } catch (UploadSessionException e) {
+            return new ResponseEntity<>(CertificateResponse.builder().message(e.getMessage()).build(), statusOf(e));
+        } catch (StorageException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            System.err.println("Error penyimpanan file: " + e.getMessage());
+            return new ResponseEntity<>(
+                    CertificateResponse.builder().message("Error penyimpanan file: " + e.getMessage()).build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        } catch (NoSuchAlgorithmException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            System.err.println("Algoritma hash tidak ditemukan: " + e.getMessage());
+            return new ResponseEntity<>(
+                    CertificateResponse.builder().message("Error server: Algoritma hash tidak tersedia.").build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        } catch (Exception e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, e);
+            System.err.println("Error umum saat menyelesaikan upload: " + e.getMessage());
+            return new ResponseEntity<>(
+                    CertificateResponse.builder().message("Terjadi kesalahan yang tidak terduga: " + e.getMessage()).build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
+    /**
+     * Endpoint untuk membatalkan sesi dan menghapus data yang sudah diterima.
+     * @param uploadId Id sesi.
+     * @return 204 jika sesi dibatalkan, 404 jika sesi tidak ditemukan.
+     */
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (UploadSessionException e) {
+            return new ResponseEntity<>(statusOf(e));
+        }
+    }
+
+    private <T> ResponseEntity<T> tooManyRequests(RateLimitedException e, T body) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    private HttpStatus statusOf(UploadSessionException e) {
+        return switch (e.getReason()) {
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case OUT_OF_ORDER -> HttpStatus.CONFLICT;
+            case TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+            case INVALID -> HttpStatus.BAD_REQUEST;
+        };
+    }
+}
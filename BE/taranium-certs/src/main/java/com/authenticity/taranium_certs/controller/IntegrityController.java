@@ -0,0 +1,74 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.dto.ScrubStatusResponse;
+import com.authenticity.taranium_certs.entity.IntegrityIssue;
+import com.authenticity.taranium_certs.repository.IntegrityIssueRepository;
+import com.authenticity.taranium_certs.service.IntegrityScrubber;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller untuk pemeriksaan integritas file tersimpan (scrubber).
+ */
+@RestController
+@RequestMapping("/api/integrity")
+public class IntegrityController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final IntegrityScrubber integrityScrubber;
+    private final IntegrityIssueRepository integrityIssueRepository;
+
+    public IntegrityController(IntegrityScrubber integrityScrubber, IntegrityIssueRepository integrityIssueRepository) {
+        this.integrityScrubber = integrityScrubber;
+        this.integrityIssueRepository = integrityIssueRepository;
+    }
+
+    /**
+     * Endpoint untuk melihat progres dan throughput pemeriksaan serta jumlah issue terbuka.
+     * @return Status pemeriksa integritas.
+     */
+    @GetMapping("/status")
+    public ResponseEntity<ScrubStatusResponse> getStatus() {
+        return new ResponseEntity<>(integrityScrubber.getStatus(), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint untuk mengambil issue integritas yang masih terbuka, urut id.
+     * @param afterId id issue terakhir dari halaman sebelumnya (0 untuk halaman pertama).
+     * @param limit Jumlah issue per halaman (maksimum 1000).
+     * @return List issue terbuka.
+     */
+    @GetMapping("/issues")
+    public ResponseEntity<List<IntegrityIssue>> getOpenIssues(
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(Collections.emptyList(), HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(integrityIssueRepository.findByResolvedAtIsNullAndIdGreaterThanOrderById(afterId, Limit.of(limit)),
+                HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint untuk memulai putaran pemeriksaan di latar belakang tanpa menunggu jadwal.
+     * @return 202 jika putaran dimulai, 409 jika putaran lain sedang berjalan.
+     */
+    @PostMapping("/scrub")
+    public ResponseEntity<Map<String, String>> startScrub() {
+        if (!integrityScrubber.startAsync()) {
+            return new ResponseEntity<>(Collections.singletonMap("message", "Pemeriksaan integritas sedang berjalan."), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(Collections.singletonMap("message", "Pemeriksaan integritas dimulai."), HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,128 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.dto.InclusionProofResponse;
+import com.authenticity.taranium_certs.dto.MerkleBatchRequest;
+import com.authenticity.taranium_certs.dto.MerkleBatchResponse;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.MerkleBatch;
+import com.authenticity.taranium_certs.service.MerkleService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * REST Controller untuk anchoring batch sertifikat dengan pohon Merkle.
+ * Backend membangun pohon dan menyimpan bukti inklusi; frontend mengirim satu transaksi anchorRoot
+ * untuk root batch, lalu saat verifikasi cukup mengecek root tersebut di blockchain.
+ */
+@RestController
+@RequestMapping("/api")
+public class MerkleController {
+
+    private final MerkleService merkleService;
+
+    public MerkleController(MerkleService merkleService) {
+        this.merkleService = merkleService;
+    }
+
+    /**
+     * Endpoint untuk membangun batch Merkle dari sertifikat sebuah folder atau dari daftar hash.
+     * @param request Alamat institusi, nama folder, dan daftar hash opsional.
+     * @return ResponseEntity yang berisi root yang perlu di-anchor.
+     */
+    @PostMapping("/merkle/batches")
+    public ResponseEntity<MerkleBatchResponse> createBatch(@RequestBody MerkleBatchRequest request) {
+        if (request.getIssuerAddress() == null || request.getIssuerAddress().trim().isEmpty()) {
+            return new ResponseEntity<>(
+                    MerkleBatchResponse.builder().message("Alamat institusi (MetaMask) tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+        boolean noHashes = request.getDocumentHashes() == null || request.getDocumentHashes().isEmpty();
+        if (noHashes && (request.getFolderName() == null || request.getFolderName().trim().isEmpty())) {
+            return new ResponseEntity<>(
+                    MerkleBatchResponse.builder().message("Nama folder atau daftar hash harus diisi!").build(),
+                    HttpStatus.BAD_REQUEST
+            );
+        }
+
+        try {
+            MerkleBatch batch = merkleService.createBatch(request.getIssuerAddress(), request.getFolderName(), request.getDocumentHashes());
+            return new ResponseEntity<>(toResponse(batch, "Batch Merkle berhasil dibuat. Anchor root ini ke blockchain."), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(MerkleBatchResponse.builder().message(e.getMessage()).build(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            System.err.println("Error umum saat membuat batch Merkle: " + e.getMessage());
+            return new ResponseEntity<>(
+                    MerkleBatchResponse.builder().message("Terjadi kesalahan yang tidak terduga: " + e.getMessage()).build(),
+                    HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
+    /**
+     * Endpoint untuk mendapatkan informasi batch Merkle.
+     * @param batchId Id batch.
+     * @return ResponseEntity yang berisi batch.
+     */
+    @GetMapping("/merkle/batches/{batchId}")
+    public ResponseEntity<MerkleBatchResponse> getBatch(@PathVariable Long batchId) {
+        return merkleService.getBatch(batchId)
+                .map(batch -> new ResponseEntity<>(toResponse(batch, null), HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(
+                        MerkleBatchResponse.builder().message("Batch tidak ditemukan.").build(), HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Endpoint untuk mencatat hash transaksi yang meng-anchor root batch ke blockchain.
+     * @param batchId Id batch.
+     * @param txHash Hash transaksi anchorRoot.
+     * @return ResponseEntity yang berisi batch yang diperbarui.
+     */
+    @PutMapping("/merkle/batches/{batchId}/anchor")
+    public ResponseEntity<MerkleBatchResponse> recordAnchor(@PathVariable Long batchId, @RequestParam("txHash") String txHash) {
+        if (txHash == null || txHash.trim().isEmpty()) {
+            return new ResponseEntity<>(MerkleBatchResponse.builder().message("Hash transaksi tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST);
+        }
+        return merkleService.recordAnchor(batchId, txHash)
+                .map(batch -> new ResponseEntity<>(toResponse(batch, "Transaksi anchor dicatat."), HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(
+                        MerkleBatchResponse.builder().message("Batch tidak ditemukan.").build(), HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Endpoint untuk mendapatkan bukti inklusi Merkle sebuah sertifikat.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return ResponseEntity yang berisi bukti inklusi; 400 jika hash bukan 64 karakter hex.
+     */
+    @GetMapping("/certificates/{documentHash}/proof")
+    public ResponseEntity<InclusionProofResponse> getProof(@PathVariable String documentHash) {
+        if (!DocumentHash.isValidHex(documentHash)) {
+            return new ResponseEntity<>(InclusionProofResponse.builder().message("Format hash dokumen tidak valid.").build(),
+                    HttpStatus.BAD_REQUEST);
+        }
+        DocumentHash hash = DocumentHash.fromHex(documentHash);
+        return merkleService.getProof(hash)
+                .map(proof -> new ResponseEntity<>(proof, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(
+                        InclusionProofResponse.builder().documentHash(hash)
+                                .message("Sertifikat belum masuk ke batch Merkle mana pun.").build(),
+                        HttpStatus.NOT_FOUND));
+    }
+
+    private MerkleBatchResponse toResponse(MerkleBatch batch, String message) {
+        return MerkleBatchResponse.builder()
+                .batchId(batch.getId())
+                .rootHash(batch.getRootHash())
+                .leafCount(batch.getLeafCount())
+                .issuerAddress(batch.getIssuerAddress())
+                .folderName(batch.getFolderName())
+                .createdAt(batch.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .anchorTxHash(batch.getAnchorTxHash())
+                .message(message)
+                .build();
+    }
+}
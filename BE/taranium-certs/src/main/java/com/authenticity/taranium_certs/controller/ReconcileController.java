@@ -0,0 +1,46 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.dto.ReconcileReport;
+import com.authenticity.taranium_certs.service.UploadReconciler;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller untuk rekonsiliasi direktori upload dengan metadata sertifikat di database.
+ */
+@RestController
+@RequestMapping("/api/reconcile")
+public class ReconcileController {
+
+    private final UploadReconciler uploadReconciler;
+
+    public ReconcileController(UploadReconciler uploadReconciler) {
+        this.uploadReconciler = uploadReconciler;
+    }
+
+    /**
+     * Endpoint untuk melihat laporan rekonsiliasi terakhir atau yang sedang berjalan
+     * (jumlah file, baris yang ditambahkan, drift, durasi, dan throughput).
+     * @return Laporan rekonsiliasi.
+     */
+    @GetMapping
+    public ResponseEntity<ReconcileReport> getReport() {
+        return new ResponseEntity<>(uploadReconciler.getReport(), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint untuk memulai rekonsiliasi di latar belakang.
+     * @return 202 jika rekonsiliasi dimulai, 409 jika rekonsiliasi lain masih berjalan.
+     */
+    @PostMapping
+    public ResponseEntity<ReconcileReport> startReconcile() {
+        if (!uploadReconciler.startAsync()) {
+            return new ResponseEntity<>(uploadReconciler.getReport(), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(uploadReconciler.getReport(), HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,244 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.config.StreamingUploadProperties;
+import com.authenticity.taranium_certs.dto.CertificateResponse;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.exception.PipelineOverloadedException;
+import com.authenticity.taranium_certs.exception.RateLimitedException;
+import com.authenticity.taranium_certs.exception.StorageException;
+import com.authenticity.taranium_certs.exception.UploadSessionException;
+import com.authenticity.taranium_certs.service.AdmissionService;
+import com.authenticity.taranium_certs.service.CertificateService;
+import com.authenticity.taranium_certs.service.ChainStatusService;
+import com.authenticity.taranium_certs.service.PipelineMetrics;
+import com.authenticity.taranium_certs.service.StreamingUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * REST Controller untuk pendaftaran dan verifikasi sertifikat dengan body non-blocking.
+ * Berbeda dari {@code /api/register} dan {@code /api/verify} (multipart, satu thread Tomcat per upload selama body
+ * diterima), file dikirim sebagai body mentah (misalnya application/octet-stream) dan thread request langsung
+ * dilepas; body dibaca oleh {@link StreamingUploadService} hanya saat data tersedia. Ribuan upload lambat
+ * dapat berjalan bersamaan dengan jumlah thread container yang tetap kecil.
+ */
+@RestController
+@RequestMapping("/api/stream")
+public class StreamingCertificateController {
+
+    private static final String BODY_READER_KEY = StreamingCertificateController.class.getName() + ".bodyReader";
+
+    private final StreamingUploadService streamingUploadService;
+    private final StreamingUploadProperties streamingUploadProperties;
+    private final ChainStatusService chainStatusService;
+    private final AdmissionService admissionService;
+    private final PipelineMetrics pipelineMetrics;
+
+    public StreamingCertificateController(StreamingUploadService streamingUploadService,
+                                          StreamingUploadProperties streamingUploadProperties,
+                                          ChainStatusService chainStatusService, AdmissionService admissionService,
+                                          PipelineMetrics pipelineMetrics) {
+        this.streamingUploadService = streamingUploadService;
+        this.streamingUploadProperties = streamingUploadProperties;
+        this.chainStatusService = chainStatusService;
+        this.admissionService = admissionService;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * Endpoint untuk mendaftarkan sertifikat yang dikirim sebagai body mentah. Hasilnya sama dengan POST /api/register.
+     * @param originalFileName Nama asli file.
+     * @param folderName Nama folder tempat file akan disimpan lokal.
+     * @param issuerAddress Alamat MetaMask institusi yang mengunggah.
+     * @param request Request yang body-nya berisi file.
+     * @return 201 untuk pendaftaran baru; 200 (alreadyRegistered = true) jika hash sudah terdaftar; 413 jika melebihi
+     *         batas ukuran; 429 jika kuota issuer habis; 503 + Retry-After jika semua slot upload terpakai.
+     */
+    @PostMapping("/register")
+    public DeferredResult<ResponseEntity<CertificateResponse>> registerCertificate(
+            @RequestParam("originalFileName") String originalFileName,
+            @RequestParam("folderName") String folderName,
+            @RequestParam("issuerAddress") String issuerAddress,
+            HttpServletRequest request) {
+
+        if (originalFileName == null || originalFileName.trim().isEmpty()) {
+            return completed(new ResponseEntity<>(
+                    CertificateResponse.builder().message("Nama file tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            ));
+        }
+        if (folderName == null || folderName.trim().isEmpty()) {
+            return completed(new ResponseEntity<>(
+                    CertificateResponse.builder().message("Nama folder tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            ));
+        }
+        if (issuerAddress == null || issuerAddress.trim().isEmpty()) {
+            return completed(new ResponseEntity<>(
+                    CertificateResponse.builder().message("Alamat institusi (MetaMask) tidak boleh kosong!").build(),
+                    HttpStatus.BAD_REQUEST
+            ));
+        }
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > streamingUploadProperties.getMaxFileSize().toBytes()) {
+            return completed(new ResponseEntity<>(
+                    CertificateResponse.builder().message("Ukuran file melebihi batas "
+                            + streamingUploadProperties.getMaxFileSize().toMegabytes() + " MB.").build(),
+                    HttpStatus.PAYLOAD_TOO_LARGE
+            ));
+        }
+
+        StreamingUploadService.Transfer transfer;
+        try {
+            // Tanpa Content-Length upload hanya dihitung sebagai request pada kuota issuer
+            admissionService.checkIssuer(issuerAddress, Math.max(contentLength, 0));
+            transfer = streamingUploadService.begin(PipelineMetrics.Endpoint.REGISTER_STREAM, true);
+        } catch (Exception e) {
+            return completed(registrationError(e));
+        }
+
+        return receive(request, transfer, received -> {
+            try {
+                CertificateService.Registration registration = streamingUploadService.register(received,
+                        originalFileName, folderName, issuerAddress);
+                Certificate certificate = registration.certificate();
+                return new ResponseEntity<>(
+                        CertificateResponse.builder()
+                                .documentHash(certificate.getDocumentHash())
+                                .originalFileName(certificate.getOriginalFileName())
+                                .localFilePath(certificate.getLocalFilePath())
+                                .folderName(certificate.getFolderName())
+                                .issuerAddress(certificate.getIssuerAddress())
+                                .uploadTimestamp(certificate.getUploadTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                                .alreadyRegistered(!registration.isCreated())
+                                .message(registration.isCreated() ? "File berhasil diunggah, di-hash, dan metadata disimpan."
+                                        : "Sertifikat dengan hash ini sudah terdaftar.")
+                                .build(),
+                        registration.isCreated() ? HttpStatus.CREATED : HttpStatus.OK
+                );
+            } catch (Exception e) {
+                return registrationError(e);
+            }
+        }, this::registrationError);
+    }
+
+    /**
+     * Endpoint untuk memverifikasi sertifikat yang dikirim sebagai body mentah. Hasilnya sama dengan POST /api/verify.
+     * @param request Request yang body-nya berisi file.
+     * @return Hash dokumen dan status on-chain; 413 jika melebihi batas ukuran; 503 + Retry-After jika semua slot upload terpakai.
+     */
+    @PostMapping("/verify")
+    public DeferredResult<ResponseEntity<Map<String, String>>> verifyCertificate(HttpServletRequest request) {
+        if (request.getContentLengthLong() > streamingUploadProperties.getMaxFileSize().toBytes()) {
+            return completed(new ResponseEntity<>(Collections.singletonMap("message", "Ukuran file melebihi batas "
+                    + streamingUploadProperties.getMaxFileSize().toMegabytes() + " MB."), HttpStatus.PAYLOAD_TOO_LARGE));
+        }
+
+        StreamingUploadService.Transfer transfer;
+        try {
+            transfer = streamingUploadService.begin(PipelineMetrics.Endpoint.VERIFY_STREAM, false);
+        } catch (Exception e) {
+            return completed(verificationError(e));
+        }
+
+        return receive(request, transfer, received -> {
+            try {
+                streamingUploadService.recordVerification(received);
+                // Slot dilepas sebelum lookup on-chain: isi file sudah tidak dibutuhkan
+                received.close();
+                return new ResponseEntity<>(chainStatusService.describe(received.getDocumentHash()), HttpStatus.OK);
+            } catch (Exception e) {
+                return verificationError(e);
+            }
+        }, this::verificationError);
+    }
+
+    /**
+     * Mengembalikan DeferredResult yang body request-nya mulai dibaca segera setelah request masuk mode asinkron
+     * (ReadListener hanya boleh dipasang setelah itu). Slot upload dilepas saat request selesai dengan cara apa pun,
+     * termasuk timeout.
+     */
+    private <T> DeferredResult<ResponseEntity<T>> receive(HttpServletRequest request, StreamingUploadService.Transfer transfer,
+                                                          Function<StreamingUploadService.Transfer, ResponseEntity<T>> onComplete,
+                                                          Function<Throwable, ResponseEntity<T>> onFailure) {
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>();
+        result.onCompletion(transfer::close);
+        WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(BODY_READER_KEY,
+                new DeferredResultProcessingInterceptor() {
+                    @Override
+                    public <S> void preProcess(NativeWebRequest webRequest, DeferredResult<S> deferredResult) throws IOException {
+                        streamingUploadService.receive(request.getInputStream(), transfer,
+                                () -> result.setResult(onComplete.apply(transfer)),
+                                error -> result.setResult(onFailure.apply(error)));
+                    }
+                });
+        return result;
+    }
+
+    private ResponseEntity<CertificateResponse> registrationError(Throwable e) {
+        return error(PipelineMetrics.Endpoint.REGISTER_STREAM, e,
+                message -> CertificateResponse.builder().message(message).build());
+    }
+
+    private ResponseEntity<Map<String, String>> verificationError(Throwable e) {
+        return error(PipelineMetrics.Endpoint.VERIFY_STREAM, e, message -> Collections.singletonMap("message", message));
+    }
+
+    private <T> ResponseEntity<T> error(PipelineMetrics.Endpoint endpoint, Throwable e, Function<String, T> body) {
+        if (e instanceof UploadSessionException uploadError) {
+            HttpStatus status = uploadError.getReason() == UploadSessionException.Reason.TOO_LARGE
+                    ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST;
+            return new ResponseEntity<>(body.apply(e.getMessage()), status);
+        }
+        pipelineMetrics.recordError(endpoint, e);
+        if (e instanceof RateLimitedException rateLimited) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimited.getRetryAfterSeconds()))
+                    .body(body.apply(e.getMessage()));
+        }
+        if (e instanceof PipelineOverloadedException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(streamingUploadProperties.getRetryAfter().toSeconds()))
+                    .body(body.apply(e.getMessage()));
+        }
+        if (e instanceof IOException) {
+            // Error baca dari container, biasanya klien memutus koneksi di tengah upload
+            System.err.println("Upload terputus: " + e.getMessage());
+            return new ResponseEntity<>(body.apply("Upload terputus sebelum selesai."), HttpStatus.BAD_REQUEST);
+        }
+        if (e instanceof StorageException) {
+            System.err.println("Error penyimpanan file: " + e.getMessage());
+            return new ResponseEntity<>(body.apply("Error penyimpanan file: " + e.getMessage()), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        if (e instanceof NoSuchAlgorithmException) {
+            System.err.println("Algoritma hash tidak ditemukan: " + e.getMessage());
+            return new ResponseEntity<>(body.apply("Error server: Algoritma hash tidak tersedia."), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        System.err.println("Error umum saat menerima upload streaming: " + e.getMessage());
+        return new ResponseEntity<>(body.apply("Terjadi kesalahan yang tidak terduga: " + e.getMessage()),
+                HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static <T> DeferredResult<T> completed(T value) {
+        DeferredResult<T> result = new DeferredResult<>();
+        result.setResult(value);
+        return result;
+    }
+}
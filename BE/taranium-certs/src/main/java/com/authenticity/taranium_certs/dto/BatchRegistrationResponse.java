@@ -0,0 +1,40 @@
+package com.authenticity.taranium_certs.dto;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO hasil pendaftaran sertifikat secara batch, berisi hasil per file.
+ * Kegagalan satu file tidak membatalkan file lain dalam batch. File yang hash-nya sudah terdaftar dihitung
+ * berhasil dengan alreadyRegistered = true dan berisi sertifikat yang sudah ada.
+ */
+@Data
+@Builder
+public class BatchRegistrationResponse {
+    private String folderName;
+    private String issuerAddress;
+    private int totalFiles;
+    private int registeredCount;
+    private int alreadyRegisteredCount;
+    private int failedCount;
+    private List<FileResult> results;
+    private String message;
+
+    /**
+     * Hasil pendaftaran untuk satu file dalam batch.
+     */
+    @Data
+    @Builder(toBuilder = true)
+    public static class FileResult {
+        private String originalFileName;
+        private boolean success;
+        private boolean alreadyRegistered;
+        private DocumentHash documentHash;
+        private String localFilePath;
+        private String uploadTimestamp;
+        private String message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.authenticity.taranium_certs.dto;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO satu baris hasil verifikasi massal (satu entri arsip ZIP), ditulis sebagai satu baris NDJSON.
+ */
+@Data
+@Builder
+public class BulkVerificationResult {
+    private String entryName;
+    private DocumentHash documentHash;
+    private long size;
+    private boolean known; // true jika hash terdaftar di database lokal
+    private String error;
+}
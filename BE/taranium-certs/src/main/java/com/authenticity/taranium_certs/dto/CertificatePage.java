@@ -0,0 +1,16 @@
+package com.authenticity.taranium_certs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Satu halaman isi folder beserta kursor halaman berikutnya (null jika sudah halaman terakhir).
+ */
+@Data
+@AllArgsConstructor
+public class CertificatePage {
+    private List<CertificateSummary> items;
+    private String nextCursor;
+}
@@ -1,5 +1,7 @@
 package com.authenticity.taranium_certs.dto;
 
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
@@ -9,11 +11,13 @@ import lombok.Data;
 @Data
 @Builder
 public class CertificateResponse {
-    private String documentHash;
+    private DocumentHash documentHash;
     private String originalFileName;
+    @JsonInclude(JsonInclude.Include.NON_NULL) // Tidak dikirim pada lookup publik berdasarkan hash
     private String localFilePath;
     private String folderName;
     private String issuerAddress; // <--- Berubah: dari issuerEmail menjadi issuerAddress
     private String uploadTimestamp;
+    private boolean alreadyRegistered; // true jika hash sudah terdaftar sebelumnya; data di atas milik pendaftaran tersebut
     private String message;
 }
@@ -0,0 +1,17 @@
+package com.authenticity.taranium_certs.dto;
+
+import com.authenticity.taranium_certs.entity.Certificate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Satu halaman hasil pencarian sertifikat (urut relevansi) beserta jumlah semua hasil yang cocok.
+ */
+@Data
+@AllArgsConstructor
+public class CertificateSearchPage {
+    private List<Certificate> items;
+    private int total;
+}
@@ -0,0 +1,23 @@
+package com.authenticity.taranium_certs.dto;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyeksi baris certificates untuk daftar isi folder.
+ * Diisi langsung oleh query JPQL (constructor expression) tanpa memuat entitas Certificate ke persistence context.
+ */
+@Data
+@AllArgsConstructor
+public class CertificateSummary {
+    private Long id;
+    private DocumentHash documentHash;
+    private String originalFileName;
+    private String localFilePath;
+    private String folderName;
+    private String issuerAddress;
+    private LocalDateTime uploadTimestamp;
+}
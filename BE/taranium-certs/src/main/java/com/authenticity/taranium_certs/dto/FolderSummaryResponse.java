@@ -0,0 +1,16 @@
+package com.authenticity.taranium_certs.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO untuk ringkasan satu folder dari katalog folder.
+ */
+@Data
+@Builder
+public class FolderSummaryResponse {
+    private String folderName;
+    private long certificateCount;
+    private long totalBytes;
+    private String lastUploadAt;
+}
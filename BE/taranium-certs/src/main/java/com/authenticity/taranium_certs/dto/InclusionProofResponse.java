@@ -0,0 +1,24 @@
+package com.authenticity.taranium_certs.dto;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO bukti inklusi Merkle untuk satu sertifikat. Frontend cukup menghitung ulang root dari
+ * documentHash, leafIndex, treeSize, dan proof, lalu mengecek satu root tersebut di blockchain.
+ */
+@Data
+@Builder
+public class InclusionProofResponse {
+    private DocumentHash documentHash;
+    private Long batchId;
+    private String rootHash;
+    private int leafIndex;
+    private int treeSize;
+    private List<String> proof; // Hash saudara dari bawah ke atas (heksadesimal)
+    private String anchorTxHash;
+    private String message;
+}
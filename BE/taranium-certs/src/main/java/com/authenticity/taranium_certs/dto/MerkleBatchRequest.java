@@ -0,0 +1,16 @@
+package com.authenticity.taranium_certs.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO request pembuatan batch Merkle.
+ * Jika documentHashes kosong, batch dibangun dari semua sertifikat di folder yang belum di-anchor.
+ */
+@Data
+public class MerkleBatchRequest {
+    private String issuerAddress;
+    private String folderName;
+    private List<String> documentHashes;
+}
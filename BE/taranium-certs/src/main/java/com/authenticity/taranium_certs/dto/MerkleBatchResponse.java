@@ -0,0 +1,20 @@
+package com.authenticity.taranium_certs.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO untuk merepresentasikan batch Merkle beserta root yang perlu di-anchor ke blockchain.
+ */
+@Data
+@Builder
+public class MerkleBatchResponse {
+    private Long batchId;
+    private String rootHash;
+    private int leafCount;
+    private String issuerAddress;
+    private String folderName;
+    private String createdAt;
+    private String anchorTxHash;
+    private String message;
+}
@@ -0,0 +1,33 @@
+package com.authenticity.taranium_certs.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO laporan rekonsiliasi direktori upload dengan tabel certificates.
+ */
+@Data
+@Builder
+public class ReconcileReport {
+    private String status; // IDLE | RUNNING | COMPLETED | FAILED
+    private String startedAt;
+    private String finishedAt;
+    private long durationMillis;
+    private long filesScanned;
+    private long filesMatchedByPath; // File yang barisnya sudah ada (tanpa hashing)
+    private long filesHashed;
+    private long bytesHashed;
+    private long rowsInserted; // File tanpa baris yang didaftarkan ulang
+    private long duplicateFiles; // File yang hash-nya sudah terdaftar dengan path lain
+    private long rowsChecked;
+    private long rowsWithoutFiles;
+    private long errors;
+    private double filesPerSecond;
+    private List<String> insertedSamples;
+    private List<String> duplicateSamples;
+    private List<String> rowsWithoutFileSamples;
+    private List<String> errorSamples;
+    private String message;
+}
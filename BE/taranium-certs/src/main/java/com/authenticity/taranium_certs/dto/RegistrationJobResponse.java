@@ -0,0 +1,26 @@
+package com.authenticity.taranium_certs.dto;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO status job pendaftaran sertifikat asinkron.
+ * Field hasil (documentHash, localFilePath, uploadTimestamp) baru terisi setelah job COMPLETED, atau
+ * ALREADY_REGISTERED (berisi data pendaftaran sebelumnya untuk hash yang sama).
+ */
+@Data
+@Builder
+public class RegistrationJobResponse {
+    private String jobId;
+    private String status; // QUEUED, STORING, PERSISTING, COMPLETED, ALREADY_REGISTERED, FAILED
+    private String originalFileName;
+    private String folderName;
+    private String issuerAddress;
+    private DocumentHash documentHash;
+    private String localFilePath;
+    private String uploadTimestamp;
+    private String message;
+    private String createdAt;
+    private String updatedAt;
+}
@@ -0,0 +1,24 @@
+package com.authenticity.taranium_certs.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO status pemeriksa integritas: progres putaran, throughput hashing, dan jumlah issue terbuka.
+ */
+@Data
+@Builder
+public class ScrubStatusResponse {
+    private boolean enabled;
+    private boolean running;
+    private long lastCertificateId; // Posisi checkpoint putaran saat ini
+    private long passesCompleted;
+    private String passStartedAt;
+    private long filesChecked; // Sejak aplikasi start
+    private long bytesHashed; // Sejak aplikasi start
+    private double currentGigabytesPerSecond; // Putaran yang sedang berjalan
+    private double lastPassGigabytesPerSecond; // Putaran terakhir yang selesai
+    private long openMismatches;
+    private long openMissing;
+    private long openUnreadable;
+}
@@ -0,0 +1,21 @@
+package com.authenticity.taranium_certs.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * DTO status sesi upload bertahap. Klien yang terputus melanjutkan dari nextChunk.
+ */
+@Data
+@Builder
+public class UploadSessionResponse {
+    private String uploadId;
+    private String originalFileName;
+    private String folderName;
+    private String issuerAddress;
+    private Long totalSize; // Ukuran yang diumumkan klien saat memulai sesi (opsional)
+    private long receivedBytes;
+    private int nextChunk; // Nomor potongan berikutnya yang diharapkan, mulai dari 0
+    private String expiresAt;
+    private String message;
+}
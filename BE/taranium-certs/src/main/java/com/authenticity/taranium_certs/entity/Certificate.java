@@ -11,18 +11,26 @@ import java.time.LocalDateTime;
  * Hash SHA-256 dokumen disimpan di sini, bersama dengan alamat blockchain pengunggah (institusi).
  */
 @Entity
-@Table(name = "certificates")
+// Index komposit untuk daftar isi folder: filter (issuer, folder) lalu urut (upload_timestamp, id) tanpa sort tambahan
+@Table(name = "certificates", indexes = {
+        @Index(name = "idx_certificates_issuer_folder_ts", columnList = "issuer_address, folder_name, upload_timestamp, id"),
+        // Dipakai rekonsiliasi startup untuk mencocokkan file di direktori upload tanpa hashing ulang
+        @Index(name = "idx_certificates_local_file_path", columnList = "local_file_path")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Certificate {
 
+    // Sequence dengan alokasi pooled agar Hibernate dapat mengelompokkan INSERT dalam JDBC batch
+    // (IDENTITY memaksa satu INSERT per baris untuk mengambil id).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "certificates_seq")
+    @SequenceGenerator(name = "certificates_seq", sequenceName = "certificates_seq", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false, length = 64)
-    private String documentHash;
+    @Column(unique = true, nullable = false, columnDefinition = "binary(32)")
+    private DocumentHash documentHash;
 
     @Column(nullable = false)
     private String originalFileName;
@@ -40,7 +48,7 @@ public class Certificate {
     private LocalDateTime uploadTimestamp;
 
     // Konstruktor untuk membuat objek Certificate baru
-    public Certificate(String documentHash, String originalFileName, String localFilePath, String folderName, String issuerAddress) {
+    public Certificate(DocumentHash documentHash, String originalFileName, String localFilePath, String folderName, String issuerAddress) {
         this.documentHash = documentHash;
         this.originalFileName = originalFileName;
         this.localFilePath = localFilePath;
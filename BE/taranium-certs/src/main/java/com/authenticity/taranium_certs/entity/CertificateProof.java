@@ -0,0 +1,44 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entitas CertificateProof menyimpan bukti inklusi Merkle untuk satu sertifikat,
+ * berdampingan dengan baris Certificate (dihubungkan lewat documentHash).
+ */
+@Entity
+@Table(name = "certificate_proofs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateProof {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Satu sertifikat hanya di-anchor dalam satu batch
+    @Column(unique = true, nullable = false, columnDefinition = "binary(32)")
+    private DocumentHash documentHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "batch_id")
+    private MerkleBatch batch;
+
+    @Column(nullable = false)
+    private int leafIndex;
+
+    // Audit path dari bawah ke atas: hash-hash heksadesimal 64 karakter yang digabung tanpa pemisah
+    @Column(nullable = false, length = 4096)
+    private String proofPath;
+
+    public CertificateProof(DocumentHash documentHash, MerkleBatch batch, int leafIndex, String proofPath) {
+        this.documentHash = documentHash;
+        this.batch = batch;
+        this.leafIndex = leafIndex;
+        this.proofPath = proofPath;
+    }
+}
@@ -0,0 +1,46 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitas ChainRegistration adalah salinan lokal event CertificateRegistered dari blockchain,
+ * diisi oleh indexer. Dihubungkan ke Certificate melalui documentHash.
+ */
+@Entity
+@Table(name = "chain_registrations", indexes = @Index(name = "idx_chain_registrations_block", columnList = "blockNumber"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChainRegistration {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, columnDefinition = "binary(32)")
+    private DocumentHash documentHash;
+
+    @Column(nullable = false, length = 42)
+    private String issuerAddress;
+
+    // Waktu pendaftaran menurut block.timestamp (UTC)
+    @Column(nullable = false)
+    private LocalDateTime registeredAt;
+
+    @Column(nullable = false)
+    private long blockNumber;
+
+    @Column(nullable = false, length = 66)
+    private String blockHash;
+
+    @Column(nullable = false, length = 66)
+    private String transactionHash;
+
+    @Column(nullable = false)
+    private int logIndex;
+}
@@ -0,0 +1,122 @@
+package com.authenticity.taranium_certs.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Arrays;
+
+/**
+ * Hash SHA-256 dokumen dalam bentuk 32 byte (sama dengan bytes32 di kontrak).
+ * Disimpan sebagai BINARY(32) di database melalui {@link DocumentHashJavaType};
+ * bentuk heksadesimal 64 karakter hanya dibuat saat diserialisasi ke JSON atau dibutuhkan sebagai teks
+ * (misalnya nama file blob).
+ */
+public final class DocumentHash implements Comparable<DocumentHash> {
+
+    public static final int LENGTH = 32;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final byte[] bytes;
+
+    private DocumentHash(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Membuat DocumentHash dari hasil digest SHA-256.
+     * @param bytes 32 byte hash; disalin.
+     * @return DocumentHash.
+     * @throws IllegalArgumentException jika panjangnya bukan 32 byte.
+     */
+    public static DocumentHash of(byte[] bytes) {
+        if (bytes == null || bytes.length != LENGTH) {
+            throw new IllegalArgumentException("Hash dokumen harus " + LENGTH + " byte.");
+        }
+        return new DocumentHash(bytes.clone());
+    }
+
+    /**
+     * Mengurai hash dari teks heksadesimal 64 karakter (huruf besar/kecil, boleh diawali 0x).
+     * @param hex Hash dalam bentuk heksadesimal.
+     * @return DocumentHash.
+     * @throws IllegalArgumentException jika teks bukan hash heksadesimal 64 karakter.
+     */
+    @JsonCreator
+    public static DocumentHash fromHex(String hex) {
+        if (hex == null) {
+            throw new IllegalArgumentException("Hash dokumen tidak boleh kosong.");
+        }
+        int offset = hex.startsWith("0x") || hex.startsWith("0X") ? 2 : 0;
+        if (hex.length() - offset != LENGTH * 2) {
+            throw new IllegalArgumentException("Hash dokumen harus 64 karakter hex: " + hex);
+        }
+        byte[] bytes = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            int high = Character.digit(hex.charAt(offset + i * 2), 16);
+            int low = Character.digit(hex.charAt(offset + i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Hash dokumen harus 64 karakter hex: " + hex);
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return new DocumentHash(bytes);
+    }
+
+    /**
+     * Memeriksa apakah teks adalah hash heksadesimal 64 karakter yang valid.
+     * @param hex Teks yang diperiksa.
+     * @return true jika valid.
+     */
+    public static boolean isValidHex(String hex) {
+        try {
+            fromHex(hex);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Mengembalikan salinan 32 byte hash.
+     * @return Byte hash.
+     */
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * Mengonversi hash ke heksadesimal huruf kecil 64 karakter tanpa awalan 0x.
+     * @return Hash dalam bentuk heksadesimal.
+     */
+    @JsonValue
+    public String toHex() {
+        char[] chars = new char[LENGTH * 2];
+        for (int i = 0; i < LENGTH; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof DocumentHash hash && Arrays.equals(bytes, hash.bytes));
+    }
+
+    @Override
+    public int hashCode() {
+        // Isi SHA-256 sudah terdistribusi merata, empat byte pertama cukup sebagai hashCode
+        return (bytes[0] << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    }
+
+    @Override
+    public int compareTo(DocumentHash other) {
+        return Arrays.compareUnsigned(bytes, other.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
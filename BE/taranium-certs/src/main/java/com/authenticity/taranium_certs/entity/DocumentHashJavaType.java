@@ -0,0 +1,71 @@
+package com.authenticity.taranium_certs.entity;
+
+import org.hibernate.type.SqlTypes;
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.type.descriptor.jdbc.JdbcTypeIndicators;
+
+/**
+ * Deskriptor Hibernate untuk {@link DocumentHash}: disimpan sebagai 32 byte mentah di kolom BINARY(32).
+ * Didaftarkan untuk seluruh package entitas di package-info, sehingga juga berlaku untuk kolom @Id
+ * (AttributeConverter tidak dapat dipakai untuk @Id).
+ */
+public class DocumentHashJavaType extends AbstractClassJavaType<DocumentHash> {
+
+    public static final DocumentHashJavaType INSTANCE = new DocumentHashJavaType();
+
+    public DocumentHashJavaType() {
+        super(DocumentHash.class);
+    }
+
+    @Override
+    public JdbcType getRecommendedJdbcType(JdbcTypeIndicators indicators) {
+        return indicators.getJdbcType(SqlTypes.BINARY);
+    }
+
+    @Override
+    public String toString(DocumentHash value) {
+        return value.toHex();
+    }
+
+    @Override
+    public DocumentHash fromString(CharSequence string) {
+        return DocumentHash.fromHex(string.toString());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(DocumentHash value, Class<X> type, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (type.isAssignableFrom(DocumentHash.class)) {
+            return (X) value;
+        }
+        if (type.isAssignableFrom(byte[].class)) {
+            return (X) value.toBytes();
+        }
+        if (type.isAssignableFrom(String.class)) {
+            return (X) value.toHex();
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> DocumentHash wrap(X value, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof DocumentHash hash) {
+            return hash;
+        }
+        if (value instanceof byte[] bytes) {
+            return DocumentHash.of(bytes);
+        }
+        if (value instanceof String hex) {
+            return DocumentHash.fromHex(hex);
+        }
+        throw unknownWrap(value.getClass());
+    }
+}
@@ -0,0 +1,44 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitas FolderCatalogEntry berisi ringkasan satu folder milik institusi (jumlah sertifikat, total ukuran,
+ * dan waktu upload terakhir), diperbarui setiap pendaftaran sehingga daftar folder tidak perlu memindai direktori upload.
+ */
+@Entity
+@Table(name = "folder_catalog", uniqueConstraints = @UniqueConstraint(
+        name = "uk_folder_catalog_issuer_folder", columnNames = {"issuer_address", "folder_name"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FolderCatalogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "issuer_address", nullable = false)
+    private String issuerAddress;
+
+    @Column(name = "folder_name", nullable = false)
+    private String folderName;
+
+    @Column(nullable = false)
+    private long certificateCount;
+
+    @Column(nullable = false)
+    private long totalBytes;
+
+    private LocalDateTime lastUploadAt;
+
+    public FolderCatalogEntry(String issuerAddress, String folderName) {
+        this.issuerAddress = issuerAddress;
+        this.folderName = folderName;
+    }
+}
@@ -0,0 +1,33 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitas IndexerCheckpoint menyimpan blok terakhir yang sudah diindeks beserta hash bloknya,
+ * sehingga indexer dapat melanjutkan setelah restart dan mendeteksi reorg.
+ */
+@Entity
+@Table(name = "indexer_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexerCheckpoint {
+
+    // Nama indexer, misalnya "CertificateRegistered:<alamat kontrak>"
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long lastBlock;
+
+    @Column(length = 66)
+    private String lastBlockHash;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
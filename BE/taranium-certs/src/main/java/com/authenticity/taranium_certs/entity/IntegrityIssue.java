@@ -0,0 +1,53 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitas IntegrityIssue mencatat file tersimpan yang isinya tidak lagi cocok dengan documentHash
+ * (bit-rot atau diubah), hilang, atau tidak dapat dibaca saat diperiksa ulang oleh scrubber.
+ * Issue ditutup (resolvedAt diisi) jika pemeriksaan berikutnya mendapati file kembali sehat.
+ */
+@Entity
+@Table(name = "integrity_issues", indexes = {
+        @Index(name = "idx_integrity_issues_open", columnList = "resolvedAt, documentHash")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegrityIssue {
+
+    public enum Type { MISMATCH, MISSING, UNREADABLE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, columnDefinition = "binary(32)")
+    private DocumentHash documentHash;
+
+    @Column(nullable = false)
+    private String localFilePath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    // Hash isi file saat diperiksa (hanya untuk MISMATCH)
+    @Column(columnDefinition = "binary(32)")
+    private DocumentHash actualHash;
+
+    private String detail;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastCheckedAt;
+
+    private LocalDateTime resolvedAt;
+}
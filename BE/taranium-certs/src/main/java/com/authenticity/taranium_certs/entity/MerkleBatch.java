@@ -0,0 +1,51 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitas MerkleBatch merepresentasikan satu pohon Merkle atas sekumpulan hash dokumen
+ * yang root-nya di-anchor ke blockchain dalam satu transaksi.
+ */
+@Entity
+@Table(name = "merkle_batches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerkleBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, length = 64)
+    private String rootHash;
+
+    @Column(nullable = false)
+    private int leafCount;
+
+    @Column(nullable = false)
+    private String issuerAddress;
+
+    // Kosong jika batch dibuat dari daftar hash, bukan dari satu folder
+    private String folderName;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Hash transaksi anchorRoot di blockchain, diisi setelah frontend mengirim transaksinya
+    @Column(length = 66)
+    private String anchorTxHash;
+
+    public MerkleBatch(String rootHash, int leafCount, String issuerAddress, String folderName) {
+        this.rootHash = rootHash;
+        this.leafCount = leafCount;
+        this.issuerAddress = issuerAddress;
+        this.folderName = folderName;
+        this.createdAt = LocalDateTime.now();
+    }
+}
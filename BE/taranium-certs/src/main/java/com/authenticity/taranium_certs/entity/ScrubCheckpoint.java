@@ -0,0 +1,39 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitas ScrubCheckpoint menyimpan posisi putaran pemeriksaan integritas (id certificate terakhir yang diperiksa),
+ * sehingga putaran yang terputus karena restart dilanjutkan, bukan diulang dari awal.
+ */
+@Entity
+@Table(name = "scrub_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScrubCheckpoint {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long lastCertificateId;
+
+    private LocalDateTime passStartedAt;
+
+    @Column(nullable = false)
+    private long passesCompleted;
+
+    // Statistik putaran terakhir yang selesai
+    private Long lastPassBytes;
+
+    private Long lastPassMillis;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
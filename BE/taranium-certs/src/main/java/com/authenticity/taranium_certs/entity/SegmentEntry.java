@@ -0,0 +1,38 @@
+package com.authenticity.taranium_certs.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entitas SegmentEntry adalah indeks penyimpanan segmented: lokasi isi file untuk satu hash dokumen
+ * di dalam file segmen append-only, berupa rentang byte [dataOffset, dataOffset + dataLength).
+ * Baris ini ditulis di transaksi yang sama dengan Certificate-nya; byte segmen tanpa baris indeks
+ * (transaksi di-rollback atau sudah dipindahkan oleh compaction) adalah ruang mati.
+ */
+@Entity
+@Table(name = "segment_entries", indexes = @Index(name = "idx_segment_entries_segment", columnList = "segmentId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SegmentEntry {
+
+    @Id
+    @Column(columnDefinition = "binary(32)")
+    private DocumentHash documentHash;
+
+    @Column(nullable = false)
+    private int segmentId;
+
+    @Column(nullable = false)
+    private long dataOffset;
+
+    @Column(nullable = false)
+    private long dataLength;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,8 @@
+/**
+ * Entitas JPA. Semua atribut bertipe {@link com.authenticity.taranium_certs.entity.DocumentHash}
+ * dipetakan lewat {@link com.authenticity.taranium_certs.entity.DocumentHashJavaType}.
+ */
+@JavaTypeRegistration(javaType = DocumentHash.class, descriptorClass = DocumentHashJavaType.class)
+package com.authenticity.taranium_certs.entity;
+
+import org.hibernate.annotations.JavaTypeRegistration;
@@ -0,0 +1,15 @@
+package com.authenticity.taranium_certs.exception;
+
+/**
+ * Custom exception untuk menangani kegagalan komunikasi JSON-RPC dengan node blockchain.
+ */
+public class ChainRpcException extends RuntimeException {
+
+    public ChainRpcException(String message) {
+        super(message);
+    }
+
+    public ChainRpcException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.authenticity.taranium_certs.exception;
+
+/**
+ * Exception ketika antrean pemrosesan penuh sehingga permintaan baru harus ditolak sementara.
+ */
+public class PipelineOverloadedException extends RuntimeException {
+
+    public PipelineOverloadedException(String message) {
+        super(message);
+    }
+}
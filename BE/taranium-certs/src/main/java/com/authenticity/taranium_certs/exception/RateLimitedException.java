@@ -0,0 +1,29 @@
+package com.authenticity.taranium_certs.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception ketika request melebihi batas laju issuer atau batas global request bersamaan.
+ * Dijawab 429 dengan header Retry-After.
+ */
+public class RateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * @return Nilai header Retry-After dalam detik (dibulatkan ke atas, minimal 1).
+     */
+    public long getRetryAfterSeconds() {
+        long seconds = retryAfter.toSeconds() + (retryAfter.toNanosPart() > 0 ? 1 : 0);
+        return Math.max(1, seconds);
+    }
+}
@@ -0,0 +1,21 @@
+package com.authenticity.taranium_certs.exception;
+
+/**
+ * Exception untuk permintaan upload bertahap yang tidak dapat diproses.
+ * {@link Reason} menentukan status HTTP yang dikembalikan ke klien.
+ */
+public class UploadSessionException extends RuntimeException {
+
+    public enum Reason { NOT_FOUND, OUT_OF_ORDER, TOO_LARGE, INVALID }
+
+    private final Reason reason;
+
+    public UploadSessionException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
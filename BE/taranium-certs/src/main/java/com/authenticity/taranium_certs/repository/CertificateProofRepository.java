@@ -0,0 +1,30 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.CertificateProof;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Repository JPA untuk entitas CertificateProof.
+ */
+public interface CertificateProofRepository extends JpaRepository<CertificateProof, Long> {
+
+    /**
+     * Mencari bukti inklusi berdasarkan hash dokumen, sekaligus memuat batch-nya.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return Optional yang berisi CertificateProof jika sertifikat sudah masuk ke sebuah batch.
+     */
+    @EntityGraph(attributePaths = "batch")
+    Optional<CertificateProof> findByDocumentHash(DocumentHash documentHash);
+
+    /**
+     * Menghitung berapa banyak hash dari kumpulan yang sudah memiliki bukti inklusi.
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return Jumlah hash yang sudah di-anchor.
+     */
+    long countByDocumentHashIn(Collection<DocumentHash> documentHashes);
+}
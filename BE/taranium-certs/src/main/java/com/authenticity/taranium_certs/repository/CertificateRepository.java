@@ -1,7 +1,14 @@
 package com.authenticity.taranium_certs.repository;
 
+import com.authenticity.taranium_certs.dto.CertificateSummary;
 import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +23,14 @@ public interface CertificateRepository extends JpaRepository<Certificate, Long>
      * @param documentHash Hash SHA-256 dokumen.
      * @return Optional yang berisi Certificate jika ditemukan, kosong jika tidak.
      */
-    Optional<Certificate> findByDocumentHash(String documentHash);
+    Optional<Certificate> findByDocumentHash(DocumentHash documentHash);
+
+    /**
+     * Memeriksa apakah hash dokumen sudah terdaftar tanpa memuat entitasnya.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return true jika hash terdaftar.
+     */
+    boolean existsByDocumentHash(DocumentHash documentHash);
 
     /**
      * Mencari semua Certificate yang diupload oleh institusi dengan alamat blockchain tertentu.
@@ -32,4 +46,138 @@ public interface CertificateRepository extends JpaRepository<Certificate, Long>
      * @return List dari Certificate yang cocok.
      */
     List<Certificate> findByIssuerAddressAndFolderName(String issuerAddress, String folderName);
+
+    /**
+     * Mengambil halaman pertama isi folder, urut (uploadTimestamp, id).
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder.
+     * @param limit Jumlah baris maksimum.
+     * @return Proyeksi sertifikat di folder tersebut.
+     */
+    @Query("select new com.authenticity.taranium_certs.dto.CertificateSummary(c.id, c.documentHash, c.originalFileName, " +
+            "c.localFilePath, c.folderName, c.issuerAddress, c.uploadTimestamp) from Certificate c " +
+            "where c.issuerAddress = :issuerAddress and c.folderName = :folderName " +
+            "order by c.uploadTimestamp, c.id")
+    List<CertificateSummary> findFolderPage(@Param("issuerAddress") String issuerAddress, @Param("folderName") String folderName,
+                                            Limit limit);
+
+    /**
+     * Mengambil halaman isi folder setelah posisi kursor (keyset pagination), urut (uploadTimestamp, id).
+     * Kondisi {@code uploadTimestamp >= :afterTimestamp} sengaja ditulis terpisah agar database dapat langsung
+     * melompat ke posisi kursor di index (issuer_address, folder_name, upload_timestamp, id), sehingga biaya
+     * query tidak bergantung pada kedalaman halaman.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder.
+     * @param afterTimestamp uploadTimestamp baris terakhir halaman sebelumnya.
+     * @param afterId id baris terakhir halaman sebelumnya.
+     * @param limit Jumlah baris maksimum.
+     * @return Proyeksi sertifikat setelah kursor.
+     */
+    @Query("select new com.authenticity.taranium_certs.dto.CertificateSummary(c.id, c.documentHash, c.originalFileName, " +
+            "c.localFilePath, c.folderName, c.issuerAddress, c.uploadTimestamp) from Certificate c " +
+            "where c.issuerAddress = :issuerAddress and c.folderName = :folderName " +
+            "and c.uploadTimestamp >= :afterTimestamp " +
+            "and (c.uploadTimestamp > :afterTimestamp or c.id > :afterId) " +
+            "order by c.uploadTimestamp, c.id")
+    List<CertificateSummary> findFolderPageAfter(@Param("issuerAddress") String issuerAddress, @Param("folderName") String folderName,
+                                                 @Param("afterTimestamp") LocalDateTime afterTimestamp, @Param("afterId") Long afterId,
+                                                 Limit limit);
+
+    /**
+     * Mengambil localFilePath yang sudah tercatat dari sekumpulan path (satu query untuk satu potongan file).
+     * @param localFilePaths Kumpulan path relatif terhadap direktori upload.
+     * @return List path yang sudah memiliki baris.
+     */
+    @Query("select c.localFilePath from Certificate c where c.localFilePath in :localFilePaths")
+    List<String> findExistingLocalFilePaths(@Param("localFilePaths") Collection<String> localFilePaths);
+
+    /**
+     * Mengambil proyeksi sertifikat setelah id tertentu, urut id (untuk memindai seluruh tabel per halaman).
+     * @param afterId id terakhir halaman sebelumnya (0 untuk halaman pertama).
+     * @param limit Jumlah baris maksimum.
+     * @return Proyeksi sertifikat.
+     */
+    @Query("select new com.authenticity.taranium_certs.dto.CertificateSummary(c.id, c.documentHash, c.originalFileName, " +
+            "c.localFilePath, c.folderName, c.issuerAddress, c.uploadTimestamp) from Certificate c " +
+            "where c.id > :afterId order by c.id")
+    List<CertificateSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Id dan hash dokumen satu baris, untuk membangun indeks keanggotaan hash.
+     */
+    interface HashRow {
+        Long getId();
+
+        DocumentHash getDocumentHash();
+    }
+
+    /**
+     * Mengambil id dan hash dokumen setelah id tertentu, urut id (tanpa kolom lain agar pemindaian seluruh tabel ringan).
+     * @param afterId id terakhir halaman sebelumnya (0 untuk halaman pertama).
+     * @param limit Jumlah baris maksimum.
+     * @return Id dan hash dokumen.
+     */
+    @Query("select c.id as id, c.documentHash as documentHash from Certificate c where c.id > :afterId order by c.id")
+    List<HashRow> findHashesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Mengambil sertifikat yang sudah terdaftar dari sekumpulan hash (satu query untuk satu batch).
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return List sertifikat yang hash-nya ada di database.
+     */
+    List<Certificate> findByDocumentHashIn(Collection<DocumentHash> documentHashes);
+
+    /**
+     * Mengambil hash dokumen yang sudah terdaftar dari sekumpulan hash (satu query untuk satu batch).
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return List hash yang sudah ada di database.
+     */
+    @Query("select c.documentHash from Certificate c where c.documentHash in :documentHashes")
+    List<DocumentHash> findExistingDocumentHashes(@Param("documentHashes") Collection<DocumentHash> documentHashes);
+
+    /**
+     * Mengambil hash dokumen dalam folder tertentu yang belum masuk ke batch Merkle mana pun.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder.
+     * @return List hash dokumen yang belum di-anchor.
+     */
+    @Query("select c.documentHash from Certificate c where c.issuerAddress = :issuerAddress and c.folderName = :folderName " +
+            "and not exists (select p.id from CertificateProof p where p.documentHash = c.documentHash)")
+    List<DocumentHash> findUnanchoredDocumentHashes(@Param("issuerAddress") String issuerAddress, @Param("folderName") String folderName);
+
+    /**
+     * Mengambil hash dokumen milik institusi tertentu dari sekumpulan hash.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return List hash yang terdaftar atas nama institusi tersebut.
+     */
+    @Query("select c.documentHash from Certificate c where c.issuerAddress = :issuerAddress and c.documentHash in :documentHashes")
+    List<DocumentHash> findIssuerDocumentHashes(@Param("issuerAddress") String issuerAddress,
+                                                @Param("documentHashes") Collection<DocumentHash> documentHashes);
+
+    /**
+     * Ringkasan sertifikat satu folder milik institusi, untuk membangun ulang katalog folder.
+     */
+    interface FolderUsageRow {
+        String getIssuerAddress();
+
+        String getFolderName();
+
+        long getCertificateCount();
+
+        LocalDateTime getLastUploadAt();
+
+        long getSegmentBytes();
+    }
+
+    /**
+     * Menghitung jumlah sertifikat, waktu upload terakhir, dan total ukuran isi yang tersimpan di segmen per folder.
+     * Ukuran sertifikat yang tersimpan sebagai file biasa tidak ada di database dan tidak ikut dihitung.
+     * @return List ringkasan per folder yang memiliki sertifikat.
+     */
+    @Query("select c.issuerAddress as issuerAddress, c.folderName as folderName, count(c) as certificateCount, " +
+            "max(c.uploadTimestamp) as lastUploadAt, coalesce(sum(e.dataLength), 0) as segmentBytes " +
+            "from Certificate c left join SegmentEntry e on e.documentHash = c.documentHash " +
+            "group by c.issuerAddress, c.folderName")
+    List<FolderUsageRow> summarizeFolders();
 }
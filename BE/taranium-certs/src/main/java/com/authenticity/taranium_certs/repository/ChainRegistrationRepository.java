@@ -0,0 +1,44 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.ChainRegistration;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository JPA untuk entitas ChainRegistration (indeks lokal event CertificateRegistered).
+ */
+public interface ChainRegistrationRepository extends JpaRepository<ChainRegistration, Long> {
+
+    /**
+     * Mencari pendaftaran on-chain berdasarkan hash dokumen.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return Optional yang berisi ChainRegistration jika hash sudah terdaftar di blockchain.
+     */
+    Optional<ChainRegistration> findByDocumentHash(DocumentHash documentHash);
+
+    /**
+     * Menghapus pendaftaran dari blok setelah nomor tertentu (dipakai saat rewind karena reorg).
+     * @param blockNumber Nomor blok terakhir yang dipertahankan.
+     * @return Jumlah baris yang dihapus.
+     */
+    @Modifying
+    @Query("delete from ChainRegistration r where r.blockNumber > :blockNumber")
+    int deleteByBlockNumberGreaterThan(@Param("blockNumber") long blockNumber);
+
+    /**
+     * Mengambil hash dokumen dalam folder tertentu yang belum tercatat di indeks on-chain
+     * (join Certificate dan ChainRegistration melalui documentHash).
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder.
+     * @return List hash dokumen yang belum terdaftar di blockchain.
+     */
+    @Query("select c.documentHash from Certificate c left join ChainRegistration r on r.documentHash = c.documentHash " +
+            "where c.issuerAddress = :issuerAddress and c.folderName = :folderName and r.id is null")
+    List<DocumentHash> findUnregisteredDocumentHashes(@Param("issuerAddress") String issuerAddress, @Param("folderName") String folderName);
+}
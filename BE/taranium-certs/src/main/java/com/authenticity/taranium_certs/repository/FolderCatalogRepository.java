@@ -0,0 +1,49 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.FolderCatalogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository JPA untuk entitas FolderCatalogEntry (katalog folder per institusi).
+ */
+public interface FolderCatalogRepository extends JpaRepository<FolderCatalogEntry, Long> {
+
+    /**
+     * Mengambil nama folder milik institusi tertentu, urut nama.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @return List nama folder.
+     */
+    @Query("select f.folderName from FolderCatalogEntry f where f.issuerAddress = :issuerAddress order by f.folderName")
+    List<String> findFolderNames(@Param("issuerAddress") String issuerAddress);
+
+    /**
+     * Mengambil ringkasan semua folder milik institusi tertentu, urut nama.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @return List entri katalog.
+     */
+    List<FolderCatalogEntry> findByIssuerAddressOrderByFolderName(String issuerAddress);
+
+    /**
+     * Menambahkan upload baru ke ringkasan folder secara atomik di database (tanpa read-modify-write),
+     * sehingga pendaftaran bersamaan ke folder yang sama tidak saling menimpa.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder.
+     * @param count Jumlah sertifikat baru.
+     * @param bytes Total ukuran file baru.
+     * @param uploadedAt Waktu upload terbaru di antara sertifikat baru.
+     * @return Jumlah baris yang diperbarui (0 jika entri belum ada).
+     */
+    @Modifying
+    @Query("update FolderCatalogEntry f set f.certificateCount = f.certificateCount + :count, " +
+            "f.totalBytes = f.totalBytes + :bytes, " +
+            "f.lastUploadAt = case when f.lastUploadAt is null or f.lastUploadAt < :uploadedAt then :uploadedAt else f.lastUploadAt end " +
+            "where f.issuerAddress = :issuerAddress and f.folderName = :folderName")
+    int addUploads(@Param("issuerAddress") String issuerAddress, @Param("folderName") String folderName,
+                   @Param("count") long count, @Param("bytes") long bytes, @Param("uploadedAt") LocalDateTime uploadedAt);
+}
@@ -0,0 +1,10 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.IndexerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository JPA untuk entitas IndexerCheckpoint.
+ */
+public interface IndexerCheckpointRepository extends JpaRepository<IndexerCheckpoint, String> {
+}
@@ -0,0 +1,48 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.IntegrityIssue;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository JPA untuk entitas IntegrityIssue (hasil pemeriksaan integritas file).
+ */
+public interface IntegrityIssueRepository extends JpaRepository<IntegrityIssue, Long> {
+
+    /**
+     * Mencari issue yang masih terbuka untuk hash dokumen tertentu.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return Optional yang berisi issue terbuka jika ada.
+     */
+    Optional<IntegrityIssue> findFirstByDocumentHashAndResolvedAtIsNull(DocumentHash documentHash);
+
+    /**
+     * Mengambil hash dokumen yang masih memiliki issue terbuka dari sekumpulan hash (satu query per halaman scrub).
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return List hash dengan issue terbuka.
+     */
+    @Query("select i.documentHash from IntegrityIssue i where i.resolvedAt is null and i.documentHash in :documentHashes")
+    List<DocumentHash> findOpenDocumentHashes(@Param("documentHashes") Collection<DocumentHash> documentHashes);
+
+    /**
+     * Mengambil issue terbuka setelah id tertentu, urut id.
+     * @param afterId id terakhir halaman sebelumnya (0 untuk halaman pertama).
+     * @param limit Jumlah baris maksimum.
+     * @return List issue terbuka.
+     */
+    List<IntegrityIssue> findByResolvedAtIsNullAndIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    /**
+     * Menghitung issue terbuka per jenis.
+     * @param type Jenis issue.
+     * @return Jumlah issue terbuka.
+     */
+    long countByResolvedAtIsNullAndType(IntegrityIssue.Type type);
+}
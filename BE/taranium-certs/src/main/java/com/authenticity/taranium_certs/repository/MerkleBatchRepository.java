@@ -0,0 +1,10 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.MerkleBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository JPA untuk entitas MerkleBatch.
+ */
+public interface MerkleBatchRepository extends JpaRepository<MerkleBatch, Long> {
+}
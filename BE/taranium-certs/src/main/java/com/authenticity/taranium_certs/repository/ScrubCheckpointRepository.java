@@ -0,0 +1,10 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.ScrubCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository JPA untuk entitas ScrubCheckpoint.
+ */
+public interface ScrubCheckpointRepository extends JpaRepository<ScrubCheckpoint, String> {
+}
@@ -0,0 +1,50 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.SegmentEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository JPA untuk entitas SegmentEntry (indeks hash dokumen ke lokasi di file segmen).
+ */
+public interface SegmentEntryRepository extends JpaRepository<SegmentEntry, DocumentHash> {
+
+    /**
+     * Ringkasan data hidup satu file segmen.
+     */
+    interface SegmentUsage {
+        int getSegmentId();
+
+        long getEntries();
+
+        long getLiveBytes();
+    }
+
+    /**
+     * Mengambil semua entri yang datanya berada di satu file segmen.
+     * @param segmentId Nomor segmen.
+     * @return List entri segmen.
+     */
+    List<SegmentEntry> findBySegmentId(int segmentId);
+
+    /**
+     * Menghitung jumlah entri dan total byte data hidup per segmen, untuk menentukan segmen yang perlu di-compact.
+     * @return List ringkasan per segmen yang masih memiliki entri.
+     */
+    @Query("select e.segmentId as segmentId, count(e) as entries, sum(e.dataLength) as liveBytes " +
+            "from SegmentEntry e group by e.segmentId")
+    List<SegmentUsage> findSegmentUsage();
+
+    /**
+     * Mengambil hash dokumen yang tercatat di indeks segmen dari sekumpulan hash.
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return List hash yang isinya tersimpan di segmen.
+     */
+    @Query("select e.documentHash from SegmentEntry e where e.documentHash in :documentHashes")
+    List<DocumentHash> findExistingDocumentHashes(@Param("documentHashes") Collection<DocumentHash> documentHashes);
+}
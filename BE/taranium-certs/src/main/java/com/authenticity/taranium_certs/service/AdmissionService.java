@@ -0,0 +1,163 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.AdmissionProperties;
+import com.authenticity.taranium_certs.exception.RateLimitedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Kontrol penerimaan (admission control) untuk jalur upload dan verifikasi yang mahal (hashing dan I/O disk),
+ * agar upload massal satu institusi tidak menghabiskan kapasitas untuk issuer lain:
+ * <ul>
+ *     <li>token bucket per issuerAddress untuk jumlah request dan byte per detik;</li>
+ *     <li>batas global jumlah request register/verify yang diproses bersamaan.</li>
+ * </ul>
+ * State issuer disimpan di ConcurrentHashMap (dibagi per bin, pembacaan tanpa kunci) dan setiap bucket
+ * diperbarui dengan compare-and-set, sehingga issuer yang berbeda tidak saling menunggu.
+ * Permintaan yang melebihi batas ditolak dengan {@link RateLimitedException} (429 + Retry-After), bukan ditahan.
+ */
+@Service
+public class AdmissionService {
+
+    private static final Permit NO_PERMIT = new Permit(null);
+
+    private final AdmissionProperties properties;
+    private final ConcurrentHashMap<String, IssuerBuckets> issuers = new ConcurrentHashMap<>();
+    private final Semaphore concurrency;
+
+    public AdmissionService(AdmissionProperties properties) {
+        this.properties = properties;
+        this.concurrency = properties.getMaxConcurrent() > 0 ? new Semaphore(properties.getMaxConcurrent()) : null;
+    }
+
+    /**
+     * Menerima request register milik issuer: memeriksa batas issuer lalu mengambil satu slot global.
+     * @param issuerAddress Alamat MetaMask institusi.
+     * @param bytes Jumlah byte yang diunggah.
+     * @return Permit yang harus ditutup setelah pemrosesan selesai.
+     * @throws RateLimitedException jika batas issuer atau batas global terlampaui.
+     */
+    public Permit admit(String issuerAddress, long bytes) {
+        Permit permit = admitGlobal();
+        try {
+            checkIssuer(issuerAddress, bytes);
+            return permit;
+        } catch (RateLimitedException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Mengambil satu slot dari batas global request bersamaan, untuk jalur tanpa issuer (verifikasi).
+     * @return Permit yang harus ditutup setelah pemrosesan selesai.
+     * @throws RateLimitedException jika semua slot sedang dipakai.
+     */
+    public Permit admitGlobal() {
+        if (!properties.isEnabled() || concurrency == null) {
+            return NO_PERMIT;
+        }
+        if (!concurrency.tryAcquire()) {
+            throw new RateLimitedException("Server sedang sibuk memproses upload lain, silakan coba lagi nanti.",
+                    properties.getConcurrencyRetryAfter());
+        }
+        return new Permit(concurrency);
+    }
+
+    /**
+     * Memeriksa dan mengurangi kuota issuer saja, untuk jalur yang sudah dibatasi dengan cara lain
+     * (misalnya antrean pendaftaran asinkron).
+     * @param issuerAddress Alamat MetaMask institusi.
+     * @param bytes Jumlah byte yang diunggah.
+     * @throws RateLimitedException jika batas request atau byte issuer terlampaui.
+     */
+    public void checkIssuer(String issuerAddress, long bytes) {
+        if (!properties.isEnabled() || issuerAddress == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        IssuerBuckets buckets = bucketsFor(issuerAddress, now);
+
+        if (buckets.requests != null) {
+            long wait = buckets.requests.tryAcquire(1, now);
+            if (wait > 0) {
+                throw new RateLimitedException("Terlalu banyak request dari institusi ini, silakan coba lagi nanti.",
+                        Duration.ofNanos(wait));
+            }
+        }
+        if (buckets.bytes != null && bytes > 0) {
+            long wait = buckets.bytes.tryAcquire(bytes, now);
+            if (wait > 0) {
+                // Request ditolak: token request yang sudah diambil dikembalikan
+                if (buckets.requests != null) {
+                    buckets.requests.refund(1);
+                }
+                throw new RateLimitedException("Batas ukuran upload per detik institusi ini terlampaui, silakan coba lagi nanti.",
+                        Duration.ofNanos(wait));
+            }
+        }
+    }
+
+    /**
+     * Membuang state issuer yang bucket-nya sudah penuh kembali; issuer tersebut diperlakukan sama
+     * seperti issuer baru sehingga penghapusan ini tidak mengubah batas yang berlaku.
+     */
+    @Scheduled(fixedDelayString = "${app.admission.sweep-interval:PT1M}", initialDelayString = "${app.admission.sweep-interval:PT1M}")
+    public void evictIdleIssuers() {
+        long now = System.nanoTime();
+        issuers.values().removeIf(buckets -> buckets.isFull(now));
+    }
+
+    /**
+     * @return Jumlah issuer yang state bucket-nya sedang disimpan.
+     */
+    public int getTrackedIssuerCount() {
+        return issuers.size();
+    }
+
+    private IssuerBuckets bucketsFor(String issuerAddress, long now) {
+        // Alamat hex tidak peka huruf besar/kecil: satu issuer, satu bucket
+        String key = issuerAddress.trim().toLowerCase(Locale.ROOT);
+        IssuerBuckets buckets = issuers.get(key);
+        if (buckets != null) {
+            return buckets;
+        }
+        return issuers.computeIfAbsent(key, k -> new IssuerBuckets(
+                properties.getRequestsPerSecond() > 0
+                        ? new TokenBucket(properties.getRequestsPerSecond(), properties.getRequestBurst(), now) : null,
+                properties.getBytesPerSecond().toBytes() > 0
+                        ? new TokenBucket(properties.getBytesPerSecond().toBytes(), properties.getBytesBurst().toBytes(), now) : null));
+    }
+
+    private record IssuerBuckets(TokenBucket requests, TokenBucket bytes) {
+        private boolean isFull(long now) {
+            return (requests == null || requests.isFull(now)) && (bytes == null || bytes.isFull(now));
+        }
+    }
+
+    /**
+     * Slot pemrosesan dari batas global. Menutup permit lebih dari sekali tidak berpengaruh.
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public void close() {
+            if (semaphore != null && released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.AsyncRegistrationProperties;
+import com.authenticity.taranium_certs.dto.RegistrationJobResponse;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.exception.PipelineOverloadedException;
+import com.authenticity.taranium_certs.exception.StorageException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service pendaftaran sertifikat secara asinkron. Thread request hanya memindahkan upload ke direktori spool
+ * lalu mengembalikan id job; hashing, penyimpanan file, dan penyimpanan metadata dikerjakan oleh executor
+ * berukuran tetap dengan antrean terbatas. Jika antrean penuh, upload baru ditolak
+ * ({@link PipelineOverloadedException}) alih-alih menahan thread request.
+ * Status job disimpan di memori dan dapat dipantau dengan polling atau Server-Sent Events.
+ */
+@Service
+public class AsyncRegistrationService {
+
+    public enum JobStatus { QUEUED, STORING, PERSISTING, COMPLETED, ALREADY_REGISTERED, FAILED }
+
+    private static final String SPOOL_PREFIX = "register-";
+
+    private final FileStorageService fileStorageService;
+    private final HashService hashService;
+    private final CertificateService certificateService;
+    private final AsyncRegistrationProperties properties;
+    private final PipelineMetrics pipelineMetrics;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, RegistrationJob> jobs = new ConcurrentHashMap<>();
+
+    public AsyncRegistrationService(FileStorageService fileStorageService, HashService hashService,
+                                    CertificateService certificateService, AsyncRegistrationProperties properties,
+                                    PipelineMetrics pipelineMetrics) {
+        this.fileStorageService = fileStorageService;
+        this.hashService = hashService;
+        this.certificateService = certificateService;
+        this.properties = properties;
+        this.pipelineMetrics = pipelineMetrics;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Antrean terbatas + AbortPolicy: saat antrean penuh, request ditolak (load shedding) tanpa ikut bekerja
+        this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "async-register-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Menghapus file spool yang tertinggal dari proses sebelumnya (job di memori hilang saat restart).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cleanSpool() {
+        fileStorageService.deleteSpoolFiles(SPOOL_PREFIX);
+    }
+
+    /**
+     * Menerima upload dan menjadwalkan pendaftarannya di latar belakang.
+     * @param file File sertifikat yang diunggah.
+     * @param folderName Nama folder tujuan.
+     * @param issuerAddress Alamat MetaMask institusi.
+     * @return Status awal job (QUEUED).
+     * @throws PipelineOverloadedException jika antrean job penuh.
+     * @throws StorageException jika upload tidak dapat dipindahkan ke direktori spool.
+     */
+    public RegistrationJobResponse submit(MultipartFile file, String folderName, String issuerAddress) {
+        // Pemeriksaan awal agar upload tidak perlu dipindahkan ke spool jika toh akan ditolak
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw overloaded();
+        }
+
+        Path spoolFile = fileStorageService.createSpoolFile(SPOOL_PREFIX);
+        try {
+            // Untuk upload yang sudah ditulis ke disk oleh container, ini cukup rename tanpa menyalin isi
+            file.transferTo(spoolFile.toAbsolutePath().toFile());
+        } catch (IOException e) {
+            deleteQuietly(spoolFile);
+            throw new StorageException("Gagal menerima file " + file.getOriginalFilename(), e);
+        }
+
+        RegistrationJob job = new RegistrationJob(UUID.randomUUID().toString(), file.getOriginalFilename(),
+                folderName, issuerAddress);
+        jobs.put(job.id, job);
+        // Diambil sebelum dijadwalkan: worker bisa langsung mengubah status job
+        RegistrationJobResponse accepted = job.toResponse();
+        try {
+            executor.execute(() -> process(job, spoolFile));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(spoolFile);
+            throw overloaded();
+        }
+        return accepted;
+    }
+
+    /**
+     * Mengambil status job.
+     * @param jobId Id job dari {@link #submit}.
+     * @return Status job, atau kosong jika job tidak dikenal atau sudah kedaluwarsa.
+     */
+    public Optional<RegistrationJobResponse> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(RegistrationJob::toResponse);
+    }
+
+    /**
+     * Membuka aliran Server-Sent Events untuk job. Status saat ini langsung dikirim sebagai event pertama,
+     * lalu setiap perubahan status; aliran ditutup setelah job COMPLETED, ALREADY_REGISTERED, atau FAILED.
+     * @param jobId Id job dari {@link #submit}.
+     * @return SseEmitter, atau kosong jika job tidak dikenal atau sudah kedaluwarsa.
+     */
+    public Optional<SseEmitter> subscribe(String jobId) {
+        RegistrationJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(properties.getSseTimeout().toMillis());
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+        synchronized (job) {
+            // Dikunci bersama perubahan status agar tidak ada event yang terlewat di antara kirim awal dan pendaftaran
+            if (send(emitter, job.toResponse()) && !job.isFinished()) {
+                job.emitters.add(emitter);
+            } else {
+                emitter.complete();
+            }
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Jumlah job yang sedang menunggu di antrean.
+     * @return Panjang antrean.
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Menghapus job yang sudah selesai dan melewati masa simpan.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void evictFinishedJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minus(properties.getJobRetention());
+        jobs.values().removeIf(job -> job.isFinished() && job.updatedAt.isBefore(threshold));
+    }
+
+    private void process(RegistrationJob job, Path spoolFile) {
+        try {
+            update(job, JobStatus.STORING, null);
+            // Hash dihitung langsung dari file spool: duplikat tidak perlu dipindahkan ke folder tujuan
+            long start = System.nanoTime();
+            DocumentHash documentHash = hashService.calculateSha256Hash(spoolFile);
+            pipelineMetrics.recordStage(PipelineMetrics.Endpoint.REGISTER_ASYNC, PipelineMetrics.Stage.HASH,
+                    System.nanoTime() - start, Files.size(spoolFile));
+            job.documentHash = documentHash;
+
+            CertificateService.Registration registration = certificateService.registerIfAbsent(documentHash, () -> {
+                StagedFile stagedFile = fileStorageService.adoptFile(spoolFile, documentHash, job.originalFileName,
+                        job.issuerAddress, job.folderName);
+                update(job, JobStatus.PERSISTING, null);
+                return stagedFile;
+            }, job.folderName, job.issuerAddress);
+
+            Certificate certificate = registration.certificate();
+            job.localFilePath = certificate.getLocalFilePath();
+            job.uploadTimestamp = certificate.getUploadTimestamp();
+            if (registration.isCreated()) {
+                pipelineMetrics.recordRegistration(PipelineMetrics.Endpoint.REGISTER_ASYNC, registration.stagedFile());
+                update(job, JobStatus.COMPLETED, "File berhasil diunggah, di-hash, dan metadata disimpan.");
+            } else {
+                pipelineMetrics.recordDuplicate(PipelineMetrics.Endpoint.REGISTER_ASYNC, Files.size(spoolFile));
+                update(job, JobStatus.ALREADY_REGISTERED, "Sertifikat dengan hash ini sudah terdaftar.");
+            }
+        } catch (Exception e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_ASYNC, e);
+            System.err.println("Error saat mendaftarkan sertifikat (job " + job.id + "): " + e.getMessage());
+            update(job, JobStatus.FAILED, "Gagal mendaftarkan sertifikat: " + e.getMessage());
+        } finally {
+            // Jika adoptFile gagal sebelum memindahkan file, atau hash sudah terdaftar, file spool masih ada
+            deleteQuietly(spoolFile);
+        }
+    }
+
+    private void update(RegistrationJob job, JobStatus status, String message) {
+        synchronized (job) {
+            job.status = status;
+            job.message = message;
+            job.updatedAt = LocalDateTime.now();
+            RegistrationJobResponse response = job.toResponse();
+            for (SseEmitter emitter : job.emitters) {
+                if (!send(emitter, response) || job.isFinished()) {
+                    job.emitters.remove(emitter);
+                    emitter.complete();
+                }
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, RegistrationJobResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("status").id(response.getStatus()).data(response));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Klien sudah menutup koneksi
+            return false;
+        }
+    }
+
+    private PipelineOverloadedException overloaded() {
+        return new PipelineOverloadedException("Antrean pendaftaran penuh, silakan coba lagi nanti.");
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Gagal menghapus file spool " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Status satu job. Perubahan status dan pengiriman event dilakukan di bawah kunci objek job.
+     */
+    private static class RegistrationJob {
+        private final String id;
+        private final String originalFileName;
+        private final String folderName;
+        private final String issuerAddress;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile String message = "Menunggu diproses.";
+        private volatile DocumentHash documentHash;
+        private volatile String localFilePath;
+        private volatile LocalDateTime uploadTimestamp;
+        private volatile LocalDateTime updatedAt = createdAt;
+
+        private RegistrationJob(String id, String originalFileName, String folderName, String issuerAddress) {
+            this.id = id;
+            this.originalFileName = originalFileName;
+            this.folderName = folderName;
+            this.issuerAddress = issuerAddress;
+        }
+
+        private boolean isFinished() {
+            return status == JobStatus.COMPLETED || status == JobStatus.ALREADY_REGISTERED || status == JobStatus.FAILED;
+        }
+
+        private synchronized RegistrationJobResponse toResponse() {
+            return RegistrationJobResponse.builder()
+                    .jobId(id)
+                    .status(status.name())
+                    .originalFileName(originalFileName)
+                    .folderName(folderName)
+                    .issuerAddress(issuerAddress)
+                    .documentHash(documentHash)
+                    .localFilePath(localFilePath)
+                    .uploadTimestamp(uploadTimestamp == null ? null : uploadTimestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                    .message(message)
+                    .createdAt(createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                    .updatedAt(updatedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                    .build();
+        }
+    }
+}
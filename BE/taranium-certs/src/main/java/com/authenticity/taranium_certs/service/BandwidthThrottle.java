@@ -0,0 +1,46 @@
+package com.authenticity.taranium_certs.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pembatas bandwidth berbasis token bucket yang dipakai bersama oleh beberapa thread.
+ * Setiap pembacaan memesan sejumlah byte; jika kuota detik ini habis, pemanggil tidur sampai kuota cukup.
+ * Kapasitas bucket satu detik, sehingga lonjakan tidak melebihi batas per detik.
+ */
+class BandwidthThrottle {
+
+    private final long bytesPerSecond;
+    private double available;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond Batas byte per detik; nol atau negatif berarti tanpa batas.
+     */
+    BandwidthThrottle(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.available = Math.max(0, bytesPerSecond);
+    }
+
+    /**
+     * Memesan kuota untuk sejumlah byte, menunggu jika perlu.
+     * @param bytes Jumlah byte yang akan dibaca.
+     * @throws InterruptedException jika thread dihentikan saat menunggu.
+     */
+    void acquire(long bytes) throws InterruptedException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            available = Math.min(bytesPerSecond, available + (now - lastRefill) * bytesPerSecond / 1e9);
+            lastRefill = now;
+            // Kuota boleh negatif: pemanggil berikutnya ikut menunggu sampai utang terbayar
+            available -= bytes;
+            waitNanos = available >= 0 ? 0 : (long) (-available * 1e9 / bytesPerSecond);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.BatchProperties;
+import com.authenticity.taranium_certs.dto.BatchRegistrationResponse;
+import com.authenticity.taranium_certs.dto.BatchRegistrationResponse.FileResult;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.exception.StorageException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service untuk mendaftarkan banyak sertifikat sekaligus ke satu folder.
+ * File di-hash secara paralel pada executor berukuran tetap lebih dulu; hanya file yang hash-nya belum terdaftar
+ * yang ditulis ke disk, lalu metadatanya disimpan per potongan (chunk) dalam JDBC batch.
+ * File yang sudah terdaftar (di database atau sebelumnya dalam batch yang sama) dijawab dengan sertifikat yang ada.
+ * Kegagalan satu file hanya dicatat pada hasil file tersebut.
+ */
+@Service
+public class BatchRegistrationService {
+
+    private static final String ALREADY_REGISTERED_MESSAGE = "Sertifikat dengan hash ini sudah terdaftar.";
+
+    private final FileStorageService fileStorageService;
+    private final HashService hashService;
+    private final CertificateService certificateService;
+    private final BatchProperties batchProperties;
+    private final PipelineMetrics pipelineMetrics;
+    private final ThreadPoolExecutor executor;
+
+    public BatchRegistrationService(FileStorageService fileStorageService, HashService hashService,
+                                    CertificateService certificateService, BatchProperties batchProperties,
+                                    PipelineMetrics pipelineMetrics) {
+        this.fileStorageService = fileStorageService;
+        this.hashService = hashService;
+        this.certificateService = certificateService;
+        this.batchProperties = batchProperties;
+        this.pipelineMetrics = pipelineMetrics;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Antrean terbatas + CallerRunsPolicy: saat antrean penuh, thread request ikut bekerja (back-pressure)
+        this.executor = new ThreadPoolExecutor(batchProperties.getParallelism(), batchProperties.getParallelism(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(batchProperties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-register-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Mendaftarkan semua file ke folder dan institusi yang sama.
+     * @param files File sertifikat yang diunggah.
+     * @param folderName Nama folder tujuan.
+     * @param issuerAddress Alamat MetaMask institusi.
+     * @return Hasil per file beserta ringkasannya.
+     */
+    public BatchRegistrationResponse registerAll(List<MultipartFile> files, String folderName, String issuerAddress) {
+        FileResult[] results = new FileResult[files.size()];
+        DocumentHash[] hashes = new DocumentHash[files.size()];
+        StagedFile[] stagedFiles = new StagedFile[files.size()];
+        int[] firstIndexOf = new int[files.size()];
+        try {
+            hashInParallel(files, hashes, results);
+            List<Integer> pending = resolveDuplicates(files, hashes, firstIndexOf, results);
+            List<Integer> staged = stageInParallel(pending, files, hashes, issuerAddress, folderName, stagedFiles, results);
+            persistInChunks(staged, stagedFiles, folderName, issuerAddress, results);
+            resolveBatchDuplicates(files, firstIndexOf, results);
+        } finally {
+            // Membuang file sementara yang tidak berhasil di-commit
+            Arrays.stream(stagedFiles).filter(Objects::nonNull).forEach(StagedFile::close);
+        }
+
+        int alreadyRegistered = (int) Arrays.stream(results).filter(FileResult::isAlreadyRegistered).count();
+        int registered = (int) Arrays.stream(results).filter(FileResult::isSuccess).count() - alreadyRegistered;
+        return BatchRegistrationResponse.builder()
+                .folderName(folderName)
+                .issuerAddress(issuerAddress)
+                .totalFiles(files.size())
+                .registeredCount(registered)
+                .alreadyRegisteredCount(alreadyRegistered)
+                .failedCount(files.size() - registered - alreadyRegistered)
+                .results(List.of(results))
+                .message(String.format("%d dari %d file berhasil didaftarkan, %d sudah terdaftar sebelumnya.",
+                        registered, files.size(), alreadyRegistered))
+                .build();
+    }
+
+    private void hashInParallel(List<MultipartFile> files, DocumentHash[] hashes, FileResult[] results) {
+        List<CompletableFuture<DocumentHash>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                if (file.isEmpty()) {
+                    throw new StorageException("Gagal menyimpan file kosong " + file.getOriginalFilename());
+                }
+                long start = System.nanoTime();
+                try (InputStream inputStream = file.getInputStream()) {
+                    DocumentHash documentHash = hashService.calculateSha256Hash(inputStream);
+                    pipelineMetrics.recordStage(PipelineMetrics.Endpoint.REGISTER_BATCH, PipelineMetrics.Stage.HASH,
+                            System.nanoTime() - start, file.getSize());
+                    return documentHash;
+                } catch (IOException | NoSuchAlgorithmException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                hashes[i] = futures.get(i).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_BATCH, cause);
+                results[i] = failure(files.get(i).getOriginalFilename(), null, "Gagal menghitung hash file: " + cause.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Memisahkan file yang hash-nya sudah terdaftar di database (dijawab dengan sertifikat yang ada) dan file
+     * yang isinya sama dengan file sebelumnya dalam batch (diselesaikan setelah file pertama didaftarkan).
+     * @return Indeks file yang masih perlu disimpan.
+     */
+    private List<Integer> resolveDuplicates(List<MultipartFile> files, DocumentHash[] hashes, int[] firstIndexOf,
+                                            FileResult[] results) {
+        Map<DocumentHash, Integer> firstIndexByHash = new HashMap<>();
+        List<Integer> unique = new ArrayList<>();
+        for (int i = 0; i < hashes.length; i++) {
+            firstIndexOf[i] = i;
+            if (hashes[i] == null) {
+                continue;
+            }
+            Integer first = firstIndexByHash.putIfAbsent(hashes[i], i);
+            if (first != null) {
+                firstIndexOf[i] = first;
+            } else {
+                unique.add(i);
+            }
+        }
+
+        List<Integer> fresh = new ArrayList<>(unique.size());
+        for (List<Integer> chunk : chunks(unique)) {
+            Map<DocumentHash, Certificate> registered = certificateService.findRegisteredCertificates(
+                    chunk.stream().map(i -> hashes[i]).toList());
+            for (int i : chunk) {
+                Certificate existing = registered.get(hashes[i]);
+                if (existing != null) {
+                    pipelineMetrics.recordDuplicate(PipelineMetrics.Endpoint.REGISTER_BATCH, files.get(i).getSize());
+                    results[i] = alreadyRegistered(existing, files.get(i).getOriginalFilename(), ALREADY_REGISTERED_MESSAGE);
+                } else {
+                    fresh.add(i);
+                }
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Menulis file yang belum terdaftar ke file sementara secara paralel, tanpa menghitung hash ulang.
+     * @return Indeks file yang berhasil di-stage.
+     */
+    private List<Integer> stageInParallel(List<Integer> pending, List<MultipartFile> files, DocumentHash[] hashes,
+                                          String issuerAddress, String folderName, StagedFile[] stagedFiles,
+                                          FileResult[] results) {
+        List<CompletableFuture<StagedFile>> futures = new ArrayList<>(pending.size());
+        for (int i : pending) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> fileStorageService.stageFile(files.get(i), hashes[i], issuerAddress, folderName), executor));
+        }
+
+        List<Integer> staged = new ArrayList<>(pending.size());
+        for (int j = 0; j < futures.size(); j++) {
+            int i = pending.get(j);
+            try {
+                stagedFiles[i] = futures.get(j).join();
+                staged.add(i);
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_BATCH, cause);
+                results[i] = failure(files.get(i).getOriginalFilename(), hashes[i], "Gagal menyimpan file: " + cause.getMessage());
+            }
+        }
+        return staged;
+    }
+
+    private void persistInChunks(List<Integer> pending, StagedFile[] stagedFiles, String folderName, String issuerAddress,
+                                 FileResult[] results) {
+        for (List<Integer> chunk : chunks(pending)) {
+            List<StagedFile> chunkFiles = chunk.stream().map(i -> stagedFiles[i]).toList();
+            try {
+                List<Certificate> saved = certificateService.registerCertificates(chunkFiles, folderName, issuerAddress);
+                for (int j = 0; j < chunk.size(); j++) {
+                    results[chunk.get(j)] = success(saved.get(j));
+                    pipelineMetrics.recordRegistration(PipelineMetrics.Endpoint.REGISTER_BATCH, chunkFiles.get(j));
+                }
+            } catch (RuntimeException e) {
+                // Satu baris gagal (misalnya hash didaftarkan bersamaan oleh request lain): ulangi per file
+                for (int i : chunk) {
+                    results[i] = persistSingle(stagedFiles[i], folderName, issuerAddress);
+                }
+            }
+        }
+    }
+
+    private FileResult persistSingle(StagedFile staged, String folderName, String issuerAddress) {
+        try {
+            // Diserialisasi dengan pendaftaran lain untuk hash yang sama; yang kalah mendapat sertifikat yang sudah ada.
+            // File yang sudah dipindahkan sebelum transaksi potongan gagal tidak dipindahkan lagi oleh registerCertificate
+            CertificateService.Registration registration = certificateService.registerIfAbsent(
+                    staged.getDocumentHash(), () -> staged, folderName, issuerAddress);
+            if (!registration.isCreated()) {
+                pipelineMetrics.recordDuplicate(PipelineMetrics.Endpoint.REGISTER_BATCH, staged.getSize());
+                return alreadyRegistered(registration.certificate(), staged.getOriginalFileName(), ALREADY_REGISTERED_MESSAGE);
+            }
+            pipelineMetrics.recordRegistration(PipelineMetrics.Endpoint.REGISTER_BATCH, staged);
+            return success(registration.certificate());
+        } catch (NoSuchAlgorithmException | RuntimeException e) {
+            pipelineMetrics.recordError(PipelineMetrics.Endpoint.REGISTER_BATCH, e);
+            return failure(staged.getOriginalFileName(), staged.getDocumentHash(), "Gagal menyimpan metadata: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mengisi hasil file yang isinya sama dengan file sebelumnya dalam batch, berdasarkan hasil file pertama.
+     */
+    private void resolveBatchDuplicates(List<MultipartFile> files, int[] firstIndexOf, FileResult[] results) {
+        for (int i = 0; i < firstIndexOf.length; i++) {
+            int first = firstIndexOf[i];
+            if (first == i) {
+                continue;
+            }
+            FileResult firstResult = results[first];
+            String originalFileName = files.get(i).getOriginalFilename();
+            String message = "Isi file sama dengan '" + files.get(first).getOriginalFilename() + "' dalam batch ini.";
+            if (firstResult.isSuccess()) {
+                pipelineMetrics.recordDuplicate(PipelineMetrics.Endpoint.REGISTER_BATCH, files.get(i).getSize());
+                results[i] = firstResult.toBuilder()
+                        .originalFileName(originalFileName)
+                        .alreadyRegistered(true)
+                        .message(message)
+                        .build();
+            } else {
+                results[i] = failure(originalFileName, firstResult.getDocumentHash(), message + " " + firstResult.getMessage());
+            }
+        }
+    }
+
+    private List<List<Integer>> chunks(List<Integer> indexes) {
+        int size = Math.max(1, batchProperties.getPersistChunkSize());
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < indexes.size(); from += size) {
+            chunks.add(indexes.subList(from, Math.min(from + size, indexes.size())));
+        }
+        return chunks;
+    }
+
+    private FileResult success(Certificate certificate) {
+        return FileResult.builder()
+                .originalFileName(certificate.getOriginalFileName())
+                .success(true)
+                .documentHash(certificate.getDocumentHash())
+                .localFilePath(certificate.getLocalFilePath())
+                .uploadTimestamp(certificate.getUploadTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .message("File berhasil diunggah, di-hash, dan metadata disimpan.")
+                .build();
+    }
+
+    private FileResult alreadyRegistered(Certificate certificate, String originalFileName, String message) {
+        return success(certificate).toBuilder()
+                .originalFileName(originalFileName)
+                .alreadyRegistered(true)
+                .message(message)
+                .build();
+    }
+
+    private FileResult failure(String originalFileName, DocumentHash documentHash, String message) {
+        return FileResult.builder()
+                .originalFileName(originalFileName)
+                .success(false)
+                .documentHash(documentHash)
+                .message(message)
+                .build();
+    }
+}
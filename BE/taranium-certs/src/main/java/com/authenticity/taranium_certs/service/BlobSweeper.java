@@ -0,0 +1,70 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.StorageProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Tugas latar belakang yang menghapus blob content-addressed tanpa sertifikat yang melewati masa tenggang
+ * (misalnya karena transaksi pendaftaran di-rollback setelah blob dipindahkan).
+ */
+@Component
+public class BlobSweeper {
+
+    private final FileStorageService fileStorageService;
+    private final CertificateRepository certificateRepository;
+    private final StorageProperties storageProperties;
+    private final UploadReconciler uploadReconciler;
+
+    public BlobSweeper(FileStorageService fileStorageService, CertificateRepository certificateRepository,
+                       StorageProperties storageProperties, UploadReconciler uploadReconciler) {
+        this.fileStorageService = fileStorageService;
+        this.certificateRepository = certificateRepository;
+        this.storageProperties = storageProperties;
+        this.uploadReconciler = uploadReconciler;
+    }
+
+    /**
+     * Menjalankan sweep blob yatim secara berkala (hanya pada mode content-addressed).
+     * @return Jumlah blob yang dihapus.
+     */
+    @Scheduled(fixedDelayString = "${app.storage.sweep-interval:PT1H}", initialDelayString = "${app.storage.sweep-interval:PT1H}")
+    public int sweepOrphans() {
+        if (!fileStorageService.isContentAddressed()) {
+            return 0;
+        }
+        if (uploadReconciler.isRunning()) {
+            // Baris sertifikat mungkin belum dipulihkan; blob tanpa sertifikat belum tentu yatim
+            return 0;
+        }
+        Path blobRoot = fileStorageService.getBlobRoot();
+        if (!Files.isDirectory(blobRoot)) {
+            return 0;
+        }
+        int removed = 0;
+        FileTime fileCutoff = FileTime.from(Instant.now().minus(storageProperties.getOrphanGracePeriod()));
+        try (Stream<Path> blobs = Files.find(blobRoot, 3, (path, attrs) -> attrs.isRegularFile()
+                && attrs.lastModifiedTime().compareTo(fileCutoff) < 0)) {
+            for (Path blob : (Iterable<Path>) blobs::iterator) {
+                String name = blob.getFileName().toString();
+                // File yang namanya bukan hash (sisa penulisan yang terputus) juga dihapus
+                if (!DocumentHash.isValidHex(name) || !certificateRepository.existsByDocumentHash(DocumentHash.fromHex(name))) {
+                    Files.deleteIfExists(blob);
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Gagal memindai direktori blob: " + e.getMessage());
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,178 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.BulkVerifyProperties;
+import com.authenticity.taranium_certs.dto.BulkVerificationResult;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service untuk memverifikasi banyak sertifikat dari satu arsip ZIP.
+ * Arsip dibaca entri demi entri dengan {@link ZipInputStream}; entri di-hash secara bersamaan melalui
+ * {@link HashService} dan hasilnya ditulis sebagai satu baris NDJSON segera setelah siap (urutan tidak dijamin).
+ * Jumlah entri yang sedang diproses dibatasi sehingga pemakaian memori tetap, berapa pun ukuran arsipnya.
+ */
+@Service
+public class BulkVerificationService {
+
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final HashService hashService;
+    private final CertificateService certificateService;
+    private final BulkVerifyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+
+    public BulkVerificationService(HashService hashService, CertificateService certificateService,
+                                   BulkVerifyProperties properties, ObjectMapper objectMapper) {
+        this.hashService = hashService;
+        this.certificateService = certificateService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.getParallelism(), properties.getParallelism(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, properties.getMaxInFlight())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulk-verify-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Membaca arsip ZIP dan menulis satu baris NDJSON per entri file ke output.
+     * @param zipStream Isi arsip ZIP.
+     * @param out Output tujuan (body response).
+     * @throws IOException jika arsip tidak dapat dibaca atau output tidak dapat ditulis.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public void verifyArchive(InputStream zipStream, OutputStream out) throws IOException, NoSuchAlgorithmException {
+        int maxInFlight = Math.max(1, properties.getMaxInFlight());
+        int threshold = (int) Math.min(Integer.MAX_VALUE - 8, properties.getInMemoryThreshold().toBytes());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+
+        try (ZipInputStream zip = new ZipInputStream(zipStream)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null && writeFailure.get() == null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String entryName = entry.getName();
+                byte[] head = zip.readNBytes(threshold + 1);
+
+                if (head.length > threshold) {
+                    // Entri besar: hash langsung dari stream agar tidak perlu dibuffer seluruhnya
+                    MessageDigest digest = hashService.newSha256Digest();
+                    digest.update(head);
+                    long size = head.length + digestRemaining(zip, digest);
+                    writeResult(out, verify(entryName, hashService.finish(digest), size), writeFailure);
+                    continue;
+                }
+
+                acquire(inFlight);
+                try {
+                    executor.execute(() -> {
+                        try {
+                            writeResult(out, hashAndVerify(entryName, head), writeFailure);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } finally {
+            // Tunggu semua entri yang masih diproses sebelum response ditutup
+            acquire(inFlight, maxInFlight);
+            inFlight.release(maxInFlight);
+        }
+
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+    }
+
+    private BulkVerificationResult hashAndVerify(String entryName, byte[] content) {
+        try {
+            DocumentHash documentHash = hashService.calculateSha256Hash(new ByteArrayInputStream(content));
+            return verify(entryName, documentHash, content.length);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return BulkVerificationResult.builder().entryName(entryName).error("Gagal menghitung hash: " + e.getMessage()).build();
+        }
+    }
+
+    private BulkVerificationResult verify(String entryName, DocumentHash documentHash, long size) {
+        try {
+            boolean known = certificateService.isRegistered(documentHash);
+            return BulkVerificationResult.builder().entryName(entryName).documentHash(documentHash).size(size).known(known).build();
+        } catch (RuntimeException e) {
+            return BulkVerificationResult.builder().entryName(entryName).documentHash(documentHash).size(size)
+                    .error("Gagal memeriksa database: " + e.getMessage()).build();
+        }
+    }
+
+    private long digestRemaining(InputStream in, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, bytesRead);
+            total += bytesRead;
+        }
+        return total;
+    }
+
+    private void writeResult(OutputStream out, BulkVerificationResult result, AtomicReference<IOException> writeFailure) {
+        try {
+            byte[] line = objectMapper.writeValueAsBytes(result);
+            synchronized (out) {
+                out.write(line);
+                out.write(NEWLINE);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Biasanya klien memutus koneksi: hentikan pembacaan arsip
+            writeFailure.compareAndSet(null, e);
+        }
+    }
+
+    private void acquire(Semaphore semaphore) throws IOException {
+        acquire(semaphore, 1);
+    }
+
+    private void acquire(Semaphore semaphore, int permits) throws IOException {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Verifikasi massal dihentikan.", e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ExportProperties;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service untuk mengekspor seluruh sertifikat satu institusi sebagai CSV atau NDJSON.
+ * Baris dibaca dari database sebagai stream (cursor JDBC dengan fetch size app.export.fetch-size) dan langsung
+ * ditulis ke output; persistence context dikosongkan secara berkala sehingga pemakaian memori tetap,
+ * berapa pun jumlah sertifikatnya.
+ */
+@Service
+public class CertificateExportService {
+
+    private static final String[] COLUMNS = {
+            "documentHash", "originalFileName", "localFilePath", "folderName", "issuerAddress", "uploadTimestamp"};
+
+    private final EntityManager entityManager;
+    private final ExportProperties exportProperties;
+    private final ObjectMapper objectMapper;
+
+    public CertificateExportService(EntityManager entityManager, ExportProperties exportProperties, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.exportProperties = exportProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Format file ekspor.
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @param value Nama format (tidak peka huruf besar/kecil).
+         * @return Format yang sesuai.
+         * @throws IllegalArgumentException jika format tidak dikenal.
+         */
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Format ekspor tidak dikenal: " + value);
+            }
+        }
+    }
+
+    /**
+     * Menulis semua sertifikat institusi (urut id) ke output. Header CSV di-flush sebelum query dijalankan dan baris
+     * pertama di-flush segera setelah dibaca, sehingga klien langsung menerima byte pertama.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param format Format output.
+     * @param gzip true untuk mengompresi output dengan gzip.
+     * @param out Output tujuan (body response); tidak ditutup oleh method ini.
+     * @return Jumlah sertifikat yang diekspor.
+     * @throws IOException jika output tidak dapat ditulis (misalnya klien memutus koneksi).
+     */
+    @Transactional(readOnly = true)
+    public long export(String issuerAddress, Format format, boolean gzip, OutputStream out) throws IOException {
+        // syncFlush: flush() juga mengirim data yang sudah dikompresi, bukan menunggu blok deflate penuh
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, 8192, true) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipStream : out, StandardCharsets.UTF_8));
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.setRootValueSeparator(null);
+        } else {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+        writer.flush();
+
+        int clearInterval = Math.max(1, exportProperties.getClearInterval());
+        long rows = 0;
+        try (Stream<Certificate> certificates = entityManager
+                .createQuery("select c from Certificate c where c.issuerAddress = :issuerAddress order by c.id", Certificate.class)
+                .setParameter("issuerAddress", issuerAddress)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Math.max(1, exportProperties.getFetchSize()))
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<Certificate> iterator = certificates.iterator();
+            while (iterator.hasNext()) {
+                Certificate certificate = iterator.next();
+                if (json != null) {
+                    writeJson(json, certificate);
+                } else {
+                    writeCsv(writer, certificate);
+                }
+                if (++rows % clearInterval == 0) {
+                    // Entitas yang sudah ditulis dilepas dari persistence context, lalu data dikirim ke klien
+                    entityManager.clear();
+                    flush(json, writer);
+                } else if (rows == 1) {
+                    flush(json, writer);
+                }
+            }
+        }
+
+        flush(json, writer);
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        out.flush();
+        return rows;
+    }
+
+    private static void flush(JsonGenerator json, Writer writer) throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, Certificate certificate) throws IOException {
+        String[] values = {
+                certificate.getDocumentHash().toHex(),
+                certificate.getOriginalFileName(),
+                certificate.getLocalFilePath(),
+                certificate.getFolderName(),
+                certificate.getIssuerAddress(),
+                format(certificate)};
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private static void writeJson(JsonGenerator json, Certificate certificate) throws IOException {
+        json.writeStartObject();
+        json.writeStringField(COLUMNS[0], certificate.getDocumentHash().toHex());
+        json.writeStringField(COLUMNS[1], certificate.getOriginalFileName());
+        json.writeStringField(COLUMNS[2], certificate.getLocalFilePath());
+        json.writeStringField(COLUMNS[3], certificate.getFolderName());
+        json.writeStringField(COLUMNS[4], certificate.getIssuerAddress());
+        json.writeStringField(COLUMNS[5], format(certificate));
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static String format(Certificate certificate) {
+        return certificate.getUploadTimestamp() == null ? null
+                : certificate.getUploadTimestamp().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /**
+     * Escape nilai CSV sesuai RFC 4180: nilai yang mengandung koma, tanda kutip, atau baris baru diapit tanda kutip.
+     */
+    static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
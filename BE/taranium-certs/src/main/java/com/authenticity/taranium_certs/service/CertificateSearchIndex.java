@@ -0,0 +1,462 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.SearchProperties;
+import com.authenticity.taranium_certs.dto.CertificateSummary;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indeks pencarian nama file dan nama folder sertifikat per institusi, disimpan di memori.
+ * Nama file dipecah menjadi trigram (tiga karakter berurutan) dengan posting list per institusi; kata kunci
+ * minimal tiga karakter dicari dengan irisan posting list, kata kunci lebih pendek dengan rentang trigram
+ * berawalan kata kunci tersebut. Nama folder per institusi jumlahnya sedikit sehingga cukup dicocokkan langsung.
+ *
+ * Indeks dibangun sekali dari tabel certificates setelah aplikasi siap, lalu diperbarui setiap kali
+ * transaksi pendaftaran commit. Indeks hanya menyimpan id, nama file, dan nama folder; baris hasilnya diambil
+ * dari database per halaman.
+ */
+@Service
+public class CertificateSearchIndex {
+
+    private static final char PAD = '\0';
+    private static final int MAX_TERMS = 8;
+
+    private final CertificateRepository certificateRepository;
+    private final SearchProperties searchProperties;
+
+    private volatile Map<String, IssuerIndex> issuers = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    // Diisi selama indeks dibangun: pendaftaran yang commit saat itu diterapkan setelah pembangunan selesai
+    private final Object pendingLock = new Object();
+    private List<Entry> pending;
+
+    public CertificateSearchIndex(CertificateRepository certificateRepository, SearchProperties searchProperties) {
+        this.certificateRepository = certificateRepository;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * Hasil pencarian: id sertifikat pada halaman yang diminta, urut dari yang paling relevan.
+     * @param ids Id sertifikat.
+     * @param total Jumlah semua sertifikat yang cocok.
+     */
+    public record Hits(List<Long> ids, int total) {
+    }
+
+    private record Entry(long id, String issuerAddress, String folderName, String originalFileName) {
+    }
+
+    /**
+     * Membangun indeks di thread latar belakang setelah aplikasi siap menerima request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!searchProperties.isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "certificate-search-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Membangun ulang seluruh indeks dari tabel certificates (urut id, satu query per potongan).
+     * Pendaftaran yang commit selama pembangunan ditampung lalu diterapkan setelahnya.
+     */
+    public void rebuild() {
+        synchronized (pendingLock) {
+            pending = new ArrayList<>();
+        }
+        long start = System.nanoTime();
+        Map<String, IssuerIndex> built = new ConcurrentHashMap<>();
+        int batchSize = Math.max(1, searchProperties.getLoadBatchSize());
+        long afterId = 0;
+        int count = 0;
+        while (true) {
+            List<CertificateSummary> rows = certificateRepository.findSummariesAfter(afterId, Limit.of(batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (CertificateSummary row : rows) {
+                built.computeIfAbsent(row.getIssuerAddress(), issuer -> new IssuerIndex())
+                        .add(row.getId(), row.getFolderName(), row.getOriginalFileName());
+            }
+            count += rows.size();
+            afterId = rows.get(rows.size() - 1).getId();
+        }
+
+        synchronized (pendingLock) {
+            for (Entry entry : pending) {
+                IssuerIndex index = built.computeIfAbsent(entry.issuerAddress(), issuer -> new IssuerIndex());
+                // Baris yang sudah terbaca oleh query pembangunan tidak ditambahkan dua kali
+                if (!index.containsSorted(entry.id())) {
+                    index.add(entry.id(), entry.folderName(), entry.originalFileName());
+                }
+            }
+            pending = null;
+            issuers = built;
+            ready = true;
+        }
+        System.out.printf("Indeks pencarian sertifikat dibangun: %d sertifikat dari %d institusi dalam %d ms.%n",
+                count, built.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Menambahkan sertifikat baru ke indeks. Jika dipanggil di dalam transaksi, penambahan ditunda sampai
+     * transaksi commit sehingga pendaftaran yang di-rollback tidak pernah muncul di hasil pencarian.
+     * @param certificate Sertifikat yang sudah disimpan (id sudah terisi).
+     */
+    public void add(Certificate certificate) {
+        if (!searchProperties.isEnabled()) {
+            return;
+        }
+        Entry entry = new Entry(certificate.getId(), certificate.getIssuerAddress(), certificate.getFolderName(),
+                certificate.getOriginalFileName());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(entry);
+                }
+            });
+        } else {
+            apply(entry);
+        }
+    }
+
+    /**
+     * @return true setelah indeks selesai dibangun dan siap melayani pencarian.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Mencari sertifikat institusi yang nama file atau nama foldernya mengandung semua kata dalam kata kunci.
+     * Urutan hasil: nama file sama persis, lalu berawalan kata kunci, lalu kata kunci di awal kata, lalu di tengah
+     * nama file, lalu kecocokan nama folder; hasil dengan skor sama diurutkan dari yang terbaru.
+     * @param issuerAddress Alamat MetaMask institusi.
+     * @param query Kata kunci (tidak peka huruf besar/kecil, dipisah spasi).
+     * @param offset Jumlah hasil yang dilewati.
+     * @param limit Jumlah hasil maksimum.
+     * @return Id sertifikat pada halaman tersebut beserta jumlah semua hasil.
+     * @throws IllegalArgumentException jika kata kunci melebihi app.search.max-query-length.
+     */
+    public Hits search(String issuerAddress, String query, int offset, int limit) {
+        if (query != null && query.length() > searchProperties.getMaxQueryLength()) {
+            throw new IllegalArgumentException("Kata kunci maksimum " + searchProperties.getMaxQueryLength() + " karakter.");
+        }
+        IssuerIndex index = issuers.get(issuerAddress);
+        String[] terms = normalize(query).split("\\s+");
+        if (index == null || terms.length == 0 || terms[0].isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+        return index.search(Arrays.copyOf(terms, Math.min(terms.length, MAX_TERMS)), offset, limit);
+    }
+
+    private void apply(Entry entry) {
+        synchronized (pendingLock) {
+            if (pending != null) {
+                pending.add(entry);
+                return;
+            }
+        }
+        issuers.computeIfAbsent(entry.issuerAddress(), issuer -> new IssuerIndex())
+                .add(entry.id(), entry.folderName(), entry.originalFileName());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long gram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    /**
+     * Indeks satu institusi. Dokumen diberi nomor urut (ordinal) sesuai urutan masuk, sehingga posting list
+     * selalu terurut naik tanpa perlu disortir.
+     */
+    private static final class IssuerIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TreeMap<Long, Postings> grams = new TreeMap<>();
+        private final Map<String, Integer> folderOrdinals = new HashMap<>();
+        private final List<String> folderNames = new ArrayList<>();
+        private long[] ids = new long[16];
+        private String[] names = new String[16];
+        private int[] folders = new int[16];
+        private int size;
+
+        void add(long id, String folderName, String originalFileName) {
+            String name = normalize(originalFileName);
+            String folder = normalize(folderName);
+            lock.writeLock().lock();
+            try {
+                if (size == ids.length) {
+                    int capacity = size * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    names = Arrays.copyOf(names, capacity);
+                    folders = Arrays.copyOf(folders, capacity);
+                }
+                int doc = size++;
+                ids[doc] = id;
+                names[doc] = name;
+                folders[doc] = folderOrdinals.computeIfAbsent(folder, key -> {
+                    folderNames.add(key);
+                    return folderNames.size() - 1;
+                });
+                // Dua karakter pengisi di akhir agar kata kunci 1-2 karakter di ujung nama tetap punya trigram
+                String padded = name + PAD + PAD;
+                for (int i = 0; i < name.length(); i++) {
+                    grams.computeIfAbsent(gram(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2)),
+                            key -> new Postings()).add(doc);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Hanya benar selama dokumen ditambahkan urut id, yaitu saat indeks dibangun.
+         */
+        boolean containsSorted(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        Hits search(String[] terms, int offset, int limit) {
+            lock.readLock().lock();
+            try {
+                BitSet matches = null;
+                for (String term : terms) {
+                    BitSet termMatches = match(term);
+                    if (matches == null) {
+                        matches = termMatches;
+                    } else {
+                        matches.and(termMatches);
+                    }
+                    if (matches.isEmpty()) {
+                        return new Hits(List.of(), 0);
+                    }
+                }
+
+                // Skor di 32 bit atas dan ordinal di 32 bit bawah: urutan menurun = skor tertinggi, lalu terbaru
+                // Hanya offset + limit teratas yang disimpan (min-heap), bukan seluruh hasil yang disortir
+                TopK top = new TopK((int) Math.min((long) offset + limit, matches.cardinality()));
+                int count = 0;
+                // Dari yang terbaru: hasil berskor sama yang lebih lama tidak pernah menggeser isi heap
+                for (int doc = matches.previousSetBit(size - 1); doc >= 0; doc = matches.previousSetBit(doc - 1)) {
+                    int score = 0;
+                    for (String term : terms) {
+                        int termScore = score(names[doc], folderNames.get(folders[doc]), term);
+                        if (termScore == 0) {
+                            // Kandidat trigram yang kata kuncinya ternyata tidak berurutan di nama file
+                            score = -1;
+                            break;
+                        }
+                        score += termScore;
+                    }
+                    if (score < 0) {
+                        continue;
+                    }
+                    top.offer(((long) score << 32) | doc);
+                    count++;
+                }
+                long[] ranked = top.sortedDescending();
+
+                List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, count - offset)));
+                for (int i = offset; i < ranked.length; i++) {
+                    page.add(ids[(int) ranked[i]]);
+                }
+                return new Hits(page, count);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private BitSet match(String term) {
+            BitSet result = new BitSet(size);
+            if (term.length() >= 3) {
+                // Irisan posting list semua trigram kata kunci, dimulai dari yang terpendek
+                List<Postings> lists = new ArrayList<>(term.length() - 2);
+                for (int i = 0; i + 3 <= term.length(); i++) {
+                    Postings postings = grams.get(gram(term.charAt(i), term.charAt(i + 1), term.charAt(i + 2)));
+                    if (postings != null) {
+                        lists.add(postings);
+                    } else {
+                        lists = null;
+                        break;
+                    }
+                }
+                // Trigram yang cocok belum tentu berurutan; kandidat diperiksa ulang saat diberi skor
+                if (lists != null) {
+                    lists.sort((a, b) -> Integer.compare(a.size, b.size));
+                    lists.get(0).copyTo(result);
+                    for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                        result.and(lists.get(i).toBitSet(size));
+                    }
+                }
+            } else {
+                char first = term.charAt(0);
+                NavigableMap<Long, Postings> range = term.length() == 1
+                        ? grams.subMap(gram(first, PAD, PAD), true, gram(first, Character.MAX_VALUE, Character.MAX_VALUE), true)
+                        : grams.subMap(gram(first, term.charAt(1), PAD), true, gram(first, term.charAt(1), Character.MAX_VALUE), true);
+                range.values().forEach(postings -> postings.copyTo(result));
+            }
+
+            BitSet matchingFolders = new BitSet(folderNames.size());
+            for (int folder = 0; folder < folderNames.size(); folder++) {
+                if (folderNames.get(folder).contains(term)) {
+                    matchingFolders.set(folder);
+                }
+            }
+            if (!matchingFolders.isEmpty()) {
+                for (int doc = 0; doc < size; doc++) {
+                    if (matchingFolders.get(folders[doc])) {
+                        result.set(doc);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static int score(String name, String folder, String term) {
+            // Sama persis dengan nama file, atau dengan nama file tanpa ekstensi
+            if (name.startsWith(term) && (name.length() == term.length() || name.lastIndexOf('.') == term.length())) {
+                return 100;
+            }
+            if (name.startsWith(term)) {
+                return 60;
+            }
+            int position = name.indexOf(term);
+            if (position > 0) {
+                return Character.isLetterOrDigit(name.charAt(position - 1)) ? 25 : 40;
+            }
+            if (folder.startsWith(term)) {
+                return 15;
+            }
+            return folder.contains(term) ? 10 : 0;
+        }
+    }
+
+    /**
+     * Min-heap berukuran tetap untuk memilih k kunci terbesar tanpa menyortir semua hasil.
+     */
+    private static final class TopK {
+
+        private final long[] heap;
+        private int size;
+
+        TopK(int capacity) {
+            heap = new long[capacity];
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (size > 0 && key > heap[0]) {
+                heap[0] = key;
+                siftDown();
+            }
+        }
+
+        long[] sortedDescending() {
+            long[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                long swap = sorted[i];
+                sorted[i] = sorted[j];
+                sorted[j] = swap;
+            }
+            return sorted;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] <= heap[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown() {
+            int index = 0;
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && heap[left] < heap[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && heap[right] < heap[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int first, int second) {
+            long value = heap[first];
+            heap[first] = heap[second];
+            heap[second] = value;
+        }
+    }
+
+    /**
+     * Posting list: ordinal dokumen yang mengandung satu trigram, terurut naik.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            // Trigram yang muncul lebih dari sekali dalam satu nama cukup dicatat sekali
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        void copyTo(BitSet bits) {
+            for (int i = 0; i < size; i++) {
+                bits.set(docs[i]);
+            }
+        }
+
+        BitSet toBitSet(int capacity) {
+            BitSet bits = new BitSet(capacity);
+            copyTo(bits);
+            return bits;
+        }
+    }
+}
@@ -1,11 +1,31 @@
 package com.authenticity.taranium_certs.service;
 
+import com.authenticity.taranium_certs.dto.CertificatePage;
+import com.authenticity.taranium_certs.dto.CertificateSearchPage;
+import com.authenticity.taranium_certs.dto.CertificateSummary;
 import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
 import com.authenticity.taranium_certs.repository.CertificateRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service untuk mengelola entitas Certificate di database lokal.
@@ -14,30 +34,180 @@ import java.util.Optional;
 @Service
 public class CertificateService {
 
+    private static final int REGISTRATION_LOCK_STRIPES = 1024;
+
     private final CertificateRepository certificateRepository;
+    private final FileStorageService fileStorageService;
+    private final FolderCatalogService folderCatalogService;
+    private final CertificateSearchIndex certificateSearchIndex;
+    private final HashMembershipIndex hashMembershipIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedLocks registrationLocks = new StripedLocks(REGISTRATION_LOCK_STRIPES);
 
-    public CertificateService(CertificateRepository certificateRepository) {
+    public CertificateService(CertificateRepository certificateRepository, FileStorageService fileStorageService,
+                              FolderCatalogService folderCatalogService, CertificateSearchIndex certificateSearchIndex,
+                              HashMembershipIndex hashMembershipIndex, PlatformTransactionManager transactionManager) {
         this.certificateRepository = certificateRepository;
+        this.fileStorageService = fileStorageService;
+        this.folderCatalogService = folderCatalogService;
+        this.certificateSearchIndex = certificateSearchIndex;
+        this.hashMembershipIndex = hashMembershipIndex;
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Hasil pendaftaran idempoten: sertifikat yang baru disimpan, atau sertifikat yang sudah ada untuk hash yang sama.
+     * @param certificate Sertifikat baru atau yang sudah terdaftar.
+     * @param stagedFile File yang di-commit untuk pendaftaran baru (durasi tiap tahapnya untuk metrik); null jika sudah terdaftar.
+     */
+    public record Registration(Certificate certificate, StagedFile stagedFile) {
+        public boolean isCreated() {
+            return stagedFile != null;
+        }
+    }
+
+    /**
+     * Menyiapkan file untuk didaftarkan; hanya dipanggil jika hash belum terdaftar.
+     */
+    @FunctionalInterface
+    public interface Stager {
+        StagedFile stage() throws NoSuchAlgorithmException;
+    }
+
+    /**
+     * Mendaftarkan hash dokumen secara idempoten. Pendaftaran hash yang sama diserialisasi dengan striped lock:
+     * pemeriksaan, penulisan file, dan commit transaksi terjadi di bawah lock, sehingga permintaan duplikat
+     * (bersamaan maupun berurutan) tidak menulis apa pun ke disk dan langsung mendapat sertifikat yang sudah ada.
+     * Constraint unique di database tetap menjadi penentu akhir (misalnya terhadap proses lain): pelanggarannya
+     * dijawab dengan sertifikat yang sudah ada, bukan error.
+     * @param documentHash Hash dokumen yang sudah dihitung.
+     * @param stager Menulis file ke lokasi sementara; file yang dihasilkan dimiliki (dan ditutup) oleh method ini.
+     * @param folderName Nama folder.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @return Sertifikat baru, atau sertifikat yang sudah terdaftar untuk hash tersebut.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia saat staging.
+     */
+    public Registration registerIfAbsent(DocumentHash documentHash, Stager stager, String folderName, String issuerAddress)
+            throws NoSuchAlgorithmException {
+        ReentrantLock lock = registrationLocks.lockFor(documentHash);
+        lock.lock();
+        try {
+            Optional<Certificate> existing = getCertificateByHash(documentHash);
+            if (existing.isPresent()) {
+                return new Registration(existing.get(), null);
+            }
+            try (StagedFile stagedFile = stager.stage()) {
+                Certificate saved = transactionTemplate.execute(status -> registerCertificate(stagedFile, folderName, issuerAddress));
+                return new Registration(saved, stagedFile);
+            } catch (DataIntegrityViolationException e) {
+                // Didaftarkan bersamaan di luar lock ini (misalnya oleh rekonsiliasi)
+                return certificateRepository.findByDocumentHash(documentHash)
+                        .map(certificate -> new Registration(certificate, null))
+                        .orElseThrow(() -> e);
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Menyimpan metadata sertifikat baru ke database.
-     * @param certificate Objek Certificate yang akan disimpan.
+     * Mendaftarkan file yang sudah di-stage: metadata disimpan lebih dulu (di-flush agar pelanggaran
+     * constraint langsung terlihat), baru kemudian file dipindahkan ke lokasi akhirnya.
+     * Jika penyimpanan metadata gagal, file tidak pernah muncul di path akhir; jika pemindahan file gagal,
+     * transaksi di-rollback. File yang sudah dipindahkan sebelumnya (transaksi lain yang gagal) tidak dipindahkan lagi;
+     * file yang sudah ditambahkan ke segmen hanya dicatat ulang di indeks.
+     * Katalog folder diperbarui di transaksi yang sama; indeks pencarian diperbarui setelah transaksi commit.
+     * @param stagedFile File hasil {@link FileStorageService#stageFile}.
+     * @param folderName Nama folder.
+     * @param issuerAddress Alamat blockchain institusi.
      * @return Certificate yang telah disimpan.
      */
-    public Certificate saveCertificateMetadata(Certificate certificate) {
-        return certificateRepository.save(certificate);
+    @Transactional
+    public Certificate registerCertificate(StagedFile stagedFile, String folderName, String issuerAddress) {
+        Certificate certificate = new Certificate(stagedFile.getDocumentHash(), stagedFile.getOriginalFileName(),
+                stagedFile.getRelativePath(), folderName, issuerAddress);
+        long start = System.nanoTime();
+        Certificate saved = certificateRepository.saveAndFlush(certificate);
+        hashMembershipIndex.add(saved.getDocumentHash());
+        folderCatalogService.recordUploads(issuerAddress, folderName, 1, stagedFile.getSize(), saved.getUploadTimestamp());
+        stagedFile.addPersistNanos(System.nanoTime() - start);
+        // Indeks segmen ikut di-rollback bersama transaksi yang gagal, jadi selalu dicatat ulang
+        if (!stagedFile.isCommitted() || stagedFile.isSegmented()) {
+            fileStorageService.commit(stagedFile);
+        }
+        certificateSearchIndex.add(saved);
+        return saved;
+    }
+
+    /**
+     * Mendaftarkan sekumpulan file yang sudah di-stage dalam satu transaksi. Semua metadata disimpan
+     * dengan saveAll lalu di-flush sekaligus (di-batch oleh JDBC), baru kemudian file dipindahkan.
+     * @param stagedFiles File hasil {@link FileStorageService#stageFile}.
+     * @param folderName Nama folder.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @return List Certificate yang telah disimpan, dengan urutan yang sama dengan stagedFiles.
+     */
+    @Transactional
+    public List<Certificate> registerCertificates(List<StagedFile> stagedFiles, String folderName, String issuerAddress) {
+        List<Certificate> certificates = stagedFiles.stream()
+                .map(staged -> new Certificate(staged.getDocumentHash(), staged.getOriginalFileName(),
+                        staged.getRelativePath(), folderName, issuerAddress))
+                .toList();
+        long start = System.nanoTime();
+        List<Certificate> saved = certificateRepository.saveAllAndFlush(certificates);
+        saved.forEach(certificate -> hashMembershipIndex.add(certificate.getDocumentHash()));
+        folderCatalogService.recordUploads(issuerAddress, folderName, saved.size(),
+                stagedFiles.stream().mapToLong(StagedFile::getSize).sum(),
+                saved.stream().map(Certificate::getUploadTimestamp).max(LocalDateTime::compareTo).orElse(LocalDateTime.now()));
+        // Satu JDBC batch untuk semua file: durasinya dibagi rata per file
+        long persistNanos = (System.nanoTime() - start) / Math.max(1, stagedFiles.size());
+        stagedFiles.forEach(staged -> staged.addPersistNanos(persistNanos));
+        stagedFiles.forEach(fileStorageService::commit);
+        saved.forEach(certificateSearchIndex::add);
+        return saved;
+    }
+
+    /**
+     * Mengambil sertifikat yang sudah terdaftar dari sekumpulan hash dokumen.
+     * Hash yang pasti belum terdaftar menurut {@link HashMembershipIndex} tidak ikut di-query.
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return Map hash ke sertifikat, hanya untuk hash yang sudah terdaftar.
+     */
+    public Map<DocumentHash, Certificate> findRegisteredCertificates(Collection<DocumentHash> documentHashes) {
+        List<DocumentHash> candidates = documentHashes.stream()
+                .filter(hashMembershipIndex::mightContain)
+                .toList();
+        if (candidates.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<DocumentHash, Certificate> registered = new HashMap<>();
+        certificateRepository.findByDocumentHashIn(candidates)
+                .forEach(certificate -> registered.put(certificate.getDocumentHash(), certificate));
+        return registered;
     }
 
     /**
      * Mencari metadata sertifikat berdasarkan hash dokumen.
+     * Hash yang pasti belum terdaftar menurut {@link HashMembershipIndex} dijawab tanpa query database.
      * @param documentHash Hash SHA-256 dokumen.
      * @return Optional yang berisi Certificate jika ditemukan.
      */
-    public Optional<Certificate> getCertificateByHash(String documentHash) {
+    public Optional<Certificate> getCertificateByHash(DocumentHash documentHash) {
+        if (!hashMembershipIndex.mightContain(documentHash)) {
+            return Optional.empty();
+        }
         return certificateRepository.findByDocumentHash(documentHash);
     }
 
+    /**
+     * Memeriksa apakah hash dokumen sudah terdaftar di database lokal (lewat {@link HashMembershipIndex} lebih dulu).
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return true jika hash terdaftar.
+     */
+    public boolean isRegistered(DocumentHash documentHash) {
+        return hashMembershipIndex.mightContain(documentHash) && certificateRepository.existsByDocumentHash(documentHash);
+    }
+
     /**
      * Mengambil semua sertifikat yang diupload oleh institusi dengan alamat blockchain tertentu.
      * @param issuerAddress Alamat blockchain institusi.
@@ -56,4 +226,81 @@ public class CertificateService {
     public List<Certificate> getCertificatesByIssuerAddressAndFolder(String issuerAddress, String folderName) {
         return certificateRepository.findByIssuerAddressAndFolderName(issuerAddress, folderName);
     }
-}
\ No newline at end of file
+
+    /**
+     * Mencari sertifikat institusi berdasarkan nama file dan nama folder melalui {@link CertificateSearchIndex}.
+     * Indeks menentukan urutan dan halaman; hanya baris pada halaman tersebut yang dibaca dari database.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param query Kata kunci.
+     * @param offset Jumlah hasil yang dilewati.
+     * @param limit Jumlah hasil maksimum.
+     * @return Halaman hasil (urut relevansi) dan jumlah semua hasil.
+     * @throws IllegalStateException jika indeks pencarian belum siap atau tidak aktif.
+     */
+    @Transactional(readOnly = true)
+    public CertificateSearchPage searchCertificates(String issuerAddress, String query, int offset, int limit) {
+        if (!certificateSearchIndex.isReady()) {
+            throw new IllegalStateException("Indeks pencarian belum siap.");
+        }
+        CertificateSearchIndex.Hits hits = certificateSearchIndex.search(issuerAddress, query, offset, limit);
+        Map<Long, Certificate> byId = new HashMap<>();
+        certificateRepository.findAllById(hits.ids()).forEach(certificate -> byId.put(certificate.getId(), certificate));
+        // Baris yang sudah dihapus dari database sejak diindeks dilewati
+        List<Certificate> certificates = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new CertificateSearchPage(certificates, hits.total());
+    }
+
+    /**
+     * Mengambil satu halaman isi folder dengan keyset pagination pada (uploadTimestamp, id).
+     * Berbeda dengan offset, biaya setiap halaman sama berapa pun kedalamannya, dan baris yang ditambahkan
+     * selama paging tidak menyebabkan baris terlewat atau terulang.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder.
+     * @param cursor Kursor dari halaman sebelumnya, atau null untuk halaman pertama.
+     * @param limit Jumlah baris maksimum per halaman.
+     * @return Halaman sertifikat dan kursor halaman berikutnya.
+     * @throws IllegalArgumentException jika kursor tidak valid.
+     */
+    @Transactional(readOnly = true)
+    public CertificatePage getCertificatePage(String issuerAddress, String folderName, String cursor, int limit) {
+        // Ambil satu baris lebih untuk mengetahui apakah masih ada halaman berikutnya
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<CertificateSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = certificateRepository.findFolderPage(issuerAddress, folderName, fetchLimit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = certificateRepository.findFolderPageAfter(issuerAddress, folderName,
+                    LocalDateTime.parse(position[0]), Long.parseLong(position[1]), fetchLimit);
+        }
+
+        if (rows.size() <= limit) {
+            return new CertificatePage(rows, null);
+        }
+        List<CertificateSummary> page = rows.subList(0, limit);
+        CertificateSummary last = page.get(page.size() - 1);
+        return new CertificatePage(page, encodeCursor(last.getUploadTimestamp(), last.getId()));
+    }
+
+    private static String encodeCursor(LocalDateTime uploadTimestamp, Long id) {
+        String position = uploadTimestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Kursor tidak valid.");
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Kursor tidak valid.", e);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ChainProperties;
+import com.authenticity.taranium_certs.entity.ChainRegistration;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.IndexerCheckpoint;
+import com.authenticity.taranium_certs.exception.ChainRpcException;
+import com.authenticity.taranium_certs.repository.ChainRegistrationRepository;
+import com.authenticity.taranium_certs.repository.IndexerCheckpointRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Indexer yang mengikuti event CertificateRegistered(documentHash, issuer, timestamp) dari kontrak
+ * CertificateRegistry melalui eth_getLogs per rentang blok, lalu menyimpannya ke tabel chain_registrations.
+ * Progres disimpan di {@link IndexerCheckpoint} bersama hash blok terakhir; jika hash blok tersebut berubah
+ * (reorg), indexer mundur sejauh reorg-depth blok dan mengindeks ulang.
+ * Dengan indeks ini, verifikasi dapat dijawab dari database lokal tanpa query ke blockchain.
+ */
+@Component
+public class ChainEventIndexer {
+
+    /** keccak256("CertificateRegistered(bytes32,address,uint256)") */
+    public static final String CERTIFICATE_REGISTERED_TOPIC = "0x0b72fa3233ea9d06bb49c49a07500379ad7cc42858fb6bd48d31dc5cf3f8487e";
+
+    private final ChainProperties chainProperties;
+    private final EthJsonRpcClient rpcClient;
+    private final ChainRegistrationRepository chainRegistrationRepository;
+    private final IndexerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock pollLock = new ReentrantLock();
+
+    public ChainEventIndexer(ChainProperties chainProperties, EthJsonRpcClient rpcClient,
+                             ChainRegistrationRepository chainRegistrationRepository,
+                             IndexerCheckpointRepository checkpointRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.chainProperties = chainProperties;
+        this.rpcClient = rpcClient;
+        this.chainRegistrationRepository = chainRegistrationRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return true jika indexer diaktifkan dan koneksi blockchain dikonfigurasi.
+     */
+    public boolean isEnabled() {
+        return chainProperties.getIndexer().isEnabled() && chainProperties.isConfigured();
+    }
+
+    @Scheduled(fixedDelayString = "${app.chain.indexer.poll-interval:PT15S}", initialDelayString = "${app.chain.indexer.poll-interval:PT15S}")
+    public void scheduledPoll() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            poll();
+        } catch (ChainRpcException e) {
+            System.err.println("Indexer blockchain gagal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mengindeks blok baru sampai (head - confirmations). Aman dipanggil bersamaan; pemanggil kedua langsung kembali.
+     * @return Jumlah event yang diindeks pada putaran ini.
+     * @throws ChainRpcException jika node tidak dapat dihubungi.
+     */
+    public int poll() {
+        if (!pollLock.tryLock()) {
+            return 0;
+        }
+        try {
+            ChainProperties.Indexer settings = chainProperties.getIndexer();
+            IndexerCheckpoint checkpoint = loadCheckpoint();
+
+            if (checkpoint.getLastBlockHash() != null
+                    && !checkpoint.getLastBlockHash().equalsIgnoreCase(blockHash(checkpoint.getLastBlock()))) {
+                rewind(checkpoint);
+            }
+
+            long target = hexToLong(rpcClient.call("eth_blockNumber")) - settings.getConfirmations();
+            long rangeSize = Math.max(1, settings.getBlockBatchSize());
+            long from = checkpoint.getLastBlock() + 1;
+            int indexed = 0;
+
+            while (from <= target) {
+                long to = Math.min(target, from + rangeSize - 1);
+                JsonNode logs;
+                try {
+                    logs = rpcClient.call("eth_getLogs", logFilter(from, to));
+                } catch (ChainRpcException e) {
+                    // Banyak node membatasi jumlah log per panggilan: perkecil rentang lalu coba lagi
+                    if (to > from) {
+                        rangeSize = Math.max(1, (to - from + 1) / 2);
+                        continue;
+                    }
+                    throw e;
+                }
+
+                List<ChainRegistration> registrations = parseLogs(logs);
+                String toHash = blockHash(to);
+                long lastBlock = to;
+                transactionTemplate.executeWithoutResult(status -> {
+                    registrations.forEach(this::upsert);
+                    checkpoint.setLastBlock(lastBlock);
+                    checkpoint.setLastBlockHash(toHash);
+                    checkpoint.setUpdatedAt(LocalDateTime.now());
+                    checkpointRepository.save(checkpoint);
+                });
+                indexed += registrations.size();
+                from = to + 1;
+            }
+            return indexed;
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    /**
+     * Mencari pendaftaran on-chain sebuah hash dari indeks lokal.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return Optional yang berisi ChainRegistration jika event pendaftarannya sudah diindeks.
+     */
+    public Optional<ChainRegistration> findRegistration(DocumentHash documentHash) {
+        return chainRegistrationRepository.findByDocumentHash(documentHash);
+    }
+
+    /**
+     * @return Checkpoint indexer saat ini, kosong jika indexer belum pernah berjalan.
+     */
+    public Optional<IndexerCheckpoint> getCheckpoint() {
+        if (!chainProperties.isConfigured()) {
+            return Optional.empty();
+        }
+        return checkpointRepository.findById(checkpointName());
+    }
+
+    private void rewind(IndexerCheckpoint checkpoint) {
+        long keep = Math.max(chainProperties.getIndexer().getStartBlock() - 1,
+                checkpoint.getLastBlock() - chainProperties.getIndexer().getReorgDepth());
+        String keepHash = keep >= 0 ? blockHash(keep) : null;
+        System.err.println("Reorg terdeteksi pada blok " + checkpoint.getLastBlock() + ", mundur ke blok " + keep);
+        transactionTemplate.executeWithoutResult(status -> {
+            chainRegistrationRepository.deleteByBlockNumberGreaterThan(keep);
+            checkpoint.setLastBlock(keep);
+            checkpoint.setLastBlockHash(keepHash);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    private void upsert(ChainRegistration registration) {
+        ChainRegistration target = chainRegistrationRepository.findByDocumentHash(registration.getDocumentHash())
+                .orElse(registration);
+        target.setIssuerAddress(registration.getIssuerAddress());
+        target.setRegisteredAt(registration.getRegisteredAt());
+        target.setBlockNumber(registration.getBlockNumber());
+        target.setBlockHash(registration.getBlockHash());
+        target.setTransactionHash(registration.getTransactionHash());
+        target.setLogIndex(registration.getLogIndex());
+        chainRegistrationRepository.save(target);
+    }
+
+    private List<ChainRegistration> parseLogs(JsonNode logs) {
+        List<ChainRegistration> registrations = new ArrayList<>();
+        for (JsonNode log : logs) {
+            JsonNode topics = log.path("topics");
+            if (log.path("removed").asBoolean(false) || topics.size() < 3
+                    || !CERTIFICATE_REGISTERED_TOPIC.equalsIgnoreCase(topics.get(0).asText())) {
+                continue;
+            }
+            String issuerTopic = stripHexPrefix(topics.get(2).asText());
+            long timestamp = new BigInteger(stripHexPrefix(log.path("data").asText("0x0")), 16).longValueExact();
+
+            ChainRegistration registration = new ChainRegistration();
+            registration.setDocumentHash(DocumentHash.fromHex(topics.get(1).asText()));
+            registration.setIssuerAddress("0x" + issuerTopic.substring(issuerTopic.length() - 40).toLowerCase(Locale.ROOT));
+            registration.setRegisteredAt(LocalDateTime.ofEpochSecond(timestamp, 0, ZoneOffset.UTC));
+            registration.setBlockNumber(hexToLong(log.path("blockNumber")));
+            registration.setBlockHash(log.path("blockHash").asText());
+            registration.setTransactionHash(log.path("transactionHash").asText());
+            registration.setLogIndex((int) hexToLong(log.path("logIndex")));
+            registrations.add(registration);
+        }
+        return registrations;
+    }
+
+    private Map<String, Object> logFilter(long from, long to) {
+        return Map.of(
+                "address", chainProperties.getRegistryAddress(),
+                "fromBlock", toHex(from),
+                "toBlock", toHex(to),
+                "topics", List.of(CERTIFICATE_REGISTERED_TOPIC));
+    }
+
+    private String blockHash(long blockNumber) {
+        JsonNode block = rpcClient.call("eth_getBlockByNumber", toHex(blockNumber), false);
+        if (block == null || block.isNull()) {
+            throw new ChainRpcException("Blok " + blockNumber + " tidak ditemukan.");
+        }
+        return block.path("hash").asText();
+    }
+
+    private IndexerCheckpoint loadCheckpoint() {
+        return checkpointRepository.findById(checkpointName()).orElseGet(() -> new IndexerCheckpoint(
+                checkpointName(), chainProperties.getIndexer().getStartBlock() - 1, null, LocalDateTime.now()));
+    }
+
+    private String checkpointName() {
+        return "CertificateRegistered:" + chainProperties.getRegistryAddress().toLowerCase(Locale.ROOT);
+    }
+
+    private static long hexToLong(JsonNode value) {
+        return Long.parseLong(stripHexPrefix(value.asText()), 16);
+    }
+
+    private static String toHex(long value) {
+        return "0x" + Long.toHexString(value);
+    }
+
+    private static String stripHexPrefix(String value) {
+        return value.startsWith("0x") || value.startsWith("0X") ? value.substring(2) : value;
+    }
+}
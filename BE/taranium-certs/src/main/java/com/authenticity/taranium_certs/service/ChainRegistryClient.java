@@ -0,0 +1,263 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ChainProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lookup status hash langsung ke kontrak CertificateRegistry lewat eth_call getCertificateInfo.
+ * Lookup yang datang bersamaan dalam satu batch-window digabung menjadi satu batch request JSON-RPC,
+ * hasil disimpan di cache (positif lama karena tidak berubah, negatif sebentar), dan circuit breaker
+ * menghentikan panggilan ke node sementara jika node lambat atau gagal berturut-turut.
+ */
+@Component
+public class ChainRegistryClient {
+
+    /** Selector fungsi getCertificateInfo(bytes32). */
+    static final String GET_CERTIFICATE_INFO_SELECTOR = "0x37f7e1dd";
+
+    private static final String ZERO_ADDRESS = "0x0000000000000000000000000000000000000000";
+
+    public enum Status { REGISTERED, NOT_REGISTERED, UNAVAILABLE }
+
+    /**
+     * Status on-chain satu hash dokumen.
+     * @param status REGISTERED, NOT_REGISTERED, atau UNAVAILABLE jika node tidak dapat ditanya.
+     * @param issuerAddress Alamat penerbit (hanya jika REGISTERED).
+     * @param timestamp Waktu pendaftaran dalam detik epoch (hanya jika REGISTERED).
+     * @param metadataUri URI metadata off-chain (hanya jika REGISTERED).
+     */
+    public record OnChainStatus(Status status, String issuerAddress, Long timestamp, String metadataUri) {
+
+        static final OnChainStatus NOT_REGISTERED = new OnChainStatus(Status.NOT_REGISTERED, null, null, null);
+        static final OnChainStatus UNAVAILABLE = new OnChainStatus(Status.UNAVAILABLE, null, null, null);
+    }
+
+    private final EthJsonRpcClient rpcClient;
+    private final ChainProperties chainProperties;
+    private final ChainProperties.Lookup lookupProperties;
+    private final ExpiringCache<DocumentHash, OnChainStatus> cache;
+    private final CircuitBreaker circuitBreaker;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final Map<DocumentHash, CompletableFuture<OnChainStatus>> inFlight = new ConcurrentHashMap<>();
+    private final List<DocumentHash> pending = new ArrayList<>();
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong callsSent = new AtomicLong();
+
+    public ChainRegistryClient(EthJsonRpcClient rpcClient, ChainProperties chainProperties) {
+        this.rpcClient = rpcClient;
+        this.chainProperties = chainProperties;
+        this.lookupProperties = chainProperties.getLookup();
+        this.cache = new ExpiringCache<>(lookupProperties.getCacheSize());
+        this.circuitBreaker = new CircuitBreaker(lookupProperties.getFailureThreshold(),
+                lookupProperties.getSlowCallThreshold(), lookupProperties.getOpenDuration());
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(2, runnable -> {
+            Thread thread = new Thread(runnable, "chain-lookup-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return true jika koneksi ke node dan kontrak sudah dikonfigurasi dan lookup tidak dimatikan.
+     */
+    public boolean isEnabled() {
+        return lookupProperties.isEnabled() && chainProperties.isConfigured();
+    }
+
+    /**
+     * Meminta status on-chain satu hash. Hasil dari cache dikembalikan langsung; selain itu hash
+     * dimasukkan ke batch berikutnya. Lookup bersamaan untuk hash yang sama berbagi satu panggilan.
+     * @param hash Hash SHA-256 dokumen.
+     * @return Future yang selesai dengan status hash; tidak pernah selesai dengan exception.
+     */
+    public CompletableFuture<OnChainStatus> lookup(DocumentHash hash) {
+        OnChainStatus cached = cache.get(hash);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<OnChainStatus> created = new CompletableFuture<>();
+        CompletableFuture<OnChainStatus> existing = inFlight.putIfAbsent(hash, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        boolean batchFull;
+        boolean firstInWindow;
+        synchronized (pending) {
+            pending.add(hash);
+            batchFull = pending.size() >= lookupProperties.getMaxBatchSize();
+            firstInWindow = pending.size() == 1;
+        }
+        if (batchFull) {
+            executor.execute(this::flush);
+        } else if (firstInWindow) {
+            executor.schedule(this::flush, lookupProperties.getBatchWindow().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return created;
+    }
+
+    /**
+     * Versi blocking dari {@link #lookup(DocumentHash)} dengan batas waktu app.chain.lookup.timeout.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return Status hash, atau UNAVAILABLE jika hasil tidak datang tepat waktu.
+     */
+    public OnChainStatus lookupNow(DocumentHash documentHash) {
+        try {
+            return lookup(documentHash).get(lookupProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return OnChainStatus.UNAVAILABLE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return OnChainStatus.UNAVAILABLE;
+        }
+    }
+
+    /**
+     * @return Statistik lookup: ukuran cache, cache hit, batch dan eth_call yang dikirim, serta status circuit breaker.
+     */
+    public Map<String, String> getStats() {
+        return Map.of(
+                "enabled", String.valueOf(isEnabled()),
+                "circuitBreaker", circuitBreaker.getState().name(),
+                "cacheSize", String.valueOf(cache.size()),
+                "cacheHits", String.valueOf(cacheHits.get()),
+                "batchesSent", String.valueOf(batchesSent.get()),
+                "callsSent", String.valueOf(callsSent.get()));
+    }
+
+    private void flush() {
+        List<DocumentHash> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            int size = Math.min(pending.size(), lookupProperties.getMaxBatchSize());
+            List<DocumentHash> head = pending.subList(0, size);
+            batch = new ArrayList<>(head);
+            head.clear();
+            // Sisa antrean menunggu jendela berikutnya, kecuali sudah cukup untuk satu batch penuh
+            if (pending.size() >= lookupProperties.getMaxBatchSize()) {
+                executor.execute(this::flush);
+            } else if (!pending.isEmpty()) {
+                executor.schedule(this::flush, lookupProperties.getBatchWindow().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            batch.forEach(hash -> complete(hash, OnChainStatus.UNAVAILABLE));
+            return;
+        }
+
+        List<EthJsonRpcClient.RpcCall> calls = batch.stream()
+                .map(hash -> new EthJsonRpcClient.RpcCall("eth_call", List.of(
+                        Map.of("to", chainProperties.getRegistryAddress(), "data", GET_CERTIFICATE_INFO_SELECTOR + hash.toHex()),
+                        "latest")))
+                .toList();
+
+        long start = System.nanoTime();
+        OnChainStatus[] statuses = new OnChainStatus[batch.size()];
+        boolean failed = true;
+        try {
+            batchesSent.incrementAndGet();
+            callsSent.addAndGet(calls.size());
+            List<EthJsonRpcClient.RpcResult> results = rpcClient.callBatch(calls);
+
+            boolean decodeFailed = false;
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    EthJsonRpcClient.RpcResult result = results.get(i);
+                    statuses[i] = result.isError() ? OnChainStatus.UNAVAILABLE : decodeCertificateInfo(result.result());
+                } catch (RuntimeException e) {
+                    System.err.println("Hasil lookup on-chain untuk " + batch.get(i).toHex() + " tidak dapat di-decode: " + e.getMessage());
+                    decodeFailed = true;
+                    statuses[i] = OnChainStatus.UNAVAILABLE;
+                }
+                switch (statuses[i].status()) {
+                    case REGISTERED -> cache.put(batch.get(i), statuses[i], lookupProperties.getPositiveTtl());
+                    case NOT_REGISTERED -> cache.put(batch.get(i), statuses[i], lookupProperties.getNegativeTtl());
+                    default -> {
+                    }
+                }
+            }
+            // Response yang tidak dapat di-decode dianggap node bermasalah, sama seperti panggilan yang gagal
+            failed = decodeFailed;
+        } catch (RuntimeException e) {
+            System.err.println("Lookup on-chain gagal: " + e.getMessage());
+        } finally {
+            if (failed) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess(Duration.ofNanos(System.nanoTime() - start));
+            }
+            // Setiap future batch diselesaikan, termasuk yang hasilnya belum sempat diproses
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), statuses[i] == null ? OnChainStatus.UNAVAILABLE : statuses[i]);
+            }
+        }
+    }
+
+    private void complete(DocumentHash hash, OnChainStatus status) {
+        CompletableFuture<OnChainStatus> future = inFlight.remove(hash);
+        if (future != null) {
+            future.complete(status);
+        }
+    }
+
+    /**
+     * Decode ABI hasil getCertificateInfo: (address issuer, uint256 timestamp, string metadataURI).
+     * Kontrak mengembalikan issuer 0x0 untuk hash yang belum terdaftar.
+     */
+    static OnChainStatus decodeCertificateInfo(JsonNode result) {
+        String data = result == null ? "" : result.asText().replaceFirst("^0x", "");
+        if (data.length() < 64 * 3) {
+            return OnChainStatus.UNAVAILABLE;
+        }
+        String issuer = "0x" + data.substring(24, 64);
+        if (ZERO_ADDRESS.equals(issuer)) {
+            return OnChainStatus.NOT_REGISTERED;
+        }
+        long timestamp = new BigInteger(data.substring(64, 128), 16).longValueExact();
+
+        String metadataUri = "";
+        int offset = new BigInteger(data.substring(128, 192), 16).intValueExact() * 2;
+        if (data.length() >= offset + 64) {
+            int length = new BigInteger(data.substring(offset, offset + 64), 16).intValueExact() * 2;
+            if (data.length() >= offset + 64 + length) {
+                byte[] bytes = HexFormat.of().parseHex(data, offset + 64, offset + 64 + length);
+                metadataUri = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        return new OnChainStatus(Status.REGISTERED, issuer, timestamp, metadataUri);
+    }
+}
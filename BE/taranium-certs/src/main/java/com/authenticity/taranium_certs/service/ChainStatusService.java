@@ -0,0 +1,65 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.ChainRegistration;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Menyusun hasil verifikasi satu hash dokumen, dipakai bersama oleh {@code /api/verify} dan {@code /api/stream/verify}.
+ * Jika indexer blockchain aktif, status pendaftaran on-chain diambil dari indeks lokal; jika indexer nonaktif
+ * tetapi node dikonfigurasi, status diambil langsung dari kontrak lewat lookup yang di-batch dan di-cache.
+ */
+@Service
+public class ChainStatusService {
+
+    private final ChainEventIndexer chainEventIndexer;
+    private final ChainRegistryClient chainRegistryClient;
+
+    public ChainStatusService(ChainEventIndexer chainEventIndexer, ChainRegistryClient chainRegistryClient) {
+        this.chainEventIndexer = chainEventIndexer;
+        this.chainRegistryClient = chainRegistryClient;
+    }
+
+    /**
+     * @param documentHash Hash dokumen yang diverifikasi.
+     * @return documentHash beserta registeredOnChain, onChainIssuer, onChainTimestamp, dan onChainBlock/indexedThroughBlock
+     *         (indexer) atau onChainMetadataURI (lookup langsung); onChainTimestamp selalu berbentuk instant UTC
+     *         ISO-8601 (misalnya 2024-05-01T08:30:00Z) di kedua jalur. registeredOnChain bernilai "unknown" jika node tidak
+     *         dapat ditanya. Jika keduanya nonaktif hanya berisi documentHash.
+     */
+    public Map<String, String> describe(DocumentHash documentHash) {
+        Map<String, String> response = new LinkedHashMap<>();
+        response.put("documentHash", documentHash.toHex());
+        if (chainEventIndexer.isEnabled()) {
+            // Dijawab dari indeks lokal event CertificateRegistered, tanpa query ke blockchain
+            Optional<ChainRegistration> registration = chainEventIndexer.findRegistration(documentHash);
+            response.put("registeredOnChain", String.valueOf(registration.isPresent()));
+            registration.ifPresent(reg -> {
+                response.put("onChainIssuer", reg.getIssuerAddress());
+                response.put("onChainTimestamp", reg.getRegisteredAt().toInstant(ZoneOffset.UTC).toString());
+                response.put("onChainBlock", String.valueOf(reg.getBlockNumber()));
+            });
+            chainEventIndexer.getCheckpoint().ifPresent(checkpoint ->
+                    response.put("indexedThroughBlock", String.valueOf(checkpoint.getLastBlock())));
+        } else if (chainRegistryClient.isEnabled()) {
+            ChainRegistryClient.OnChainStatus onChain = chainRegistryClient.lookupNow(documentHash);
+            switch (onChain.status()) {
+                case REGISTERED -> {
+                    response.put("registeredOnChain", "true");
+                    response.put("onChainIssuer", onChain.issuerAddress());
+                    response.put("onChainTimestamp", Instant.ofEpochSecond(onChain.timestamp()).toString());
+                    response.put("onChainMetadataURI", onChain.metadataUri());
+                }
+                case NOT_REGISTERED -> response.put("registeredOnChain", "false");
+                case UNAVAILABLE -> response.put("registeredOnChain", "unknown");
+            }
+        }
+        return response;
+    }
+}
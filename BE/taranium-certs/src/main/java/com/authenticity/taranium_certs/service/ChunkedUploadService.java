@@ -0,0 +1,391 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ChunkedUploadProperties;
+import com.authenticity.taranium_certs.dto.UploadSessionResponse;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.exception.StorageException;
+import com.authenticity.taranium_certs.exception.UploadSessionException;
+import com.authenticity.taranium_certs.exception.UploadSessionException.Reason;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service upload bertahap yang dapat dilanjutkan: klien memulai sesi, mengirim potongan bernomor
+ * secara berurutan, lalu menyelesaikan sesi. Potongan ditambahkan ke satu file staging di direktori spool
+ * dan state SHA-256 disimpan di sesi, sehingga penyelesaian tidak perlu membaca ulang file.
+ * Potongan yang gagal di tengah jalan dibatalkan (file dipotong kembali dan state digest dipulihkan),
+ * sehingga klien cukup mengirim ulang potongan tersebut. Sesi disimpan di memori; sesi yang ditinggalkan
+ * dihapus setelah {@code app.chunked-upload.session-timeout}.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final String SPOOL_PREFIX = "chunked-";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final HashService hashService;
+    private final CertificateService certificateService;
+    private final ChunkedUploadProperties properties;
+    private final PipelineMetrics pipelineMetrics;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public ChunkedUploadService(FileStorageService fileStorageService, HashService hashService,
+                                CertificateService certificateService, ChunkedUploadProperties properties,
+                                PipelineMetrics pipelineMetrics) {
+        this.fileStorageService = fileStorageService;
+        this.hashService = hashService;
+        this.certificateService = certificateService;
+        this.properties = properties;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * Menghapus file staging yang tertinggal dari proses sebelumnya (sesi di memori hilang saat restart).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cleanSpool() {
+        fileStorageService.deleteSpoolFiles(SPOOL_PREFIX);
+    }
+
+    /**
+     * Memulai sesi upload bertahap.
+     * @param originalFileName Nama asli file.
+     * @param folderName Nama folder tujuan.
+     * @param issuerAddress Alamat MetaMask institusi.
+     * @param totalSize Ukuran file yang akan dikirim, atau null jika belum diketahui.
+     * @return Status sesi baru.
+     * @throws UploadSessionException jika ukuran file melebihi batas.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public UploadSessionResponse initiate(String originalFileName, String folderName, String issuerAddress, Long totalSize)
+            throws NoSuchAlgorithmException {
+        if (totalSize != null && totalSize <= 0) {
+            throw new UploadSessionException(Reason.INVALID, "Ukuran file harus lebih dari 0.");
+        }
+        if (totalSize != null && totalSize > properties.getMaxFileSize().toBytes()) {
+            throw new UploadSessionException(Reason.TOO_LARGE,
+                    "Ukuran file melebihi batas " + properties.getMaxFileSize().toMegabytes() + " MB.");
+        }
+        MessageDigest digest = hashService.newSha256Digest();
+        Path stagingFile = fileStorageService.createSpoolFile(SPOOL_PREFIX);
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), originalFileName, folderName,
+                issuerAddress, totalSize, stagingFile, digest);
+        sessions.put(session.id, session);
+        return toResponse(session, "Sesi upload dibuat.");
+    }
+
+    /**
+     * Mengambil status sesi, misalnya untuk mengetahui potongan berikutnya setelah koneksi terputus.
+     * @param uploadId Id sesi.
+     * @return Status sesi.
+     * @throws UploadSessionException jika sesi tidak ditemukan atau sudah kedaluwarsa.
+     */
+    public UploadSessionResponse getSession(String uploadId) {
+        UploadSession session = require(uploadId);
+        session.lock.lock();
+        try {
+            return toResponse(session, null);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Menambahkan satu potongan ke file staging sambil memperbarui state SHA-256.
+     * Potongan harus dikirim berurutan; potongan yang sudah diterima boleh dikirim ulang dan diabaikan.
+     * @param uploadId Id sesi.
+     * @param index Nomor potongan, mulai dari 0.
+     * @param body Isi potongan; tidak ditutup oleh method ini.
+     * @return Status sesi setelah potongan diterima.
+     * @throws UploadSessionException jika sesi tidak ditemukan, potongan tidak berurutan, atau melebihi batas ukuran.
+     * @throws StorageException jika potongan tidak dapat ditulis.
+     */
+    public UploadSessionResponse appendChunk(String uploadId, int index, InputStream body) {
+        UploadSession session = require(uploadId);
+        session.lock.lock();
+        try {
+            ensureOpen(session);
+            if (index < session.nextChunk) {
+                // Respons potongan ini sebelumnya hilang di jalan; isinya sudah tercatat
+                return toResponse(session, "Potongan " + index + " sudah diterima sebelumnya.");
+            }
+            if (index > session.nextChunk) {
+                throw new UploadSessionException(Reason.OUT_OF_ORDER,
+                        "Potongan berikutnya yang diharapkan adalah " + session.nextChunk + ".");
+            }
+            if (session.sealed) {
+                throw new UploadSessionException(Reason.INVALID,
+                        "Sesi sudah diselesaikan; hanya penyelesaian yang dapat diulang.");
+            }
+            session.lastActivity = LocalDateTime.now();
+
+            long start = session.receivedBytes;
+            long sizeLimit = session.totalSize != null ? session.totalSize : properties.getMaxFileSize().toBytes();
+            long limit = Math.min(properties.getMaxChunkSize().toBytes(), sizeLimit - start);
+            MessageDigest checkpoint = hashService.copyDigest(session.digest);
+            long written;
+            try {
+                written = append(session, start, body, limit);
+            } catch (IOException e) {
+                rollback(session, start, checkpoint);
+                throw new StorageException("Gagal menulis potongan " + index + ": " + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                rollback(session, start, checkpoint);
+                throw e;
+            }
+            if (written == 0) {
+                throw new UploadSessionException(Reason.INVALID, "Potongan tidak boleh kosong.");
+            }
+
+            session.receivedBytes = start + written;
+            session.nextChunk++;
+            session.lastActivity = LocalDateTime.now();
+            return toResponse(session, "Potongan " + index + " diterima.");
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Menyelesaikan sesi: hash diambil dari state yang sudah berjalan, file staging diserahkan ke folder
+     * tujuan, dan metadata sertifikat disimpan seperti pada pendaftaran biasa. Jika hash sudah terdaftar,
+     * file staging dibuang dan sertifikat yang sudah ada dikembalikan.
+     * Sesi baru dibuang setelah pendaftaran berhasil atau jika hash tidak cocok; jika pendaftaran gagal,
+     * sesi dan file staging tetap ada sehingga klien cukup memanggil ulang method ini.
+     * @param uploadId Id sesi.
+     * @param expectedHash Hash SHA-256 yang dihitung klien untuk diperiksa, atau null.
+     * @return Sertifikat yang baru disimpan, atau yang sudah terdaftar untuk hash yang sama.
+     * @throws UploadSessionException jika sesi tidak ditemukan, data belum lengkap, atau hash tidak cocok.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public CertificateService.Registration complete(String uploadId, DocumentHash expectedHash) throws NoSuchAlgorithmException {
+        UploadSession session = require(uploadId);
+        session.lock.lock();
+        try {
+            ensureOpen(session);
+            if (session.receivedBytes == 0) {
+                throw new UploadSessionException(Reason.INVALID, "Belum ada potongan yang diterima.");
+            }
+            if (session.totalSize != null && session.receivedBytes != session.totalSize) {
+                throw new UploadSessionException(Reason.INVALID, String.format(
+                        "Data belum lengkap: %d dari %d byte diterima.", session.receivedBytes, session.totalSize));
+            }
+            // Digest sesi dibiarkan utuh: penyelesaian yang gagal dapat diulang
+            DocumentHash documentHash = hashService.finish(hashService.copyDigest(session.digest));
+            if (expectedHash != null && !expectedHash.equals(documentHash)) {
+                discard(session);
+                throw new UploadSessionException(Reason.INVALID,
+                        "Hash file yang diterima (" + documentHash + ") tidak sama dengan hash yang diharapkan.");
+            }
+            // File yang diserahkan berbagi isi dengan file staging, jadi potongan baru tidak boleh ditambahkan lagi
+            session.sealed = true;
+            session.lastActivity = LocalDateTime.now();
+
+            CertificateService.Registration registration = certificateService.registerIfAbsent(documentHash, () -> {
+                Path handoff = fileStorageService.linkSpoolFile(session.stagingFile, SPOOL_PREFIX);
+                StagedFile stagedFile;
+                try {
+                    stagedFile = fileStorageService.adoptFile(handoff, documentHash, session.originalFileName,
+                            session.issuerAddress, session.folderName);
+                } finally {
+                    // Sudah dipindahkan jika adoptFile berhasil; jika gagal sebelum dipindahkan, sisanya dibuang
+                    deleteQuietly(handoff);
+                }
+                // Hash dan penulisan sudah dikerjakan potongan demi potongan selama sesi berjalan
+                stagedFile.addHashNanos(session.hashNanos);
+                stagedFile.addStoreNanos(session.storeNanos);
+                return stagedFile;
+            }, session.folderName, session.issuerAddress);
+            discard(session);
+
+            if (registration.isCreated()) {
+                pipelineMetrics.recordRegistration(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, registration.stagedFile());
+            } else {
+                pipelineMetrics.recordStage(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, PipelineMetrics.Stage.HASH,
+                        session.hashNanos, session.receivedBytes);
+                pipelineMetrics.recordDuplicate(PipelineMetrics.Endpoint.UPLOAD_CHUNKED, session.receivedBytes);
+            }
+            return registration;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Membatalkan sesi dan menghapus file staging-nya.
+     * @param uploadId Id sesi.
+     * @throws UploadSessionException jika sesi tidak ditemukan.
+     */
+    public void abort(String uploadId) {
+        UploadSession session = require(uploadId);
+        session.lock.lock();
+        try {
+            ensureOpen(session);
+            discard(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Menghapus sesi yang tidak menerima potongan selama masa tunggu. Sesi yang sedang menulis potongan dilewati.
+     */
+    @Scheduled(fixedDelayString = "${app.chunked-upload.sweep-interval:PT5M}",
+            initialDelayString = "${app.chunked-upload.sweep-interval:PT5M}")
+    public void expireSessions() {
+        expireSessions(properties.getSessionTimeout());
+    }
+
+    void expireSessions(Duration timeout) {
+        LocalDateTime threshold = LocalDateTime.now().minus(timeout);
+        for (UploadSession session : sessions.values()) {
+            if (!session.lastActivity.isBefore(threshold) || !session.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (!session.closed && session.lastActivity.isBefore(threshold)) {
+                    discard(session);
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+    }
+
+    private long append(UploadSession session, long position, InputStream body, long limit) throws IOException {
+        MessageDigest digest = session.digest;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        try (FileChannel channel = FileChannel.open(session.stagingFile, StandardOpenOption.WRITE)) {
+            channel.position(position);
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+                if (total > limit) {
+                    throw new UploadSessionException(Reason.TOO_LARGE,
+                            "Potongan melebihi batas ukuran potongan atau ukuran file.");
+                }
+                long started = System.nanoTime();
+                digest.update(buffer, 0, read);
+                long hashed = System.nanoTime();
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                session.hashNanos += hashed - started;
+                session.storeNanos += System.nanoTime() - hashed;
+            }
+        }
+        return total;
+    }
+
+    private void rollback(UploadSession session, long size, MessageDigest checkpoint) {
+        session.digest = checkpoint;
+        try (FileChannel channel = FileChannel.open(session.stagingFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        } catch (IOException e) {
+            // File staging tidak dapat dikembalikan; sesi tidak lagi dapat dipercaya
+            System.err.println("Gagal memotong file staging " + session.stagingFile + ": " + e.getMessage());
+            discard(session);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        session.closed = true;
+        sessions.remove(session.id);
+        deleteQuietly(session.stagingFile);
+    }
+
+    private UploadSession require(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw notFound();
+        }
+        return session;
+    }
+
+    private void ensureOpen(UploadSession session) {
+        // Sesi bisa ditutup oleh thread lain antara lookup dan penguncian
+        if (session.closed) {
+            throw notFound();
+        }
+    }
+
+    private UploadSessionException notFound() {
+        return new UploadSessionException(Reason.NOT_FOUND, "Sesi upload tidak ditemukan atau sudah kedaluwarsa.");
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, String message) {
+        return UploadSessionResponse.builder()
+                .uploadId(session.id)
+                .originalFileName(session.originalFileName)
+                .folderName(session.folderName)
+                .issuerAddress(session.issuerAddress)
+                .totalSize(session.totalSize)
+                .receivedBytes(session.receivedBytes)
+                .nextChunk(session.nextChunk)
+                .expiresAt(session.lastActivity.plus(properties.getSessionTimeout()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .message(message)
+                .build();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Gagal menghapus file staging " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * State satu sesi upload; field yang dapat berubah hanya diubah saat memegang {@link #lock}.
+     */
+    private static class UploadSession {
+        private final String id;
+        private final String originalFileName;
+        private final String folderName;
+        private final String issuerAddress;
+        private final Long totalSize;
+        private final Path stagingFile;
+        private final ReentrantLock lock = new ReentrantLock();
+        private MessageDigest digest;
+        private long receivedBytes;
+        private int nextChunk;
+        private long hashNanos;
+        private long storeNanos;
+        private boolean sealed; // true setelah complete dipanggil dengan data lengkap
+        private volatile boolean closed;
+        private volatile LocalDateTime lastActivity = LocalDateTime.now();
+
+        private UploadSession(String id, String originalFileName, String folderName, String issuerAddress,
+                              Long totalSize, Path stagingFile, MessageDigest digest) {
+            this.id = id;
+            this.originalFileName = originalFileName;
+            this.folderName = folderName;
+            this.issuerAddress = issuerAddress;
+            this.totalSize = totalSize;
+            this.stagingFile = stagingFile;
+            this.digest = digest;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.authenticity.taranium_certs.service;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker sederhana berbasis kegagalan berturut-turut.
+ * CLOSED: semua panggilan diizinkan. OPEN: panggilan ditolak sampai openDuration lewat.
+ * HALF_OPEN: satu panggilan percobaan diizinkan; berhasil menutup breaker, gagal membukanya lagi.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration slowCallThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, Duration slowCallThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * @return true jika panggilan boleh dilakukan; pemanggil wajib melaporkan hasilnya lewat onSuccess/onFailure.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDuration.toNanos()) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    yield false;
+                }
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    /**
+     * Mencatat panggilan yang selesai tanpa error; panggilan yang lebih lambat dari slowCallThreshold
+     * tetap dihitung sebagai kegagalan.
+     */
+    synchronized void onSuccess(Duration elapsed) {
+        if (elapsed.compareTo(slowCallThreshold) > 0) {
+            onFailure();
+            return;
+        }
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,133 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ChainProperties;
+import com.authenticity.taranium_certs.exception.ChainRpcException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Klien JSON-RPC minimal untuk node Ethereum-compatible (Taranium Smartchain).
+ * Mendukung panggilan tunggal dan batch request JSON-RPC (satu HTTP request berisi banyak panggilan).
+ */
+@Component
+public class EthJsonRpcClient {
+
+    /**
+     * Satu panggilan JSON-RPC.
+     * @param method Nama method, misalnya eth_call.
+     * @param params Parameter method.
+     */
+    public record RpcCall(String method, List<Object> params) {
+    }
+
+    /**
+     * Hasil satu panggilan dalam batch: result terisi jika berhasil, error terisi jika node mengembalikan error.
+     */
+    public record RpcResult(JsonNode result, String error) {
+        public boolean isError() {
+            return error != null;
+        }
+    }
+
+    private final ChainProperties chainProperties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final AtomicLong requestIds = new AtomicLong();
+
+    public EthJsonRpcClient(ChainProperties chainProperties, ObjectMapper objectMapper) {
+        this.chainProperties = chainProperties;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(chainProperties.getConnectTimeout()).build();
+    }
+
+    /**
+     * Memanggil satu method JSON-RPC.
+     * @param method Nama method.
+     * @param params Parameter method.
+     * @return Field result dari response.
+     * @throws ChainRpcException jika node tidak dapat dihubungi atau mengembalikan error.
+     */
+    public JsonNode call(String method, Object... params) {
+        RpcResult result = callBatch(List.of(new RpcCall(method, List.of(params)))).get(0);
+        if (result.isError()) {
+            throw new ChainRpcException(method + " gagal: " + result.error());
+        }
+        return result.result();
+    }
+
+    /**
+     * Mengirim banyak panggilan JSON-RPC dalam satu HTTP request.
+     * @param calls Daftar panggilan.
+     * @return Hasil per panggilan dengan urutan yang sama dengan calls.
+     * @throws ChainRpcException jika HTTP request gagal atau response tidak dapat dibaca.
+     */
+    public List<RpcResult> callBatch(List<RpcCall> calls) {
+        ArrayNode body = objectMapper.createArrayNode();
+        long firstId = requestIds.getAndAdd(calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            ObjectNode request = body.addObject();
+            request.put("jsonrpc", "2.0");
+            request.put("id", firstId + i);
+            request.put("method", calls.get(i).method());
+            request.set("params", objectMapper.valueToTree(calls.get(i).params()));
+        }
+
+        JsonNode response = send(calls.size() == 1 ? body.get(0) : body);
+        Map<Long, JsonNode> byId = new HashMap<>();
+        if (response.isArray()) {
+            response.forEach(item -> byId.put(item.path("id").asLong(), item));
+        } else {
+            byId.put(response.path("id").asLong(), response);
+        }
+
+        List<RpcResult> results = new ArrayList<>(calls.size());
+        for (int i = 0; i < calls.size(); i++) {
+            JsonNode item = byId.get(firstId + i);
+            if (item == null) {
+                results.add(new RpcResult(null, "Tidak ada response untuk panggilan ini."));
+            } else if (item.hasNonNull("error")) {
+                results.add(new RpcResult(null, item.get("error").path("message").asText(item.get("error").toString())));
+            } else {
+                results.add(new RpcResult(item.get("result"), null));
+            }
+        }
+        return results;
+    }
+
+    private JsonNode send(JsonNode body) {
+        if (chainProperties.getRpcUrl() == null || chainProperties.getRpcUrl().isBlank()) {
+            throw new ChainRpcException("app.chain.rpc-url belum dikonfigurasi.");
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(chainProperties.getRpcUrl()))
+                    .timeout(chainProperties.getRequestTimeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new ChainRpcException("Node JSON-RPC mengembalikan HTTP " + response.statusCode());
+            }
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new ChainRpcException("Gagal menghubungi node JSON-RPC: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChainRpcException("Panggilan JSON-RPC dihentikan.", e);
+        }
+    }
+}
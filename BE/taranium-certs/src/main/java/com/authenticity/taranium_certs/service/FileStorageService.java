@@ -1,34 +1,70 @@
 package com.authenticity.taranium_certs.service;
 
+import com.authenticity.taranium_certs.config.StorageProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
 import com.authenticity.taranium_certs.exception.StorageException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Service untuk mengelola penyimpanan file secara lokal.
  * File disimpan dengan hierarki: root-upload-dir/user_address/nama_folder/nama_file.
+ * Penulisan selalu melalui file sementara di folder tujuan yang kemudian dipindahkan secara atomik,
+ * sehingga path akhir tidak pernah berisi file setengah jadi.
+ * Pada mode content-addressed, isi file disimpan sekali per hash di root-upload-dir/.blobs/ab/cd/hash
+ * dan file di pohon user/folder hanyalah hard link ke blob tersebut. Karena hash dokumen unik di tabel certificates,
+ * setiap blob dirujuk tepat oleh satu sertifikat; blob tanpa sertifikat dibuang oleh {@link BlobSweeper}.
+ * Pada mode segmented, file kecil ditambahkan ke file segmen append-only ({@link SegmentStore}) dan localFilePath-nya
+ * berbentuk .segments/hash; file yang lebih besar dari app.storage.segment-max-file-size disimpan seperti mode path.
  */
 @Service
 public class FileStorageService {
 
+    private static final String TEMP_PREFIX = ".upload-";
+    private static final String SPOOL_DIR = ".spool";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private final Path rootLocation;
+    private final Path blobRoot;
+    private final HashService hashService;
+    private final StorageProperties storageProperties;
+    private final SegmentStore segmentStore;
+    private final Path segmentRoot;
 
     /**
      * Konstruktor untuk menginisialisasi direktori root berdasarkan properti aplikasi.
      * @param uploadDir Lokasi direktori upload dari application.yml.
+     * @param hashService Service untuk menghitung hash SHA-256 saat file ditulis.
+     * @param storageProperties Properti mode penyimpanan.
+     * @param segmentStore Penyimpanan file segmen (mode segmented).
      */
-    public FileStorageService(@Value("${app.upload-dir}") String uploadDir) {
+    public FileStorageService(@Value("${app.upload-dir}") String uploadDir, HashService hashService,
+                              StorageProperties storageProperties, SegmentStore segmentStore) {
         this.rootLocation = Paths.get(uploadDir);
+        this.blobRoot = rootLocation.resolve(storageProperties.getBlobDir());
+        this.segmentRoot = rootLocation.resolve(storageProperties.getSegmentDir()).normalize();
+        this.hashService = hashService;
+        this.storageProperties = storageProperties;
+        this.segmentStore = segmentStore;
         try {
             Files.createDirectories(rootLocation);
         } catch (IOException e) {
@@ -44,77 +80,475 @@ public class FileStorageService {
      * @return Path relatif dari file yang disimpan (dari rootLocation).
      * @throws StorageException jika terjadi kesalahan saat menyimpan file.
      */
+    @Transactional
     public String storeFile(MultipartFile file, String userAddress, String folderName) {
+        try (StagedFile stagedFile = stageFile(file, userAddress, folderName)) {
+            commit(stagedFile);
+            return stagedFile.getRelativePath();
+        } catch (NoSuchAlgorithmException e) {
+            throw new StorageException("Algoritma hash tidak tersedia.", e);
+        }
+    }
+
+    /**
+     * Menulis file yang diunggah ke file sementara di folder tujuan sambil menghitung hash SHA-256-nya,
+     * sehingga isi file hanya dibaca satu kali. File belum terlihat di path akhir sampai
+     * {@link #commit(StagedFile)} dipanggil; tutup StagedFile untuk membuang file sementara.
+     * @param file File MultipartFile yang akan disimpan.
+     * @param userAddress Alamat blockchain user (digunakan sebagai sub-direktori).
+     * @param folderName Nama folder di bawah direktori user.
+     * @return StagedFile yang berisi hash dokumen dan path tujuan.
+     * @throws StorageException jika terjadi kesalahan saat menulis file.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public StagedFile stageFile(MultipartFile file, String userAddress, String folderName) throws NoSuchAlgorithmException {
         if (file.isEmpty()) {
             throw new StorageException("Gagal menyimpan file kosong " + file.getOriginalFilename());
         }
+        try (InputStream inputStream = file.getInputStream()) {
+            return stageFile(inputStream, file.getOriginalFilename(), userAddress, folderName);
+        } catch (IOException e) {
+            String msg = String.format("Gagal menyimpan file '%s' untuk user '%s' di folder '%s'.",
+                    file.getOriginalFilename(), userAddress, folderName);
+            throw new StorageException(msg, e);
+        }
+    }
 
+    /**
+     * Versi {@link #stageFile(MultipartFile, String, String)} untuk file yang hash-nya sudah dihitung
+     * (misalnya untuk memeriksa duplikat sebelum menulis apa pun). Isi file tidak di-hash ulang; upload yang
+     * disimpan container di disk cukup dipindahkan bila berada di filesystem yang sama.
+     * @param file File MultipartFile yang akan disimpan.
+     * @param knownHash Hash SHA-256 isi file.
+     * @param userAddress Alamat blockchain user.
+     * @param folderName Nama folder di bawah direktori user.
+     * @return StagedFile yang berisi hash dokumen dan path tujuan.
+     * @throws StorageException jika terjadi kesalahan saat menulis file.
+     */
+    public StagedFile stageFile(MultipartFile file, DocumentHash knownHash, String userAddress, String folderName) {
+        Path tempFile = null;
         try {
-            // Bersihkan nama file agar aman untuk filesystem
-            String originalFileName = file.getOriginalFilename();
-            String safeFileName = originalFileName.replaceAll("[^a-zA-Z0-9.\\-]", "_"); // Hanya karakter aman
+            Path folderDir = resolveFolder(userAddress, folderName);
+            Files.createDirectories(folderDir);
 
-            Path userDir = this.rootLocation.resolve(userAddress);
-            Files.createDirectories(userDir);
+            Path folderFile = folderDir.resolve(sanitizeFileName(file.getOriginalFilename()));
+            tempFile = Files.createTempFile(folderDir, TEMP_PREFIX, ".tmp");
+            long start = System.nanoTime();
+            file.transferTo(tempFile);
+            StagedFile stagedFile = newStagedFile(tempFile, folderFile, knownHash, file.getOriginalFilename(), Files.size(tempFile));
+            stagedFile.addStoreNanos(System.nanoTime() - start);
+            return stagedFile;
 
-            Path folderDir = userDir.resolve(folderName);
-            Files.createDirectories(folderDir);
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            String msg = String.format("Gagal menyimpan file '%s' untuk user '%s' di folder '%s'.",
+                    file.getOriginalFilename(), userAddress, folderName);
+            throw new StorageException(msg, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
 
-            Path destinationFile = folderDir.resolve(safeFileName);
+    /**
+     * Versi {@link #stageFile(MultipartFile, String, String)} untuk sumber data berupa InputStream.
+     * @param inputStream Isi file; tidak ditutup oleh method ini.
+     * @param originalFileName Nama asli file.
+     * @param userAddress Alamat blockchain user.
+     * @param folderName Nama folder di bawah direktori user.
+     * @return StagedFile yang berisi hash dokumen dan path tujuan.
+     * @throws StorageException jika terjadi kesalahan saat menulis file.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public StagedFile stageFile(InputStream inputStream, String originalFileName, String userAddress, String folderName)
+            throws NoSuchAlgorithmException {
+        MessageDigest digest = hashService.newSha256Digest();
+        Path tempFile = null;
+        try {
+            Path folderDir = resolveFolder(userAddress, folderName);
+            Files.createDirectories(folderDir);
 
-            Files.copy(file.getInputStream(), destinationFile, StandardCopyOption.REPLACE_EXISTING);
+            Path folderFile = folderDir.resolve(sanitizeFileName(originalFileName));
+            tempFile = Files.createTempFile(folderDir, TEMP_PREFIX, ".tmp");
 
-            return this.rootLocation.relativize(destinationFile).toString();
+            // Satu kali baca: setiap potongan di-digest lalu ditulis, dengan durasi kedua tahap diukur terpisah
+            long size = 0;
+            long hashNanos = 0;
+            long storeNanos = 0;
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    long start = System.nanoTime();
+                    digest.update(buffer, 0, read);
+                    long hashed = System.nanoTime();
+                    out.write(buffer, 0, read);
+                    hashNanos += hashed - start;
+                    storeNanos += System.nanoTime() - hashed;
+                    size += read;
+                }
+            }
+            DocumentHash documentHash = hashService.finish(digest);
+            StagedFile stagedFile = newStagedFile(tempFile, folderFile, documentHash, originalFileName, size);
+            stagedFile.addHashNanos(hashNanos);
+            stagedFile.addStoreNanos(storeNanos);
+            return stagedFile;
 
         } catch (IOException e) {
+            deleteQuietly(tempFile);
             String msg = String.format("Gagal menyimpan file '%s' untuk user '%s' di folder '%s'.",
-                    file.getOriginalFilename(), userAddress, folderName);
+                    originalFileName, userAddress, folderName);
             throw new StorageException(msg, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
         }
     }
 
     /**
-     * Mengambil daftar folder (direktori tingkat pertama di bawah direktori user) untuk user tertentu.
-     * @param userAddress Alamat blockchain user.
-     * @return List of String yang berisi nama-nama folder.
-     * @throws StorageException jika terjadi kesalahan saat membaca direktori.
-     */
-    public List<String> getFolders(String userAddress) {
-        Path userDir = this.rootLocation.resolve(userAddress);
-        if (!Files.exists(userDir) || !Files.isDirectory(userDir)) {
-            return Collections.emptyList();
-        }
-        try (Stream<Path> paths = Files.list(userDir)) {
-            return paths
-                    .filter(Files::isDirectory)
-                    .map(Path::getFileName)
-                    .map(Path::toString)
-                    .collect(Collectors.toList());
+     * Membuat file kosong di direktori spool (root-upload-dir/.spool) untuk menampung upload
+     * yang diproses di latar belakang. Direktori ini diawali titik sehingga tidak dianggap folder user.
+     * @param prefix Awalan nama file.
+     * @return Path file spool yang baru.
+     * @throws StorageException jika file tidak dapat dibuat.
+     */
+    public Path createSpoolFile(String prefix) {
+        try {
+            Path spoolDir = getSpoolDir();
+            Files.createDirectories(spoolDir);
+            return Files.createTempFile(spoolDir, prefix, ".part");
+        } catch (IOException e) {
+            throw new StorageException("Tidak dapat membuat file spool!", e);
+        }
+    }
+
+    /**
+     * Membuat file spool baru yang berisi sama dengan file sumber, sebagai hard link jika filesystem
+     * mendukungnya (tanpa menyalin isi) atau sebagai salinan. File baru dapat diserahkan ke {@link #adoptFile}
+     * sementara file sumber tetap utuh, misalnya agar dapat dipakai lagi jika pendaftaran gagal.
+     * @param source File sumber di direktori spool.
+     * @param prefix Awalan nama file.
+     * @return Path file spool yang baru.
+     * @throws StorageException jika file tidak dapat dibuat.
+     */
+    public Path linkSpoolFile(Path source, String prefix) {
+        try {
+            Path spoolFile = getSpoolDir().resolve(prefix + UUID.randomUUID() + ".part");
+            try {
+                Files.createLink(spoolFile, source);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(source, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return spoolFile;
         } catch (IOException e) {
-            throw new StorageException("Gagal memuat folder untuk user: " + userAddress, e);
+            throw new StorageException("Tidak dapat membuat file spool!", e);
         }
     }
 
     /**
-     * Mengambil daftar file di dalam folder tertentu untuk user tertentu.
+     * Mengembalikan direktori spool untuk upload yang belum diproses.
+     * @return Path direktori spool.
+     */
+    public Path getSpoolDir() {
+        return rootLocation.resolve(SPOOL_DIR);
+    }
+
+    /**
+     * Menghapus file spool dengan awalan tertentu, misalnya sisa proses sebelum restart.
+     * @param prefix Awalan nama file yang dihapus.
+     */
+    public void deleteSpoolFiles(String prefix) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(getSpoolDir(), prefix + "*")) {
+            for (Path file : stream) {
+                deleteQuietly(file);
+            }
+        } catch (NoSuchFileException e) {
+            // Direktori spool belum pernah dibuat
+        } catch (IOException e) {
+            System.err.println("Gagal membersihkan direktori spool: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mengambil alih file yang sudah lengkap di disk (misalnya file spool) sebagai StagedFile:
+     * file dipindahkan ke file sementara di folder tujuan tanpa menyalin isinya, lalu di-hash di tempat
+     * jika hash belum diketahui. Setelah method ini berhasil, file sumber tidak lagi ada.
+     * @param source File sumber di filesystem yang sama dengan direktori upload.
+     * @param knownHash Hash SHA-256 yang sudah dihitung saat file ditulis, atau null untuk menghitungnya.
+     * @param originalFileName Nama asli file.
      * @param userAddress Alamat blockchain user.
-     * @param folderName Nama folder.
-     * @return List of String yang berisi nama-nama file.
-     * @throws StorageException jika terjadi kesalahan saat membaca direktori.
-     */
-    public List<String> getFiles(String userAddress, String folderName) {
-        Path folderDir = this.rootLocation.resolve(userAddress).resolve(folderName);
-        if (!Files.exists(folderDir) || !Files.isDirectory(folderDir)) {
-            return Collections.emptyList();
-        }
-        try (Stream<Path> paths = Files.list(folderDir)) {
-            return paths
-                    .filter(Files::isRegularFile)
-                    .map(Path::getFileName)
-                    .map(Path::toString)
-                    .collect(Collectors.toList());
+     * @param folderName Nama folder di bawah direktori user.
+     * @return StagedFile yang berisi hash dokumen dan path tujuan.
+     * @throws StorageException jika file tidak dapat dipindahkan atau dibaca.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public StagedFile adoptFile(Path source, DocumentHash knownHash, String originalFileName, String userAddress,
+                                String folderName) throws NoSuchAlgorithmException {
+        Path tempFile = null;
+        try {
+            Path folderDir = resolveFolder(userAddress, folderName);
+            Files.createDirectories(folderDir);
+
+            Path folderFile = folderDir.resolve(sanitizeFileName(originalFileName));
+            tempFile = folderDir.resolve(TEMP_PREFIX + source.getFileName());
+            long start = System.nanoTime();
+            try {
+                Files.move(source, tempFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long moved = System.nanoTime();
+
+            DocumentHash documentHash = knownHash != null ? knownHash : hashService.calculateSha256Hash(tempFile);
+            StagedFile stagedFile = newStagedFile(tempFile, folderFile, documentHash, originalFileName, Files.size(tempFile));
+            stagedFile.addStoreNanos(moved - start);
+            if (knownHash == null) {
+                stagedFile.addHashNanos(System.nanoTime() - moved);
+            }
+            return stagedFile;
+
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            String msg = String.format("Gagal menyimpan file '%s' untuk user '%s' di folder '%s'.",
+                    originalFileName, userAddress, folderName);
+            throw new StorageException(msg, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Memindahkan file sementara ke path akhirnya secara atomik (menggantikan file lama jika ada).
+     * Pada mode content-addressed, blob yang sudah ada tidak ditulis ulang: file sementara dibuang,
+     * lalu referensi user/folder (hard link) ditambahkan.
+     * Pada mode segmented, isi file ditambahkan ke segmen aktif lalu lokasinya dicatat di indeks dalam transaksi
+     * pemanggil. Memanggil ulang setelah transaksi sebelumnya di-rollback hanya mencatat ulang indeksnya.
+     * @param stagedFile File hasil {@link #stageFile(MultipartFile, String, String)}.
+     * @throws StorageException jika file tidak dapat dipindahkan.
+     */
+    @Transactional
+    public void commit(StagedFile stagedFile) {
+        long start = System.nanoTime();
+        try {
+            if (stagedFile.isSegmented()) {
+                commitSegment(stagedFile);
+            } else if (stagedFile.getReferenceFile() != null) {
+                commitBlob(stagedFile);
+            } else {
+                commitFile(stagedFile);
+            }
+        } finally {
+            stagedFile.addStoreNanos(System.nanoTime() - start);
+        }
+    }
+
+    private void commitFile(StagedFile stagedFile) {
+        try {
+            try {
+                Files.move(stagedFile.getTempFile(), stagedFile.getDestinationFile(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(stagedFile.getTempFile(), stagedFile.getDestinationFile(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            stagedFile.markCommitted();
+        } catch (IOException e) {
+            throw new StorageException("Gagal memindahkan file ke lokasi akhir: " + stagedFile.getRelativePath(), e);
+        }
+    }
+
+    private void commitSegment(StagedFile stagedFile) {
+        if (stagedFile.getSegmentEntry() == null) {
+            try {
+                stagedFile.markAppended(segmentStore.append(stagedFile.getTempFile(), stagedFile.getDocumentHash(), stagedFile.getSize()));
+            } catch (IOException e) {
+                throw new StorageException("Gagal menambahkan file ke segmen: " + stagedFile.getOriginalFileName(), e);
+            }
+            deleteQuietly(stagedFile.getTempFile());
+        }
+        segmentStore.index(stagedFile.getSegmentEntry());
+    }
+
+    /**
+     * Menandakan apakah penyimpanan berjalan dalam mode content-addressed.
+     * @return true jika file disimpan sebagai blob per hash.
+     */
+    public boolean isContentAddressed() {
+        return storageProperties.getMode() == StorageProperties.Mode.CONTENT_ADDRESSED;
+    }
+
+    /**
+     * Menandakan apakah penyimpanan berjalan dalam mode segmented.
+     * @return true jika file kecil dikemas ke file segmen.
+     */
+    public boolean isSegmented() {
+        return storageProperties.getMode() == StorageProperties.Mode.SEGMENTED;
+    }
+
+    /**
+     * Menandakan apakah localFilePath menunjuk ke isi yang tersimpan di file segmen (berlaku juga setelah
+     * mode penyimpanan diganti).
+     * @param relativePath localFilePath dari metadata sertifikat.
+     * @return true jika isi file harus dicari di indeks segmen.
+     */
+    public boolean isSegmentPath(String relativePath) {
+        return resolveStored(relativePath).normalize().startsWith(segmentRoot);
+    }
+
+    /**
+     * Mengambil hash yang isinya tercatat di indeks segmen dari sekumpulan hash dokumen.
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return Set hash yang tersimpan di segmen.
+     */
+    public Set<DocumentHash> findSegmentedHashes(Collection<DocumentHash> documentHashes) {
+        return segmentStore.findIndexedHashes(documentHashes);
+    }
+
+    /**
+     * Mengembalikan direktori root upload.
+     * @return Path direktori upload.
+     */
+    public Path getRootLocation() {
+        return rootLocation;
+    }
+
+    /**
+     * Menentukan lokasi file dari localFilePath yang tersimpan di metadata sertifikat.
+     * @param relativePath Path relatif terhadap direktori upload.
+     * @return Path file.
+     */
+    public Path resolveStored(String relativePath) {
+        return rootLocation.resolve(relativePath);
+    }
+
+    /**
+     * Menentukan lokasi isi sertifikat di disk, untuk dikirim ke klien atau diperiksa ulang.
+     * Isi yang tersimpan di segmen dicari di indeks segmen berdasarkan hash-nya.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @param relativePath localFilePath dari metadata sertifikat.
+     * @return Rentang byte yang berisi isi sertifikat.
+     * @throws NoSuchFileException jika file sudah tidak ada.
+     * @throws IOException jika atribut file tidak dapat dibaca.
+     */
+    public StoredRegion locate(DocumentHash documentHash, String relativePath) throws IOException {
+        if (isSegmentPath(relativePath)) {
+            return segmentStore.locate(documentHash);
+        }
+        Path file = resolveStored(relativePath);
+        return new StoredRegion(file, 0, Files.size(file));
+    }
+
+    /**
+     * Menghitung localFilePath (relatif terhadap direktori upload) dari path file.
+     * @param file Path file di bawah direktori upload.
+     * @return Path relatif dalam bentuk string.
+     */
+    public String relativize(Path file) {
+        return rootLocation.relativize(file).toString();
+    }
+
+    /**
+     * Menandakan apakah nama file adalah file sementara upload yang belum di-commit.
+     * @param fileName Nama file.
+     * @return true jika file sementara.
+     */
+    public boolean isTemporaryFile(String fileName) {
+        return fileName.startsWith(TEMP_PREFIX);
+    }
+
+    /**
+     * Mengembalikan direktori root blob content-addressed.
+     * @return Path direktori blob.
+     */
+    public Path getBlobRoot() {
+        return blobRoot;
+    }
+
+    /**
+     * Menentukan lokasi blob untuk hash tertentu, dibagi ke sub-direktori ab/cd agar direktori tidak terlalu besar.
+     * @param documentHash Hash SHA-256 dokumen; nama file blob adalah bentuk heksadesimalnya.
+     * @return Path blob.
+     */
+    public Path resolveBlob(DocumentHash documentHash) {
+        String hex = documentHash.toHex();
+        return blobRoot.resolve(hex.substring(0, 2)).resolve(hex.substring(2, 4)).resolve(hex);
+    }
+
+    private void commitBlob(StagedFile stagedFile) {
+        Path blobFile = stagedFile.getDestinationFile();
+        try {
+            Files.createDirectories(blobFile.getParent());
+            if (Files.exists(blobFile)) {
+                // Isi yang sama sudah tersimpan: penulisan duplikat tidak melakukan apa-apa
+                Files.deleteIfExists(stagedFile.getTempFile());
+            } else {
+                try {
+                    Files.move(stagedFile.getTempFile(), blobFile, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    Files.deleteIfExists(stagedFile.getTempFile());
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(stagedFile.getTempFile(), blobFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            stagedFile.markCommitted();
+            linkReference(stagedFile.getReferenceFile(), blobFile, stagedFile.getDocumentHash());
+        } catch (IOException e) {
+            throw new StorageException("Gagal menyimpan blob: " + stagedFile.getRelativePath(), e);
+        }
+    }
+
+    private void linkReference(Path referenceFile, Path blobFile, DocumentHash documentHash) throws IOException {
+        if (Files.exists(referenceFile) && !Files.isSameFile(referenceFile, blobFile)) {
+            // Nama file sama tetapi isi berbeda: jangan timpa referensi milik blob lain
+            referenceFile = referenceFile.resolveSibling(documentHash.toHex().substring(0, 12) + "_" + referenceFile.getFileName());
+        }
+        if (Files.exists(referenceFile)) {
+            return;
+        }
+        try {
+            Files.createLink(referenceFile, blobFile);
+        } catch (FileAlreadyExistsException e) {
+            // Referensi yang sama dibuat oleh permintaan lain secara bersamaan
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // Filesystem tanpa dukungan hard link: blob tetap dapat diakses melalui path di metadata
+            System.err.println("Tidak dapat membuat referensi " + referenceFile + ": " + e.getMessage());
+        }
+    }
+
+    private StagedFile newStagedFile(Path tempFile, Path folderFile, DocumentHash documentHash, String originalFileName, long size) {
+        if (isContentAddressed()) {
+            // Path akhir baru diketahui setelah hash selesai dihitung
+            Path blobFile = resolveBlob(documentHash);
+            return new StagedFile(tempFile, blobFile, folderFile, this.rootLocation.relativize(blobFile).toString(),
+                    documentHash, originalFileName, size, false);
+        }
+        if (isSegmented() && size <= storageProperties.getSegmentMaxFileSize().toBytes()) {
+            // Path virtual: isinya dicari lewat indeks segmen berdasarkan hash
+            Path segmentFile = segmentRoot.resolve(documentHash.toHex());
+            return new StagedFile(tempFile, segmentFile, null, this.rootLocation.relativize(segmentFile).toString(),
+                    documentHash, originalFileName, size, true);
+        }
+        return new StagedFile(tempFile, folderFile, null, this.rootLocation.relativize(folderFile).toString(),
+                documentHash, originalFileName, size, false);
+    }
+
+    private Path resolveFolder(String userAddress, String folderName) {
+        return this.rootLocation.resolve(userAddress).resolve(folderName);
+    }
+
+    private String sanitizeFileName(String originalFileName) {
+        // Bersihkan nama file agar aman untuk filesystem
+        return originalFileName.replaceAll("[^a-zA-Z0-9.\\-]", "_"); // Hanya karakter aman
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
         } catch (IOException e) {
-            throw new StorageException(String.format("Gagal memuat file di folder '%s' untuk user '%s'.", folderName, userAddress), e);
+            System.err.println("Gagal menghapus file sementara " + path + ": " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,160 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.dto.CertificateSummary;
+import com.authenticity.taranium_certs.entity.FolderCatalogEntry;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import com.authenticity.taranium_certs.repository.FolderCatalogRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service untuk katalog folder di database: daftar folder per institusi beserta jumlah sertifikat,
+ * total ukuran, dan waktu upload terakhir. Katalog diperbarui di dalam transaksi pendaftaran sertifikat,
+ * sehingga daftar folder dilayani dengan satu query tanpa I/O ke direktori upload.
+ */
+@Service
+public class FolderCatalogService {
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final FolderCatalogRepository folderCatalogRepository;
+    private final CertificateRepository certificateRepository;
+    private final FileStorageService fileStorageService;
+    /** Diambil saat entri folder baru dibuat dan baru dilepas setelah transaksi pembuatnya selesai. */
+    private final ReentrantLock entryCreationLock = new ReentrantLock();
+
+    public FolderCatalogService(FolderCatalogRepository folderCatalogRepository, CertificateRepository certificateRepository,
+                                FileStorageService fileStorageService) {
+        this.folderCatalogRepository = folderCatalogRepository;
+        this.certificateRepository = certificateRepository;
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * Mencatat sertifikat baru di ringkasan folder. Dipanggil di dalam transaksi pendaftaran, sehingga
+     * ikut di-rollback jika pendaftaran gagal. Entri folder yang belum ada dibuat di transaksi yang sama;
+     * pembuatan entri diserialisasi dengan lock yang dipegang sampai transaksi selesai, sehingga pendaftaran
+     * bersamaan ke folder baru tidak saling melanggar unique constraint dan tidak butuh koneksi kedua.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder.
+     * @param count Jumlah sertifikat baru.
+     * @param bytes Total ukuran file baru.
+     * @param uploadedAt Waktu upload terbaru.
+     */
+    @Transactional
+    public void recordUploads(String issuerAddress, String folderName, long count, long bytes, LocalDateTime uploadedAt) {
+        if (folderCatalogRepository.addUploads(issuerAddress, folderName, count, bytes, uploadedAt) == 0) {
+            lockUntilCompletion();
+            // Pemegang lock sebelumnya sudah commit: entri yang dibuatnya kini terlihat
+            if (folderCatalogRepository.addUploads(issuerAddress, folderName, count, bytes, uploadedAt) == 0) {
+                folderCatalogRepository.saveAndFlush(new FolderCatalogEntry(issuerAddress, folderName));
+                folderCatalogRepository.addUploads(issuerAddress, folderName, count, bytes, uploadedAt);
+            }
+        }
+    }
+
+    /**
+     * Mengambil nama folder milik institusi dari katalog.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @return List nama folder.
+     */
+    public List<String> getFolderNames(String issuerAddress) {
+        return folderCatalogRepository.findFolderNames(issuerAddress);
+    }
+
+    /**
+     * Mengambil ringkasan semua folder milik institusi dari katalog.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @return List entri katalog.
+     */
+    public List<FolderCatalogEntry> getFolders(String issuerAddress) {
+        return folderCatalogRepository.findByIssuerAddressOrderByFolderName(issuerAddress);
+    }
+
+    /**
+     * Membangun ulang seluruh katalog dari tabel certificates (misalnya saat katalog masih kosong),
+     * dengan kunci issuer/folder yang sama seperti saat pendaftaran.
+     * Ukuran isi yang tersimpan di segmen diambil dari indeks segmen; ukuran file biasa dibaca dari disk.
+     * Pendaftaran yang berjalan bersamaan dengan rebuild dapat terhitung ganda atau terlewat,
+     * jadi jalankan saat trafik pendaftaran sepi.
+     * @return Jumlah folder di katalog baru.
+     */
+    @Transactional
+    public int rebuild() {
+        Map<FolderKey, FolderCatalogEntry> entries = new LinkedHashMap<>();
+        for (CertificateRepository.FolderUsageRow row : certificateRepository.summarizeFolders()) {
+            entries.put(new FolderKey(row.getIssuerAddress(), row.getFolderName()),
+                    new FolderCatalogEntry(null, row.getIssuerAddress(), row.getFolderName(),
+                            row.getCertificateCount(), row.getSegmentBytes(), row.getLastUploadAt()));
+        }
+
+        long afterId = 0;
+        List<CertificateSummary> page;
+        do {
+            page = certificateRepository.findSummariesAfter(afterId, Limit.of(REBUILD_PAGE_SIZE));
+            for (CertificateSummary certificate : page) {
+                FolderCatalogEntry entry = entries.get(new FolderKey(certificate.getIssuerAddress(), certificate.getFolderName()));
+                // Sertifikat yang didaftarkan setelah ringkasan dihitung belum punya entri: dilewati
+                if (entry != null && !fileStorageService.isSegmentPath(certificate.getLocalFilePath())) {
+                    entry.setTotalBytes(entry.getTotalBytes() + fileSize(certificate.getLocalFilePath()));
+                }
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+
+        folderCatalogRepository.deleteAllInBatch();
+        folderCatalogRepository.saveAll(entries.values());
+        return entries.size();
+    }
+
+    /**
+     * Mengisi katalog dari tabel certificates saat aplikasi start jika katalog masih kosong
+     * (misalnya database dari versi sebelum katalog folder ada).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (folderCatalogRepository.count() == 0) {
+            int folders = rebuild();
+            if (folders > 0) {
+                System.out.println("Katalog folder dibangun dari tabel certificates: " + folders + " folder.");
+            }
+        }
+    }
+
+    private long fileSize(String localFilePath) {
+        try {
+            return Files.size(fileStorageService.resolveStored(localFilePath));
+        } catch (IOException e) {
+            // File hilang dilaporkan oleh pemeriksa integritas; ukurannya tidak dihitung
+            return 0;
+        }
+    }
+
+    private void lockUntilCompletion() {
+        entryCreationLock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entryCreationLock.unlock();
+            }
+        });
+    }
+
+    private record FolderKey(String issuerAddress, String folderName) {
+    }
+}
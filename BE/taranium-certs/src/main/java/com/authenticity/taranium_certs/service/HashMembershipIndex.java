@@ -0,0 +1,395 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.HashIndexProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Indeks keanggotaan semua hash dokumen yang terdaftar, disimpan di luar heap dalam file memory-mapped
+ * (root-upload-dir/.hash-index). Lookup hash yang jawabannya "tidak terdaftar" (mayoritas trafik verifikasi publik)
+ * dijawab dari indeks tanpa query database; hanya hash yang mungkin terdaftar yang diteruskan ke database.
+ *
+ * Isi file: blocked Bloom filter (satu byte per slot; keenam bit untuk satu hash berada di satu cache line 64 byte)
+ * diikuti tabel open addressing (linear probing) dengan slot 32 byte berisi hash itu sendiri; slot kosong bernilai nol.
+ * SHA-256 terdistribusi merata sehingga posisi slot dan bit Bloom diambil langsung dari byte hash.
+ *
+ * Indeks selalu merupakan superset dari tabel certificates: hash ditambahkan di dalam transaksi pendaftaran,
+ * sebelum commit, dan tidak pernah dihapus (hash dari transaksi yang di-rollback hanya menjadi false positive yang
+ * diteruskan ke database). Indeks dibangun ulang dari database setiap startup; selama belum siap, semua lookup
+ * diteruskan ke database.
+ */
+@Service
+public class HashMembershipIndex {
+
+    private static final long CHUNK_SIZE = 1L << 30;
+    private static final int SLOT_SIZE = DocumentHash.LENGTH;
+    private static final int BLOOM_BLOCK_BYTES = 64;
+    private static final int BLOOM_PROBES = 6;
+    private static final long MIN_CAPACITY = 1024;
+    private static final String FILE_PREFIX = "hashes-";
+    private static final String FILE_SUFFIX = ".idx";
+
+    private final CertificateRepository certificateRepository;
+    private final HashIndexProperties properties;
+    private final Path directory;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Table table;
+    private volatile boolean ready;
+    // Hash bernilai nol tidak bisa disimpan di slot karena nol menandai slot kosong
+    private volatile boolean containsZero;
+    // Diset jika tabel gagal diperbesar: indeks tidak lagi superset dari database dan tidak pernah siap lagi
+    private volatile boolean failed;
+
+    public HashMembershipIndex(@Value("${app.upload-dir}") String uploadDir, CertificateRepository certificateRepository,
+                               HashIndexProperties properties) {
+        this.certificateRepository = certificateRepository;
+        this.properties = properties;
+        this.directory = properties.getDirectory() == null || properties.getDirectory().isBlank()
+                ? Paths.get(uploadDir).resolve(".hash-index")
+                : Paths.get(properties.getDirectory());
+    }
+
+    /**
+     * Membuat tabel kosong sebelum aplikasi menerima request, agar pendaftaran yang terjadi selama indeks dibangun
+     * langsung tercatat. Ukurannya diperkirakan dari jumlah sertifikat saat ini.
+     * @throws IOException jika file indeks tidak dapat dibuat.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        deleteStaleFiles();
+        long count = certificateRepository.count();
+        table = Table.create(directory, capacityFor(count));
+    }
+
+    /**
+     * Mengisi indeks dari tabel certificates di thread latar belakang setelah aplikasi siap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (table == null) {
+            return;
+        }
+        Thread thread = new Thread(this::load, "hash-membership-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            ready = false;
+            if (table != null) {
+                table.delete();
+                table = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Mencatat hash yang baru didaftarkan. Dipanggil di dalam transaksi pendaftaran, sebelum commit.
+     * @param documentHash Hash SHA-256 dokumen.
+     */
+    public void add(DocumentHash documentHash) {
+        if (table == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            insert(words(documentHash));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Memeriksa apakah hash mungkin terdaftar. Jawaban false pasti benar sehingga query database dapat dilewati;
+     * jawaban true harus dipastikan ke database.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return false jika hash pasti belum terdaftar.
+     */
+    public boolean mightContain(DocumentHash documentHash) {
+        Table current = table;
+        if (!ready || current == null) {
+            return true;
+        }
+        long[] key = words(documentHash);
+        if (isZero(key)) {
+            return containsZero;
+        }
+        return current.contains(key);
+    }
+
+    /**
+     * @return true setelah indeks selesai dibangun dan menjawab lookup negatif.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return Jumlah hash di indeks (termasuk hash dari transaksi yang di-rollback).
+     */
+    public long size() {
+        Table current = table;
+        return current == null ? 0 : current.size + (containsZero ? 1 : 0);
+    }
+
+    void load() {
+        long start = System.nanoTime();
+        int batchSize = Math.max(1, properties.getLoadBatchSize());
+        long afterId = 0;
+        long rows = 0;
+        try {
+            while (true) {
+                List<CertificateRepository.HashRow> page = certificateRepository.findHashesAfter(afterId, Limit.of(batchSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                writeLock.lock();
+                try {
+                    for (CertificateRepository.HashRow row : page) {
+                        insert(words(row.getDocumentHash()));
+                    }
+                } finally {
+                    writeLock.unlock();
+                }
+                rows += page.size();
+                afterId = page.get(page.size() - 1).getId();
+            }
+            Table current = table;
+            if (current == null) {
+                return;
+            }
+            ready = !failed;
+            System.out.printf("Indeks hash dokumen dibangun: %d hash dalam %d ms (%d slot).%n",
+                    rows, (System.nanoTime() - start) / 1_000_000, current.capacity);
+        } catch (RuntimeException e) {
+            // Indeks tetap nonaktif: semua lookup diteruskan ke database
+            System.err.println("Gagal membangun indeks hash dokumen: " + e.getMessage());
+        }
+    }
+
+    private void insert(long[] key) {
+        if (isZero(key)) {
+            containsZero = true;
+            return;
+        }
+        Table current = table;
+        if (current == null || failed) {
+            return;
+        }
+        if (current.size + 1 > current.capacity * properties.getMaxLoadFactor()) {
+            try {
+                current = grow(current);
+            } catch (IOException e) {
+                // Tanpa slot baru indeks tidak lagi superset dari database: matikan agar lookup kembali ke database
+                failed = true;
+                ready = false;
+                System.err.println("Gagal memperbesar indeks hash dokumen, indeks dinonaktifkan: " + e.getMessage());
+                return;
+            }
+        }
+        current.insert(key);
+    }
+
+    private Table grow(Table current) throws IOException {
+        long start = System.nanoTime();
+        Table grown = Table.create(directory, current.capacity * 2);
+        long[] key = new long[4];
+        for (long slot = 0; slot < current.capacity; slot++) {
+            if (current.readSlot(slot, key)) {
+                grown.insert(key);
+            }
+        }
+        // Pembaca yang masih memegang tabel lama tetap dapat membaca mapping-nya sampai selesai
+        table = grown;
+        current.delete();
+        System.out.printf("Indeks hash dokumen diperbesar ke %d slot dalam %d ms.%n",
+                grown.capacity, (System.nanoTime() - start) / 1_000_000);
+        return grown;
+    }
+
+    private long capacityFor(long count) {
+        // Ruang dua kali jumlah saat ini agar pertumbuhan tidak langsung memicu pembesaran tabel
+        long wanted = Math.max(properties.getInitialCapacity(), (long) (count * 2 / properties.getMaxLoadFactor()));
+        long capacity = MIN_CAPACITY;
+        while (capacity < wanted) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void deleteStaleFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.err.println("Gagal menghapus file indeks hash lama " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static long[] words(DocumentHash documentHash) {
+        ByteBuffer bytes = ByteBuffer.wrap(documentHash.toBytes());
+        return new long[]{bytes.getLong(0), bytes.getLong(8), bytes.getLong(16), bytes.getLong(24)};
+    }
+
+    private static boolean isZero(long[] key) {
+        return (key[0] | key[1] | key[2] | key[3]) == 0;
+    }
+
+    /**
+     * Satu file indeks: Bloom filter sebesar capacity byte, lalu capacity slot hash. File dipetakan per potongan 1 GB;
+     * capacity selalu pangkat dua sehingga slot tidak pernah melewati batas potongan.
+     * Penulisan dijaga writeLock pemilik; pembaca tidak memakai lock dan melihat slot yang sudah ditulis
+     * melalui pembacaan field size (volatile) lebih dulu.
+     */
+    private static final class Table {
+
+        private final Path file;
+        private final MappedByteBuffer[] chunks;
+        private final long capacity;
+        private final long bloomBlocks;
+        private final long tableOffset;
+        private volatile long size;
+
+        private Table(Path file, MappedByteBuffer[] chunks, long capacity) {
+            this.file = file;
+            this.chunks = chunks;
+            this.capacity = capacity;
+            this.bloomBlocks = capacity / BLOOM_BLOCK_BYTES;
+            this.tableOffset = capacity;
+        }
+
+        static Table create(Path directory, long capacity) throws IOException {
+            Path file = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+            long length = capacity + capacity * SLOT_SIZE;
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            // File baru bernilai nol (sparse); halaman baru memakan disk/memori saat pertama kali ditulis
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                for (int i = 0; i < chunks.length; i++) {
+                    long offset = i * CHUNK_SIZE;
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.min(CHUNK_SIZE, length - offset));
+                }
+            }
+            return new Table(file, chunks, capacity);
+        }
+
+        boolean contains(long[] key) {
+            if (size == 0 || !bloomMightContain(key)) {
+                return false;
+            }
+            long mask = capacity - 1;
+            for (long slot = key[0] & mask; ; slot = (slot + 1) & mask) {
+                long offset = tableOffset + slot * SLOT_SIZE;
+                long first = getLong(offset);
+                long second = getLong(offset + 8);
+                long third = getLong(offset + 16);
+                long fourth = getLong(offset + 24);
+                if (first == key[0] && second == key[1] && third == key[2] && fourth == key[3]) {
+                    return true;
+                }
+                if ((first | second | third | fourth) == 0) {
+                    return false;
+                }
+            }
+        }
+
+        void insert(long[] key) {
+            long mask = capacity - 1;
+            long[] existing = new long[4];
+            long slot = key[0] & mask;
+            while (readSlot(slot, existing)) {
+                if (existing[0] == key[0] && existing[1] == key[1] && existing[2] == key[2] && existing[3] == key[3]) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            long offset = tableOffset + slot * SLOT_SIZE;
+            for (int i = 0; i < 4; i++) {
+                putLong(offset + i * 8L, key[i]);
+            }
+            long block = (key[1] & (bloomBlocks - 1)) * BLOOM_BLOCK_BYTES;
+            for (int probe = 0; probe < BLOOM_PROBES; probe++) {
+                int bit = (int) (key[2] >>> (probe * 9)) & 511;
+                long bloomOffset = block + (bit >>> 3);
+                putByte(bloomOffset, (byte) (getByte(bloomOffset) | (1 << (bit & 7))));
+            }
+            // Ditulis terakhir: pembaca yang melihat size baru juga melihat slot dan bit Bloom di atas
+            size = size + 1;
+        }
+
+        boolean readSlot(long slot, long[] key) {
+            long offset = tableOffset + slot * SLOT_SIZE;
+            for (int i = 0; i < 4; i++) {
+                key[i] = getLong(offset + i * 8L);
+            }
+            return !isZero(key);
+        }
+
+        void delete() {
+            try {
+                // Mapping tetap berlaku sampai di-GC; file dihapus dari direktori sekarang
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Gagal menghapus file indeks hash " + file + ": " + e.getMessage());
+            }
+        }
+
+        private boolean bloomMightContain(long[] key) {
+            long block = (key[1] & (bloomBlocks - 1)) * BLOOM_BLOCK_BYTES;
+            for (int probe = 0; probe < BLOOM_PROBES; probe++) {
+                int bit = (int) (key[2] >>> (probe * 9)) & 511;
+                if ((getByte(block + (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long getLong(long offset) {
+            return chunks[(int) (offset / CHUNK_SIZE)].getLong((int) (offset % CHUNK_SIZE));
+        }
+
+        private void putLong(long offset, long value) {
+            chunks[(int) (offset / CHUNK_SIZE)].putLong((int) (offset % CHUNK_SIZE), value);
+        }
+
+        private byte getByte(long offset) {
+            return chunks[(int) (offset / CHUNK_SIZE)].get((int) (offset % CHUNK_SIZE));
+        }
+
+        private void putByte(long offset, byte value) {
+            chunks[(int) (offset / CHUNK_SIZE)].put((int) (offset % CHUNK_SIZE), value);
+        }
+    }
+}
@@ -1,40 +1,197 @@
 package com.authenticity.taranium_certs.service;
 
+import com.authenticity.taranium_certs.entity.DocumentHash;
 import org.springframework.stereotype.Service;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
 
 /**
  * Service untuk menghitung hash SHA-256 dari sebuah InputStream (file).
+ * Instance MessageDigest untuk hashing sekali jalan dipakai ulang dari pool kecil agar tidak dibuat
+ * (lookup provider) pada setiap request.
  */
 @Service
 public class HashService {
 
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int MAPPED_SLICE_SIZE = 1 << 20;
+    private static final int DIGEST_POOL_SIZE = 64;
+
+    // Pool tanpa kunci, tidak terikat ke thread sehingga tetap efektif untuk virtual thread
+    private final ConcurrentLinkedDeque<MessageDigest> digestPool = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooledDigests = new AtomicInteger();
+
     /**
      * Menghitung hash SHA-256 dari data yang dibaca dari InputStream.
      * @param inputStream InputStream dari file yang akan di-hash.
-     * @return String representasi heksadesimal dari hash SHA-256.
+     * @return Hash SHA-256 (32 byte).
+     * @throws IOException jika terjadi kesalahan saat membaca InputStream.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public DocumentHash calculateSha256Hash(InputStream inputStream) throws IOException, NoSuchAlgorithmException {
+        return calculateSha256Hash(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Versi {@link #calculateSha256Hash(InputStream)} dengan ukuran buffer baca yang dapat diatur.
+     * @param inputStream InputStream dari file yang akan di-hash.
+     * @param bufferSize Ukuran buffer baca (byte).
+     * @return Hash SHA-256 (32 byte).
      * @throws IOException jika terjadi kesalahan saat membaca InputStream.
      * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
      */
-    public String calculateSha256Hash(InputStream inputStream) throws IOException, NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] buffer = new byte[8192]; // Buffer untuk membaca file
-        int bytesRead;
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
-            digest.update(buffer, 0, bytesRead);
+    public DocumentHash calculateSha256Hash(InputStream inputStream, int bufferSize) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = acquireDigest();
+        try {
+            byte[] buffer = new byte[bufferSize]; // Buffer untuk membaca file
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+            }
+            return DocumentHash.of(digest.digest());
+        } finally {
+            releaseDigest(digest);
+        }
+    }
+
+    /**
+     * Menghitung hash SHA-256 dari file di disk.
+     * @param file Path file.
+     * @return Hash SHA-256 (32 byte).
+     * @throws IOException jika file tidak dapat dibaca.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public DocumentHash calculateSha256Hash(Path file) throws IOException, NoSuchAlgorithmException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return calculateSha256Hash(inputStream);
+        }
+    }
+
+    /**
+     * Menghitung hash SHA-256 dari file di disk melalui FileChannel yang di-memory-map per jendela,
+     * sehingga isi file dibaca langsung dari page cache tanpa disalin ke buffer heap.
+     * @param file Path file.
+     * @param windowSize Ukuran maksimum satu jendela map (byte).
+     * @param beforeSlice Dipanggil dengan jumlah byte sebelum setiap potongan 1 MB di-hash
+     *                    (misalnya untuk membatasi bandwidth); boleh null.
+     * @return Hash SHA-256 (32 byte).
+     * @throws IOException jika file tidak dapat dibaca.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public DocumentHash calculateSha256HashMapped(Path file, long windowSize, LongConsumer beforeSlice)
+            throws IOException, NoSuchAlgorithmException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return hashMapped(channel, 0, channel.size(), windowSize, beforeSlice);
+        }
+    }
+
+    /**
+     * Versi {@link #calculateSha256HashMapped(Path, long, LongConsumer)} untuk sebagian file,
+     * misalnya isi sertifikat di dalam file segmen.
+     * @param region Rentang byte yang di-hash.
+     * @param windowSize Ukuran maksimum satu jendela map (byte).
+     * @param beforeSlice Dipanggil dengan jumlah byte sebelum setiap potongan 1 MB di-hash; boleh null.
+     * @return Hash SHA-256 (32 byte).
+     * @throws EOFException jika rentang melewati akhir file.
+     * @throws IOException jika file tidak dapat dibaca.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public DocumentHash calculateSha256HashMapped(StoredRegion region, long windowSize, LongConsumer beforeSlice)
+            throws IOException, NoSuchAlgorithmException {
+        try (FileChannel channel = FileChannel.open(region.file(), StandardOpenOption.READ)) {
+            if (region.offset() + region.length() > channel.size()) {
+                throw new EOFException("Rentang " + region.offset() + "+" + region.length() + " melewati akhir file " + region.file());
+            }
+            return hashMapped(channel, region.offset(), region.length(), windowSize, beforeSlice);
+        }
+    }
+
+    private DocumentHash hashMapped(FileChannel channel, long offset, long length, long windowSize, LongConsumer beforeSlice)
+            throws NoSuchAlgorithmException, IOException {
+        MessageDigest digest = acquireDigest();
+        try {
+            long end = offset + length;
+            for (long position = offset; position < end; position += windowSize) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, end - position));
+                while (window.hasRemaining()) {
+                    int sliceLength = Math.min(MAPPED_SLICE_SIZE, window.remaining());
+                    if (beforeSlice != null) {
+                        beforeSlice.accept(sliceLength);
+                    }
+                    ByteBuffer slice = window.slice(window.position(), sliceLength);
+                    digest.update(slice);
+                    window.position(window.position() + sliceLength);
+                }
+            }
+            return DocumentHash.of(digest.digest());
+        } finally {
+            releaseDigest(digest);
+        }
+    }
+
+    /**
+     * Menyelesaikan digest yang berjalan dan mengembalikan hasilnya sebagai DocumentHash.
+     * @param digest Digest SHA-256; di-reset setelah dipanggil.
+     * @return Hash SHA-256 (32 byte).
+     */
+    public DocumentHash finish(MessageDigest digest) {
+        return DocumentHash.of(digest.digest());
+    }
+
+    /**
+     * Membuat instance MessageDigest SHA-256 baru, untuk pemanggil yang meng-hash data
+     * sambil melakukan pekerjaan lain (misalnya menulis file) dalam satu kali baca.
+     * Digest ini tidak berasal dari pool dan boleh disimpan selama apa pun (misalnya per sesi upload).
+     * @return MessageDigest SHA-256 yang belum berisi data.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public MessageDigest newSha256Digest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256");
+    }
+
+    /**
+     * Menyalin state digest yang sedang berjalan, misalnya sebagai titik kembali sebelum menambahkan
+     * potongan data yang bisa gagal di tengah jalan.
+     * @param digest Digest yang sedang berjalan.
+     * @return Salinan independen dengan state yang sama.
+     * @throws IllegalStateException jika provider digest tidak mendukung penyalinan state.
+     */
+    public MessageDigest copyDigest(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("Provider SHA-256 tidak mendukung penyalinan state digest.", e);
+        }
+    }
+
+    private MessageDigest acquireDigest() throws NoSuchAlgorithmException {
+        MessageDigest digest = digestPool.pollFirst();
+        if (digest == null) {
+            return newSha256Digest();
         }
-        byte[] hashedBytes = digest.digest();
+        pooledDigests.decrementAndGet();
+        return digest;
+    }
 
-        // Konversi byte array ke string heksadesimal
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hashedBytes) {
-            String hex = Integer.toHexString(0xff & b);
-            if (hex.length() == 1) hexString.append('0');
-            hexString.append(hex);
+    private void releaseDigest(MessageDigest digest) {
+        // Pool dibatasi; digest berlebih (saat lonjakan) dibiarkan untuk GC
+        if (pooledDigests.incrementAndGet() <= DIGEST_POOL_SIZE) {
+            digest.reset();
+            digestPool.offerFirst(digest);
+        } else {
+            pooledDigests.decrementAndGet();
         }
-        return hexString.toString();
     }
 }
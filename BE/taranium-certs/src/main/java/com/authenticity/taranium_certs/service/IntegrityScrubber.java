@@ -0,0 +1,322 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ScrubProperties;
+import com.authenticity.taranium_certs.dto.CertificateSummary;
+import com.authenticity.taranium_certs.dto.ScrubStatusResponse;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.IntegrityIssue;
+import com.authenticity.taranium_certs.entity.ScrubCheckpoint;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import com.authenticity.taranium_certs.repository.IntegrityIssueRepository;
+import com.authenticity.taranium_certs.repository.ScrubCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pemeriksa integritas file tersimpan di latar belakang. Setiap putaran membaca ulang semua file
+ * lewat FileChannel yang di-memory-map, membandingkan hash-nya dengan Certificate.documentHash, dan mencatat
+ * file yang tidak cocok, hilang, atau tidak terbaca di tabel integrity_issues.
+ *
+ * Jumlah thread dan total bandwidth baca dibatasi (app.scrub.parallelism, app.scrub.bandwidth-limit) agar
+ * tidak mengganggu trafik request. Posisi putaran disimpan di checkpoint setiap satu halaman selesai,
+ * sehingga putaran yang terputus karena restart dilanjutkan dari posisi terakhir.
+ */
+@Service
+public class IntegrityScrubber {
+
+    static final String CHECKPOINT_NAME = "integrity-scrub";
+
+    private enum Outcome { OK, MISMATCH, MISSING, UNREADABLE }
+
+    private record CheckResult(CertificateSummary row, Outcome outcome, DocumentHash actualHash, String detail) {
+    }
+
+    private final ScrubProperties scrubProperties;
+    private final CertificateRepository certificateRepository;
+    private final IntegrityIssueRepository integrityIssueRepository;
+    private final ScrubCheckpointRepository scrubCheckpointRepository;
+    private final FileStorageService fileStorageService;
+    private final HashService hashService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final BandwidthThrottle throttle;
+    private final ReentrantLock passLock = new ReentrantLock();
+
+    private final AtomicLong filesChecked = new AtomicLong();
+    private final AtomicLong bytesHashed = new AtomicLong();
+    // Byte dan waktu putaran yang sedang berjalan, untuk throughput saat ini
+    private final AtomicLong passBytes = new AtomicLong();
+    private volatile long passStartedNanos;
+
+    public IntegrityScrubber(ScrubProperties scrubProperties, CertificateRepository certificateRepository,
+                             IntegrityIssueRepository integrityIssueRepository, ScrubCheckpointRepository scrubCheckpointRepository,
+                             FileStorageService fileStorageService, HashService hashService,
+                             PlatformTransactionManager transactionManager) {
+        this.scrubProperties = scrubProperties;
+        this.certificateRepository = certificateRepository;
+        this.integrityIssueRepository = integrityIssueRepository;
+        this.scrubCheckpointRepository = scrubCheckpointRepository;
+        this.fileStorageService = fileStorageService;
+        this.hashService = hashService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.throttle = new BandwidthThrottle(scrubProperties.getBandwidthLimit().toBytes());
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, scrubProperties.getParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "integrity-scrub-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            // Prioritas rendah agar thread request didahulukan saat CPU sibuk
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Menjalankan putaran pemeriksaan secara berkala.
+     */
+    @Scheduled(fixedDelayString = "${app.scrub.interval:PT6H}", initialDelayString = "${app.scrub.interval:PT6H}")
+    public void scheduledScrub() {
+        if (scrubProperties.isEnabled()) {
+            scrub();
+        }
+    }
+
+    /**
+     * Melanjutkan putaran dari checkpoint sampai seluruh tabel certificates selesai diperiksa.
+     * @return Jumlah file yang diperiksa, atau -1 jika putaran lain sedang berjalan.
+     */
+    public long scrub() {
+        if (!passLock.tryLock()) {
+            return -1;
+        }
+        try {
+            return runPass();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            passLock.unlock();
+        }
+    }
+
+    /**
+     * Memulai putaran pemeriksaan di thread latar belakang.
+     * @return false jika putaran lain sedang berjalan.
+     */
+    public boolean startAsync() {
+        if (isRunning()) {
+            return false;
+        }
+        Thread thread = new Thread(this::scrub, "integrity-scrub-manual");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * @return true selama putaran pemeriksaan berjalan.
+     */
+    public boolean isRunning() {
+        return passLock.isLocked();
+    }
+
+    /**
+     * @return Jumlah file yang sudah diperiksa sejak aplikasi start.
+     */
+    public long getFilesChecked() {
+        return filesChecked.get();
+    }
+
+    /**
+     * @return Jumlah byte yang sudah di-hash ulang sejak aplikasi start.
+     */
+    public long getBytesHashed() {
+        return bytesHashed.get();
+    }
+
+    /**
+     * Mengambil status pemeriksa: progres, throughput (GB/detik), dan jumlah issue terbuka per jenis.
+     * @return Status pemeriksa.
+     */
+    public ScrubStatusResponse getStatus() {
+        ScrubCheckpoint checkpoint = scrubCheckpointRepository.findById(CHECKPOINT_NAME).orElse(null);
+        double current = 0;
+        if (isRunning() && passStartedNanos != 0) {
+            current = gigabytesPerSecond(passBytes.get(), System.nanoTime() - passStartedNanos);
+        }
+        double lastPass = 0;
+        if (checkpoint != null && checkpoint.getLastPassBytes() != null && checkpoint.getLastPassMillis() != null) {
+            lastPass = gigabytesPerSecond(checkpoint.getLastPassBytes(), checkpoint.getLastPassMillis() * 1_000_000);
+        }
+        return ScrubStatusResponse.builder()
+                .enabled(scrubProperties.isEnabled())
+                .running(isRunning())
+                .lastCertificateId(checkpoint == null ? 0 : checkpoint.getLastCertificateId())
+                .passesCompleted(checkpoint == null ? 0 : checkpoint.getPassesCompleted())
+                .passStartedAt(checkpoint == null || checkpoint.getPassStartedAt() == null ? null
+                        : checkpoint.getPassStartedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .filesChecked(getFilesChecked())
+                .bytesHashed(getBytesHashed())
+                .currentGigabytesPerSecond(current)
+                .lastPassGigabytesPerSecond(lastPass)
+                .openMismatches(integrityIssueRepository.countByResolvedAtIsNullAndType(IntegrityIssue.Type.MISMATCH))
+                .openMissing(integrityIssueRepository.countByResolvedAtIsNullAndType(IntegrityIssue.Type.MISSING))
+                .openUnreadable(integrityIssueRepository.countByResolvedAtIsNullAndType(IntegrityIssue.Type.UNREADABLE))
+                .build();
+    }
+
+    private long runPass() throws InterruptedException {
+        ScrubCheckpoint checkpoint = scrubCheckpointRepository.findById(CHECKPOINT_NAME)
+                .orElseGet(() -> new ScrubCheckpoint(CHECKPOINT_NAME, 0, null, 0, null, null, LocalDateTime.now()));
+        if (checkpoint.getLastCertificateId() == 0 || checkpoint.getPassStartedAt() == null) {
+            checkpoint.setPassStartedAt(LocalDateTime.now());
+        }
+        passBytes.set(0);
+        passStartedNanos = System.nanoTime();
+        long checked = 0;
+        // Waktu putaran yang dilanjutkan dari checkpoint hanya dihitung sejak dilanjutkan
+        long hashingNanos = 0;
+
+        while (true) {
+            List<CertificateSummary> page = certificateRepository.findSummariesAfter(checkpoint.getLastCertificateId(),
+                    Limit.of(Math.max(1, scrubProperties.getBatchSize())));
+            if (page.isEmpty()) {
+                break;
+            }
+            long pageStart = System.nanoTime();
+            List<CheckResult> results = checkPage(page);
+            hashingNanos += System.nanoTime() - pageStart;
+            checked += results.size();
+
+            checkpoint.setLastCertificateId(page.get(page.size() - 1).getId());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            ScrubCheckpoint progress = checkpoint;
+            checkpoint = transactionTemplate.execute(status -> {
+                recordResults(results);
+                return scrubCheckpointRepository.save(progress);
+            });
+        }
+
+        // Putaran selesai: mulai dari awal pada putaran berikutnya
+        checkpoint.setLastCertificateId(0);
+        checkpoint.setPassesCompleted(checkpoint.getPassesCompleted() + 1);
+        checkpoint.setLastPassBytes(passBytes.get());
+        checkpoint.setLastPassMillis(Duration.ofNanos(hashingNanos).toMillis());
+        checkpoint.setPassStartedAt(null);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        scrubCheckpointRepository.save(checkpoint);
+        System.out.printf("Pemeriksaan integritas selesai: %d file, %d byte, %.3f GB/detik.%n",
+                checked, passBytes.get(), gigabytesPerSecond(passBytes.get(), hashingNanos));
+        return checked;
+    }
+
+    private List<CheckResult> checkPage(List<CertificateSummary> page) throws InterruptedException {
+        List<Callable<CheckResult>> tasks = page.stream().<Callable<CheckResult>>map(row -> () -> check(row)).toList();
+        List<CheckResult> results = new ArrayList<>(page.size());
+        for (Future<CheckResult> future : executor.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CancellationException) {
+                    throw new InterruptedException("Pemeriksaan integritas dihentikan.");
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private CheckResult check(CertificateSummary row) {
+        try {
+            StoredRegion region = fileStorageService.locate(row.getDocumentHash(), row.getLocalFilePath());
+            DocumentHash actualHash = hashService.calculateSha256HashMapped(region, scrubProperties.getMapWindowSize().toBytes(), bytes -> {
+                try {
+                    throttle.acquire(bytes);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Pemeriksaan integritas dihentikan.");
+                }
+                passBytes.addAndGet(bytes);
+                bytesHashed.addAndGet(bytes);
+            });
+            filesChecked.incrementAndGet();
+            if (actualHash.equals(row.getDocumentHash())) {
+                return new CheckResult(row, Outcome.OK, actualHash, null);
+            }
+            return new CheckResult(row, Outcome.MISMATCH, actualHash, null);
+        } catch (NoSuchFileException e) {
+            filesChecked.incrementAndGet();
+            return new CheckResult(row, Outcome.MISSING, null, null);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            filesChecked.incrementAndGet();
+            return new CheckResult(row, Outcome.UNREADABLE, null, e.getMessage());
+        }
+    }
+
+    private void recordResults(List<CheckResult> results) {
+        Set<DocumentHash> open = new HashSet<>(integrityIssueRepository.findOpenDocumentHashes(
+                results.stream().map(result -> result.row().getDocumentHash()).toList()));
+        LocalDateTime now = LocalDateTime.now();
+        for (CheckResult result : results) {
+            DocumentHash documentHash = result.row().getDocumentHash();
+            if (result.outcome() == Outcome.OK) {
+                if (open.contains(documentHash)) {
+                    integrityIssueRepository.findFirstByDocumentHashAndResolvedAtIsNull(documentHash)
+                            .ifPresent(issue -> {
+                                issue.setResolvedAt(now);
+                                issue.setLastCheckedAt(now);
+                            });
+                }
+                continue;
+            }
+            IntegrityIssue.Type type = IntegrityIssue.Type.valueOf(result.outcome().name());
+            IntegrityIssue issue = open.contains(documentHash)
+                    ? integrityIssueRepository.findFirstByDocumentHashAndResolvedAtIsNull(documentHash).orElseThrow()
+                    : new IntegrityIssue(null, documentHash, result.row().getLocalFilePath(), type, null, null, now, now, null);
+            if (issue.getType() != type) {
+                System.err.println("Issue integritas " + documentHash + " berubah dari " + issue.getType() + " menjadi " + type);
+            }
+            issue.setType(type);
+            issue.setActualHash(result.actualHash());
+            issue.setDetail(result.detail());
+            issue.setLastCheckedAt(now);
+            if (issue.getId() == null) {
+                System.err.println("Issue integritas baru: " + type + " " + result.row().getLocalFilePath());
+                integrityIssueRepository.save(issue);
+            }
+        }
+    }
+
+    private static double gigabytesPerSecond(long bytes, long nanos) {
+        return nanos <= 0 ? 0 : bytes / 1e9 / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,139 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.dto.InclusionProofResponse;
+import com.authenticity.taranium_certs.entity.CertificateProof;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.MerkleBatch;
+import com.authenticity.taranium_certs.repository.CertificateProofRepository;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import com.authenticity.taranium_certs.repository.MerkleBatchRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service untuk membangun pohon Merkle atas hash dokumen sebuah folder (atau daftar hash),
+ * sehingga banyak sertifikat cukup di-anchor dengan satu transaksi root di blockchain.
+ * Bukti inklusi tiap sertifikat disimpan agar dapat dikembalikan tanpa membangun ulang pohon.
+ */
+@Service
+public class MerkleService {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int HASH_HEX_LENGTH = 64;
+
+    private final CertificateRepository certificateRepository;
+    private final MerkleBatchRepository merkleBatchRepository;
+    private final CertificateProofRepository certificateProofRepository;
+
+    public MerkleService(CertificateRepository certificateRepository, MerkleBatchRepository merkleBatchRepository,
+                         CertificateProofRepository certificateProofRepository) {
+        this.certificateRepository = certificateRepository;
+        this.merkleBatchRepository = merkleBatchRepository;
+        this.certificateProofRepository = certificateProofRepository;
+    }
+
+    /**
+     * Membuat batch Merkle baru dan menyimpan bukti inklusi setiap sertifikat di dalamnya.
+     * Daun diurutkan berdasarkan hash agar root deterministik untuk kumpulan hash yang sama.
+     * @param issuerAddress Alamat blockchain institusi.
+     * @param folderName Nama folder (dipakai jika documentHashes kosong).
+     * @param documentHashes Daftar hash eksplisit; boleh null.
+     * @return MerkleBatch yang telah disimpan.
+     * @throws IllegalArgumentException jika tidak ada hash yang dapat di-anchor atau hash tidak valid.
+     */
+    @Transactional
+    public MerkleBatch createBatch(String issuerAddress, String folderName, List<String> documentHashes) {
+        List<DocumentHash> hashes;
+        if (documentHashes == null || documentHashes.isEmpty()) {
+            hashes = certificateRepository.findUnanchoredDocumentHashes(issuerAddress, folderName);
+        } else {
+            List<DocumentHash> requested = documentHashes.stream().map(DocumentHash::fromHex).distinct().toList();
+            hashes = certificateRepository.findIssuerDocumentHashes(issuerAddress, requested);
+            if (hashes.size() != requested.size()) {
+                throw new IllegalArgumentException("Sebagian hash tidak terdaftar atas nama institusi ini.");
+            }
+            if (certificateProofRepository.countByDocumentHashIn(hashes) > 0) {
+                throw new IllegalArgumentException("Sebagian hash sudah di-anchor dalam batch lain.");
+            }
+        }
+        if (hashes.isEmpty()) {
+            throw new IllegalArgumentException("Tidak ada sertifikat yang belum di-anchor.");
+        }
+
+        // Urutan byte tak bertanda sama dengan urutan leksikografis bentuk hex-nya
+        List<DocumentHash> sorted = hashes.stream().sorted().toList();
+        List<byte[]> leaves = new ArrayList<>(sorted.size());
+        for (DocumentHash hash : sorted) {
+            leaves.add(hash.toBytes());
+        }
+        MerkleTree tree = new MerkleTree(leaves);
+
+        MerkleBatch batch = merkleBatchRepository.save(new MerkleBatch(HEX.formatHex(tree.root()), tree.size(),
+                issuerAddress, documentHashes == null || documentHashes.isEmpty() ? folderName : null));
+
+        List<CertificateProof> proofs = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            StringBuilder path = new StringBuilder(HASH_HEX_LENGTH * 32);
+            for (byte[] sibling : tree.proof(i)) {
+                path.append(HEX.formatHex(sibling));
+            }
+            proofs.add(new CertificateProof(sorted.get(i), batch, i, path.toString()));
+        }
+        certificateProofRepository.saveAll(proofs);
+        return batch;
+    }
+
+    /**
+     * Mencatat hash transaksi blockchain yang meng-anchor root sebuah batch.
+     * @param batchId Id batch.
+     * @param txHash Hash transaksi anchorRoot.
+     * @return MerkleBatch yang diperbarui, kosong jika batch tidak ditemukan.
+     */
+    @Transactional
+    public Optional<MerkleBatch> recordAnchor(Long batchId, String txHash) {
+        return merkleBatchRepository.findById(batchId).map(batch -> {
+            batch.setAnchorTxHash(txHash);
+            return batch;
+        });
+    }
+
+    /**
+     * Mengambil batch Merkle berdasarkan id.
+     * @param batchId Id batch.
+     * @return Optional yang berisi MerkleBatch jika ditemukan.
+     */
+    public Optional<MerkleBatch> getBatch(Long batchId) {
+        return merkleBatchRepository.findById(batchId);
+    }
+
+    /**
+     * Mengambil bukti inklusi tersimpan untuk sebuah sertifikat (satu query, tanpa membangun ulang pohon).
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return Optional yang berisi bukti inklusi jika sertifikat sudah masuk ke sebuah batch.
+     */
+    @Transactional(readOnly = true)
+    public Optional<InclusionProofResponse> getProof(DocumentHash documentHash) {
+        return certificateProofRepository.findByDocumentHash(documentHash).map(proof -> {
+            String path = proof.getProofPath();
+            List<String> siblings = new ArrayList<>(path.length() / HASH_HEX_LENGTH);
+            for (int i = 0; i < path.length(); i += HASH_HEX_LENGTH) {
+                siblings.add(path.substring(i, i + HASH_HEX_LENGTH));
+            }
+            MerkleBatch batch = proof.getBatch();
+            return InclusionProofResponse.builder()
+                    .documentHash(proof.getDocumentHash())
+                    .batchId(batch.getId())
+                    .rootHash(batch.getRootHash())
+                    .leafIndex(proof.getLeafIndex())
+                    .treeSize(batch.getLeafCount())
+                    .proof(siblings)
+                    .anchorTxHash(batch.getAnchorTxHash())
+                    .build();
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package com.authenticity.taranium_certs.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pohon Merkle SHA-256 dengan struktur RFC 6962 / RFC 9162 (Certificate Transparency):
+ * hash daun = SHA-256(0x00 || data), hash node = SHA-256(0x01 || kiri || kanan),
+ * dan node terakhir pada level ganjil dinaikkan ke level berikutnya tanpa diduplikasi.
+ * Prefix 0x00/0x01 mencegah node internal dipalsukan sebagai daun (second-preimage).
+ * Semua level disimpan sehingga bukti inklusi untuk setiap daun dapat diambil dalam O(log n).
+ */
+public class MerkleTree {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    // levels.get(0) berisi hash daun, level terakhir berisi root
+    private final List<byte[][]> levels = new ArrayList<>();
+
+    /**
+     * Membangun pohon dari data daun (untuk sertifikat: 32 byte hash dokumen).
+     * @param leafData Data daun sesuai urutan; tidak boleh kosong.
+     */
+    public MerkleTree(List<byte[]> leafData) {
+        if (leafData.isEmpty()) {
+            throw new IllegalArgumentException("Pohon Merkle membutuhkan minimal satu daun.");
+        }
+        MessageDigest digest = newDigest();
+        byte[][] level = new byte[leafData.size()][];
+        for (int i = 0; i < level.length; i++) {
+            level[i] = leafHash(digest, leafData.get(i));
+        }
+        levels.add(level);
+
+        while (level.length > 1) {
+            byte[][] parent = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < level.length / 2; i++) {
+                parent[i] = nodeHash(digest, level[2 * i], level[2 * i + 1]);
+            }
+            if (level.length % 2 == 1) {
+                parent[parent.length - 1] = level[level.length - 1];
+            }
+            levels.add(parent);
+            level = parent;
+        }
+    }
+
+    /**
+     * @return Jumlah daun di pohon.
+     */
+    public int size() {
+        return levels.get(0).length;
+    }
+
+    /**
+     * @return Root pohon (32 byte).
+     */
+    public byte[] root() {
+        return levels.get(levels.size() - 1)[0].clone();
+    }
+
+    /**
+     * Mengambil bukti inklusi (audit path) untuk daun pada indeks tertentu, dari bawah ke atas.
+     * @param index Indeks daun.
+     * @return List hash saudara yang dibutuhkan untuk menghitung ulang root.
+     */
+    public List<byte[]> proof(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Indeks daun di luar jangkauan: " + index);
+        }
+        List<byte[]> path = new ArrayList<>();
+        int position = index;
+        for (int depth = 0; depth < levels.size() - 1; depth++) {
+            byte[][] level = levels.get(depth);
+            int sibling = position ^ 1;
+            // Node terakhir yang dinaikkan tanpa pasangan tidak menambah elemen ke bukti
+            if (sibling < level.length) {
+                path.add(level[sibling].clone());
+            }
+            position >>= 1;
+        }
+        return path;
+    }
+
+    /**
+     * Memverifikasi bukti inklusi sesuai algoritma RFC 9162 bagian 2.1.3.2.
+     * @param leafData Data daun (32 byte hash dokumen).
+     * @param index Indeks daun di pohon.
+     * @param treeSize Jumlah daun di pohon.
+     * @param proof Audit path dari {@link #proof(int)}.
+     * @param root Root yang diharapkan.
+     * @return true jika bukti valid untuk root tersebut.
+     */
+    public static boolean verify(byte[] leafData, long index, long treeSize, List<byte[]> proof, byte[] root) {
+        if (index < 0 || index >= treeSize) {
+            return false;
+        }
+        MessageDigest digest = newDigest();
+        long fn = index;
+        long sn = treeSize - 1;
+        byte[] r = leafHash(digest, leafData);
+        for (byte[] p : proof) {
+            if (sn == 0) {
+                return false;
+            }
+            if ((fn & 1) == 1 || fn == sn) {
+                r = nodeHash(digest, p, r);
+                if ((fn & 1) == 0) {
+                    while ((fn & 1) == 0 && fn != 0) {
+                        fn >>= 1;
+                        sn >>= 1;
+                    }
+                }
+            } else {
+                r = nodeHash(digest, r, p);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && Arrays.equals(r, root);
+    }
+
+    private static byte[] leafHash(MessageDigest digest, byte[] data) {
+        digest.update(LEAF_PREFIX);
+        return digest.digest(data);
+    }
+
+    private static byte[] nodeHash(MessageDigest digest, byte[] left, byte[] right) {
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        return digest.digest(right);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algoritma SHA-256 tidak tersedia.", e);
+        }
+    }
+}
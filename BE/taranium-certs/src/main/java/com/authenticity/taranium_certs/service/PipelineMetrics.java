@@ -0,0 +1,160 @@
+package com.authenticity.taranium_certs.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrik Micrometer untuk pipeline pendaftaran dan verifikasi sertifikat, diekspor di /actuator/prometheus:
+ * <ul>
+ *     <li>{@code certs.pipeline.stage} - durasi tahap hash, store, dan persist per file;</li>
+ *     <li>{@code certs.pipeline.bytes} - byte yang di-hash dan disimpan (throughput = rate() per detik);</li>
+ *     <li>{@code certs.upload.size} - distribusi ukuran upload;</li>
+ *     <li>{@code certs.pipeline.duplicates} - upload yang hash-nya sudah terdaftar;</li>
+ *     <li>{@code certs.pipeline.uploads.skipped} - verifikasi yang dijawab dari hash saja, tanpa upload;</li>
+ *     <li>{@code certs.pipeline.errors} - jumlah error per jenis exception.</li>
+ * </ul>
+ * Tag hanya berisi nilai dari himpunan tetap (endpoint, tahap, nama kelas exception). Alamat issuer, folder,
+ * dan hash sengaja tidak dijadikan tag agar jumlah time series tidak tumbuh seiring jumlah institusi.
+ */
+@Component
+public class PipelineMetrics {
+
+    public enum Endpoint {
+        REGISTER("register"),
+        REGISTER_BATCH("register-batch"),
+        REGISTER_ASYNC("register-async"),
+        UPLOAD_CHUNKED("upload-chunked"),
+        REGISTER_STREAM("register-stream"),
+        VERIFY("verify"),
+        VERIFY_STREAM("verify-stream");
+
+        private final String tag;
+
+        Endpoint(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum Stage {
+        HASH("hash"),
+        STORE("store"),
+        PERSIST("persist");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final long MIN_EXPECTED_UPLOAD = 1024;
+    private static final long MAX_EXPECTED_UPLOAD = 2L * 1024 * 1024 * 1024;
+
+    private final MeterRegistry meterRegistry;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Mencatat durasi tahap hash, store, dan persist satu file yang sudah didaftarkan, beserta ukurannya.
+     * Tahap hash hanya dicatat di sini jika dikerjakan saat staging; alur yang menghitung hash lebih dulu
+     * (untuk memeriksa duplikat) mencatatnya sendiri dengan {@link #recordStage}.
+     * @param endpoint Endpoint yang menerima file.
+     * @param stagedFile File yang sudah di-commit.
+     */
+    public void recordRegistration(Endpoint endpoint, StagedFile stagedFile) {
+        if (stagedFile.getHashNanos() > 0) {
+            recordStage(endpoint, Stage.HASH, stagedFile.getHashNanos(), stagedFile.getSize());
+        }
+        recordStage(endpoint, Stage.STORE, stagedFile.getStoreNanos(), stagedFile.getSize());
+        recordStage(endpoint, Stage.PERSIST, stagedFile.getPersistNanos(), 0);
+        recordUploadSize(endpoint, stagedFile.getSize());
+    }
+
+    /**
+     * Mencatat durasi satu tahap. Untuk tahap hash dan store, jumlah byte ikut ditambahkan ke penghitung throughput.
+     * @param endpoint Endpoint asal.
+     * @param stage Tahap pipeline.
+     * @param nanos Durasi (nanodetik).
+     * @param bytes Byte yang diproses; diabaikan untuk tahap persist.
+     */
+    public void recordStage(Endpoint endpoint, Stage stage, long nanos, long bytes) {
+        Timer.builder("certs.pipeline.stage")
+                .description("Durasi satu tahap pipeline sertifikat per file")
+                .tag("endpoint", endpoint.tag)
+                .tag("stage", stage.tag)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (stage != Stage.PERSIST && bytes > 0) {
+            Counter.builder("certs.pipeline.bytes")
+                    .description("Byte yang di-hash atau disimpan oleh pipeline sertifikat")
+                    .baseUnit("bytes")
+                    .tag("endpoint", endpoint.tag)
+                    .tag("stage", stage.tag)
+                    .register(meterRegistry)
+                    .increment(bytes);
+        }
+    }
+
+    /**
+     * Mencatat ukuran satu file yang diunggah.
+     * @param endpoint Endpoint yang menerima file.
+     * @param bytes Ukuran file.
+     */
+    public void recordUploadSize(Endpoint endpoint, long bytes) {
+        DistributionSummary.builder("certs.upload.size")
+                .description("Ukuran file sertifikat yang diunggah")
+                .baseUnit("bytes")
+                .minimumExpectedValue((double) MIN_EXPECTED_UPLOAD)
+                .maximumExpectedValue((double) MAX_EXPECTED_UPLOAD)
+                .tag("endpoint", endpoint.tag)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    /**
+     * Menghitung satu upload yang hash-nya sudah terdaftar (dijawab dengan sertifikat yang ada tanpa menyimpan file).
+     * @param endpoint Endpoint yang menerima file.
+     * @param bytes Ukuran file.
+     */
+    public void recordDuplicate(Endpoint endpoint, long bytes) {
+        Counter.builder("certs.pipeline.duplicates")
+                .description("Upload dengan hash yang sudah terdaftar")
+                .tag("endpoint", endpoint.tag)
+                .register(meterRegistry)
+                .increment();
+        recordUploadSize(endpoint, bytes);
+    }
+
+    /**
+     * Menghitung satu verifikasi yang dijawab dari hash yang dihitung klien, tanpa file diunggah.
+     * @param endpoint Endpoint yang upload-nya dilewati.
+     */
+    public void recordSkippedUpload(Endpoint endpoint) {
+        Counter.builder("certs.pipeline.uploads.skipped")
+                .description("Verifikasi berdasarkan hash tanpa upload file")
+                .tag("endpoint", endpoint.tag)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Menghitung satu error pada endpoint; jenisnya adalah nama kelas exception (himpunan terbatas).
+     * @param endpoint Endpoint tempat error terjadi.
+     * @param error Exception yang terjadi.
+     */
+    public void recordError(Endpoint endpoint, Throwable error) {
+        Counter.builder("certs.pipeline.errors")
+                .description("Error pada pipeline sertifikat per jenis exception")
+                .tag("endpoint", endpoint.tag)
+                .tag("type", error.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,126 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.StorageProperties;
+import com.authenticity.taranium_certs.entity.SegmentEntry;
+import com.authenticity.taranium_certs.repository.SegmentEntryRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tugas latar belakang yang mengambil kembali ruang mati di file segmen: data record yang tidak lagi
+ * direferensikan indeks (transaksi pendaftaran di-rollback, atau record yang sudah dipindahkan).
+ * Segmen tertutup yang porsi data hidupnya di bawah app.storage.compaction-threshold disalin ke segmen aktif,
+ * indeksnya dipindahkan dalam satu transaksi, lalu file lamanya dihapus pada putaran berikutnya agar
+ * pembacaan yang sudah memegang lokasi lama tetap selesai. Hanya segmen yang dikosongkan sendiri oleh compactor
+ * yang dihapus; segmen yang tidak punya entri indeks dibiarkan.
+ */
+@Component
+public class SegmentCompactor {
+
+    private final SegmentStore segmentStore;
+    private final SegmentEntryRepository segmentEntryRepository;
+    private final StorageProperties storageProperties;
+    private final ReentrantLock passLock = new ReentrantLock();
+    // Segmen yang entrinya sudah dipindahkan oleh rewrite() dan menunggu dihapus
+    private final Set<Integer> retired = new HashSet<>();
+
+    public SegmentCompactor(SegmentStore segmentStore, SegmentEntryRepository segmentEntryRepository,
+                            StorageProperties storageProperties) {
+        this.segmentStore = segmentStore;
+        this.segmentEntryRepository = segmentEntryRepository;
+        this.storageProperties = storageProperties;
+    }
+
+    /**
+     * Menjalankan satu putaran compaction. Segmen terbaru (segmen aktif) dan segmen yang baru diubah dilewati.
+     * @return Jumlah segmen yang ditulis ulang.
+     */
+    @Scheduled(fixedDelayString = "${app.storage.compaction-interval:PT1H}", initialDelayString = "${app.storage.compaction-interval:PT1H}")
+    public int compact() {
+        if (!passLock.tryLock()) {
+            return 0;
+        }
+        try {
+            List<Integer> segmentIds = segmentStore.listSegmentIds();
+            if (segmentIds.isEmpty()) {
+                return 0;
+            }
+            Map<Integer, SegmentEntryRepository.SegmentUsage> usageById = new HashMap<>();
+            segmentEntryRepository.findSegmentUsage().forEach(usage -> usageById.put(usage.getSegmentId(), usage));
+            deleteRetired(usageById);
+
+            int latest = segmentIds.get(segmentIds.size() - 1);
+            FileTime cutoff = FileTime.from(Instant.now().minus(storageProperties.getCompactionMinAge()));
+            int rewritten = 0;
+            for (int segmentId : segmentIds) {
+                Path segment = segmentStore.resolveSegment(segmentId);
+                if (segmentId >= latest || retired.contains(segmentId) || Files.getLastModifiedTime(segment).compareTo(cutoff) > 0) {
+                    continue;
+                }
+                SegmentEntryRepository.SegmentUsage usage = usageById.get(segmentId);
+                if (usage == null) {
+                    // Tanpa entri indeks belum tentu kosong (indeks bisa hilang bersama database): tidak pernah dihapus
+                    continue;
+                }
+                long liveBytes = usage.getLiveBytes() + usage.getEntries() * SegmentStore.HEADER_SIZE;
+                if (liveBytes < storageProperties.getCompactionThreshold() * Files.size(segment) && rewrite(segmentId)) {
+                    retired.add(segmentId);
+                    rewritten++;
+                }
+            }
+            return rewritten;
+        } catch (IOException e) {
+            System.err.println("Gagal memindai direktori segmen: " + e.getMessage());
+            return 0;
+        } finally {
+            passLock.unlock();
+        }
+    }
+
+    private boolean rewrite(int segmentId) {
+        List<SegmentEntry> entries = segmentEntryRepository.findBySegmentId(segmentId);
+        List<SegmentEntry> moved = new ArrayList<>(entries.size());
+        try {
+            for (SegmentEntry entry : entries) {
+                moved.add(segmentStore.copy(entry));
+            }
+            segmentStore.sync();
+        } catch (IOException e) {
+            // Salinan yang sudah ditulis menjadi ruang mati di segmen aktif; indeks tetap menunjuk ke segmen lama
+            System.err.println("Compaction segmen " + segmentId + " dibatalkan: " + e.getMessage());
+            return false;
+        }
+        segmentEntryRepository.saveAll(moved);
+        System.out.printf("Segmen %d di-compact: %d record dipindahkan.%n", segmentId, moved.size());
+        return true;
+    }
+
+    private void deleteRetired(Map<Integer, SegmentEntryRepository.SegmentUsage> usageById) {
+        retired.removeIf(segmentId -> {
+            if (usageById.containsKey(segmentId)) {
+                // Masih direferensikan (misalnya compaction sebelumnya gagal di tengah): jangan dihapus
+                return true;
+            }
+            try {
+                Files.deleteIfExists(segmentStore.resolveSegment(segmentId));
+                return true;
+            } catch (IOException e) {
+                System.err.println("Gagal menghapus segmen " + segmentId + ": " + e.getMessage());
+                return false;
+            }
+        });
+    }
+}
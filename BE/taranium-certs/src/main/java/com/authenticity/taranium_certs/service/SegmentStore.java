@@ -0,0 +1,376 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.StorageProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.SegmentEntry;
+import com.authenticity.taranium_certs.repository.SegmentEntryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Penyimpanan segmented: isi file kecil ditambahkan (append) ke file segmen besar di
+ * root-upload-dir/.segments/00000001.seg, sehingga jutaan sertifikat hanya memakai beberapa file di disk.
+ * Semua penulisan diserialisasi ke satu segmen aktif dan bersifat sekuensial; segmen yang sudah penuh
+ * tidak pernah diubah lagi, kecuali dihapus seluruhnya setelah compaction.
+ *
+ * Setiap record diawali header {@value #HEADER_SIZE} byte (magic, versi, panjang, hash dokumen) sehingga segmen dapat
+ * diperiksa tanpa database. Lokasi data per hash dicatat di tabel segment_entries ({@link SegmentEntry}),
+ * dan pembacaan memakai rentang byte tersebut ({@link StoredRegion}) dengan pembacaan posisional atau sendfile.
+ */
+@Service
+public class SegmentStore {
+
+    static final int HEADER_SIZE = 48;
+    private static final int MAGIC = 0x54435347; // "TCSG"
+    private static final int VERSION = 1;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int RECOVERY_BATCH_SIZE = 1000;
+
+    private final Path segmentRoot;
+    private final StorageProperties storageProperties;
+    private final SegmentEntryRepository segmentEntryRepository;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Dijaga oleh writeLock; segmen aktif dibuka saat penulisan pertama
+    private FileChannel activeChannel;
+    private int activeSegmentId;
+    private long activeSize;
+
+    public SegmentStore(@Value("${app.upload-dir}") String uploadDir, StorageProperties storageProperties,
+                        SegmentEntryRepository segmentEntryRepository) {
+        this.segmentRoot = Paths.get(uploadDir).resolve(storageProperties.getSegmentDir());
+        this.storageProperties = storageProperties;
+        this.segmentEntryRepository = segmentEntryRepository;
+    }
+
+    /**
+     * Memulihkan indeks sebelum aplikasi menerima request dan sebelum compaction pertama berjalan.
+     * @throws IOException jika file segmen tidak dapat dibaca.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        int recovered = recoverIndex();
+        if (recovered > 0) {
+            System.out.println("Indeks segmen dipulihkan dari header record: " + recovered + " entri.");
+        }
+    }
+
+    /**
+     * Membangun ulang entri segment_entries yang hilang dari header record di file segmen, misalnya setelah database
+     * dikosongkan (H2 in-memory selalu kosong setelah restart). Entri yang sudah ada tidak diubah. Jika satu hash
+     * tersimpan lebih dari sekali (salinan hasil compaction), record terakhir yang dipakai. Record yang tidak lagi
+     * dibutuhkan juga ikut dicatat: ruang mati lebih murah daripada isi sertifikat yang hilang.
+     * @return Jumlah entri yang ditambahkan.
+     * @throws IOException jika file segmen tidak dapat dibaca.
+     */
+    int recoverIndex() throws IOException {
+        Map<DocumentHash, SegmentEntry> latest = new LinkedHashMap<>();
+        for (int segmentId : listSegmentIds()) {
+            scanRecords(segmentId, latest);
+        }
+
+        int recovered = 0;
+        List<SegmentEntry> batch = new ArrayList<>(RECOVERY_BATCH_SIZE);
+        for (SegmentEntry entry : latest.values()) {
+            batch.add(entry);
+            if (batch.size() == RECOVERY_BATCH_SIZE) {
+                recovered += saveMissing(batch);
+                batch.clear();
+            }
+        }
+        return recovered + saveMissing(batch);
+    }
+
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            closeActive();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Menambahkan isi file ke segmen aktif lalu memaksa data ke disk, sebelum indeksnya dicatat.
+     * Entri yang dikembalikan belum disimpan; panggil {@link #index(SegmentEntry)} di transaksi pendaftaran.
+     * @param source File sumber (misalnya file sementara hasil staging).
+     * @param documentHash Hash SHA-256 isi file.
+     * @param length Ukuran file.
+     * @return Entri indeks untuk data yang baru ditulis.
+     * @throws IOException jika file sumber tidak dapat dibaca atau segmen tidak dapat ditulis.
+     */
+    public SegmentEntry append(Path source, DocumentHash documentHash, long length) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ)) {
+            writeLock.lock();
+            try {
+                SegmentEntry entry = appendRecord(sourceChannel, 0, documentHash, length);
+                activeChannel.force(false);
+                return entry;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Menyalin data satu entri dari segmennya ke segmen aktif, untuk compaction. Header record lama diperiksa
+     * lebih dulu agar data yang salah tidak ikut disalin. Data belum dipaksa ke disk; panggil {@link #sync()}.
+     * @param entry Entri yang datanya disalin.
+     * @return Entri baru dengan lokasi di segmen aktif (belum disimpan).
+     * @throws IOException jika segmen lama tidak dapat dibaca atau header-nya tidak cocok dengan entri.
+     */
+    SegmentEntry copy(SegmentEntry entry) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(resolveSegment(entry.getSegmentId()), StandardOpenOption.READ)) {
+            long headerOffset = entry.getDataOffset() - HEADER_SIZE;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (sourceChannel.read(header, headerOffset + header.position()) < 0) {
+                    throw new EOFException("Header record terpotong di segmen " + entry.getSegmentId());
+                }
+            }
+            header.flip();
+            int magic = header.getInt();
+            int version = header.getInt();
+            long length = header.getLong();
+            byte[] hash = new byte[DocumentHash.LENGTH];
+            header.get(hash);
+            if (magic != MAGIC || version != VERSION || length != entry.getDataLength()
+                    || !DocumentHash.of(hash).equals(entry.getDocumentHash())) {
+                throw new IOException("Header record tidak cocok dengan indeks untuk " + entry.getDocumentHash().toHex()
+                        + " di segmen " + entry.getSegmentId());
+            }
+            writeLock.lock();
+            try {
+                return appendRecord(sourceChannel, entry.getDataOffset(), entry.getDocumentHash(), entry.getDataLength());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Memaksa data segmen aktif ke disk.
+     * @throws IOException jika sinkronisasi gagal.
+     */
+    void sync() throws IOException {
+        writeLock.lock();
+        try {
+            if (activeChannel != null) {
+                activeChannel.force(false);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Mencatat entri di indeks; dipanggil di dalam transaksi pendaftaran sehingga ikut di-rollback jika gagal.
+     * @param entry Entri hasil {@link #append}.
+     */
+    public void index(SegmentEntry entry) {
+        segmentEntryRepository.save(entry);
+    }
+
+    /**
+     * Menentukan lokasi isi file untuk hash tertentu.
+     * @param documentHash Hash SHA-256 dokumen.
+     * @return Rentang byte di dalam file segmen.
+     * @throws NoSuchFileException jika hash tidak tercatat di indeks atau file segmennya sudah tidak ada.
+     */
+    public StoredRegion locate(DocumentHash documentHash) throws NoSuchFileException {
+        SegmentEntry entry = segmentEntryRepository.findById(documentHash)
+                .orElseThrow(() -> new NoSuchFileException(segmentRoot.resolve(documentHash.toHex()).toString()));
+        Path segment = resolveSegment(entry.getSegmentId());
+        if (!Files.exists(segment)) {
+            throw new NoSuchFileException(segment.toString());
+        }
+        return new StoredRegion(segment, entry.getDataOffset(), entry.getDataLength());
+    }
+
+    /**
+     * Mengambil hash yang isinya tercatat di indeks segmen dari sekumpulan hash dokumen.
+     * @param documentHashes Kumpulan hash SHA-256 dokumen.
+     * @return Set hash yang tersimpan di segmen.
+     */
+    public Set<DocumentHash> findIndexedHashes(Collection<DocumentHash> documentHashes) {
+        if (documentHashes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(segmentEntryRepository.findExistingDocumentHashes(documentHashes));
+    }
+
+    /**
+     * Mengembalikan direktori file segmen.
+     * @return Path direktori segmen.
+     */
+    public Path getSegmentRoot() {
+        return segmentRoot;
+    }
+
+    /**
+     * Menentukan path file segmen dari nomornya.
+     * @param segmentId Nomor segmen.
+     * @return Path file segmen.
+     */
+    public Path resolveSegment(int segmentId) {
+        return segmentRoot.resolve(String.format("%08d%s", segmentId, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Mengambil nomor semua file segmen yang ada di disk, terurut naik.
+     * @return List nomor segmen.
+     * @throws IOException jika direktori segmen tidak dapat dibaca.
+     */
+    public List<Integer> listSegmentIds() throws IOException {
+        if (!Files.isDirectory(segmentRoot)) {
+            return Collections.emptyList();
+        }
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(segmentRoot, "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                try {
+                    ids.add(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    System.err.println("Mengabaikan file segmen dengan nama tidak dikenal: " + segment);
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private void scanRecords(int segmentId, Map<DocumentHash, SegmentEntry> latest) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolveSegment(segmentId), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (position + HEADER_SIZE <= size) {
+                header.clear();
+                while (header.hasRemaining() && channel.read(header, position + header.position()) > 0) {
+                    // Pembacaan posisional sampai header terisi
+                }
+                header.flip();
+                int magic = header.getInt();
+                int version = header.getInt();
+                long length = header.getLong();
+                byte[] hash = new byte[DocumentHash.LENGTH];
+                header.get(hash);
+                long dataOffset = position + HEADER_SIZE;
+                if (magic != MAGIC || version != VERSION || length < 0 || dataOffset + length > size) {
+                    // Record terakhir yang terpotong saat crash; sisanya tidak dapat dipercaya
+                    System.err.println("Pemindaian segmen " + segmentId + " berhenti di offset " + position
+                            + ": header record tidak valid.");
+                    return;
+                }
+                DocumentHash documentHash = DocumentHash.of(hash);
+                latest.remove(documentHash);
+                latest.put(documentHash, new SegmentEntry(documentHash, segmentId, dataOffset, length, LocalDateTime.now()));
+                position = dataOffset + length;
+            }
+        }
+    }
+
+    private int saveMissing(List<SegmentEntry> entries) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Set<DocumentHash> indexed = new HashSet<>(segmentEntryRepository.findExistingDocumentHashes(
+                entries.stream().map(SegmentEntry::getDocumentHash).toList()));
+        List<SegmentEntry> missing = entries.stream().filter(entry -> !indexed.contains(entry.getDocumentHash())).toList();
+        segmentEntryRepository.saveAll(missing);
+        return missing.size();
+    }
+
+    private SegmentEntry appendRecord(FileChannel source, long sourceOffset, DocumentHash documentHash, long length)
+            throws IOException {
+        ensureActive(HEADER_SIZE + length);
+        long recordStart = activeSize;
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(length)
+                    .put(documentHash.toBytes());
+            header.clear();
+            while (header.hasRemaining()) {
+                activeChannel.write(header, recordStart + header.position());
+            }
+
+            long dataOffset = recordStart + HEADER_SIZE;
+            long copied = 0;
+            source.position(sourceOffset);
+            while (copied < length) {
+                long transferred = activeChannel.transferFrom(source, dataOffset + copied, length - copied);
+                if (transferred <= 0) {
+                    throw new EOFException("File sumber lebih pendek dari " + length + " byte.");
+                }
+                copied += transferred;
+            }
+            activeSize = dataOffset + length;
+            return new SegmentEntry(documentHash, activeSegmentId, dataOffset, length, LocalDateTime.now());
+        } catch (IOException e) {
+            // Buang record yang setengah tertulis agar segmen tetap terdiri dari record utuh
+            activeChannel.truncate(recordStart);
+            activeSize = recordStart;
+            throw e;
+        }
+    }
+
+    private void ensureActive(long recordSize) throws IOException {
+        if (activeChannel == null) {
+            Files.createDirectories(segmentRoot);
+            List<Integer> ids = listSegmentIds();
+            openActive(ids.isEmpty() ? 1 : ids.get(ids.size() - 1));
+        }
+        if (activeSize > 0 && activeSize + recordSize > storageProperties.getSegmentSize().toBytes()) {
+            int next = activeSegmentId + 1;
+            closeActive();
+            openActive(next);
+        }
+    }
+
+    private void openActive(int segmentId) throws IOException {
+        activeChannel = FileChannel.open(resolveSegment(segmentId),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeSegmentId = segmentId;
+        activeSize = activeChannel.size();
+    }
+
+    private void closeActive() {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            activeChannel.force(true);
+            activeChannel.close();
+        } catch (IOException e) {
+            System.err.println("Gagal menutup segmen " + activeSegmentId + ": " + e.getMessage());
+        }
+        activeChannel = null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.SegmentEntry;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * File yang sudah ditulis ke file sementara dan di-hash dalam satu kali baca,
+ * tetapi belum dipindahkan ke lokasi akhirnya.
+ * Jika belum di-commit melalui {@link FileStorageService#commit(StagedFile)},
+ * {@link #close()} akan menghapus file sementara sehingga tidak ada file setengah jadi yang tertinggal.
+ * Durasi tiap tahap (hash, store, persist) dikumpulkan di sini lalu dicatat oleh {@link PipelineMetrics}.
+ */
+@Getter
+public class StagedFile implements AutoCloseable {
+
+    private final Path tempFile;
+    private final Path destinationFile;
+    // Hanya diisi pada mode content-addressed: lokasi referensi di pohon user/folder
+    private final Path referenceFile;
+    private final String relativePath;
+    private final DocumentHash documentHash;
+    private final String originalFileName;
+    private final long size;
+    // Mode segmented: isi ditambahkan ke file segmen, bukan dipindahkan ke destinationFile
+    private final boolean segmented;
+    private SegmentEntry segmentEntry;
+    private boolean committed;
+    private long hashNanos;
+    private long storeNanos;
+    private long persistNanos;
+
+    StagedFile(Path tempFile, Path destinationFile, Path referenceFile, String relativePath, DocumentHash documentHash,
+               String originalFileName, long size, boolean segmented) {
+        this.tempFile = tempFile;
+        this.destinationFile = destinationFile;
+        this.referenceFile = referenceFile;
+        this.relativePath = relativePath;
+        this.documentHash = documentHash;
+        this.originalFileName = originalFileName;
+        this.size = size;
+        this.segmented = segmented;
+    }
+
+    void markCommitted() {
+        this.committed = true;
+    }
+
+    void markAppended(SegmentEntry segmentEntry) {
+        this.segmentEntry = segmentEntry;
+        this.committed = true;
+    }
+
+    void addHashNanos(long nanos) {
+        this.hashNanos += nanos;
+    }
+
+    void addStoreNanos(long nanos) {
+        this.storeNanos += nanos;
+    }
+
+    void addPersistNanos(long nanos) {
+        this.persistNanos += nanos;
+    }
+
+    /**
+     * Menghapus file sementara jika file belum di-commit ke lokasi akhirnya.
+     */
+    @Override
+    public void close() {
+        if (committed) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            System.err.println("Gagal menghapus file sementara " + tempFile + ": " + e.getMessage());
+        }
+    }
+}
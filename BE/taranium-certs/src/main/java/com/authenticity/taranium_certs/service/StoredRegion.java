@@ -0,0 +1,13 @@
+package com.authenticity.taranium_certs.service;
+
+import java.nio.file.Path;
+
+/**
+ * Lokasi isi satu sertifikat di disk: rentang byte [offset, offset + length) di dalam sebuah file.
+ * Untuk file biasa dan blob content-addressed, offset selalu nol dan length sama dengan ukuran file.
+ * @param file File yang berisi data.
+ * @param offset Posisi byte pertama di dalam file.
+ * @param length Jumlah byte isi sertifikat.
+ */
+public record StoredRegion(Path file, long offset, long length) {
+}
@@ -0,0 +1,324 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.StreamingUploadProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.exception.PipelineOverloadedException;
+import com.authenticity.taranium_certs.exception.StorageException;
+import com.authenticity.taranium_certs.exception.UploadSessionException;
+import com.authenticity.taranium_certs.exception.UploadSessionException.Reason;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Service upload non-blocking untuk endpoint {@code /api/stream}. Body request dibaca dengan Servlet non-blocking I/O
+ * ({@link ReadListener}): container memanggil listener hanya saat ada data di socket, listener membaca selama
+ * {@link ServletInputStream#isReady()} lalu kembali, sehingga upload yang lambat tidak memegang thread selama
+ * menunggu data. Setiap buffer langsung dimasukkan ke digest SHA-256 dan ditulis ke file spool; selama buffer
+ * belum selesai diproses tidak ada data baru yang dibaca, sehingga klien yang lebih cepat dari disk tertahan oleh
+ * flow control TCP (backpressure) tanpa buffer yang tumbuh di memori.
+ * Buffer baca dipakai ulang per thread container, bukan dialokasikan per upload.
+ */
+@Service
+public class StreamingUploadService {
+
+    private static final String SPOOL_PREFIX = "stream-";
+
+    private final FileStorageService fileStorageService;
+    private final HashService hashService;
+    private final CertificateService certificateService;
+    private final StreamingUploadProperties properties;
+    private final PipelineMetrics pipelineMetrics;
+    private final Semaphore slots;
+    private final ThreadLocal<byte[]> buffers;
+
+    public StreamingUploadService(FileStorageService fileStorageService, HashService hashService,
+                                  CertificateService certificateService, StreamingUploadProperties properties,
+                                  PipelineMetrics pipelineMetrics) {
+        this.fileStorageService = fileStorageService;
+        this.hashService = hashService;
+        this.certificateService = certificateService;
+        this.properties = properties;
+        this.pipelineMetrics = pipelineMetrics;
+        this.slots = new Semaphore(properties.getMaxConcurrent());
+        int bufferSize = (int) properties.getBufferSize().toBytes();
+        this.buffers = ThreadLocal.withInitial(() -> new byte[bufferSize]);
+    }
+
+    /**
+     * Menghapus file spool yang tertinggal dari proses sebelumnya (upload yang terputus saat restart).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cleanSpool() {
+        fileStorageService.deleteSpoolFiles(SPOOL_PREFIX);
+    }
+
+    /**
+     * Mengambil satu slot upload dan menyiapkan penerimaan body.
+     * @param endpoint Endpoint yang menerima upload (untuk metrik).
+     * @param store true jika isi file disimpan ke file spool (pendaftaran), false jika hanya di-hash (verifikasi).
+     * @return Transfer yang harus ditutup setelah selesai, termasuk saat gagal.
+     * @throws PipelineOverloadedException jika semua slot upload sedang dipakai.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public Transfer begin(PipelineMetrics.Endpoint endpoint, boolean store) throws NoSuchAlgorithmException {
+        if (!slots.tryAcquire()) {
+            throw new PipelineOverloadedException("Terlalu banyak upload yang sedang berjalan. Coba lagi nanti.");
+        }
+        try {
+            MessageDigest digest = hashService.newSha256Digest();
+            Path spoolFile = null;
+            FileChannel channel = null;
+            if (store) {
+                spoolFile = fileStorageService.createSpoolFile(SPOOL_PREFIX);
+                try {
+                    channel = FileChannel.open(spoolFile, StandardOpenOption.WRITE);
+                } catch (IOException e) {
+                    deleteQuietly(spoolFile);
+                    throw new StorageException("Gagal membuka file spool " + spoolFile, e);
+                }
+            }
+            return new Transfer(endpoint, digest, spoolFile, channel);
+        } catch (NoSuchAlgorithmException | RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Mulai membaca body secara non-blocking. Harus dipanggil setelah request masuk mode asinkron.
+     * Kedua callback dipanggil di thread container, paling banyak salah satunya dan hanya sekali.
+     * @param input Input stream request.
+     * @param transfer Transfer dari {@link #begin}.
+     * @param onComplete Dipanggil setelah seluruh body diterima; hash sudah tersedia di {@link Transfer#getDocumentHash()}.
+     * @param onFailure Dipanggil jika body tidak dapat diterima: {@link UploadSessionException} untuk body kosong
+     *                  atau terlalu besar, {@link StorageException} jika file spool tidak dapat ditulis,
+     *                  atau error I/O dari container (misalnya klien memutus koneksi).
+     */
+    public void receive(ServletInputStream input, Transfer transfer, Runnable onComplete, Consumer<Throwable> onFailure) {
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+                if (transfer.failed) {
+                    return;
+                }
+                byte[] buffer = buffers.get();
+                try {
+                    // Baca hanya selama data sudah tersedia; jika tidak, container memanggil lagi saat data berikutnya tiba
+                    while (input.isReady()) {
+                        int read = input.read(buffer);
+                        if (read == -1) {
+                            return;
+                        }
+                        transfer.write(buffer, read);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    fail(e);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                if (transfer.failed) {
+                    return;
+                }
+                try {
+                    transfer.finish();
+                } catch (RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+                onComplete.run();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                if (!transfer.failed) {
+                    fail(error);
+                }
+            }
+
+            private void fail(Throwable error) {
+                transfer.failed = true;
+                transfer.close();
+                onFailure.accept(error);
+            }
+        });
+    }
+
+    /**
+     * Mendaftarkan file yang sudah diterima lengkap: file spool dipindahkan ke folder tujuan tanpa disalin
+     * dan tanpa di-hash ulang, seperti penyelesaian upload bertahap. Jika hash sudah terdaftar, file spool dibuang.
+     * @param transfer Transfer yang body-nya sudah diterima lengkap.
+     * @param originalFileName Nama asli file.
+     * @param folderName Nama folder tujuan.
+     * @param issuerAddress Alamat MetaMask institusi.
+     * @return Sertifikat yang baru disimpan, atau yang sudah terdaftar untuk hash yang sama.
+     * @throws StorageException jika file tidak dapat dipindahkan.
+     * @throws NoSuchAlgorithmException jika algoritma SHA-256 tidak tersedia.
+     */
+    public CertificateService.Registration register(Transfer transfer, String originalFileName, String folderName,
+                                                    String issuerAddress) throws NoSuchAlgorithmException {
+        DocumentHash documentHash = transfer.getDocumentHash();
+        try {
+            CertificateService.Registration registration = certificateService.registerIfAbsent(documentHash, () -> {
+                StagedFile stagedFile = fileStorageService.adoptFile(transfer.spoolFile, documentHash,
+                        originalFileName, issuerAddress, folderName);
+                // Hash dan penulisan sudah dikerjakan buffer demi buffer selama body diterima
+                stagedFile.addHashNanos(transfer.hashNanos);
+                stagedFile.addStoreNanos(transfer.storeNanos);
+                return stagedFile;
+            }, folderName, issuerAddress);
+            if (registration.isCreated()) {
+                pipelineMetrics.recordRegistration(transfer.endpoint, registration.stagedFile());
+            } else {
+                recordHashed(transfer);
+                pipelineMetrics.recordDuplicate(transfer.endpoint, transfer.size);
+            }
+            return registration;
+        } finally {
+            transfer.close();
+        }
+    }
+
+    /**
+     * Mencatat metrik upload yang hanya di-hash (verifikasi).
+     * @param transfer Transfer yang body-nya sudah diterima lengkap.
+     */
+    public void recordVerification(Transfer transfer) {
+        recordHashed(transfer);
+        pipelineMetrics.recordUploadSize(transfer.endpoint, transfer.size);
+    }
+
+    /**
+     * @return Jumlah upload yang sedang diterima atau diproses.
+     */
+    public int getInFlight() {
+        return properties.getMaxConcurrent() - slots.availablePermits();
+    }
+
+    private void recordHashed(Transfer transfer) {
+        pipelineMetrics.recordStage(transfer.endpoint, PipelineMetrics.Stage.HASH, transfer.hashNanos, transfer.size);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("Gagal menghapus file spool " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * State satu upload. Field yang dapat berubah hanya diubah oleh callback {@link ReadListener},
+     * yang dipanggil container secara berurutan untuk satu request.
+     */
+    public final class Transfer implements AutoCloseable {
+
+        private final PipelineMetrics.Endpoint endpoint;
+        private final MessageDigest digest;
+        private final Path spoolFile;
+        private final FileChannel channel;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean failed;
+        private long size;
+        private long hashNanos;
+        private long storeNanos;
+        private DocumentHash documentHash;
+
+        private Transfer(PipelineMetrics.Endpoint endpoint, MessageDigest digest, Path spoolFile, FileChannel channel) {
+            this.endpoint = endpoint;
+            this.digest = digest;
+            this.spoolFile = spoolFile;
+            this.channel = channel;
+        }
+
+        private void write(byte[] buffer, int length) {
+            size += length;
+            if (size > properties.getMaxFileSize().toBytes()) {
+                throw new UploadSessionException(Reason.TOO_LARGE,
+                        "Ukuran file melebihi batas " + properties.getMaxFileSize().toMegabytes() + " MB.");
+            }
+            long started = System.nanoTime();
+            digest.update(buffer, 0, length);
+            long hashed = System.nanoTime();
+            hashNanos += hashed - started;
+            if (channel != null) {
+                // Ditulis ke page cache; selesai sebelum buffer berikutnya dibaca dari socket
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, length);
+                try {
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                } catch (IOException e) {
+                    throw new StorageException("Gagal menulis file spool " + spoolFile + ": " + e.getMessage(), e);
+                }
+                storeNanos += System.nanoTime() - hashed;
+            }
+        }
+
+        private void finish() {
+            if (size == 0) {
+                throw new UploadSessionException(Reason.INVALID, "File tidak boleh kosong!");
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new StorageException("Gagal menutup file spool " + spoolFile + ": " + e.getMessage(), e);
+                }
+            }
+            documentHash = hashService.finish(digest);
+        }
+
+        /**
+         * @return Hash SHA-256 body, setelah seluruh body diterima.
+         */
+        public DocumentHash getDocumentHash() {
+            return documentHash;
+        }
+
+        /**
+         * @return Jumlah byte body yang sudah diterima.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Melepas slot upload dan membuang file spool yang belum dipindahkan. Menutup lebih dari sekali tidak berpengaruh.
+         */
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                System.err.println("Gagal menutup file spool " + spoolFile + ": " + e.getMessage());
+            } finally {
+                if (spoolFile != null) {
+                    deleteQuietly(spoolFile);
+                }
+                slots.release();
+            }
+        }
+    }
+}
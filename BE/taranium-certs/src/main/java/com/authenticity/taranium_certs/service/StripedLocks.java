@@ -0,0 +1,35 @@
+package com.authenticity.taranium_certs.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Kunci bergaris (striped): sejumlah tetap ReentrantLock yang dipilih dari hashCode kunci.
+ * Kunci yang sama selalu mendapat lock yang sama, sedangkan kunci berbeda hampir selalu mendapat lock berbeda,
+ * tanpa menyimpan satu lock per kunci di memori.
+ */
+class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes Jumlah lock; dibulatkan ke atas menjadi pangkat dua.
+     */
+    StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param key Kunci, misalnya hash dokumen.
+     * @return Lock untuk kunci tersebut.
+     */
+    ReentrantLock lockFor(Object key) {
+        int h = key.hashCode();
+        return locks[(h ^ (h >>> 16)) & mask];
+    }
+}
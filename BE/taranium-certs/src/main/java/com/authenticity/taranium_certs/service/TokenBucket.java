@@ -0,0 +1,72 @@
+package com.authenticity.taranium_certs.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket tanpa kunci dalam bentuk GCRA (generic cell rate algorithm): seluruh state adalah satu
+ * {@link AtomicLong} berisi waktu (nanoTime) saat bucket kembali penuh, diperbarui dengan compare-and-set.
+ * Berbeda dengan {@link BandwidthThrottle}, pemanggil tidak ditidurkan: jika token kurang, lama tunggu
+ * dikembalikan agar request bisa ditolak dengan Retry-After.
+ */
+class TokenBucket {
+
+    private final double nanosPerToken;
+    private final long burstNanos;
+    // Waktu saat semua token sudah terisi kembali; nilai <= sekarang berarti bucket penuh
+    private final AtomicLong fullAt;
+
+    /**
+     * @param tokensPerSecond Laju pengisian token; harus positif.
+     * @param burst Kapasitas bucket (token).
+     * @param now Waktu sekarang (System.nanoTime); bucket dimulai dalam keadaan penuh.
+     */
+    TokenBucket(double tokensPerSecond, long burst, long now) {
+        this.nanosPerToken = 1e9 / tokensPerSecond;
+        this.burstNanos = nanosFor(Math.max(1, burst));
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Mengambil sejumlah token jika tersedia.
+     * Permintaan yang lebih besar dari kapasitas bucket tetap dilayani saat bucket penuh; kekurangannya
+     * menjadi utang yang harus dibayar oleh permintaan berikutnya.
+     * @param tokens Jumlah token.
+     * @param now Waktu sekarang (System.nanoTime).
+     * @return 0 jika token diambil, atau lama tunggu (nanodetik) sampai token cukup.
+     */
+    long tryAcquire(long tokens, long now) {
+        long cost = nanosFor(tokens);
+        long required = Math.min(cost, burstNanos);
+        while (true) {
+            long current = fullAt.get();
+            long backlog = Math.max(0, current - now);
+            long wait = backlog + required - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, now + backlog + cost)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Mengembalikan token yang sudah diambil, misalnya jika request ditolak oleh batas lain.
+     * @param tokens Jumlah token dari {@link #tryAcquire}.
+     */
+    void refund(long tokens) {
+        fullAt.addAndGet(-nanosFor(tokens));
+    }
+
+    /**
+     * @param now Waktu sekarang (System.nanoTime).
+     * @return true jika bucket sudah penuh kembali, sehingga state-nya boleh dibuang tanpa mengubah perilaku.
+     */
+    boolean isFull(long now) {
+        return fullAt.get() - now <= 0;
+    }
+
+    private long nanosFor(long tokens) {
+        return (long) Math.ceil(tokens * nanosPerToken);
+    }
+}
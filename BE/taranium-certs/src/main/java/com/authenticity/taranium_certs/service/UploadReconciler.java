@@ -0,0 +1,468 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ReconcileProperties;
+import com.authenticity.taranium_certs.dto.CertificateSummary;
+import com.authenticity.taranium_certs.dto.ReconcileReport;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Rekonsiliasi pohon direktori upload (user/folder/file) dengan tabel certificates.
+ * Dijalankan di latar belakang setelah aplikasi siap, sehingga request sudah dilayani selama rekonsiliasi berjalan.
+ *
+ * File dipindai per potongan (app.reconcile.batch-size) oleh worker pool berukuran tetap. Pada mode path,
+ * file yang localFilePath-nya sudah tercatat dicocokkan dengan satu query per potongan tanpa dibaca sama sekali;
+ * hanya file tanpa baris yang di-hash ulang. Pada mode content-addressed, file di folder adalah hard link ke blob
+ * yang baru diketahui dari hash-nya, sehingga semua file di-hash. File tanpa baris didaftarkan kembali dengan
+ * satu JDBC batch per potongan, lalu baris yang file-nya sudah hilang dilaporkan sebagai drift.
+ */
+@Service
+public class UploadReconciler {
+
+    private record Candidate(String issuerAddress, String folderName, Path file) {
+    }
+
+    private record FolderKey(String issuerAddress, String folderName) {
+    }
+
+    private record HashedFile(Candidate candidate, DocumentHash documentHash, String localFilePath, long size,
+                              LocalDateTime lastModified) {
+    }
+
+    private final ReconcileProperties reconcileProperties;
+    private final FileStorageService fileStorageService;
+    private final HashService hashService;
+    private final CertificateRepository certificateRepository;
+    private final FolderCatalogService folderCatalogService;
+    private final CertificateSearchIndex certificateSearchIndex;
+    private final HashMembershipIndex hashMembershipIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Run currentRun;
+
+    public UploadReconciler(ReconcileProperties reconcileProperties, FileStorageService fileStorageService,
+                            HashService hashService, CertificateRepository certificateRepository,
+                            FolderCatalogService folderCatalogService,
+                            CertificateSearchIndex certificateSearchIndex, HashMembershipIndex hashMembershipIndex,
+                            PlatformTransactionManager transactionManager) {
+        this.reconcileProperties = reconcileProperties;
+        this.fileStorageService = fileStorageService;
+        this.hashService = hashService;
+        this.certificateRepository = certificateRepository;
+        this.folderCatalogService = folderCatalogService;
+        this.certificateSearchIndex = certificateSearchIndex;
+        this.hashMembershipIndex = hashMembershipIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Memulai rekonsiliasi di latar belakang setelah aplikasi siap menerima request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (reconcileProperties.isEnabled()) {
+            startAsync();
+        }
+    }
+
+    /**
+     * Memulai rekonsiliasi di thread latar belakang.
+     * @return false jika rekonsiliasi lain masih berjalan.
+     */
+    public boolean startAsync() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                runReconcile();
+            } finally {
+                running.set(false);
+            }
+        }, "upload-reconciler");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Menjalankan rekonsiliasi di thread pemanggil dan menunggu sampai selesai.
+     * @return Laporan rekonsiliasi.
+     * @throws IllegalStateException jika rekonsiliasi lain masih berjalan.
+     */
+    public ReconcileReport reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Rekonsiliasi sedang berjalan.");
+        }
+        try {
+            return runReconcile();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return true selama rekonsiliasi berjalan (lookup hash untuk file yang belum direkonsiliasi bisa belum ditemukan).
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * @return Laporan rekonsiliasi terakhir atau yang sedang berjalan.
+     */
+    public ReconcileReport getReport() {
+        Run run = currentRun;
+        if (run == null) {
+            return ReconcileReport.builder().status("IDLE").message("Rekonsiliasi belum pernah dijalankan.").build();
+        }
+        return run.toReport();
+    }
+
+    private ReconcileReport runReconcile() {
+        Run run = new Run(reconcileProperties.getSampleSize());
+        currentRun = run;
+        int parallelism = Math.max(1, reconcileProperties.getParallelism());
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, reconcileProperties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upload-reconciler-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Antrean penuh: thread pemindai ikut memproses potongan, sehingga memori tetap terbatas
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            awaitAll(scanUploadTree(run, executor));
+            if (reconcileProperties.isCheckRows()) {
+                awaitAll(checkRows(run, executor));
+            }
+            run.finish("COMPLETED", null);
+        } catch (Exception e) {
+            run.finish("FAILED", e.getMessage());
+            System.err.println("Rekonsiliasi direktori upload gagal: " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ReconcileReport report = run.toReport();
+        System.out.printf("Rekonsiliasi direktori upload %s dalam %d ms: %d file dipindai (%.0f file/detik), %d cocok tanpa hashing, " +
+                        "%d di-hash, %d baris ditambahkan, %d duplikat, %d baris tanpa file, %d error.%n",
+                report.getStatus(), report.getDurationMillis(), report.getFilesScanned(), report.getFilesPerSecond(),
+                report.getFilesMatchedByPath(), report.getFilesHashed(), report.getRowsInserted(), report.getDuplicateFiles(),
+                report.getRowsWithoutFiles(), report.getErrors());
+        return report;
+    }
+
+    private List<Future<?>> scanUploadTree(Run run, ThreadPoolExecutor executor) throws IOException {
+        List<Future<?>> futures = new ArrayList<>();
+        Path root = fileStorageService.getRootLocation();
+        if (!Files.isDirectory(root)) {
+            return futures;
+        }
+        int batchSize = Math.max(1, reconcileProperties.getBatchSize());
+        List<Candidate> chunk = new ArrayList<>(batchSize);
+        try (DirectoryStream<Path> userDirs = Files.newDirectoryStream(root, UploadReconciler::isVisibleDirectory)) {
+            for (Path userDir : userDirs) {
+                try (DirectoryStream<Path> folderDirs = Files.newDirectoryStream(userDir, UploadReconciler::isVisibleDirectory)) {
+                    for (Path folderDir : folderDirs) {
+                        // Pemindai hanya membaca isi direktori; stat dan hashing dikerjakan worker
+                        try (DirectoryStream<Path> files = Files.newDirectoryStream(folderDir)) {
+                            for (Path file : files) {
+                                String name = file.getFileName().toString();
+                                if (name.startsWith(".") || fileStorageService.isTemporaryFile(name)) {
+                                    continue;
+                                }
+                                run.filesScanned.incrementAndGet();
+                                chunk.add(new Candidate(userDir.getFileName().toString(), folderDir.getFileName().toString(), file));
+                                if (chunk.size() == batchSize) {
+                                    List<Candidate> full = chunk;
+                                    futures.add(executor.submit(() -> processChunk(run, full)));
+                                    chunk = new ArrayList<>(batchSize);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            List<Candidate> last = chunk;
+            futures.add(executor.submit(() -> processChunk(run, last)));
+        }
+        return futures;
+    }
+
+    private void processChunk(Run run, List<Candidate> chunk) {
+        List<Candidate> toHash = chunk;
+        if (!fileStorageService.isContentAddressed()) {
+            Map<String, Candidate> byPath = new LinkedHashMap<>();
+            chunk.forEach(candidate -> byPath.put(fileStorageService.relativize(candidate.file()), candidate));
+            Set<String> known = new HashSet<>(certificateRepository.findExistingLocalFilePaths(byPath.keySet()));
+            run.filesMatchedByPath.addAndGet(known.size());
+            toHash = byPath.entrySet().stream().filter(entry -> !known.contains(entry.getKey())).map(Map.Entry::getValue).toList();
+        }
+
+        List<HashedFile> hashed = new ArrayList<>(toHash.size());
+        for (Candidate candidate : toHash) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(candidate.file(), BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                DocumentHash documentHash = hashService.calculateSha256Hash(candidate.file());
+                run.filesHashed.incrementAndGet();
+                run.bytesHashed.addAndGet(attributes.size());
+                Path stored = fileStorageService.isContentAddressed() ? fileStorageService.resolveBlob(documentHash) : candidate.file();
+                hashed.add(new HashedFile(candidate, documentHash, fileStorageService.relativize(stored),
+                        attributes.size(), LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneId.systemDefault())));
+            } catch (IOException | NoSuchAlgorithmException e) {
+                run.error(fileStorageService.relativize(candidate.file()) + ": " + e.getMessage());
+            }
+        }
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        Set<DocumentHash> registered = new HashSet<>(certificateRepository.findExistingDocumentHashes(
+                hashed.stream().map(HashedFile::documentHash).toList()));
+        List<HashedFile> missing = new ArrayList<>();
+        for (HashedFile file : hashed) {
+            if (fileStorageService.isContentAddressed() && registered.contains(file.documentHash())) {
+                // Hard link ke blob yang sudah terdaftar
+                run.filesMatchedByPath.incrementAndGet();
+            } else if (!registered.add(file.documentHash())) {
+                // Isi yang sama sudah terdaftar dengan path lain (atau muncul dua kali di potongan ini)
+                run.duplicate(fileStorageService.relativize(file.candidate().file()));
+            } else {
+                missing.add(file);
+            }
+        }
+        insertMissing(run, missing);
+    }
+
+    private void insertMissing(Run run, List<HashedFile> missing) {
+        if (missing.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                missing.forEach(this::insertRow);
+                recordUploads(missing);
+            });
+            missing.forEach(file -> run.inserted(file.localFilePath()));
+        } catch (DataAccessException e) {
+            // Satu baris bentrok (misalnya hash yang sama didaftarkan bersamaan): ulangi per file
+            for (HashedFile file : missing) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        insertRow(file);
+                        recordUploads(List.of(file));
+                    });
+                    run.inserted(file.localFilePath());
+                } catch (DataIntegrityViolationException duplicate) {
+                    run.duplicate(fileStorageService.relativize(file.candidate().file()));
+                } catch (DataAccessException error) {
+                    run.error(file.localFilePath() + ": " + error.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Memperbarui katalog folder di transaksi yang sama dengan insert baris, satu update per (issuer, folder),
+     * sama seperti registrasi biasa. Katalog tidak dibangun ulang karena registrasi tetap dilayani selama rekonsiliasi.
+     */
+    private void recordUploads(List<HashedFile> files) {
+        Map<FolderKey, List<HashedFile>> byFolder = files.stream().collect(Collectors.groupingBy(
+                file -> new FolderKey(file.candidate().issuerAddress(), file.candidate().folderName()),
+                LinkedHashMap::new, Collectors.toList()));
+        byFolder.forEach((folder, group) -> folderCatalogService.recordUploads(folder.issuerAddress(), folder.folderName(),
+                group.size(), group.stream().mapToLong(HashedFile::size).sum(),
+                group.stream().map(HashedFile::lastModified).max(LocalDateTime::compareTo).orElse(LocalDateTime.now())));
+    }
+
+    private void insertRow(HashedFile file) {
+        Candidate candidate = file.candidate();
+        Certificate certificate = new Certificate(file.documentHash(), candidate.file().getFileName().toString(),
+                file.localFilePath(), candidate.folderName(), candidate.issuerAddress());
+        certificate.setUploadTimestamp(file.lastModified());
+        certificateRepository.save(certificate);
+        hashMembershipIndex.add(certificate.getDocumentHash());
+        certificateSearchIndex.add(certificate);
+    }
+
+    private List<Future<?>> checkRows(Run run, ThreadPoolExecutor executor) {
+        List<Future<?>> futures = new ArrayList<>();
+        int batchSize = Math.max(1, reconcileProperties.getBatchSize());
+        long afterId = 0;
+        while (true) {
+            List<CertificateSummary> page = certificateRepository.findSummariesAfter(afterId, Limit.of(batchSize));
+            if (page.isEmpty()) {
+                return futures;
+            }
+            afterId = page.get(page.size() - 1).getId();
+            futures.add(executor.submit(() -> {
+                // Isi di file segmen diperiksa lewat indeks segmen, satu query per halaman
+                Set<DocumentHash> segmented = fileStorageService.findSegmentedHashes(page.stream()
+                        .filter(row -> fileStorageService.isSegmentPath(row.getLocalFilePath()))
+                        .map(CertificateSummary::getDocumentHash)
+                        .toList());
+                for (CertificateSummary row : page) {
+                    run.rowsChecked.incrementAndGet();
+                    boolean stored = fileStorageService.isSegmentPath(row.getLocalFilePath())
+                            ? segmented.contains(row.getDocumentHash())
+                            : Files.exists(fileStorageService.resolveStored(row.getLocalFilePath()));
+                    if (!stored) {
+                        run.rowWithoutFile(row.getLocalFilePath());
+                    }
+                }
+            }));
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static boolean isVisibleDirectory(Path path) {
+        return !path.getFileName().toString().startsWith(".") && Files.isDirectory(path);
+    }
+
+    /**
+     * Penghitung satu kali rekonsiliasi; dibaca oleh endpoint status selama rekonsiliasi masih berjalan.
+     */
+    private static final class Run {
+
+        private final int sampleSize;
+        private final Instant startedAt = Instant.now();
+        private volatile Instant finishedAt;
+        private volatile String status = "RUNNING";
+        private volatile String message;
+
+        private final AtomicLong filesScanned = new AtomicLong();
+        private final AtomicLong filesMatchedByPath = new AtomicLong();
+        private final AtomicLong filesHashed = new AtomicLong();
+        private final AtomicLong bytesHashed = new AtomicLong();
+        private final AtomicLong rowsInserted = new AtomicLong();
+        private final AtomicLong duplicateFiles = new AtomicLong();
+        private final AtomicLong rowsChecked = new AtomicLong();
+        private final AtomicLong rowsWithoutFiles = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        private final List<String> insertedSamples = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> duplicateSamples = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> rowsWithoutFileSamples = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> errorSamples = Collections.synchronizedList(new ArrayList<>());
+
+        private Run(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        private void inserted(String path) {
+            rowsInserted.incrementAndGet();
+            sample(insertedSamples, path);
+        }
+
+        private void duplicate(String path) {
+            duplicateFiles.incrementAndGet();
+            sample(duplicateSamples, path);
+        }
+
+        private void rowWithoutFile(String path) {
+            rowsWithoutFiles.incrementAndGet();
+            sample(rowsWithoutFileSamples, path);
+        }
+
+        private void error(String detail) {
+            errors.incrementAndGet();
+            sample(errorSamples, detail);
+        }
+
+        private void sample(List<String> samples, String value) {
+            synchronized (samples) {
+                if (samples.size() < sampleSize) {
+                    samples.add(value);
+                }
+            }
+        }
+
+        private void finish(String status, String message) {
+            this.finishedAt = Instant.now();
+            this.message = message;
+            this.status = status;
+        }
+
+        private static List<String> copy(List<String> samples) {
+            synchronized (samples) {
+                return List.copyOf(samples);
+            }
+        }
+
+        private ReconcileReport toReport() {
+            Instant end = finishedAt == null ? Instant.now() : finishedAt;
+            long durationMillis = Duration.between(startedAt, end).toMillis();
+            return ReconcileReport.builder()
+                    .status(status)
+                    .startedAt(startedAt.toString())
+                    .finishedAt(finishedAt == null ? null : finishedAt.toString())
+                    .durationMillis(durationMillis)
+                    .filesScanned(filesScanned.get())
+                    .filesMatchedByPath(filesMatchedByPath.get())
+                    .filesHashed(filesHashed.get())
+                    .bytesHashed(bytesHashed.get())
+                    .rowsInserted(rowsInserted.get())
+                    .duplicateFiles(duplicateFiles.get())
+                    .rowsChecked(rowsChecked.get())
+                    .rowsWithoutFiles(rowsWithoutFiles.get())
+                    .errors(errors.get())
+                    .filesPerSecond(durationMillis == 0 ? 0 : filesScanned.get() * 1000.0 / durationMillis)
+                    .insertedSamples(copy(insertedSamples))
+                    .duplicateSamples(copy(duplicateSamples))
+                    .rowsWithoutFileSamples(copy(rowsWithoutFileSamples))
+                    .errorSamples(copy(errorSamples))
+                    .message(message)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.authenticity.taranium_certs.config;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentHashColumnMigrationTests {
+
+	private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+	@Test
+	void convertsLegacyHexColumnsInPlaceAndKeepsUniqueness() throws Exception {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:legacy-hash;DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		// Skema yang dibuat ddl-auto oleh versi sebelumnya
+		jdbc.execute("create table certificates (id bigint primary key, document_hash varchar(64) not null unique)");
+		jdbc.execute("create table chain_registrations (document_hash varchar(64) primary key, block_number bigint not null)");
+		jdbc.update("insert into certificates values (1, ?)", HASH);
+		jdbc.update("insert into chain_registrations values (?, 5)", HASH);
+
+		DocumentHashColumnMigration migration = new DocumentHashColumnMigration(dataSource);
+		migration.afterPropertiesSet();
+		// Dijalankan lagi saat startup berikutnya: tidak melakukan apa-apa
+		migration.afterPropertiesSet();
+
+		assertEquals("BINARY", jdbc.queryForObject("select DATA_TYPE from INFORMATION_SCHEMA.COLUMNS " +
+				"where TABLE_NAME = 'CERTIFICATES' and COLUMN_NAME = 'DOCUMENT_HASH'", String.class));
+		byte[] stored = jdbc.queryForObject("select document_hash from certificates where id = 1", byte[].class);
+		assertEquals(DocumentHash.fromHex(HASH), DocumentHash.of(stored));
+		assertEquals(5L, jdbc.queryForObject("select block_number from chain_registrations where document_hash = ?",
+				Long.class, (Object) DocumentHash.fromHex(HASH).toBytes()));
+		assertThrows(DataIntegrityViolationException.class,
+				() -> jdbc.update("insert into certificates values (2, ?)", (Object) DocumentHash.fromHex(HASH).toBytes()));
+	}
+}
@@ -0,0 +1,120 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.service.CertificateService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AsyncRegistrationControllerTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("async-register-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:asyncregistertest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+	}
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	void acceptsUploadAndCompletesJobInBackground() throws Exception {
+		JsonNode accepted = submit("ijazah.pdf", "%PDF-1.7 sertifikat asinkron");
+		String jobId = accepted.get("jobId").asText();
+
+		JsonNode job = awaitFinished(jobId);
+		assertThat(job.get("status").asText()).isEqualTo("COMPLETED");
+		DocumentHash hash = DocumentHash.fromHex(job.get("documentHash").asText());
+		assertThat(certificateService.isRegistered(hash)).isTrue();
+		assertThat(UPLOAD_DIR.resolve(job.get("localFilePath").asText())).hasContent("%PDF-1.7 sertifikat asinkron");
+		try (var spool = Files.list(UPLOAD_DIR.resolve(".spool"))) {
+			assertThat(spool).isEmpty();
+		}
+
+		// Job yang sudah selesai: event terakhir langsung dikirim lalu aliran ditutup
+		mockMvc.perform(get("/api/register/jobs/{id}/events", jobId))
+				.andExpect(status().isOk())
+				.andExpect(content().string(org.hamcrest.Matchers.containsString("\"status\":\"COMPLETED\"")));
+	}
+
+	@Test
+	void returnsExistingCertificateForAlreadyRegisteredHash() throws Exception {
+		JsonNode first = awaitFinished(submit("a.pdf", "isi ganda").get("jobId").asText());
+		JsonNode duplicate = awaitFinished(submit("b.pdf", "isi ganda").get("jobId").asText());
+		assertThat(duplicate.get("status").asText()).isEqualTo("ALREADY_REGISTERED");
+		assertThat(duplicate.get("documentHash").asText()).isEqualTo(first.get("documentHash").asText());
+		assertThat(duplicate.get("localFilePath").asText()).isEqualTo(first.get("localFilePath").asText());
+	}
+
+	@Test
+	void returnsNotFoundForUnknownJob() throws Exception {
+		mockMvc.perform(get("/api/register/jobs/{id}", "tidak-ada")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/register/jobs/{id}/events", "tidak-ada")).andExpect(status().isNotFound());
+	}
+
+	private JsonNode submit(String fileName, String content) throws Exception {
+		MockMultipartFile file = new MockMultipartFile("file", fileName, "application/pdf",
+				content.getBytes(StandardCharsets.UTF_8));
+		String body = mockMvc.perform(multipart("/api/register/async").file(file)
+						.param("folderName", "Wisuda")
+						.param("issuerAddress", ISSUER))
+				.andExpect(status().isAccepted())
+				.andExpect(header().exists(HttpHeaders.LOCATION))
+				.andExpect(jsonPath("$.status").value("QUEUED"))
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+	private JsonNode awaitFinished(String jobId) throws Exception {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (true) {
+			String body = mockMvc.perform(get("/api/register/jobs/{id}", jobId))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+			JsonNode job = objectMapper.readTree(body);
+			String status = job.get("status").asText();
+			if (status.equals("COMPLETED") || status.equals("FAILED") || status.equals("ALREADY_REGISTERED") || System.currentTimeMillis() > deadline) {
+				return job;
+			}
+			Thread.sleep(20);
+		}
+	}
+}
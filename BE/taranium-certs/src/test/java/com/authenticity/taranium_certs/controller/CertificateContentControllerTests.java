@@ -0,0 +1,111 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.service.CertificateService;
+import com.authenticity.taranium_certs.service.FileStorageService;
+import com.authenticity.taranium_certs.service.StagedFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CertificateContentControllerTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final String CONTENT = "%PDF-1.7 isi sertifikat";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("content-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:contenttest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+	}
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	CertificateService certificateService;
+
+	private DocumentHash hash;
+
+	@BeforeEach
+	void register() throws Exception {
+		try (StagedFile staged = fileStorageService.stageFile(
+				new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)), "ijazah.pdf", ISSUER, "Wisuda")) {
+			hash = staged.getDocumentHash();
+			if (!certificateService.isRegistered(hash)) {
+				certificateService.registerCertificate(staged, "Wisuda", ISSUER);
+			}
+		}
+	}
+
+	@Test
+	void servesFullContentWithImmutableCachingHeaders() throws Exception {
+		mockMvc.perform(get("/api/certificates/{hash}/content", hash))
+				.andExpect(status().isOk())
+				.andExpect(content().string(CONTENT))
+				.andExpect(content().contentType("application/pdf"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable"))
+				.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+				.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()));
+	}
+
+	@Test
+	void answersConditionalAndRangeRequests() throws Exception {
+		mockMvc.perform(get("/api/certificates/{hash}/content", hash).header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		mockMvc.perform(get("/api/certificates/{hash}/content", hash).header(HttpHeaders.RANGE, "bytes=0-7"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().string("%PDF-1.7"))
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-7/" + CONTENT.length()));
+
+		mockMvc.perform(get("/api/certificates/{hash}/content", hash).header(HttpHeaders.RANGE, "bytes=-10"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().string(CONTENT.substring(CONTENT.length() - 10)));
+
+		// If-Range dengan ETag lain: rentang diabaikan dan isi lengkap dikirim
+		mockMvc.perform(get("/api/certificates/{hash}/content", hash)
+						.header(HttpHeaders.RANGE, "bytes=0-7").header(HttpHeaders.IF_RANGE, "\"lain\""))
+				.andExpect(status().isOk())
+				.andExpect(content().string(CONTENT));
+
+		mockMvc.perform(get("/api/certificates/{hash}/content", hash).header(HttpHeaders.RANGE, "bytes=1000-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length()));
+
+		mockMvc.perform(get("/api/certificates/{hash}/content", "0".repeat(64)))
+				.andExpect(status().isNotFound());
+	}
+}
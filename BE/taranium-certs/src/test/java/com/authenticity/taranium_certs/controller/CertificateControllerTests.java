@@ -0,0 +1,153 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CertificateControllerTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final byte[] CONTENT = "%PDF-1.7 sertifikat negosiasi hash".getBytes(StandardCharsets.UTF_8);
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("hash-negotiation-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:hashnegotiationtest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.bulk-verify.in-memory-threshold", () -> "1KB");
+	}
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	void skipsUploadForKnownHash() throws Exception {
+		String hash = DocumentHash.of(MessageDigest.getInstance("SHA-256").digest(CONTENT)).toHex();
+		String unknown = "ab".repeat(32);
+
+		// Sebelum upload: hash belum dikenal, klien harus mengunggah file
+		mockMvc.perform(head("/api/certificates/{hash}", hash)).andExpect(status().isNotFound());
+
+		mockMvc.perform(multipart("/api/register")
+						.file(new MockMultipartFile("file", "ijazah.pdf", "application/pdf", CONTENT))
+						.param("folderName", "Wisuda")
+						.param("issuerAddress", ISSUER))
+				.andExpect(status().isCreated());
+
+		mockMvc.perform(head("/api/certificates/{hash}", hash)).andExpect(status().isOk());
+		mockMvc.perform(get("/api/certificates/{hash}", hash))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.documentHash").value(hash))
+				.andExpect(jsonPath("$.folderName").value("Wisuda"))
+				.andExpect(jsonPath("$.localFilePath").doesNotExist());
+		mockMvc.perform(get("/api/certificates/{hash}", unknown)).andExpect(status().isNotFound());
+		mockMvc.perform(get("/api/certificates/{hash}", "bukan-hash")).andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/api/verify/{hash}", hash))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.documentHash").value(hash));
+		mockMvc.perform(get("/api/verify/{hash}", "bukan-hash")).andExpect(status().isBadRequest());
+
+		assertThat(meterRegistry.get("certs.pipeline.uploads.skipped").tag("endpoint", "verify").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void verifiesEveryArchiveEntryAsOneNdjsonLine() throws Exception {
+		byte[] registered = "%PDF-1.7 sertifikat arsip terdaftar".getBytes(StandardCharsets.UTF_8);
+		byte[] unregistered = "%PDF-1.7 sertifikat arsip asing".getBytes(StandardCharsets.UTF_8);
+		// Di atas in-memory-threshold (1KB): di-hash langsung dari stream ZIP
+		byte[] oversized = new byte[5_000];
+		for (int i = 0; i < oversized.length; i++) {
+			oversized[i] = (byte) (i * 7);
+		}
+		byte[] oversizedRegistered = oversized.clone();
+		oversizedRegistered[0] = 1;
+
+		for (byte[] content : new byte[][] {registered, oversizedRegistered}) {
+			mockMvc.perform(multipart("/api/register")
+							.file(new MockMultipartFile("file", "arsip.pdf", "application/pdf", content))
+							.param("folderName", "Arsip")
+							.param("issuerAddress", ISSUER))
+					.andExpect(status().isCreated());
+		}
+
+		ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+			zip.putNextEntry(new ZipEntry("folder/"));
+			zip.closeEntry();
+			for (Map.Entry<String, byte[]> entry : Map.of(
+					"folder/terdaftar.pdf", registered,
+					"asing.pdf", unregistered,
+					"besar.pdf", oversized,
+					"besar-terdaftar.pdf", oversizedRegistered).entrySet()) {
+				zip.putNextEntry(new ZipEntry(entry.getKey()));
+				zip.write(entry.getValue());
+				zip.closeEntry();
+			}
+		}
+
+		MvcResult started = mockMvc.perform(multipart("/api/verify/bulk")
+						.file(new MockMultipartFile("archive", "sertifikat.zip", "application/zip", archive.toByteArray())))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+		// Urutan baris tidak dijamin: kelompokkan per nama entri
+		Map<String, JsonNode> lines = new HashMap<>();
+		for (String line : started.getResponse().getContentAsString().split("\n")) {
+			JsonNode result = objectMapper.readTree(line);
+			assertThat(lines.put(result.get("entryName").asText(), result)).isNull();
+		}
+		assertThat(lines).containsOnlyKeys("folder/terdaftar.pdf", "asing.pdf", "besar.pdf", "besar-terdaftar.pdf");
+		assertThat(lines.get("folder/terdaftar.pdf").get("known").asBoolean()).isTrue();
+		assertThat(lines.get("asing.pdf").get("known").asBoolean()).isFalse();
+		assertThat(lines.get("besar.pdf").get("known").asBoolean()).isFalse();
+		assertThat(lines.get("besar.pdf").get("size").asLong()).isEqualTo(oversized.length);
+		assertThat(lines.get("besar.pdf").get("documentHash").asText())
+				.isEqualTo(DocumentHash.of(MessageDigest.getInstance("SHA-256").digest(oversized)).toHex());
+		assertThat(lines.get("besar-terdaftar.pdf").get("known").asBoolean()).isTrue();
+		assertThat(lines.values()).allSatisfy(result -> assertThat(result.get("error").isNull()).isTrue());
+	}
+}
@@ -0,0 +1,72 @@
+package com.authenticity.taranium_certs.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PipelineMetricsTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("pipeline-metrics-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:pipelinemetricstest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+	}
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Test
+	void exposesStageTimersUploadSizeAndRepositoryLatency() throws Exception {
+		byte[] content = "%PDF-1.7 sertifikat metrik".getBytes(StandardCharsets.UTF_8);
+		mockMvc.perform(multipart("/api/register")
+						.file(new MockMultipartFile("file", "ijazah.pdf", "application/pdf", content))
+						.param("folderName", "wisuda-2024")
+						.param("issuerAddress", ISSUER))
+				.andExpect(status().isCreated());
+
+		String scrape = mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		for (String stage : new String[]{"hash", "store", "persist"}) {
+			assertThat(scrape).containsPattern(
+					"certs_pipeline_stage_seconds_count\\{[^}]*endpoint=\"register\"[^}]*stage=\"" + stage + "\"[^}]*} 1");
+		}
+		assertThat(scrape).containsPattern("certs_pipeline_bytes_total\\{[^}]*stage=\"hash\"[^}]*} " + content.length);
+		assertThat(scrape).containsPattern("certs_upload_size_bytes_count\\{[^}]*endpoint=\"register\"[^}]*} 1");
+		assertThat(scrape).containsPattern("spring_data_repository_invocations_seconds_count\\{[^}]*method=\"saveAndFlush\"");
+		// Alamat issuer tidak pernah menjadi tag
+		assertThat(scrape).doesNotContain(ISSUER);
+	}
+}
@@ -0,0 +1,138 @@
+package com.authenticity.taranium_certs.controller;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.service.CertificateService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StreamingCertificateControllerTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("streaming-upload-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:streaminguploadtest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.streaming-upload.max-file-size", () -> "64KB");
+		registry.add("app.streaming-upload.buffer-size", () -> "1KB");
+	}
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+
+	@Test
+	void registersAndVerifiesSlowChunkedBody() throws Exception {
+		byte[] content = new byte[20_000];
+		for (int i = 0; i < content.length; i++) {
+			content[i] = (byte) (i * 31);
+		}
+		String expectedHash = DocumentHash.of(MessageDigest.getInstance("SHA-256").digest(content)).toHex();
+
+		// Tanpa Content-Length (chunked) dan dikirim sedikit demi sedikit: listener dipanggil berkali-kali
+		HttpResponse<String> created = post("/api/stream/register?originalFileName=ijazah.pdf&folderName=Wisuda&issuerAddress=" + ISSUER,
+				HttpRequest.BodyPublishers.ofInputStream(() -> new SlowInputStream(content, 4096)));
+		assertThat(created.statusCode()).isEqualTo(201);
+		JsonNode certificate = objectMapper.readTree(created.body());
+		assertThat(certificate.get("documentHash").asText()).isEqualTo(expectedHash);
+		assertThat(certificateService.isRegistered(DocumentHash.fromHex(expectedHash))).isTrue();
+		assertThat(UPLOAD_DIR.resolve(certificate.get("localFilePath").asText())).hasBinaryContent(content);
+
+		HttpResponse<String> duplicate = post("/api/stream/register?originalFileName=salinan.pdf&folderName=Wisuda&issuerAddress=" + ISSUER,
+				HttpRequest.BodyPublishers.ofByteArray(content));
+		assertThat(duplicate.statusCode()).isEqualTo(200);
+		assertThat(objectMapper.readTree(duplicate.body()).get("alreadyRegistered").asBoolean()).isTrue();
+
+		HttpResponse<String> verified = post("/api/stream/verify",
+				HttpRequest.BodyPublishers.ofInputStream(() -> new SlowInputStream(content, 3000)));
+		assertThat(verified.statusCode()).isEqualTo(200);
+		assertThat(objectMapper.readTree(verified.body()).get("documentHash").asText()).isEqualTo(expectedHash);
+
+		// Melebihi batas ukuran di tengah body chunked, dan body kosong
+		HttpResponse<String> tooLarge = post("/api/stream/register?originalFileName=besar.pdf&folderName=Wisuda&issuerAddress=" + ISSUER,
+				HttpRequest.BodyPublishers.ofInputStream(() -> new SlowInputStream(new byte[100_000], 16384)));
+		assertThat(tooLarge.statusCode()).isEqualTo(413);
+		HttpResponse<String> empty = post("/api/stream/verify", HttpRequest.BodyPublishers.noBody());
+		assertThat(empty.statusCode()).isEqualTo(400);
+		assertThat(empty.body()).contains("kosong");
+
+		try (var spool = Files.list(UPLOAD_DIR.resolve(".spool"))) {
+			assertThat(spool).isEmpty();
+		}
+	}
+
+	private HttpResponse<String> post(String path, HttpRequest.BodyPublisher body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Content-Type", "application/octet-stream")
+				.POST(body)
+				.build();
+		return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	/**
+	 * Mengirim isi per potongan dengan jeda, seperti klien dengan koneksi lambat.
+	 */
+	private static final class SlowInputStream extends InputStream {
+
+		private final ByteArrayInputStream content;
+		private final int chunkSize;
+
+		SlowInputStream(byte[] content, int chunkSize) {
+			this.content = new ByteArrayInputStream(content);
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		public int read() {
+			return content.read();
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			return content.read(buffer, offset, Math.min(length, chunkSize));
+		}
+	}
+}
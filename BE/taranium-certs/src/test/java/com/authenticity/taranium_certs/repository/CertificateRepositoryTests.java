@@ -0,0 +1,72 @@
+package com.authenticity.taranium_certs.repository;
+
+import com.authenticity.taranium_certs.dto.CertificatePage;
+import com.authenticity.taranium_certs.dto.CertificateSummary;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.service.CertificateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class CertificateRepositoryTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+
+	@Autowired
+	CertificateRepository certificateRepository;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void folderPagesFollowKeysetWithoutGapsOrDuplicates() {
+		LocalDateTime base = LocalDateTime.of(2025, 1, 1, 8, 0);
+		List<Certificate> certificates = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			// Beberapa baris sengaja memiliki uploadTimestamp yang sama agar id ikut menentukan urutan
+			Certificate certificate = new Certificate(DocumentHash.fromHex(String.format("%064x", i)), "file-" + i + ".pdf", "uploads/" + i, "wisuda", ISSUER);
+			certificate.setUploadTimestamp(base.plusMinutes(i / 4));
+			certificates.add(certificate);
+		}
+		Certificate otherFolder = new Certificate(DocumentHash.fromHex(String.format("%064x", 99)), "lain.pdf", "uploads/lain", "lain", ISSUER);
+		certificates.add(otherFolder);
+		certificateRepository.saveAllAndFlush(certificates);
+
+		CertificateService certificateService = new CertificateService(certificateRepository, null, null, null, null, null);
+		List<String> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			CertificatePage page = certificateService.getCertificatePage(ISSUER, "wisuda", cursor, 10);
+			page.getItems().stream().map(CertificateSummary::getOriginalFileName).forEach(seen::add);
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(3, pages);
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			expected.add("file-" + i + ".pdf");
+		}
+		assertEquals(expected, seen);
+		assertThrows(IllegalArgumentException.class, () -> certificateService.getCertificatePage(ISSUER, "wisuda", "bukan-kursor", 10));
+	}
+
+	@Test
+	void folderPageQueryUsesCompositeIndex() {
+		String plan = jdbcTemplate.queryForObject(
+				"explain select c.id from certificates c where c.issuer_address = ? and c.folder_name = ? " +
+						"and c.upload_timestamp >= ? and (c.upload_timestamp > ? or c.id > ?) order by c.upload_timestamp, c.id",
+				String.class, ISSUER, "wisuda", LocalDateTime.now(), LocalDateTime.now(), 1L);
+		assertTrue(plan.toUpperCase().contains("IDX_CERTIFICATES_ISSUER_FOLDER_TS"), plan);
+	}
+}
@@ -0,0 +1,64 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.AdmissionProperties;
+import com.authenticity.taranium_certs.exception.RateLimitedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionServiceTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final String OTHER_ISSUER = "0x00000000000000000000000000000000000000aa";
+	private static final String BULK_ISSUER = "0x00000000000000000000000000000000000000bb";
+
+	@Test
+	void limitsRequestsAndBytesPerIssuer() {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setRequestsPerSecond(1);
+		properties.setRequestBurst(2);
+		properties.setBytesPerSecond(DataSize.ofKilobytes(1));
+		properties.setBytesBurst(DataSize.ofKilobytes(4));
+		properties.setMaxConcurrent(0);
+		AdmissionService admission = new AdmissionService(properties);
+
+		admission.checkIssuer(ISSUER, 0);
+		// Alamat yang sama dengan huruf berbeda memakai bucket yang sama
+		admission.checkIssuer(ISSUER.toUpperCase().replace("0X", "0x"), 0);
+		assertThatThrownBy(() -> admission.checkIssuer(ISSUER, 0))
+				.isInstanceOfSatisfying(RateLimitedException.class, e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(1));
+		// Issuer lain tidak terpengaruh
+		admission.checkIssuer(OTHER_ISSUER, 0);
+
+		// Upload melebihi burst diterima saat kuota penuh; utangnya membuat upload berikutnya menunggu
+		admission.checkIssuer(BULK_ISSUER, 10 * 1024);
+		assertThatThrownBy(() -> admission.checkIssuer(BULK_ISSUER, 1024))
+				.isInstanceOfSatisfying(RateLimitedException.class, e -> assertThat(e.getRetryAfterSeconds()).isBetween(6L, 8L));
+		// Token request dari upload yang ditolak karena kuota byte dikembalikan
+		admission.checkIssuer(BULK_ISSUER, 0);
+		assertThat(admission.getTrackedIssuerCount()).isEqualTo(3);
+	}
+
+	@Test
+	void capsConcurrentRequestsAcrossIssuers() {
+		AdmissionProperties properties = new AdmissionProperties();
+		properties.setMaxConcurrent(1);
+		properties.setRequestsPerSecond(0.01);
+		properties.setRequestBurst(1);
+		AdmissionService admission = new AdmissionService(properties);
+
+		AdmissionService.Permit permit = admission.admit(ISSUER, 100);
+		assertThatThrownBy(admission::admitGlobal).isInstanceOf(RateLimitedException.class);
+		permit.close();
+		permit.close();
+
+		// Ditolak oleh kuota issuer: slot global dilepas kembali
+		assertThatThrownBy(() -> admission.admit(ISSUER, 100)).isInstanceOf(RateLimitedException.class);
+		try (AdmissionService.Permit verify = admission.admitGlobal()) {
+			assertThatThrownBy(() -> admission.admit(OTHER_ISSUER, 100)).isInstanceOf(RateLimitedException.class);
+		}
+		admission.admit(OTHER_ISSUER, 100).close();
+	}
+}
@@ -0,0 +1,141 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.dto.BatchRegistrationResponse;
+import com.authenticity.taranium_certs.dto.BatchRegistrationResponse.FileResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class BatchRegistrationServiceTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("batch-registration-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:batchregistrationtest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+	}
+
+	@Autowired
+	BatchRegistrationService batchRegistrationService;
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	HashService hashService;
+
+	@MockitoSpyBean
+	CertificateService certificateService;
+
+	@Test
+	void registersNewFilesAndResolvesDuplicatesAgainstDatabaseAndBatch() {
+		BatchRegistrationResponse earlier = batchRegistrationService.registerAll(
+				List.of(file("lama.pdf", "sertifikat-lama")), "Wisuda", ISSUER);
+		assertEquals(1, earlier.getRegisteredCount());
+
+		BatchRegistrationResponse response = batchRegistrationService.registerAll(List.of(
+				file("baru-1.pdf", "sertifikat-baru-1"),
+				file("lama-lagi.pdf", "sertifikat-lama"),
+				file("baru-2.pdf", "sertifikat-baru-2"),
+				file("salinan-baru-1.pdf", "sertifikat-baru-1")), "Wisuda", ISSUER);
+
+		assertEquals(4, response.getTotalFiles());
+		assertEquals(2, response.getRegisteredCount());
+		assertEquals(2, response.getAlreadyRegisteredCount());
+		assertEquals(0, response.getFailedCount());
+
+		List<FileResult> results = response.getResults();
+		assertTrue(results.get(0).isSuccess());
+		assertFalse(results.get(0).isAlreadyRegistered());
+		// Sudah terdaftar di database: dijawab dengan sertifikat yang ada
+		assertTrue(results.get(1).isAlreadyRegistered());
+		assertEquals(earlier.getResults().get(0).getDocumentHash(), results.get(1).getDocumentHash());
+		assertEquals(earlier.getResults().get(0).getLocalFilePath(), results.get(1).getLocalFilePath());
+		// Isi sama dengan file sebelumnya dalam batch: mengikuti hasil file pertama
+		assertTrue(results.get(3).isAlreadyRegistered());
+		assertEquals("salinan-baru-1.pdf", results.get(3).getOriginalFileName());
+		assertEquals(results.get(0).getDocumentHash(), results.get(3).getDocumentHash());
+		assertTrue(results.get(3).getMessage().contains("baru-1.pdf"));
+
+		for (FileResult result : results) {
+			assertTrue(certificateService.isRegistered(result.getDocumentHash()));
+			assertTrue(Files.exists(UPLOAD_DIR.resolve(result.getLocalFilePath())));
+		}
+	}
+
+	@Test
+	void fallsBackToPerFileRegistrationWhenChunkViolatesUniqueHash() throws Exception {
+		// Hash "rebutan" didaftarkan request lain setelah pemeriksaan duplikat batch, sebelum potongan disimpan
+		doAnswer(invocation -> {
+			CompletableFuture.runAsync(() -> {
+				try {
+					certificateService.registerIfAbsent(
+							hashService.calculateSha256Hash(new ByteArrayInputStream(bytes("sertifikat-rebutan"))),
+							() -> fileStorageService.stageFile(new ByteArrayInputStream(bytes("sertifikat-rebutan")),
+									"rebutan.pdf", ISSUER, "Lain"),
+							"Lain", ISSUER);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}).join();
+			return invocation.callRealMethod();
+		}).when(certificateService).registerCertificates(anyList(), anyString(), anyString());
+
+		BatchRegistrationResponse response = batchRegistrationService.registerAll(List.of(
+				file("a.pdf", "sertifikat-a"),
+				file("rebutan.pdf", "sertifikat-rebutan"),
+				file("c.pdf", "sertifikat-c")), "Wisuda", ISSUER);
+
+		assertEquals(2, response.getRegisteredCount());
+		assertEquals(1, response.getAlreadyRegisteredCount());
+		assertEquals(0, response.getFailedCount());
+		FileResult contested = response.getResults().get(1);
+		assertTrue(contested.isAlreadyRegistered());
+		assertTrue(contested.getLocalFilePath().contains("Lain"));
+		for (FileResult result : response.getResults()) {
+			assertTrue(Files.exists(UPLOAD_DIR.resolve(result.getLocalFilePath())));
+		}
+		// Tidak ada file sementara yang tertinggal dari potongan yang gagal
+		try (var files = Files.list(UPLOAD_DIR.resolve(ISSUER).resolve("Wisuda"))) {
+			assertEquals(2, files.count());
+		}
+	}
+
+	private static MultipartFile file(String name, String content) {
+		return new MockMultipartFile("files", name, "application/pdf", bytes(content));
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
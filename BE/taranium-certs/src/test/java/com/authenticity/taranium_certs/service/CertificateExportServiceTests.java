@@ -0,0 +1,98 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CertificateExportServiceTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final String OTHER_ISSUER = "0x0000000000000000000000000000000000000001";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("certificate-export-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void exportProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:certificateexporttest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.export.fetch-size", () -> "2");
+		registry.add("app.export.clear-interval", () -> "2");
+	}
+
+	@Autowired
+	CertificateExportService certificateExportService;
+
+	@Autowired
+	CertificateRepository certificateRepository;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	void streamsIssuerRowsAsCsvAndGzippedNdjson() throws Exception {
+		List<Certificate> certificates = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			certificates.add(new Certificate(hash(i), "sertifikat-" + i + ".pdf", ISSUER + "/Wisuda/sertifikat-" + i + ".pdf",
+					"Wisuda", ISSUER));
+		}
+		certificates.add(new Certificate(hash(5), "Budi, \"S.Kom\".pdf", ISSUER + "/Arsip/budi.pdf", "Arsip", ISSUER));
+		certificates.add(new Certificate(hash(6), "lain.pdf", OTHER_ISSUER + "/Wisuda/lain.pdf", "Wisuda", OTHER_ISSUER));
+		certificateRepository.saveAll(certificates);
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		assertEquals(6, certificateExportService.export(ISSUER, CertificateExportService.Format.CSV, false, csv));
+		String[] lines = csv.toString(StandardCharsets.UTF_8).split("\r\n");
+		assertEquals(7, lines.length);
+		assertEquals("documentHash,originalFileName,localFilePath,folderName,issuerAddress,uploadTimestamp", lines[0]);
+		assertTrue(lines[1].startsWith(hash(0).toHex() + ",sertifikat-0.pdf,"));
+		// Koma dan tanda kutip di nama file di-escape sesuai RFC 4180
+		assertTrue(lines[6].contains(",\"Budi, \"\"S.Kom\"\".pdf\","));
+
+		ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+		assertEquals(6, certificateExportService.export(ISSUER, CertificateExportService.Format.NDJSON, true, gzipped));
+		String ndjson;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+			ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		String[] rows = ndjson.split("\n");
+		assertEquals(6, rows.length);
+		JsonNode last = objectMapper.readTree(rows[5]);
+		assertEquals(hash(5).toHex(), last.get("documentHash").asText());
+		assertEquals("Budi, \"S.Kom\".pdf", last.get("originalFileName").asText());
+	}
+
+	private static DocumentHash hash(int value) {
+		byte[] bytes = new byte[DocumentHash.LENGTH];
+		bytes[0] = 1;
+		bytes[DocumentHash.LENGTH - 1] = (byte) value;
+		return DocumentHash.of(bytes);
+	}
+}
@@ -0,0 +1,62 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.SearchProperties;
+import com.authenticity.taranium_certs.dto.CertificateSummary;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CertificateSearchIndexTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final String OTHER_ISSUER = "0x0000000000000000000000000000000000000001";
+
+	@Test
+	void ranksFileNameAndFolderMatches() {
+		CertificateRepository repository = mock(CertificateRepository.class);
+		when(repository.findSummariesAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+				summary(1, ISSUER, "Wisuda 2023", "Ijazah Budi Santoso.pdf"),
+				summary(2, ISSUER, "Wisuda 2023", "Transkrip Budi.pdf"),
+				summary(3, ISSUER, "Arsip", "budi.pdf"),
+				summary(4, OTHER_ISSUER, "Wisuda 2023", "Ijazah Budi.pdf")));
+		CertificateSearchIndex index = new CertificateSearchIndex(repository, new SearchProperties());
+		index.rebuild();
+		assertTrue(index.isReady());
+
+		// Nama file sama persis (tanpa ekstensi) lebih dulu, skor sama urut terbaru; institusi lain tidak ikut
+		assertEquals(List.of(3L, 2L, 1L), index.search(ISSUER, "BUDI", 0, 10).ids());
+		assertEquals(List.of(2L), index.search(ISSUER, "budi transkrip", 0, 10).ids());
+		assertEquals(List.of(2L), index.search(ISSUER, "ri", 0, 10).ids());
+		assertEquals(List.of(1L), index.search(ISSUER, "santos", 0, 10).ids());
+		assertEquals(0, index.search(ISSUER, "bud santoso x", 0, 10).total());
+
+		// Nama folder: semua isi folder cocok, skor sama diurutkan dari yang terbaru
+		CertificateSearchIndex.Hits folderHits = index.search(ISSUER, "2023", 0, 1);
+		assertEquals(2, folderHits.total());
+		assertEquals(List.of(2L), folderHits.ids());
+		assertEquals(List.of(1L), index.search(ISSUER, "2023", 1, 1).ids());
+
+		// Sertifikat baru langsung dapat dicari (di luar transaksi diterapkan seketika)
+		Certificate added = new Certificate(DocumentHash.of(new byte[DocumentHash.LENGTH]), "Sertifikat Budi.pdf",
+				"x", "Arsip", ISSUER);
+		added.setId(5L);
+		index.add(added);
+		assertEquals(4, index.search(ISSUER, "budi", 0, 10).total());
+		assertEquals(List.of(5L), index.search(ISSUER, "sertif", 0, 10).ids());
+	}
+
+	private static CertificateSummary summary(long id, String issuer, String folder, String fileName) {
+		return new CertificateSummary(id, null, fileName, issuer + "/" + folder + "/" + fileName, folder, issuer,
+				LocalDateTime.now());
+	}
+}
@@ -0,0 +1,100 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CertificateServiceTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("certificate-service-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:certificateservicetest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		// File indeks hash tidak ikut dihitung sebagai file di direktori upload
+		registry.add("app.hash-index.enabled", () -> "false");
+	}
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	HashService hashService;
+
+	@Test
+	void concurrentDuplicateRegistrationsStoreTheFileOnce() throws Exception {
+		byte[] content = "sertifikat-bersamaan".getBytes(StandardCharsets.UTF_8);
+		DocumentHash documentHash = hashService.calculateSha256Hash(new ByteArrayInputStream(content));
+		AtomicInteger stagings = new AtomicInteger();
+		int uploads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(uploads);
+		List<Future<CertificateService.Registration>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < uploads; i++) {
+				String fileName = "ijazah-" + i + ".pdf";
+				futures.add(executor.submit(() -> {
+					start.await();
+					return certificateService.registerIfAbsent(documentHash, () -> {
+						stagings.incrementAndGet();
+						return fileStorageService.stageFile(new ByteArrayInputStream(content), fileName, ISSUER, "Wisuda");
+					}, "Wisuda", ISSUER);
+				}));
+			}
+			start.countDown();
+
+			int created = 0;
+			Long certificateId = null;
+			for (Future<CertificateService.Registration> future : futures) {
+				CertificateService.Registration registration = future.get();
+				created += registration.isCreated() ? 1 : 0;
+				certificateId = certificateId == null ? registration.certificate().getId() : certificateId;
+				assertEquals(certificateId, registration.certificate().getId());
+			}
+			assertEquals(1, created);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Upload duplikat tidak menulis apa pun ke disk: hanya satu file, tanpa sisa file sementara
+		assertEquals(1, stagings.get());
+		try (Stream<Path> files = Files.walk(UPLOAD_DIR)) {
+			assertEquals(1, files.filter(Files::isRegularFile).count());
+		}
+	}
+}
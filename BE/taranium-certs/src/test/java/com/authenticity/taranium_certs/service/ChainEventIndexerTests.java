@@ -0,0 +1,146 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.ChainRegistration;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.ChainRegistrationRepository;
+import com.authenticity.taranium_certs.support.StubJsonRpcServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Menguji indexer terhadap server JSON-RPC lokal yang memutar ulang log CertificateRegistered yang direkam,
+ * termasuk reorg yang mengganti blok 14 ke atas.
+ */
+@SpringBootTest
+class ChainEventIndexerTests {
+
+	private static final String REGISTRY = "0x5fbdb2315678afecb367f032d93f642f64180aa3";
+	private static final StubJsonRpcServer RPC;
+	private static final List<JsonNode> RECORDED_LOGS = new ArrayList<>();
+
+	// Blok >= reorgFrom berasal dari fork "b"
+	private static volatile long head = 20;
+	private static volatile long reorgFrom = Long.MAX_VALUE;
+
+	static {
+		try {
+			RPC = new StubJsonRpcServer();
+			try (InputStream in = ChainEventIndexerTests.class.getResourceAsStream("/chain/certificate-registered-logs.json")) {
+				new ObjectMapper().readTree(in).forEach(RECORDED_LOGS::add);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		RPC.on("eth_blockNumber", params -> hex(head));
+		RPC.on("eth_getBlockByNumber", params -> {
+			long number = Long.decode(params.get(0).asText());
+			return number > head ? null : Map.of("number", hex(number), "hash", blockHash(number));
+		});
+		RPC.on("eth_getLogs", params -> {
+			JsonNode filter = params.get(0);
+			long from = Long.decode(filter.get("fromBlock").asText());
+			long to = Long.decode(filter.get("toBlock").asText());
+			return RECORDED_LOGS.stream()
+					.filter(log -> {
+						long block = Long.decode(log.get("blockNumber").asText());
+						return block >= from && block <= to && log.get("fork").asText().equals(forkOf(block));
+					})
+					.toList();
+		});
+	}
+
+	@DynamicPropertySource
+	static void chainProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:chainindexertest");
+		registry.add("app.chain.rpc-url", RPC::url);
+		registry.add("app.chain.registry-address", () -> REGISTRY);
+		registry.add("app.chain.indexer.enabled", () -> "true");
+		registry.add("app.chain.indexer.block-batch-size", () -> "5");
+		registry.add("app.chain.indexer.poll-interval", () -> "PT1H");
+	}
+
+	@AfterAll
+	static void stopRpc() {
+		RPC.close();
+	}
+
+	@Autowired
+	ChainEventIndexer indexer;
+
+	@Autowired
+	ChainRegistrationRepository registrations;
+
+	@Autowired
+	ChainStatusService chainStatusService;
+
+	@Test
+	void indexesRecordedLogsAndRewindsOnReorg() {
+		assertEquals(3, indexer.poll());
+		assertEquals(18, indexer.getCheckpoint().orElseThrow().getLastBlock());
+		assertEquals(Set.of(docHash("ijazah-a.pdf"), docHash("ijazah-b.pdf"), docHash("ijazah-c.pdf")), indexedHashes());
+
+		ChainRegistration first = indexer.findRegistration(DocumentHash.fromHex("0x" + docHash("ijazah-a.pdf"))).orElseThrow();
+		assertEquals("0xc1d2031248ee563f477d71d58770f60bc24dd61c", first.getIssuerAddress());
+		assertEquals(5, first.getBlockNumber());
+		// Format timestamp sama dengan jalur lookup langsung (Instant UTC)
+		assertEquals(first.getRegisteredAt().toInstant(ZoneOffset.UTC).toString(),
+				chainStatusService.describe(first.getDocumentHash()).get("onChainTimestamp"));
+		assertTrue(chainStatusService.describe(first.getDocumentHash()).get("onChainTimestamp").endsWith("Z"));
+
+		// Blok 14 ke atas diganti fork lain: ijazah-c hilang, ijazah-d muncul di blok 16
+		reorgFrom = 14;
+		head = 22;
+		indexer.poll();
+
+		assertEquals(20, indexer.getCheckpoint().orElseThrow().getLastBlock());
+		assertEquals(Set.of(docHash("ijazah-a.pdf"), docHash("ijazah-b.pdf"), docHash("ijazah-d.pdf")), indexedHashes());
+	}
+
+	private Set<String> indexedHashes() {
+		return registrations.findAll().stream().map(registration -> registration.getDocumentHash().toHex()).collect(Collectors.toSet());
+	}
+
+	private static String forkOf(long block) {
+		return block >= reorgFrom ? "b" : "a";
+	}
+
+	private static String blockHash(long block) {
+		return "0x" + sha256("block-" + block + "-" + forkOf(block));
+	}
+
+	private static String docHash(String name) {
+		return sha256(name);
+	}
+
+	private static String hex(long value) {
+		return "0x" + Long.toHexString(value);
+	}
+
+	private static String sha256(String value) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.ChainProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.support.StubJsonRpcServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainRegistryClientTests {
+
+	private static final String ISSUER = "c1d2031248ee563f477d71d58770f60bc24dd61c";
+
+	private StubJsonRpcServer rpc;
+	private ChainRegistryClient client;
+	private final AtomicBoolean nodeDown = new AtomicBoolean();
+	private final AtomicBoolean garbled = new AtomicBoolean();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		rpc = new StubJsonRpcServer();
+		// Hash dengan angka terakhir genap dianggap terdaftar
+		rpc.on("eth_call", params -> {
+			if (nodeDown.get()) {
+				throw new IllegalStateException("node down");
+			}
+			if (garbled.get()) {
+				return "0x" + "0".repeat(24) + ISSUER + "zz".repeat(64);
+			}
+			String hash = params.get(0).get("data").asText().substring(ChainRegistryClient.GET_CERTIFICATE_INFO_SELECTOR.length());
+			return Character.digit(hash.charAt(63), 16) % 2 == 0 ? encodeInfo(ISSUER, 1_700_000_000L, "ipfs://meta") : encodeInfo("0".repeat(40), 0, "");
+		});
+
+		ChainProperties properties = new ChainProperties();
+		properties.setRpcUrl(rpc.url());
+		properties.setRegistryAddress("0x5fbdb2315678afecb367f032d93f642f64180aa3");
+		properties.getLookup().setBatchWindow(Duration.ofMillis(200));
+		properties.getLookup().setMaxBatchSize(40);
+		properties.getLookup().setFailureThreshold(2);
+		properties.getLookup().setOpenDuration(Duration.ofMinutes(1));
+		client = new ChainRegistryClient(new EthJsonRpcClient(properties, new ObjectMapper()), properties);
+	}
+
+	@AfterEach
+	void tearDown() {
+		client.shutdown();
+		rpc.close();
+	}
+
+	@Test
+	void concurrentLookupsAreBatchedAndCached() {
+		List<DocumentHash> hashes = IntStream.range(0, 100).mapToObj(ChainRegistryClientTests::hash).toList();
+		List<CompletableFuture<ChainRegistryClient.OnChainStatus>> futures = hashes.stream().map(client::lookup).toList();
+		List<ChainRegistryClient.OnChainStatus> results = futures.stream().map(CompletableFuture::join).toList();
+
+		// 100 lookup dengan batas 40 per batch: 3 HTTP request, bukan 100
+		assertEquals(3, rpc.httpRequests());
+		for (int i = 0; i < hashes.size(); i++) {
+			ChainRegistryClient.OnChainStatus status = results.get(i);
+			if (i % 2 == 0) {
+				assertEquals(ChainRegistryClient.Status.REGISTERED, status.status());
+				assertEquals("0x" + ISSUER, status.issuerAddress());
+				assertEquals(1_700_000_000L, status.timestamp());
+				assertEquals("ipfs://meta", status.metadataUri());
+			} else {
+				assertEquals(ChainRegistryClient.Status.NOT_REGISTERED, status.status());
+			}
+		}
+
+		// Hasil positif dan negatif dilayani dari cache tanpa panggilan baru ke node
+		assertEquals(ChainRegistryClient.Status.REGISTERED, client.lookupNow(hashes.get(0)).status());
+		assertEquals(ChainRegistryClient.Status.NOT_REGISTERED, client.lookupNow(hashes.get(1)).status());
+		assertEquals(3, rpc.httpRequests());
+	}
+
+	@Test
+	void circuitBreakerOpensAfterRepeatedFailures() {
+		nodeDown.set(true);
+		assertEquals(ChainRegistryClient.Status.UNAVAILABLE, client.lookupNow(hash(1)).status());
+		assertEquals(ChainRegistryClient.Status.UNAVAILABLE, client.lookupNow(hash(2)).status());
+		int requestsWhenOpened = rpc.httpRequests();
+
+		// Breaker terbuka: lookup gagal cepat tanpa menghubungi node, dan kegagalan tidak di-cache
+		nodeDown.set(false);
+		assertEquals(ChainRegistryClient.Status.UNAVAILABLE, client.lookupNow(hash(2)).status());
+		assertEquals(requestsWhenOpened, rpc.httpRequests());
+		assertEquals("OPEN", client.getStats().get("circuitBreaker"));
+	}
+
+	@Test
+	void undecodableResultsCompleteLookupsAndCountAsFailures() {
+		garbled.set(true);
+		for (int i = 1; i <= 2; i++) {
+			CompletableFuture<ChainRegistryClient.OnChainStatus> lookup = client.lookup(hash(i));
+			// Future tetap selesai walaupun hasilnya tidak dapat di-decode
+			assertEquals(ChainRegistryClient.Status.UNAVAILABLE, lookup.orTimeout(5, TimeUnit.SECONDS).join().status());
+		}
+		assertEquals("OPEN", client.getStats().get("circuitBreaker"));
+	}
+
+	private static DocumentHash hash(int value) {
+		return DocumentHash.fromHex(String.format("%064x", value));
+	}
+
+	private static String encodeInfo(String issuer, long timestamp, String metadataUri) {
+		byte[] uri = metadataUri.getBytes(StandardCharsets.UTF_8);
+		StringBuilder data = new StringBuilder("0x")
+				.append("0".repeat(24)).append(issuer)
+				.append(String.format("%064x", timestamp))
+				.append(String.format("%064x", 96))
+				.append(String.format("%064x", uri.length));
+		String uriHex = HexFormat.of().formatHex(uri);
+		data.append(uriHex).append("0".repeat((64 - uriHex.length() % 64) % 64));
+		return data.toString();
+	}
+}
@@ -0,0 +1,148 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.dto.UploadSessionResponse;
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.exception.StorageException;
+import com.authenticity.taranium_certs.exception.UploadSessionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ChunkedUploadServiceTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("chunked-upload-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:chunkeduploadtest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.chunked-upload.max-chunk-size", () -> "8B");
+	}
+
+	@Autowired
+	ChunkedUploadService chunkedUploadService;
+
+	@Autowired
+	HashService hashService;
+
+	@Test
+	void resumesAfterFailedChunkAndCompletesWithoutRereading() throws Exception {
+		String content = "sertifikat-bertahap-01";
+		String uploadId = chunkedUploadService.initiate("ijazah.pdf", "Wisuda", ISSUER, (long) content.length()).getUploadId();
+
+		chunkedUploadService.appendChunk(uploadId, 0, stream("sertifik"));
+		// Koneksi putus di tengah potongan 1: byte yang sempat ditulis dibuang
+		assertThrows(StorageException.class, () -> chunkedUploadService.appendChunk(uploadId, 1, failingAfter("at-b")));
+		UploadSessionResponse resumed = chunkedUploadService.getSession(uploadId);
+		assertEquals(1, resumed.getNextChunk());
+		assertEquals(8, resumed.getReceivedBytes());
+
+		// Potongan yang sudah diterima boleh dikirim ulang; potongan yang melompat ditolak
+		assertEquals(1, chunkedUploadService.appendChunk(uploadId, 0, stream("xxxxxxxx")).getNextChunk());
+		UploadSessionException skipped = assertThrows(UploadSessionException.class,
+				() -> chunkedUploadService.appendChunk(uploadId, 2, stream("ertahap-")));
+		assertEquals(UploadSessionException.Reason.OUT_OF_ORDER, skipped.getReason());
+		UploadSessionException tooLarge = assertThrows(UploadSessionException.class,
+				() -> chunkedUploadService.appendChunk(uploadId, 1, stream("at-bertahap")));
+		assertEquals(UploadSessionException.Reason.TOO_LARGE, tooLarge.getReason());
+
+		chunkedUploadService.appendChunk(uploadId, 1, stream("at-berta"));
+		chunkedUploadService.appendChunk(uploadId, 2, stream("hap-01"));
+		DocumentHash expectedHash = hashService.calculateSha256Hash(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+		Certificate certificate = chunkedUploadService.complete(uploadId, expectedHash).certificate();
+
+		assertEquals(expectedHash, certificate.getDocumentHash());
+		assertEquals(content, Files.readString(UPLOAD_DIR.resolve(certificate.getLocalFilePath())));
+		assertSessionGone(uploadId);
+	}
+
+	@Test
+	void keepsSessionWhenRegistrationFailsSoCompleteCanBeRetried() throws Exception {
+		String content = "sertifikat-diulang";
+		String uploadId = chunkedUploadService.initiate("ulang.pdf", "Diulang", ISSUER, null).getUploadId();
+		chunkedUploadService.appendChunk(uploadId, 0, stream("sertifik"));
+		chunkedUploadService.appendChunk(uploadId, 1, stream("at-diula"));
+		chunkedUploadService.appendChunk(uploadId, 2, stream("ng"));
+
+		// Folder tujuan tidak dapat dibuat: pendaftaran gagal, tetapi sesi dan file staging tetap ada
+		Path blocker = UPLOAD_DIR.resolve(ISSUER).resolve("Diulang");
+		Files.createDirectories(blocker.getParent());
+		Files.writeString(blocker, "bukan folder");
+		assertThrows(StorageException.class, () -> chunkedUploadService.complete(uploadId, null));
+		assertEquals(content.length(), chunkedUploadService.getSession(uploadId).getReceivedBytes());
+		UploadSessionException sealed = assertThrows(UploadSessionException.class,
+				() -> chunkedUploadService.appendChunk(uploadId, 3, stream("x")));
+		assertEquals(UploadSessionException.Reason.INVALID, sealed.getReason());
+
+		Files.delete(blocker);
+		DocumentHash expectedHash = hashService.calculateSha256Hash(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+		Certificate certificate = chunkedUploadService.complete(uploadId, expectedHash).certificate();
+		assertEquals(expectedHash, certificate.getDocumentHash());
+		assertEquals(content, Files.readString(UPLOAD_DIR.resolve(certificate.getLocalFilePath())));
+		assertSessionGone(uploadId);
+		try (var spool = Files.list(UPLOAD_DIR.resolve(".spool"))) {
+			assertTrue(spool.noneMatch(file -> file.getFileName().toString().startsWith("chunked-")));
+		}
+	}
+
+	@Test
+	void rejectsMismatchedHashAndExpiresAbandonedSessions() throws Exception {
+		String mismatched = chunkedUploadService.initiate("a.pdf", "Wisuda", ISSUER, null).getUploadId();
+		chunkedUploadService.appendChunk(mismatched, 0, stream("isi-a"));
+		UploadSessionException invalid = assertThrows(UploadSessionException.class,
+				() -> chunkedUploadService.complete(mismatched, DocumentHash.fromHex("00".repeat(32))));
+		assertEquals(UploadSessionException.Reason.INVALID, invalid.getReason());
+
+		String abandoned = chunkedUploadService.initiate("b.pdf", "Wisuda", ISSUER, null).getUploadId();
+		chunkedUploadService.appendChunk(abandoned, 0, stream("isi-b"));
+		Thread.sleep(5);
+		chunkedUploadService.expireSessions(Duration.ZERO);
+		assertSessionGone(abandoned);
+		try (var spool = Files.list(UPLOAD_DIR.resolve(".spool"))) {
+			assertEquals(0, spool.count());
+		}
+	}
+
+	private void assertSessionGone(String uploadId) {
+		UploadSessionException e = assertThrows(UploadSessionException.class, () -> chunkedUploadService.getSession(uploadId));
+		assertEquals(UploadSessionException.Reason.NOT_FOUND, e.getReason());
+	}
+
+	private static InputStream stream(String data) {
+		return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static InputStream failingAfter(String data) {
+		return new SequenceInputStream(stream(data), new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("koneksi terputus");
+			}
+		});
+	}
+}
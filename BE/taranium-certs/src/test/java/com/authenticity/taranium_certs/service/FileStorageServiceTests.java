@@ -0,0 +1,70 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.StorageProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStorageServiceTests {
+
+	@TempDir
+	Path uploadDir;
+
+	@Test
+	void stageHashesWhileWritingAndCommitMovesIntoPlace() throws Exception {
+		HashService hashService = new HashService();
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), hashService, new StorageProperties(), null);
+		byte[] content = "sertifikat".getBytes(StandardCharsets.UTF_8);
+
+		try (StagedFile staged = storage.stageFile(new ByteArrayInputStream(content), "ijazah 1.pdf", "0xabc", "Wisuda")) {
+			assertEquals(hashService.calculateSha256Hash(new ByteArrayInputStream(content)), staged.getDocumentHash());
+			assertFalse(Files.exists(staged.getDestinationFile()));
+
+			storage.commit(staged);
+		}
+
+		Path stored = uploadDir.resolve("0xabc").resolve("Wisuda").resolve("ijazah_1.pdf");
+		assertArrayEquals(content, Files.readAllBytes(stored));
+		assertEquals(1, Files.list(stored.getParent()).count());
+	}
+
+	@Test
+	void closingUncommittedStageLeavesNothingBehind() throws Exception {
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), new HashService(), new StorageProperties(), null);
+
+		try (StagedFile staged = storage.stageFile(new ByteArrayInputStream(new byte[]{1, 2, 3}), "a.pdf", "0xabc", "Wisuda")) {
+			assertTrue(Files.exists(staged.getTempFile()));
+		}
+
+		assertEquals(0, Files.list(uploadDir.resolve("0xabc").resolve("Wisuda")).count());
+	}
+
+	@Test
+	void contentAddressedModeStoresDuplicateContentOnce() throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setMode(StorageProperties.Mode.CONTENT_ADDRESSED);
+		FileStorageService storage = new FileStorageService(uploadDir.toString(), new HashService(), properties, null);
+		byte[] content = "sertifikat".getBytes(StandardCharsets.UTF_8);
+
+		DocumentHash hash;
+		try (StagedFile first = storage.stageFile(new ByteArrayInputStream(content), "a.pdf", "0xabc", "Wisuda");
+			 StagedFile second = storage.stageFile(new ByteArrayInputStream(content), "a.pdf", "0xabc", "Arsip")) {
+			storage.commit(first);
+			storage.commit(second);
+			hash = first.getDocumentHash();
+			assertEquals(first.getRelativePath(), second.getRelativePath());
+		}
+
+		Path blob = storage.resolveBlob(hash);
+		assertArrayEquals(content, Files.readAllBytes(blob));
+		assertTrue(Files.isSameFile(blob, uploadDir.resolve("0xabc/Wisuda/a.pdf")));
+		assertTrue(Files.isSameFile(blob, uploadDir.resolve("0xabc/Arsip/a.pdf")));
+	}
+}
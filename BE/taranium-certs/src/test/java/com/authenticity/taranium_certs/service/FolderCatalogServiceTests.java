@@ -0,0 +1,118 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.FolderCatalogEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FolderCatalogServiceTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final String OTHER_ISSUER = "0x9a8b7c6d5e4f3a2b1c0d9e8f7a6b5c4d3e2f1a0b";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("folder-catalog-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:foldercatalogtest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		// Pool kecil: pendaftaran yang butuh koneksi kedua akan kehabisan koneksi dengan cepat
+		registry.add("spring.datasource.hikari.maximum-pool-size", () -> "2");
+		registry.add("spring.datasource.hikari.connection-timeout", () -> "2000");
+	}
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	FolderCatalogService folderCatalogService;
+
+	@Test
+	void registrationsUpdateCatalogAndRebuildMatchesUploadTree() throws Exception {
+		register("a.pdf", "sertifikat-a", "Wisuda");
+		register("b.pdf", "sertifikat-bb", "Wisuda");
+		register("c.pdf", "sertifikat-ccc", "Arsip");
+		// File sementara upload yang sedang berjalan tidak ikut dihitung saat rebuild
+		Files.writeString(UPLOAD_DIR.resolve(ISSUER).resolve("Wisuda").resolve(".upload-123.tmp"), "setengah");
+
+		assertEquals(List.of("Arsip", "Wisuda"), folderCatalogService.getFolderNames(ISSUER));
+		List<FolderCatalogEntry> recorded = folderCatalogService.getFolders(ISSUER);
+		assertEquals(2, recorded.get(1).getCertificateCount());
+		assertEquals("sertifikat-a".length() + "sertifikat-bb".length(), recorded.get(1).getTotalBytes());
+		assertNotNull(recorded.get(1).getLastUploadAt());
+
+		folderCatalogService.rebuild();
+		List<FolderCatalogEntry> rebuilt = folderCatalogService.getFolders(ISSUER);
+		assertEquals(recorded.size(), rebuilt.size());
+		for (int i = 0; i < recorded.size(); i++) {
+			assertEquals(recorded.get(i).getFolderName(), rebuilt.get(i).getFolderName());
+			assertEquals(recorded.get(i).getCertificateCount(), rebuilt.get(i).getCertificateCount());
+			assertEquals(recorded.get(i).getTotalBytes(), rebuilt.get(i).getTotalBytes());
+		}
+	}
+
+	@Test
+	void concurrentRegistrationsIntoNewFoldersShareOneEntry() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				int n = i;
+				futures.add(executor.submit(() -> {
+					register(OTHER_ISSUER, "baru-" + n + ".pdf", "isi-baru-" + n, "Baru-" + (n % 2));
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<FolderCatalogEntry> folders = folderCatalogService.getFolders(OTHER_ISSUER);
+		assertEquals(2, folders.size());
+		for (FolderCatalogEntry entry : folders) {
+			assertEquals(8, entry.getCertificateCount());
+		}
+	}
+
+	private void register(String fileName, String content, String folder) throws Exception {
+		register(ISSUER, fileName, content, folder);
+	}
+
+	private void register(String issuer, String fileName, String content, String folder) throws Exception {
+		try (StagedFile staged = fileStorageService.stageFile(
+				new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), fileName, issuer, folder)) {
+			certificateService.registerCertificate(staged, folder, issuer);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.config.HashIndexProperties;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HashMembershipIndexTests {
+
+	@TempDir
+	Path uploadDir;
+
+	@Test
+	void answersNegativeLookupsWithoutDatabaseAndGrowsWithRegistrations() throws Exception {
+		Random random = new Random(42);
+		List<CertificateRepository.HashRow> rows = new ArrayList<>();
+		for (long id = 1; id <= 500; id++) {
+			rows.add(row(id, randomHash(random)));
+		}
+		CertificateRepository repository = mock(CertificateRepository.class);
+		when(repository.count()).thenReturn((long) rows.size());
+		when(repository.findHashesAfter(eq(0L), any(Limit.class))).thenReturn(rows);
+		HashIndexProperties properties = new HashIndexProperties();
+		properties.setInitialCapacity(1024);
+		HashMembershipIndex index = new HashMembershipIndex(uploadDir.toString(), repository, properties);
+		index.open();
+
+		// Belum dibangun: semua lookup diteruskan ke database
+		DocumentHash unknown = randomHash(random);
+		assertTrue(index.mightContain(unknown));
+
+		index.load();
+		assertTrue(index.isReady());
+		for (CertificateRepository.HashRow row : rows) {
+			assertTrue(index.mightContain(row.getDocumentHash()));
+		}
+		assertFalse(index.mightContain(unknown));
+
+		// Pendaftaran baru melewati batas load factor dan memicu pembesaran tabel
+		List<DocumentHash> added = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			DocumentHash documentHash = randomHash(random);
+			index.add(documentHash);
+			added.add(documentHash);
+		}
+		index.add(DocumentHash.of(new byte[DocumentHash.LENGTH]));
+		assertEquals(5501, index.size());
+		for (DocumentHash documentHash : added) {
+			assertTrue(index.mightContain(documentHash));
+		}
+		assertTrue(index.mightContain(DocumentHash.of(new byte[DocumentHash.LENGTH])));
+
+		int falsePositives = 0;
+		for (int i = 0; i < 10000; i++) {
+			if (index.mightContain(randomHash(random))) {
+				falsePositives++;
+			}
+		}
+		assertEquals(0, falsePositives);
+		index.close();
+	}
+
+	private static DocumentHash randomHash(Random random) {
+		byte[] bytes = new byte[DocumentHash.LENGTH];
+		random.nextBytes(bytes);
+		return DocumentHash.of(bytes);
+	}
+
+	private static CertificateRepository.HashRow row(long id, DocumentHash documentHash) {
+		return new CertificateRepository.HashRow() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public DocumentHash getDocumentHash() {
+				return documentHash;
+			}
+		};
+	}
+}
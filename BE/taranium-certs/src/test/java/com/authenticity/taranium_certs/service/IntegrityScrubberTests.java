@@ -0,0 +1,117 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.dto.ScrubStatusResponse;
+import com.authenticity.taranium_certs.entity.IntegrityIssue;
+import com.authenticity.taranium_certs.repository.IntegrityIssueRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class IntegrityScrubberTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("scrub-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void scrubProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:scrubtest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.scrub.bandwidth-limit", () -> "0");
+		registry.add("app.scrub.batch-size", () -> "2");
+		// Jendela kecil agar file besar di-map dalam beberapa jendela
+		registry.add("app.scrub.map-window-size", () -> "256KB");
+	}
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	HashService hashService;
+
+	@Autowired
+	IntegrityScrubber integrityScrubber;
+
+	@Autowired
+	IntegrityIssueRepository integrityIssueRepository;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void mappedHashMatchesStreamingHash() throws Exception {
+		byte[] content = new byte[3 * 1024 * 1024 + 17];
+		new Random(11).nextBytes(content);
+		Path file = Files.write(UPLOAD_DIR.resolve("besar.bin"), content);
+
+		assertEquals(hashService.calculateSha256Hash(new ByteArrayInputStream(content)),
+				hashService.calculateSha256HashMapped(file, 256 * 1024, null));
+		assertEquals(hashService.calculateSha256Hash(new ByteArrayInputStream(new byte[0])),
+				hashService.calculateSha256HashMapped(Files.write(UPLOAD_DIR.resolve("kosong.bin"), new byte[0]), 256 * 1024, null));
+	}
+
+	@Test
+	void recordsMismatchAndMissingFilesAndResolvesRepairedOnes() throws Exception {
+		register("a.pdf", "sertifikat-a");
+		register("b.pdf", "sertifikat-b");
+		register("c.pdf", "sertifikat-c");
+		Path folder = UPLOAD_DIR.resolve(ISSUER).resolve("Wisuda");
+		Files.writeString(folder.resolve("b.pdf"), "sertifikat-B");
+		Files.delete(folder.resolve("c.pdf"));
+
+		assertEquals(3, integrityScrubber.scrub());
+		List<IntegrityIssue> issues = integrityIssueRepository.findAll();
+		assertEquals(2, issues.size());
+		ScrubStatusResponse status = integrityScrubber.getStatus();
+		assertEquals(1, status.getOpenMismatches());
+		assertEquals(1, status.getOpenMissing());
+		assertEquals(1, status.getPassesCompleted());
+		assertEquals(0, status.getLastCertificateId());
+		assertTrue(status.getBytesHashed() > 0);
+
+		// File dipulihkan: issue MISMATCH ditutup pada putaran berikutnya, issue MISSING tetap terbuka
+		Files.writeString(folder.resolve("b.pdf"), "sertifikat-b");
+		integrityScrubber.scrub();
+		status = integrityScrubber.getStatus();
+		assertEquals(0, status.getOpenMismatches());
+		assertEquals(1, status.getOpenMissing());
+		assertEquals(2, integrityIssueRepository.count());
+		assertEquals(0, openIssuesGauge(IntegrityIssue.Type.MISMATCH));
+		assertEquals(1, openIssuesGauge(IntegrityIssue.Type.MISSING));
+		assertEquals(0, openIssuesGauge(IntegrityIssue.Type.UNREADABLE));
+	}
+
+	private double openIssuesGauge(IntegrityIssue.Type type) {
+		return meterRegistry.get("certs.scrub.issues.open").tag("type", type.name()).gauge().value();
+	}
+
+	private void register(String fileName, String content) throws Exception {
+		try (StagedFile staged = fileStorageService.stageFile(new ByteArrayInputStream(content.getBytes()), fileName, ISSUER, "Wisuda")) {
+			certificateService.registerCertificate(staged, "Wisuda", ISSUER);
+		}
+	}
+}
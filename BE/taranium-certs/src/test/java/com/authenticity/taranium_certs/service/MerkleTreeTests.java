@@ -0,0 +1,72 @@
+package com.authenticity.taranium_certs.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vektor uji dari Certificate Transparency (RFC 6962) untuk 1 sampai 8 daun.
+ */
+class MerkleTreeTests {
+
+	private static final HexFormat HEX = HexFormat.of();
+
+	private static final List<byte[]> LEAVES = List.of(
+			HEX.parseHex(""),
+			HEX.parseHex("00"),
+			HEX.parseHex("10"),
+			HEX.parseHex("2021"),
+			HEX.parseHex("3031"),
+			HEX.parseHex("40414243"),
+			HEX.parseHex("5051525354555657"),
+			HEX.parseHex("606162636465666768696a6b6c6d6e6f"));
+
+	private static final String[] ROOTS = {
+			"6e340b9cffb37a989ca544e6bb780a2c78901d3fb33738768511a30617afa01d",
+			"fac54203e7cc696cf0dfcb42c92a1d9dbaf70ad9e621f4bd8d98662f00e3c125",
+			"aeb6bcfe274b70a14fb067a5e5578264db0fa9b51af5e0ba159158f329e06e77",
+			"d37ee418976dd95753c1c73862b9398fa2a2cf9b4ff0fdfe8b30cd95209614b7",
+			"4e3bbb1f7b478dcfe71fb631631519a3bca12c9aefca1612bfce4c13a86264d4",
+			"76e67dadbcdf1e10e1b74ddc608abd2f98dfb16fbce75277b5232a127f2087ef",
+			"ddb89be403809e325750d3d263cd78929c2942b7942a34b77e122c9594a74c8c",
+			"5dc9da79a70659a9ad559cb701ded9a2ab9d823aad2f4960cfe370eff4604328"
+	};
+
+	@Test
+	void rootsMatchKnownVectors() {
+		for (int size = 1; size <= LEAVES.size(); size++) {
+			MerkleTree tree = new MerkleTree(LEAVES.subList(0, size));
+			assertEquals(ROOTS[size - 1], HEX.formatHex(tree.root()), "ukuran pohon " + size);
+		}
+	}
+
+	@Test
+	void everyProofVerifiesAgainstRoot() {
+		for (int size = 1; size <= LEAVES.size(); size++) {
+			MerkleTree tree = new MerkleTree(LEAVES.subList(0, size));
+			for (int index = 0; index < size; index++) {
+				List<byte[]> proof = tree.proof(index);
+				assertTrue(MerkleTree.verify(LEAVES.get(index), index, size, proof, tree.root()));
+				assertFalse(MerkleTree.verify(LEAVES.get(index), index, size, proof, HEX.parseHex(ROOTS[size % ROOTS.length])));
+				if (size > 1) {
+					assertFalse(MerkleTree.verify(LEAVES.get((index + 1) % size), index, size, proof, tree.root()));
+				}
+			}
+		}
+	}
+
+	@Test
+	void proofLengthIsLogarithmic() {
+		List<byte[]> leaves = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			leaves.add(new byte[]{(byte) (i >> 8), (byte) i});
+		}
+		MerkleTree tree = new MerkleTree(leaves);
+		assertTrue(tree.proof(999).size() <= 10);
+		assertTrue(MerkleTree.verify(leaves.get(999), 999, 1000, tree.proof(999), tree.root()));
+	}
+}
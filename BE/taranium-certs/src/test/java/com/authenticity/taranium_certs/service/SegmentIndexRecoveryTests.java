@@ -0,0 +1,125 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.SegmentEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SegmentIndexRecoveryTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("segment-recovery-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:segmentrecoverytest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.storage.mode", () -> "segmented");
+		registry.add("app.storage.segment-size", () -> "1KB");
+		registry.add("app.storage.segment-max-file-size", () -> "400B");
+		registry.add("app.storage.compaction-min-age", () -> "PT0S");
+	}
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	HashService hashService;
+
+	@Autowired
+	SegmentStore segmentStore;
+
+	@Autowired
+	SegmentCompactor segmentCompactor;
+
+	@Autowired
+	SegmentEntryRepository segmentEntryRepository;
+
+	@Test
+	void segmentsSurviveRestartWithEmptyIndex() throws Exception {
+		List<byte[]> contents = new ArrayList<>();
+		List<DocumentHash> hashes = new ArrayList<>();
+		for (char fill = 'a'; fill <= 'e'; fill++) {
+			byte[] content = content(fill, 300);
+			Certificate certificate = register(fill + ".pdf", content);
+			contents.add(content);
+			hashes.add(certificate.getDocumentHash());
+		}
+		// Lima record 300 byte dengan segmen 1KB: segmen 1 dan 2 tertutup, segmen 3 aktif
+		List<Integer> segmentIds = segmentStore.listSegmentIds();
+		assertEquals(List.of(1, 2, 3), segmentIds);
+
+		// Restart dengan database kosong: indeks hilang, file segmen tetap ada
+		segmentStore.close();
+		segmentEntryRepository.deleteAllInBatch();
+		// Segmen tanpa entri indeks bukan segmen yang dikosongkan compaction: tidak boleh dihapus
+		segmentCompactor.compact();
+		segmentCompactor.compact();
+		assertEquals(segmentIds, segmentStore.listSegmentIds());
+
+		assertEquals(5, segmentStore.recoverIndex());
+		assertEquals(0, segmentStore.recoverIndex());
+
+		// Seluruh record yang dipulihkan hidup: tidak ada segmen yang ditulis ulang maupun dihapus
+		segmentCompactor.compact();
+		segmentCompactor.compact();
+		assertEquals(segmentIds, segmentStore.listSegmentIds());
+		for (int i = 0; i < hashes.size(); i++) {
+			assertArrayEquals(contents.get(i), read(hashes.get(i)));
+		}
+	}
+
+	private Certificate register(String fileName, byte[] content) throws Exception {
+		DocumentHash documentHash = hashService.calculateSha256Hash(new ByteArrayInputStream(content));
+		return certificateService.registerIfAbsent(documentHash,
+				() -> fileStorageService.stageFile(new ByteArrayInputStream(content), fileName, ISSUER, "Wisuda"),
+				"Wisuda", ISSUER).certificate();
+	}
+
+	private byte[] read(DocumentHash documentHash) throws IOException {
+		StoredRegion region = segmentStore.locate(documentHash);
+		ByteBuffer buffer = ByteBuffer.allocate((int) region.length());
+		try (FileChannel channel = FileChannel.open(region.file(), StandardOpenOption.READ)) {
+			while (buffer.hasRemaining() && channel.read(buffer, region.offset() + buffer.position()) > 0) {
+				// Pembacaan posisional sampai rentang terisi
+			}
+		}
+		return buffer.array();
+	}
+
+	private static byte[] content(char fill, int length) {
+		byte[] bytes = new byte[length];
+		Arrays.fill(bytes, (byte) fill);
+		return bytes;
+	}
+}
@@ -0,0 +1,132 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.repository.CertificateRepository;
+import com.authenticity.taranium_certs.repository.SegmentEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SegmentStoreTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("segment-store-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:segmentstoretest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		// File indeks hash tidak ikut dihitung sebagai file di direktori upload
+		registry.add("app.hash-index.enabled", () -> "false");
+		registry.add("app.storage.mode", () -> "segmented");
+		registry.add("app.storage.segment-size", () -> "1KB");
+		registry.add("app.storage.segment-max-file-size", () -> "400B");
+		registry.add("app.storage.compaction-threshold", () -> "0.6");
+		registry.add("app.storage.compaction-min-age", () -> "PT0S");
+	}
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	HashService hashService;
+
+	@Autowired
+	SegmentStore segmentStore;
+
+	@Autowired
+	SegmentCompactor segmentCompactor;
+
+	@Autowired
+	CertificateRepository certificateRepository;
+
+	@Autowired
+	SegmentEntryRepository segmentEntryRepository;
+
+	@Test
+	void packsSmallFilesIntoSegmentsAndCompactsDeadSpace() throws Exception {
+		byte[] first = content('a', 300);
+		byte[] second = content('b', 300);
+		byte[] third = content('c', 300);
+		byte[] large = content('d', 600);
+		Certificate firstCertificate = register("a.pdf", first);
+		Certificate secondCertificate = register("b.pdf", second);
+		register("c.pdf", third);
+		Certificate largeCertificate = register("besar.pdf", large);
+
+		// Dua record pertama mengisi segmen 1; record ketiga tidak muat lagi sehingga membuka segmen 2
+		assertTrue(fileStorageService.isSegmentPath(firstCertificate.getLocalFilePath()));
+		assertEquals(1, segmentEntryRepository.findById(secondCertificate.getDocumentHash()).orElseThrow().getSegmentId());
+		assertArrayEquals(second, read(secondCertificate));
+		// File di atas segment-max-file-size tetap disimpan sebagai file biasa
+		assertEquals(ISSUER + "/Wisuda/besar.pdf", largeCertificate.getLocalFilePath());
+		assertArrayEquals(large, read(largeCertificate));
+		try (Stream<Path> files = Files.walk(UPLOAD_DIR)) {
+			assertEquals(3, files.filter(Files::isRegularFile).count());
+		}
+
+		// Record pertama tidak lagi direferensikan: segmen 1 tinggal separuh hidup dan ditulis ulang
+		certificateRepository.delete(firstCertificate);
+		segmentEntryRepository.deleteById(firstCertificate.getDocumentHash());
+		assertEquals(1, segmentCompactor.compact());
+		assertEquals(2, segmentEntryRepository.findById(secondCertificate.getDocumentHash()).orElseThrow().getSegmentId());
+		assertArrayEquals(second, read(secondCertificate));
+
+		// Segmen lama baru dihapus pada putaran berikutnya
+		assertTrue(Files.exists(segmentStore.resolveSegment(1)));
+		assertEquals(0, segmentCompactor.compact());
+		assertFalse(Files.exists(segmentStore.resolveSegment(1)));
+	}
+
+	private Certificate register(String fileName, byte[] content) throws Exception {
+		DocumentHash documentHash = hashService.calculateSha256Hash(new ByteArrayInputStream(content));
+		return certificateService.registerIfAbsent(documentHash,
+				() -> fileStorageService.stageFile(new ByteArrayInputStream(content), fileName, ISSUER, "Wisuda"),
+				"Wisuda", ISSUER).certificate();
+	}
+
+	private byte[] read(Certificate certificate) throws IOException {
+		StoredRegion region = fileStorageService.locate(certificate.getDocumentHash(), certificate.getLocalFilePath());
+		ByteBuffer buffer = ByteBuffer.allocate((int) region.length());
+		try (FileChannel channel = FileChannel.open(region.file(), StandardOpenOption.READ)) {
+			while (buffer.hasRemaining() && channel.read(buffer, region.offset() + buffer.position()) > 0) {
+				// Pembacaan posisional sampai rentang terisi
+			}
+		}
+		return buffer.array();
+	}
+
+	private static byte[] content(char fill, int length) {
+		byte[] bytes = new byte[length];
+		Arrays.fill(bytes, (byte) fill);
+		return bytes;
+	}
+}
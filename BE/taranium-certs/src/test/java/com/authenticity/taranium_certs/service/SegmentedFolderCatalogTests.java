@@ -0,0 +1,94 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.entity.Certificate;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.FolderCatalogEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SegmentedFolderCatalogTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("segmented-catalog-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void storageProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:segmentedcatalogtest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.storage.mode", () -> "segmented");
+		registry.add("app.storage.segment-max-file-size", () -> "400B");
+	}
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	HashService hashService;
+
+	@Autowired
+	FolderCatalogService folderCatalogService;
+
+	@Test
+	void rebuildKeepsFoldersWhoseContentLivesInSegments() throws Exception {
+		Certificate small = register("a.pdf", content('a', 300), "Wisuda");
+		register("b.pdf", content('b', 200), "Wisuda");
+		register("besar.pdf", content('c', 600), "Wisuda");
+		register("c.pdf", content('d', 100), "Arsip");
+		assertTrue(fileStorageService.isSegmentPath(small.getLocalFilePath()));
+		// Folder yang seluruh isinya ada di segmen tidak punya file di pohon upload
+		try (var files = Files.list(UPLOAD_DIR.resolve(ISSUER).resolve("Arsip"))) {
+			assertEquals(0, files.count());
+		}
+
+		List<FolderCatalogEntry> recorded = folderCatalogService.getFolders(ISSUER);
+		assertEquals(2, folderCatalogService.rebuild());
+		List<FolderCatalogEntry> rebuilt = folderCatalogService.getFolders(ISSUER);
+
+		assertEquals(List.of("Arsip", "Wisuda"), rebuilt.stream().map(FolderCatalogEntry::getFolderName).toList());
+		assertEquals(3, rebuilt.get(1).getCertificateCount());
+		assertEquals(300 + 200 + 600, rebuilt.get(1).getTotalBytes());
+		for (int i = 0; i < recorded.size(); i++) {
+			assertEquals(recorded.get(i).getCertificateCount(), rebuilt.get(i).getCertificateCount());
+			assertEquals(recorded.get(i).getTotalBytes(), rebuilt.get(i).getTotalBytes());
+			assertEquals(recorded.get(i).getLastUploadAt(), rebuilt.get(i).getLastUploadAt());
+		}
+	}
+
+	private Certificate register(String fileName, byte[] content, String folder) throws Exception {
+		DocumentHash documentHash = hashService.calculateSha256Hash(new ByteArrayInputStream(content));
+		return certificateService.registerIfAbsent(documentHash,
+				() -> fileStorageService.stageFile(new ByteArrayInputStream(content), fileName, ISSUER, folder),
+				folder, ISSUER).certificate();
+	}
+
+	private static byte[] content(char fill, int length) {
+		byte[] bytes = new byte[length];
+		Arrays.fill(bytes, (byte) fill);
+		return bytes;
+	}
+}
@@ -0,0 +1,107 @@
+package com.authenticity.taranium_certs.service;
+
+import com.authenticity.taranium_certs.dto.ReconcileReport;
+import com.authenticity.taranium_certs.entity.DocumentHash;
+import com.authenticity.taranium_certs.entity.FolderCatalogEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UploadReconcilerTests {
+
+	private static final String ISSUER = "0xc1d2031248ee563f477d71d58770f60bc24dd61c";
+	private static final Path UPLOAD_DIR;
+
+	static {
+		try {
+			UPLOAD_DIR = Files.createTempDirectory("reconcile-test");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@DynamicPropertySource
+	static void reconcileProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:mem:reconciletest");
+		registry.add("app.upload-dir", UPLOAD_DIR::toString);
+		registry.add("app.reconcile.enabled", () -> "false");
+		registry.add("app.reconcile.batch-size", () -> "2");
+	}
+
+	@Autowired
+	FileStorageService fileStorageService;
+
+	@Autowired
+	CertificateService certificateService;
+
+	@Autowired
+	HashService hashService;
+
+	@Autowired
+	UploadReconciler uploadReconciler;
+
+	@Autowired
+	FolderCatalogService folderCatalogService;
+
+	@Test
+	void reinsertsMissingRowsAndReportsDrift() throws Exception {
+		register("c.pdf", "sertifikat-c", "Wisuda");
+		register("d.pdf", "sertifikat-d", "Wisuda");
+		Files.delete(UPLOAD_DIR.resolve(ISSUER).resolve("Wisuda").resolve("d.pdf"));
+
+		// File yang ada di disk tetapi tidak di database (misalnya setelah restart dengan H2 in-memory)
+		Path folder = Files.createDirectories(UPLOAD_DIR.resolve(ISSUER).resolve("Arsip"));
+		Files.writeString(folder.resolve("a.pdf"), "sertifikat-a");
+		Files.writeString(folder.resolve("b.pdf"), "sertifikat-b");
+		Files.writeString(folder.resolve("salinan-c.pdf"), "sertifikat-c");
+		Files.writeString(folder.resolve(".upload-1.tmp"), "setengah");
+
+		ReconcileReport report = uploadReconciler.reconcile();
+
+		assertEquals("COMPLETED", report.getStatus());
+		assertEquals(4, report.getFilesScanned());
+		assertEquals(1, report.getFilesMatchedByPath());
+		assertEquals(3, report.getFilesHashed());
+		assertEquals(2, report.getRowsInserted());
+		assertEquals(1, report.getDuplicateFiles());
+		assertEquals(ISSUER + "/Arsip/salinan-c.pdf", report.getDuplicateSamples().get(0).replace('\\', '/'));
+		assertEquals(1, report.getRowsWithoutFiles());
+		assertEquals(0, report.getErrors());
+		assertTrue(certificateService.isRegistered(hash("sertifikat-a")));
+		assertTrue(certificateService.isRegistered(hash("sertifikat-b")));
+		// Baris yang dipulihkan ikut tercatat di katalog folder tanpa rebuild
+		FolderCatalogEntry arsip = folderCatalogService.getFolders(ISSUER).get(0);
+		assertEquals("Arsip", arsip.getFolderName());
+		assertEquals(2, arsip.getCertificateCount());
+		assertEquals(2 * "sertifikat-a".length(), arsip.getTotalBytes());
+
+		// Rekonsiliasi kedua tidak perlu meng-hash file yang sudah tercatat
+		ReconcileReport second = uploadReconciler.reconcile();
+		assertEquals(0, second.getRowsInserted());
+		assertEquals(3, second.getFilesMatchedByPath());
+		assertEquals(1, second.getFilesHashed());
+		assertEquals(2, folderCatalogService.getFolders(ISSUER).get(0).getCertificateCount());
+	}
+
+	private void register(String fileName, String content, String folder) throws Exception {
+		try (StagedFile staged = fileStorageService.stageFile(
+				new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), fileName, ISSUER, folder)) {
+			certificateService.registerCertificate(staged, folder, ISSUER);
+		}
+	}
+
+	private DocumentHash hash(String content) throws Exception {
+		return hashService.calculateSha256Hash(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+}
@@ -0,0 +1,80 @@
+package com.authenticity.taranium_certs.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Server JSON-RPC lokal untuk pengujian: setiap method dijawab oleh handler yang didaftarkan test,
+ * mendukung request tunggal maupun batch.
+ */
+public class StubJsonRpcServer implements AutoCloseable {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Map<String, Function<JsonNode, Object>> handlers = new ConcurrentHashMap<>();
+	private final AtomicInteger httpRequests = new AtomicInteger();
+	private final HttpServer server;
+
+	public StubJsonRpcServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			httpRequests.incrementAndGet();
+			JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+			JsonNode response;
+			if (request.isArray()) {
+				ArrayNode responses = objectMapper.createArrayNode();
+				request.forEach(call -> responses.add(handle(call)));
+				response = responses;
+			} else {
+				response = handle(request);
+			}
+			byte[] body = objectMapper.writeValueAsBytes(response);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+	}
+
+	public String url() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	public void on(String method, Function<JsonNode, Object> handler) {
+		handlers.put(method, handler);
+	}
+
+	public int httpRequests() {
+		return httpRequests.get();
+	}
+
+	private ObjectNode handle(JsonNode call) {
+		ObjectNode response = objectMapper.createObjectNode();
+		response.put("jsonrpc", "2.0");
+		response.set("id", call.get("id"));
+		Function<JsonNode, Object> handler = handlers.get(call.path("method").asText());
+		if (handler == null) {
+			response.putObject("error").put("code", -32601).put("message", "method not found");
+		} else {
+			response.set("result", objectMapper.valueToTree(handler.apply(call.path("params"))));
+		}
+		return response;
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
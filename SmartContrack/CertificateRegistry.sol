@@ -33,6 +33,19 @@ contract CertificateRegistry {
         uint256 timestamp             // Waktu pendaftaran
     );
 
+    // Mapping root pohon Merkle (batch sertifikat) yang sudah di-anchor.
+    // Key: bytes32 (root SHA-256 pohon Merkle RFC 6962 yang dibangun backend)
+    // Value: CertificateInfo dengan metadataURI kosong
+    mapping(bytes32 => CertificateInfo) public anchoredRoots;
+
+    // Event yang dipancarkan setiap kali root batch sertifikat di-anchor.
+    event MerkleRootAnchored(
+        bytes32 indexed root,   // Root pohon Merkle batch
+        address indexed issuer, // Alamat penerbit
+        uint256 leafCount,      // Jumlah sertifikat di dalam batch
+        uint256 timestamp       // Waktu anchoring
+    );
+
     /**
      * @dev Fungsi untuk mendaftarkan hash dokumen baru ke blockchain.
      * Fungsi ini harus dipanggil oleh institusi/penerbit sertifikat.
@@ -83,4 +96,69 @@ contract CertificateRegistry {
         // jika ingin ada error eksplisit saat hash tidak ditemukan.
         return (info.issuer, info.timestamp, info.metadataURI);
     }
+
+    /**
+     * @dev Meng-anchor root pohon Merkle dari satu batch sertifikat dengan satu transaksi,
+     * menggantikan satu transaksi registerDocument per hash.
+     * @param _root Root pohon Merkle yang dikembalikan backend (POST /api/merkle/batches).
+     * @param _leafCount Jumlah sertifikat di dalam batch.
+     */
+    function anchorRoot(bytes32 _root, uint256 _leafCount) public {
+        require(anchoredRoots[_root].issuer == address(0), "Merkle root already anchored.");
+        anchoredRoots[_root] = CertificateInfo(msg.sender, block.timestamp, "");
+        emit MerkleRootAnchored(_root, msg.sender, _leafCount, block.timestamp);
+    }
+
+    /**
+     * @dev Memeriksa apakah root batch sudah di-anchor.
+     * @param _root Root pohon Merkle.
+     * @return bool True jika root sudah di-anchor.
+     */
+    function isRootAnchored(bytes32 _root) public view returns (bool) {
+        return anchoredRoots[_root].issuer != address(0);
+    }
+
+    /**
+     * @dev Memverifikasi bukti inklusi (RFC 9162 bagian 2.1.3.2) sebuah hash dokumen terhadap root yang sudah di-anchor.
+     * Hash daun = sha256(0x00 || documentHash), hash node = sha256(0x01 || kiri || kanan).
+     * @param _documentHash Hash SHA-256 dokumen.
+     * @param _index Indeks daun (leafIndex dari GET /api/certificates/{hash}/proof).
+     * @param _treeSize Jumlah daun di pohon.
+     * @param _proof Hash saudara dari bawah ke atas.
+     * @param _root Root pohon Merkle.
+     * @return bool True jika bukti valid dan root sudah di-anchor.
+     */
+    function verifyInclusion(
+        bytes32 _documentHash,
+        uint256 _index,
+        uint256 _treeSize,
+        bytes32[] calldata _proof,
+        bytes32 _root
+    ) public view returns (bool) {
+        if (anchoredRoots[_root].issuer == address(0) || _index >= _treeSize) {
+            return false;
+        }
+        uint256 fn = _index;
+        uint256 sn = _treeSize - 1;
+        bytes32 r = sha256(abi.encodePacked(bytes1(0x00), _documentHash));
+        for (uint256 i = 0; i < _proof.length; i++) {
+            if (sn == 0) {
+                return false;
+            }
+            if (fn & 1 == 1 || fn == sn) {
+                r = sha256(abi.encodePacked(bytes1(0x01), _proof[i], r));
+                if (fn & 1 == 0) {
+                    while (fn & 1 == 0 && fn != 0) {
+                        fn >>= 1;
+                        sn >>= 1;
+                    }
+                }
+            } else {
+                r = sha256(abi.encodePacked(bytes1(0x01), r, _proof[i]));
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && r == _root;
+    }
 }